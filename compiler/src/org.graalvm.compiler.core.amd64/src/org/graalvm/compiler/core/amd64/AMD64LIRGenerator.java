@@ -57,7 +57,9 @@ import org.graalvm.compiler.lir.SwitchStrategy;
 import org.graalvm.compiler.lir.Variable;
 import org.graalvm.compiler.lir.amd64.AMD64AddressValue;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayCompareToOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayEqualsOp;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayFillOp;
 import org.graalvm.compiler.lir.amd64.AMD64BinaryConsumer;
 import org.graalvm.compiler.lir.amd64.AMD64ByteSwapOp;
 import org.graalvm.compiler.lir.amd64.AMD64Call;
@@ -74,6 +76,9 @@ import org.graalvm.compiler.lir.amd64.AMD64Move.MembarOp;
 import org.graalvm.compiler.lir.amd64.AMD64Move.StackLeaOp;
 import org.graalvm.compiler.lir.amd64.AMD64PauseOp;
 import org.graalvm.compiler.lir.amd64.AMD64StringIndexOfOp;
+import org.graalvm.compiler.lir.amd64.AMD64StringLatin1InflateOp;
+import org.graalvm.compiler.lir.amd64.AMD64StringUTF16CompressOp;
+import org.graalvm.compiler.lir.amd64.AMD64VectorizedMismatchOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapRegistersOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapStackOp;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
@@ -447,6 +452,37 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Variable emitArrayCompareTo(JavaKind kind1, JavaKind kind2, Value array1, Value array2, Value length1, Value length2) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64ArrayCompareToOp(this, kind1, kind2, result, asAllocatable(array1), asAllocatable(array2), asAllocatable(length1), asAllocatable(length2)));
+        return result;
+    }
+
+    @Override
+    public void emitStringLatin1Inflate(Value src, Value dst, Value length) {
+        append(new AMD64StringLatin1InflateOp(this, asAllocatable(src), asAllocatable(dst), asAllocatable(length)));
+    }
+
+    @Override
+    public Variable emitStringUTF16Compress(Value src, Value dst, Value length) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64StringUTF16CompressOp(this, result, asAllocatable(src), asAllocatable(dst), asAllocatable(length)));
+        return result;
+    }
+
+    @Override
+    public void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value length, Value value) {
+        append(new AMD64ArrayFillOp(this, kind, asAllocatable(array), asAllocatable(fromIndex), asAllocatable(length), asAllocatable(value)));
+    }
+
+    @Override
+    public Variable emitVectorizedMismatch(Value base1, Value offset1, Value base2, Value offset2, Value length) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.QWORD));
+        append(new AMD64VectorizedMismatchOp(this, result, asAllocatable(base1), asAllocatable(offset1), asAllocatable(base2), asAllocatable(offset2), asAllocatable(length)));
+        return result;
+    }
+
     /**
      * Return a conservative estimate of the page size for use by the String.indexOf intrinsic.
      */
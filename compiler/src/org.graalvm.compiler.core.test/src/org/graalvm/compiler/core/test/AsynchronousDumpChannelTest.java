@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.test.AddExports;
+import org.junit.Assert;
+import org.junit.Test;
+
+@AddExports("jdk.internal.vm.compiler/org.graalvm.compiler.printer")
+public class AsynchronousDumpChannelTest {
+
+    private static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    private static WritableByteChannel createAsynchronousChannel(WritableByteChannel channel) throws Exception {
+        Constructor<?> constructor = Class.forName("org.graalvm.compiler.printer.AsynchronousDumpChannel").getDeclaredConstructor(WritableByteChannel.class);
+        constructor.setAccessible(true);
+        return (WritableByteChannel) constructor.newInstance(channel);
+    }
+
+    /**
+     * A channel whose writes wait until it is opened.
+     */
+    private static final class GatedChannel implements WritableByteChannel {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch gate = new CountDownLatch(1);
+        private final WritableByteChannel channel = Channels.newChannel(out);
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return channel.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class FailingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            throw new IOException("write failed");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed + i);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testCloseDrainsInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = createAsynchronousChannel(Channels.newChannel(out));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            byte[] chunk = bytes(1 + i % 100, i);
+            channel.write(ByteBuffer.wrap(chunk));
+            expected.write(chunk);
+        }
+        channel.close();
+        Assert.assertFalse(channel.isOpen());
+        Assert.assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void testErrorReportedOnWrite() throws Exception {
+        WritableByteChannel channel = createAsynchronousChannel(new FailingChannel());
+        channel.write(ByteBuffer.wrap(bytes(10, 0)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        IOException error = null;
+        while (error == null && System.nanoTime() < deadline) {
+            try {
+                channel.write(ByteBuffer.wrap(bytes(10, 0)));
+                Thread.sleep(1);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        Assert.assertNotNull("background write error was not reported", error);
+        Assert.assertEquals("write failed", error.getCause().getMessage());
+    }
+
+    @Test
+    public void testErrorReportedOnClose() throws Exception {
+        WritableByteChannel channel = createAsynchronousChannel(new FailingChannel());
+        channel.write(ByteBuffer.wrap(bytes(10, 0)));
+        try {
+            channel.close();
+            Assert.fail("background write error was not reported");
+        } catch (IOException e) {
+            Assert.assertEquals("write failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testWriterBlocksAtLimit() throws Exception {
+        GatedChannel gated = new GatedChannel();
+        WritableByteChannel channel = createAsynchronousChannel(gated);
+        byte[] first = bytes(MAX_PENDING_BYTES, 0);
+        byte[] second = bytes(1, 42);
+        channel.write(ByteBuffer.wrap(first));
+
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                channel.write(ByteBuffer.wrap(second));
+                written.countDown();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+        // the limit is reached, the second write waits for the first one
+        Assert.assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+
+        gated.gate.countDown();
+        Assert.assertTrue(written.await(10, TimeUnit.SECONDS));
+        writer.join();
+        channel.close();
+        byte[] expected = Arrays.copyOf(first, first.length + 1);
+        expected[first.length] = second[0];
+        Assert.assertArrayEquals(expected, gated.out.toByteArray());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.Collections;
+
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.printer.BinaryGraphPrinter;
+import org.graalvm.compiler.test.AddExports;
+import org.junit.Assert;
+import org.junit.Test;
+
+@AddExports("jdk.internal.vm.compiler/org.graalvm.compiler.printer")
+public class BinaryGraphPrinterTest extends GraalCompilerTest {
+
+    public static int snippet(int a, int b) {
+        return a + b;
+    }
+
+    @Test
+    public void testSkipUnchanged() throws Exception {
+        OptionValues options = new OptionValues(getInitialOptions(), DebugOptions.PrintGraphSkipUnchanged, true);
+        StructuredGraph graph = parseEager("snippet", AllowAssumptions.YES, options);
+        DebugContext debug = graph.getDebug();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryGraphPrinter printer = new BinaryGraphPrinter(Channels.newChannel(out), getSnippetReflection());
+
+        printer.print(debug, graph, Collections.emptyMap(), 1, "first");
+        int size = out.size();
+        Assert.assertTrue(size > 0);
+
+        printer.print(debug, graph, Collections.emptyMap(), 2, "unchanged");
+        Assert.assertEquals("unchanged graph was dumped", size, out.size());
+
+        ConstantNode.forInt(42, graph);
+        printer.print(debug, graph, Collections.emptyMap(), 3, "changed");
+        Assert.assertTrue("changed graph was not dumped", out.size() > size);
+        printer.close();
+    }
+}
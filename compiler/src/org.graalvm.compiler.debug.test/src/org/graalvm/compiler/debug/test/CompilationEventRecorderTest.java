@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.graalvm.compiler.debug.CompilationEventRecorder;
+import org.graalvm.compiler.debug.CompilationEventRecorder.Event;
+import org.graalvm.compiler.debug.CompilationEventRecorder.Kind;
+import org.junit.Test;
+
+public class CompilationEventRecorderTest {
+
+    @Test
+    public void testOverwriteOldest() {
+        CompilationEventRecorder recorder = new CompilationEventRecorder(4);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(Kind.QUEUED, "target" + i, i, null);
+        }
+        assertEquals(10, recorder.getRecordedCount());
+        List<Event> events = recorder.getEvents();
+        assertEquals(4, events.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("target" + (i + 6), events.get(i).getName());
+            assertEquals(i + 6, events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    public void testDump() throws IOException {
+        CompilationEventRecorder recorder = new CompilationEventRecorder(8);
+        recorder.record(Kind.STARTED, "foo", 12, null);
+        recorder.record(Kind.SUCCEEDED, "foo", 512, null);
+        recorder.record(Kind.INVALIDATED, "foo", 0, "Node replaced");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, recorder.dump(out));
+        List<Event> events = CompilationEventRecorder.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, events.size());
+        assertEquals(Kind.STARTED, events.get(0).getKind());
+        assertEquals(12, events.get(0).getSize());
+        assertNull(events.get(0).getReason());
+        assertEquals(Kind.SUCCEEDED, events.get(1).getKind());
+        assertEquals(512, events.get(1).getSize());
+        assertEquals(Kind.INVALIDATED, events.get(2).getKind());
+        assertEquals("Node replaced", events.get(2).getReason());
+        assertEquals(recorder.getEvents().get(2).getTimestamp(), events.get(2).getTimestamp());
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        CompilationEventRecorder recorder = new CompilationEventRecorder(1);
+        recorder.record(Kind.QUEUED, "before", 0, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.streamTo(out);
+        recorder.record(Kind.QUEUED, "bar", 3, null);
+        recorder.record(Kind.FAILED, "bar", 0, "bailout");
+        recorder.close();
+        recorder.record(Kind.QUEUED, "after", 0, null);
+
+        List<Event> events = CompilationEventRecorder.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2, events.size());
+        assertEquals("bar", events.get(0).getName());
+        assertEquals(Kind.FAILED, events.get(1).getKind());
+        assertEquals("bailout", events.get(1).getReason());
+        assertEquals(1, recorder.getEvents().size());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.debug.ConcurrentHistogram;
+import org.junit.Test;
+
+public class ConcurrentHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getSum());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentileError() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100_000_000, histogram.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double expected = percentile * 1_000_000;
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(percentile + "th percentile " + actual + " is too small", actual >= expected);
+            assertTrue(percentile + "th percentile " + actual + " is too large", actual <= expected * 1.25);
+        }
+        assertEquals(histogram.getMax(), histogram.getPercentile(100));
+        assertEquals(Long.MAX_VALUE, recordOne(Long.MAX_VALUE).getPercentile(50));
+        assertEquals(0, recordOne(-5).getPercentile(50));
+    }
+
+    private static ConcurrentHistogram recordOne(long value) {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        histogram.record(value);
+        return histogram;
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(4L * (9_999L * 10_000L / 2), histogram.getSum());
+        assertEquals(9_999, histogram.getMax());
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring buffer of compilation events that is cheap enough to stay enabled in production.
+ * Recording an event allocates a small immutable {@link Event} and publishes it into a slot of the
+ * buffer, overwriting the oldest event once the buffer is full. The buffer can be
+ * {@linkplain #dump(OutputStream) dumped} on demand and every event can additionally be
+ * {@linkplain #streamTo(OutputStream) streamed} as it is recorded.
+ *
+ * Both use the same binary format: a header consisting of {@link #MAGIC}, {@link #VERSION}, the
+ * wall clock time in milliseconds and the {@link System#nanoTime()} at the time the header was
+ * written, followed by the events. Each event is written as the ordinal of its {@link Kind}, its
+ * sequence number, its {@link System#nanoTime()} timestamp, its size, its name and its optional
+ * reason. {@link #read(InputStream)} reads the events back.
+ */
+public final class CompilationEventRecorder {
+
+    public static final int MAGIC = 0x47434556;
+    public static final int VERSION = 1;
+
+    /**
+     * Maximum number of characters written for names and reasons.
+     */
+    private static final int MAX_STRING_LENGTH = 4096;
+
+    public enum Kind {
+        QUEUED,
+        DEQUEUED,
+        STARTED,
+        SUCCEEDED,
+        FAILED,
+        INVALIDATED,
+        DEOPTIMIZED
+    }
+
+    public static final class Event {
+        private final Kind kind;
+        private final long sequence;
+        private final long timestamp;
+        private final int size;
+        private final String name;
+        private final String reason;
+
+        Event(Kind kind, long sequence, long timestamp, int size, String name, String reason) {
+            this.kind = kind;
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.size = size;
+            this.name = name;
+            this.reason = reason;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Gets the position of this event in the sequence of all events recorded by a recorder.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the {@link System#nanoTime()} at which this event was recorded.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Gets a size associated with this event, e.g., the number of AST nodes or the code size,
+         * or {@code 0} if there is none.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the reason for this event or {@code null} if there is none.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name + (size != 0 ? " size=" + size : "") + (reason != null ? " reason=" + reason : "");
+        }
+    }
+
+    private static volatile CompilationEventRecorder installed;
+
+    private final AtomicReferenceArray<Event> events;
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile DataOutputStream stream;
+
+    public CompilationEventRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.events = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Gets the recorder made available to management tools by {@link #install}, or {@code null}
+     * if there is none.
+     */
+    public static CompilationEventRecorder getInstalled() {
+        return installed;
+    }
+
+    public static void install(CompilationEventRecorder recorder) {
+        installed = recorder;
+    }
+
+    public int getCapacity() {
+        return events.length();
+    }
+
+    /**
+     * Gets the total number of events recorded, including the events that were overwritten.
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param size a size associated with the event or {@code 0}
+     * @param reason the reason for the event or {@code null}
+     */
+    public void record(Kind kind, String name, int size, CharSequence reason) {
+        long sequence = recorded.getAndIncrement();
+        Event event = new Event(kind, sequence, System.nanoTime(), size, name, reason == null ? null : reason.toString());
+        events.set((int) (sequence % events.length()), event);
+        if (stream != null) {
+            writeStreamed(event);
+        }
+    }
+
+    /**
+     * Gets the events currently in the buffer, ordered from the oldest to the most recent.
+     */
+    public List<Event> getEvents() {
+        List<Event> result = new ArrayList<>(events.length());
+        for (int i = 0; i < events.length(); i++) {
+            Event event = events.get(i);
+            if (event != null) {
+                result.add(event);
+            }
+        }
+        Collections.sort(result, Comparator.comparingLong(Event::getSequence));
+        return result;
+    }
+
+    /**
+     * Writes the events currently in the buffer to {@code out} in the binary format described
+     * {@linkplain CompilationEventRecorder above}.
+     *
+     * @return the number of events written
+     */
+    public int dump(OutputStream out) throws IOException {
+        List<Event> snapshot = getEvents();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        writeHeader(data);
+        for (Event event : snapshot) {
+            writeEvent(data, event);
+        }
+        data.flush();
+        return snapshot.size();
+    }
+
+    /**
+     * Writes all subsequently recorded events to {@code out} until the recorder is
+     * {@linkplain #close() closed}.
+     */
+    public synchronized void streamTo(OutputStream out) throws IOException {
+        close();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        writeHeader(data);
+        stream = data;
+    }
+
+    /**
+     * Flushes and closes the stream set by {@link #streamTo}, if any.
+     */
+    public synchronized void close() throws IOException {
+        DataOutputStream data = stream;
+        if (data != null) {
+            stream = null;
+            data.close();
+        }
+    }
+
+    private synchronized void writeStreamed(Event event) {
+        DataOutputStream data = stream;
+        if (data != null) {
+            try {
+                writeEvent(data, event);
+            } catch (IOException e) {
+                // stop streaming but keep recording into the buffer
+                stream = null;
+                TTY.println("Error streaming compilation events: " + e);
+            }
+        }
+    }
+
+    private static void writeHeader(DataOutputStream data) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(System.currentTimeMillis());
+        data.writeLong(System.nanoTime());
+    }
+
+    private static void writeEvent(DataOutputStream data, Event event) throws IOException {
+        data.writeByte(event.kind.ordinal());
+        data.writeLong(event.sequence);
+        data.writeLong(event.timestamp);
+        data.writeInt(event.size);
+        data.writeUTF(truncate(String.valueOf(event.name)));
+        data.writeBoolean(event.reason != null);
+        if (event.reason != null) {
+            data.writeUTF(truncate(event.reason));
+        }
+    }
+
+    private static String truncate(String s) {
+        return s.length() > MAX_STRING_LENGTH ? s.substring(0, MAX_STRING_LENGTH) : s;
+    }
+
+    /**
+     * Reads events written by {@link #dump} or {@link #streamTo}. A truncated last event, e.g., of
+     * a stream that was not closed, is ignored.
+     */
+    public static List<Event> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a compilation event log");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compilation event log version " + version);
+        }
+        data.readLong();
+        data.readLong();
+        Kind[] kinds = Kind.values();
+        List<Event> result = new ArrayList<>();
+        while (true) {
+            int kind = data.read();
+            if (kind < 0) {
+                return result;
+            }
+            try {
+                long sequence = data.readLong();
+                long timestamp = data.readLong();
+                int size = data.readInt();
+                String name = data.readUTF();
+                String reason = data.readBoolean() ? data.readUTF() : null;
+                result.add(new Event(kinds[kind], sequence, timestamp, size, name, reason));
+            } catch (EOFException e) {
+                return result;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative {@code long} values that can be updated concurrently without
+ * locking. Values are recorded into log-linear buckets: values below {@link #LINEAR_BUCKETS} have a
+ * bucket of their own and every power of two above that is split into {@link #SUB_BUCKETS} equally
+ * sized buckets. {@linkplain #getPercentile(double) Percentiles} are therefore reported with a
+ * relative error of at most {@code 1 / SUB_BUCKETS} while the histogram has a fixed size of
+ * {@link #BUCKET_COUNT} counters regardless of the range of recorded values.
+ */
+public final class ConcurrentHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BITS = SUB_BUCKET_BITS + 2;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    static final int BUCKET_COUNT = LINEAR_BUCKETS + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records {@code value} in this histogram. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        buckets.incrementAndGet(bucketIndex(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest value that is recorded in the bucket at {@code index}.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = ((long) (SUB_BUCKETS + subBucket)) << shift;
+        return lowerBound + ((1L << shift) - 1);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets an upper bound for the value below which {@code percentile} percent of the recorded
+     * values fall. The result never exceeds {@link #getMax()}.
+     *
+     * @param percentile a value between 0 and 100
+     * @return 0 if no values were recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * (percentile / 100)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all values recorded in this histogram. Values recorded concurrently with this call
+     * may be partially retained.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
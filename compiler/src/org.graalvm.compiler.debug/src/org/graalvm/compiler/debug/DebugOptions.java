@@ -130,6 +130,12 @@ public class DebugOptions {
     public static final OptionKey<Boolean> PrintBinaryGraphs = new OptionKey<>(true);
     @Option(help = "Print graphs to files instead of sending them over the network.", type = OptionType.Debug)
     public static final OptionKey<Boolean> PrintGraphFile = new OptionKey<>(false);
+    @Option(help = "Compress binary graph files with gzip (ignored if PrintBinaryGraphs=false).", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphFileCompressed = new OptionKey<>(false);
+    @Option(help = "Write dumped graphs on a background thread so that dumping does not block compilation on I/O (ignored if PrintBinaryGraphs=false).", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphAsync = new OptionKey<>(false);
+    @Option(help = "Do not dump a graph again if it did not change since it was last dumped (ignored if PrintBinaryGraphs=false).", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphSkipUnchanged = new OptionKey<>(false);
 
     @Option(help = "Host part of the address to which graphs are dumped.", type = OptionType.Debug)
     public static final OptionKey<String> PrintGraphHost = new OptionKey<>("127.0.0.1");
@@ -159,6 +165,10 @@ public class DebugOptions {
     @Option(help = "Attempts to remove object identity hashes when dumping canonical text for graphs.", type = OptionType.Debug)
     public static final OptionKey<Boolean> CanonicalGraphStringsRemoveIdentities = new OptionKey<>(true);
 
+    @Option(help = "Record per-phase time and allocation histograms that can be read through the compiler management bean. " +
+                   "Unlike the Time, Count and TrackMemUse options this is cheap enough for production use.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TrackPhaseMetrics = new OptionKey<>(false);
+
     @Option(help = "Clear the debug metrics after bootstrap.", type = OptionType.Debug)
     public static final OptionKey<Boolean> ClearMetricsAfterBootstrap = new OptionKey<>(false);
     @Option(help = "Do not compile anything on bootstrap but just initialize the compiler.", type = OptionType.Debug)
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.compiler.options.OptionValues;
+
+/**
+ * Per-phase time and allocation histograms that, unlike {@link TimerKey} and
+ * {@link MemUseTrackerKey}, do not depend on a {@link DebugContext} and are cheap enough to be
+ * {@linkplain DebugOptions#TrackPhaseMetrics enabled} on production systems. The histograms are
+ * global for the VM and can be read at any time, e.g. through a management bean.
+ */
+public final class PhaseMetrics {
+
+    private static final ConcurrentHashMap<String, PhaseMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final ConcurrentHistogram time = new ConcurrentHistogram();
+    private final ConcurrentHistogram allocatedBytes = new ConcurrentHistogram();
+
+    private PhaseMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the metrics for the phase named {@code name}, creating them if necessary.
+     */
+    public static PhaseMetrics get(String name) {
+        return metrics.computeIfAbsent(name, PhaseMetrics::new);
+    }
+
+    /**
+     * Gets the metrics of all phases that have been {@linkplain #get(String) requested} so far,
+     * sorted by name.
+     */
+    public static List<PhaseMetrics> getAll() {
+        List<PhaseMetrics> result = new ArrayList<>(metrics.values());
+        Collections.sort(result, Comparator.comparing(PhaseMetrics::getName));
+        return result;
+    }
+
+    /**
+     * Clears the values recorded for all phases.
+     */
+    public static void resetAll() {
+        for (PhaseMetrics m : metrics.values()) {
+            m.time.reset();
+            m.allocatedBytes.reset();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the histogram of the time spent in this phase in nanoseconds.
+     */
+    public ConcurrentHistogram getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the histogram of the bytes allocated by this phase.
+     */
+    public ConcurrentHistogram getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Starts measuring an execution of this phase if {@link DebugOptions#TrackPhaseMetrics} is
+     * enabled. The measurement is recorded when the returned object is closed.
+     */
+    public DebugCloseable start(OptionValues options) {
+        if (!DebugOptions.TrackPhaseMetrics.getValue(options)) {
+            return DebugCloseable.VOID_CLOSEABLE;
+        }
+        return new Measurement(this);
+    }
+
+    private static final class Measurement implements DebugCloseable {
+        private final PhaseMetrics metrics;
+        private final long startTime;
+        private final long startAllocatedBytes;
+
+        Measurement(PhaseMetrics metrics) {
+            this.metrics = metrics;
+            this.startAllocatedBytes = Management.getCurrentThreadAllocatedBytes();
+            this.startTime = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startTime;
+            long allocated = Management.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+            metrics.time.record(elapsed);
+            metrics.allocatedBytes.record(allocated);
+        }
+    }
+}
@@ -22,13 +22,21 @@
  */
 package org.graalvm.compiler.hotspot.amd64;
 
+import java.util.ListIterator;
+
 import org.graalvm.compiler.core.amd64.AMD64SuitesCreator;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.hotspot.lir.HotSpotZapRegistersPhase;
 import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.graalvm.compiler.replacements.ArrayFillLoopPhase;
 
 public class AMD64HotSpotSuitesCreator extends AMD64SuitesCreator {
 
@@ -36,6 +44,17 @@ public class AMD64HotSpotSuitesCreator extends AMD64SuitesCreator {
         super(compilerConfiguration, plugins);
     }
 
+    @Override
+    public Suites createSuites(OptionValues options) {
+        Suites suites = super.createSuites(options);
+        if (ArrayFillLoopPhase.Options.OptArrayFillLoops.getValue(options)) {
+            ListIterator<BasePhase<? super HighTierContext>> highTierLowering = suites.getHighTier().findPhase(LoweringPhase.class);
+            highTierLowering.previous();
+            highTierLowering.add(new ArrayFillLoopPhase(new CanonicalizerPhase()));
+        }
+        return suites;
+    }
+
     @Override
     public LIRSuites createLIRSuites(OptionValues options) {
         LIRSuites lirSuites = super.createLIRSuites(options);
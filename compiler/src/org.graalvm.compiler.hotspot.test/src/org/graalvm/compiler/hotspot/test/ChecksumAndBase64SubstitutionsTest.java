@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.Adler32;
+import java.util.zip.Checksum;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Adler32}, {@code java.util.zip.CRC32C} and the block coding
+ * methods of {@link Base64}.
+ */
+public class ChecksumAndBase64SubstitutionsTest extends GraalCompilerTest {
+
+    private static byte[] readClassfile() throws Throwable {
+        String classfileName = ChecksumAndBase64SubstitutionsTest.class.getSimpleName().replace('.', '/') + ".class";
+        InputStream s = ChecksumAndBase64SubstitutionsTest.class.getResourceAsStream(classfileName);
+        byte[] buf = new byte[s.available()];
+        new DataInputStream(s).readFully(buf);
+        return buf;
+    }
+
+    public static long adler32UpdateBytes(byte[] input, int offset, int length) {
+        Adler32 adler = new Adler32();
+        adler.update(input, offset, length);
+        return adler.getValue();
+    }
+
+    public static long adler32UpdateByteBuffer(ByteBuffer buffer) {
+        Adler32 adler = new Adler32();
+        buffer.rewind();
+        adler.update(buffer);
+        return adler.getValue();
+    }
+
+    @Test
+    public void testAdler32() throws Throwable {
+        byte[] buf = readClassfile();
+        for (int offset = 0; offset < buf.length; offset += 7) {
+            test("adler32UpdateBytes", buf, offset, buf.length - offset);
+        }
+        ByteBuffer directBuf = ByteBuffer.allocateDirect(buf.length);
+        directBuf.put(buf);
+        test("adler32UpdateByteBuffer", directBuf);
+        test("adler32UpdateByteBuffer", ByteBuffer.wrap(buf));
+    }
+
+    public static long crc32cUpdateBytes(Checksum crc, byte[] input, int offset, int length) {
+        crc.reset();
+        crc.update(input, offset, length);
+        return crc.getValue();
+    }
+
+    @Test
+    public void testCRC32C() throws Throwable {
+        Assume.assumeFalse(Java8OrEarlier);
+        Checksum crc = (Checksum) Class.forName("java.util.zip.CRC32C").newInstance();
+        byte[] buf = readClassfile();
+        for (int offset = 0; offset < buf.length; offset += 7) {
+            test("crc32cUpdateBytes", crc, buf, offset, buf.length - offset);
+        }
+    }
+
+    public static String encode(byte[] input) {
+        return Base64.getEncoder().encodeToString(input);
+    }
+
+    public static String encodeURL(byte[] input) {
+        return Base64.getUrlEncoder().encodeToString(input);
+    }
+
+    public static byte[] decode(String input) {
+        return Base64.getDecoder().decode(input);
+    }
+
+    public static byte[] decodeMime(String input) {
+        return Base64.getMimeDecoder().decode(input);
+    }
+
+    @Test
+    public void testBase64() throws Throwable {
+        byte[] buf = readClassfile();
+        for (int length : new int[]{0, 1, 2, 3, 47, 48, 49, 95, 96, 97, buf.length}) {
+            byte[] input = new byte[length];
+            System.arraycopy(buf, 0, input, 0, length);
+            test("encode", input);
+            test("encodeURL", input);
+            test("decode", Base64.getEncoder().encodeToString(input));
+            test("decodeMime", Base64.getMimeEncoder().encodeToString(input));
+        }
+    }
+}
@@ -28,10 +28,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.AlgorithmParameters;
 import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -58,6 +61,14 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
     byte[] input;
     ByteArrayOutputStream aesExpected = new ByteArrayOutputStream();
     ByteArrayOutputStream desExpected = new ByteArrayOutputStream();
+    byte[] ctrExpected;
+    byte[] gcmExpected;
+
+    /**
+     * Fixed IV so that the CTR and GCM cipher texts computed before and after installing the
+     * intrinsics can be compared.
+     */
+    private static final byte[] IV = {0x1, 0x2, 0x3, 0x4, 0x5, 0x6, 0x7, 0x8, 0x9, 0xa, 0xb, 0xc, 0xd, 0xe, 0xf, 0x10};
 
     public HotSpotCryptoSubstitutionTest() throws Exception {
         byte[] seed = {0x4, 0x7, 0x1, 0x1};
@@ -75,6 +86,9 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
 
         desExpected.write(runEncryptDecrypt(desKey, "DESede/CBC/NoPadding"));
         desExpected.write(runEncryptDecrypt(desKey, "DESede/CBC/PKCS5Padding"));
+
+        ctrExpected = runEncrypt(aesKey, "AES/CTR/NoPadding", new IvParameterSpec(IV));
+        gcmExpected = runEncrypt(aesKey, "AES/GCM/NoPadding", new GCMParameterSpec(128, IV, 0, 12));
     }
 
     @Test
@@ -102,6 +116,20 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
         }
     }
 
+    @Test
+    public void testCounterModeIntrinsics() throws Exception {
+        if (runtime().getVMConfig().useAESCTRIntrinsics() && compileAndInstall("com.sun.crypto.provider.CounterMode", "implCrypt")) {
+            Assert.assertArrayEquals(ctrExpected, runEncrypt(aesKey, "AES/CTR/NoPadding", new IvParameterSpec(IV)));
+        }
+    }
+
+    @Test
+    public void testGHASHIntrinsics() throws Exception {
+        if (runtime().getVMConfig().useGHASHIntrinsics() && compileAndInstall("com.sun.crypto.provider.GHASH", "processBlocks")) {
+            Assert.assertArrayEquals(gcmExpected, runEncrypt(aesKey, "AES/GCM/NoPadding", new GCMParameterSpec(128, IV, 0, 12)));
+        }
+    }
+
     /**
      * Compiles and installs the substitution for some specified methods. Once installed, the next
      * execution of the methods will use the newly installed code.
@@ -134,11 +162,19 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
     AlgorithmParameters algorithmParameters;
 
     private byte[] encrypt(byte[] indata, SecretKey key, String algorithm) throws Exception {
+        return encrypt(indata, key, algorithm, null);
+    }
+
+    private byte[] encrypt(byte[] indata, SecretKey key, String algorithm, AlgorithmParameterSpec params) throws Exception {
 
         byte[] result = indata;
 
         Cipher c = Cipher.getInstance(algorithm);
-        c.init(Cipher.ENCRYPT_MODE, key);
+        if (params == null) {
+            c.init(Cipher.ENCRYPT_MODE, key);
+        } else {
+            c.init(Cipher.ENCRYPT_MODE, key, params);
+        }
         algorithmParameters = c.getParameters();
 
         byte[] r1 = c.update(result);
@@ -160,6 +196,10 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
 
         byte[] r1 = c.update(result);
         byte[] r2 = c.doFinal();
+        if (r1 == null) {
+            // modes such as GCM decryption buffer all input until doFinal
+            r1 = new byte[0];
+        }
 
         result = new byte[r1.length + r2.length];
         System.arraycopy(r1, 0, result, 0, r1.length);
@@ -184,4 +224,16 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
         Assert.assertArrayEquals(indata, plain);
         return plain;
     }
+
+    /**
+     * Encrypts {@link #input} with fixed parameters, checks that it decrypts back to the input and
+     * returns the cipher text (including the authentication tag for GCM).
+     */
+    public byte[] runEncrypt(SecretKey key, String algorithm, AlgorithmParameterSpec params) throws Exception {
+        byte[] indata = input.clone();
+        byte[] cipher = encrypt(indata, key, algorithm, params);
+        byte[] plain = decrypt(cipher, key, algorithm);
+        Assert.assertArrayEquals(indata, plain);
+        return cipher;
+    }
 }
@@ -23,6 +23,7 @@
 package org.graalvm.compiler.hotspot.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -40,8 +41,12 @@ import javax.management.MBeanOperationInfo;
 import javax.management.MBeanServer;
 import javax.management.ObjectInstance;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
 
+import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.debug.PhaseMetrics;
 import org.graalvm.compiler.hotspot.HotSpotGraalMBean;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.test.GraalTest;
@@ -201,9 +206,12 @@ public class HotSpotGraalMBeanTest {
         assertNotNull("Info is found", info);
 
         final MBeanOperationInfo[] arr = info.getOperations();
-        assertEquals("Currently three overloads", 3, arr.length);
+        assertEquals("Currently three overloads and dumpCompilationEvents", 4, arr.length);
         MBeanOperationInfo dumpOp = null;
         for (int i = 0; i < arr.length; i++) {
+            if ("dumpCompilationEvents".equals(arr[i].getName())) {
+                continue;
+            }
             assertEquals("dumpMethod", arr[i].getName());
             if (arr[i].getSignature().length == 3) {
                 dumpOp = arr[i];
@@ -238,4 +246,48 @@ public class HotSpotGraalMBeanTest {
         assertEquals("Empty string", "", noSpecialValue);
     }
 
+    @Test
+    @SuppressWarnings("try")
+    public void phaseMetrics() throws Exception {
+        ObjectName name;
+
+        assertNotNull("Server is started", ManagementFactory.getPlatformMBeanServer());
+
+        HotSpotGraalMBean realBean = HotSpotGraalMBean.create(null);
+        assertNotNull("Bean is registered", name = realBean.ensureRegistered(false));
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        MBeanInfo info = server.getMBeanInfo(name);
+        MBeanAttributeInfo metricsInfo = null;
+        for (MBeanAttributeInfo attr : info.getAttributes()) {
+            if (attr.getName().equals(HotSpotGraalMBean.PHASE_METRICS)) {
+                metricsInfo = attr;
+            }
+        }
+        assertNotNull("PhaseMetrics found", metricsInfo);
+        assertTrue("Readable", metricsInfo.isReadable());
+        assertFalse("Read-only", metricsInfo.isWritable());
+
+        String phaseName = getClass().getName() + ".Phase";
+        PhaseMetrics metrics = PhaseMetrics.get(phaseName);
+        OptionValues disabled = new OptionValues(EconomicMap.create());
+        OptionValues enabled = new OptionValues(disabled, DebugOptions.TrackPhaseMetrics, true);
+        try (DebugCloseable m = metrics.start(disabled)) {
+            // not recorded
+        }
+        TabularData table = (TabularData) server.getAttribute(name, HotSpotGraalMBean.PHASE_METRICS);
+        assertNull("Phase without executions is not reported", table.get(new Object[]{phaseName}));
+
+        for (int i = 0; i < 3; i++) {
+            try (DebugCloseable m = metrics.start(enabled)) {
+                Thread.sleep(1);
+            }
+        }
+        table = (TabularData) server.getAttribute(name, HotSpotGraalMBean.PHASE_METRICS);
+        CompositeData row = table.get(new Object[]{phaseName});
+        assertNotNull("Phase is reported", row);
+        assertEquals(3L, row.get("count"));
+        assertTrue("At least 3ms in phase", (Long) row.get("timeTotal") >= 3000);
+        assertTrue("Median is at most the maximum", (Long) row.get("timeP50") <= (Long) row.get("timeMax"));
+    }
 }
@@ -166,6 +166,12 @@ public class GraalHotSpotVMConfig extends HotSpotVMConfigAccess {
     public final boolean useAESIntrinsics = getFlag("UseAESIntrinsics", Boolean.class);
     public final boolean useCRC32Intrinsics = getFlag("UseCRC32Intrinsics", Boolean.class);
 
+    private final boolean useCRC32CIntrinsics = getFlag("UseCRC32CIntrinsics", Boolean.class, false);
+    private final boolean useAdler32Intrinsics = getFlag("UseAdler32Intrinsics", Boolean.class, false);
+    private final boolean useBase64Intrinsics = getFlag("UseBase64Intrinsics", Boolean.class, false);
+    private final boolean useAESCTRIntrinsics = getFlag("UseAESCTRIntrinsics", Boolean.class, false);
+    private final boolean useGHASHIntrinsics = getFlag("UseGHASHIntrinsics", Boolean.class, false);
+
     private final boolean useMultiplyToLenIntrinsic = getFlag("UseMultiplyToLenIntrinsic", Boolean.class);
     private final boolean useSHA1Intrinsics = getFlag("UseSHA1Intrinsics", Boolean.class);
     private final boolean useSHA256Intrinsics = getFlag("UseSHA256Intrinsics", Boolean.class);
@@ -211,6 +217,30 @@ public class GraalHotSpotVMConfig extends HotSpotVMConfigAccess {
         return useSquareToLenIntrinsic && squareToLen != 0;
     }
 
+    public boolean useCRC32CIntrinsics() {
+        return useCRC32CIntrinsics && updateBytesCRC32C != 0;
+    }
+
+    public boolean useAdler32Intrinsics() {
+        return useAdler32Intrinsics && updateBytesAdler32 != 0;
+    }
+
+    public boolean useBase64EncodeIntrinsic() {
+        return useBase64Intrinsics && base64EncodeBlock != 0;
+    }
+
+    public boolean useBase64DecodeIntrinsic() {
+        return useBase64Intrinsics && base64DecodeBlock != 0;
+    }
+
+    public boolean useAESCTRIntrinsics() {
+        return useAESCTRIntrinsics && counterModeAESCrypt != 0;
+    }
+
+    public boolean useGHASHIntrinsics() {
+        return useGHASHIntrinsics && ghashProcessBlocks != 0;
+    }
+
     public final boolean useG1GC = getFlag("UseG1GC", Boolean.class);
     public final boolean useCMSGC = getFlag("UseConcMarkSweepGC", Boolean.class);
 
@@ -677,6 +707,8 @@ public class GraalHotSpotVMConfig extends HotSpotVMConfigAccess {
     public final long crc32cTableTddr = getFieldValue("StubRoutines::_crc32c_table_addr", Long.class, "address", 0L);
     public final long updateBytesCRC32C = getFieldValue("StubRoutines::_updateBytesCRC32C", Long.class, "address", 0L);
     public final long updateBytesAdler32 = getFieldValue("StubRoutines::_updateBytesAdler32", Long.class, "address", 0L);
+    public final long base64EncodeBlock = getFieldValue("StubRoutines::_base64_encodeBlock", Long.class, "address", 0L);
+    public final long base64DecodeBlock = getFieldValue("StubRoutines::_base64_decodeBlock", Long.class, "address", 0L);
     public final long squareToLen = getFieldValue("StubRoutines::_squareToLen", Long.class, "address", longRequiredOnAMD64);
     public final long mulAdd = getFieldValue("StubRoutines::_mulAdd", Long.class, "address", longRequiredOnAMD64);
     public final long montgomeryMultiply = getFieldValue("StubRoutines::_montgomeryMultiply", Long.class, "address", longRequiredOnAMD64);
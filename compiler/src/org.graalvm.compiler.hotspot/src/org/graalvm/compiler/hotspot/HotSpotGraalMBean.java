@@ -22,10 +22,16 @@
  */
 package org.graalvm.compiler.hotspot;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -46,6 +52,15 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenMBeanAttributeInfoSupport;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
 import jdk.vm.ci.hotspot.HotSpotCompilationRequest;
 import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
 import jdk.vm.ci.hotspot.HotSpotResolvedJavaType;
@@ -55,7 +70,10 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 import jdk.vm.ci.meta.ResolvedJavaType;
 import jdk.vm.ci.runtime.JVMCI;
 
+import org.graalvm.compiler.debug.CompilationEventRecorder;
+import org.graalvm.compiler.debug.ConcurrentHistogram;
 import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.debug.PhaseMetrics;
 import org.graalvm.compiler.options.OptionDescriptor;
 import org.graalvm.compiler.options.OptionDescriptors;
 import org.graalvm.compiler.options.OptionKey;
@@ -67,6 +85,11 @@ import org.graalvm.util.Equivalence;
 import org.graalvm.util.UnmodifiableEconomicMap;
 
 public final class HotSpotGraalMBean implements DynamicMBean {
+    /**
+     * Name of the read-only attribute exposing {@link #getPhaseMetrics()}.
+     */
+    public static final String PHASE_METRICS = "PhaseMetrics";
+
     private static Object mBeanServerField;
     private final HotSpotGraalCompiler compiler;
     private final OptionValues options;
@@ -178,6 +201,9 @@ public final class HotSpotGraalMBean implements DynamicMBean {
 
     @Override
     public Object getAttribute(String attribute) {
+        if (PHASE_METRICS.equals(attribute)) {
+            return getPhaseMetrics();
+        }
         UnmodifiableEconomicMap<OptionKey<?>, Object> map = currentMap(options, null).getMap();
         for (OptionKey<?> k : map.getKeys()) {
             if (k.getName().equals(attribute)) {
@@ -243,10 +269,100 @@ public final class HotSpotGraalMBean implements DynamicMBean {
             } catch (Exception ex) {
                 throw new ReflectionException(ex);
             }
+        } else if ("dumpCompilationEvents".equals(actionName)) {
+            String fileName;
+            try {
+                fileName = param(params, 0, "fileName", String.class, null);
+            } catch (Exception ex) {
+                throw new ReflectionException(ex);
+            }
+            return dumpCompilationEvents(fileName);
         }
         return null;
     }
 
+    /**
+     * Writes the events of the {@linkplain CompilationEventRecorder#getInstalled() installed}
+     * compilation event recorder to a file.
+     *
+     * @return the number of events written
+     */
+    public int dumpCompilationEvents(String fileName) throws MBeanException {
+        CompilationEventRecorder recorder = CompilationEventRecorder.getInstalled();
+        if (recorder == null) {
+            throw new MBeanException(new IllegalStateException("No compilation event recorder installed"), "No compilation event recorder installed");
+        }
+        try (OutputStream out = Files.newOutputStream(Paths.get(fileName))) {
+            return recorder.dump(out);
+        } catch (IOException ex) {
+            throw new MBeanException(ex, "Cannot dump compilation events to " + fileName);
+        }
+    }
+
+    /**
+     * Gets a snapshot of the {@linkplain PhaseMetrics phase metrics} recorded so far. Times are
+     * reported in microseconds. The table is empty unless {@link DebugOptions#TrackPhaseMetrics}
+     * is enabled.
+     */
+    public static TabularData getPhaseMetrics() {
+        TabularDataSupport table = new TabularDataSupport(PhaseMetricsTypes.TABLE);
+        try {
+            for (PhaseMetrics metrics : PhaseMetrics.getAll()) {
+                ConcurrentHistogram time = metrics.getTime();
+                ConcurrentHistogram allocated = metrics.getAllocatedBytes();
+                if (time.getCount() == 0) {
+                    continue;
+                }
+                Object[] values = {
+                                metrics.getName(),
+                                time.getCount(),
+                                NANOSECONDS.toMicros(time.getSum()),
+                                NANOSECONDS.toMicros(time.getPercentile(50)),
+                                NANOSECONDS.toMicros(time.getPercentile(90)),
+                                NANOSECONDS.toMicros(time.getPercentile(99)),
+                                NANOSECONDS.toMicros(time.getMax()),
+                                allocated.getSum(),
+                                allocated.getPercentile(50),
+                                allocated.getPercentile(99),
+                                allocated.getMax()
+                };
+                table.put(new CompositeDataSupport(PhaseMetricsTypes.ROW, PhaseMetricsTypes.ITEMS, values));
+            }
+        } catch (OpenDataException ex) {
+            throw new InternalError(ex);
+        }
+        return table;
+    }
+
+    private static final class PhaseMetricsTypes {
+        static final String[] ITEMS = {
+                        "phase", "count",
+                        "timeTotal", "timeP50", "timeP90", "timeP99", "timeMax",
+                        "allocatedTotal", "allocatedP50", "allocatedP99", "allocatedMax"
+        };
+        static final String[] DESCRIPTIONS = {
+                        "Name of the phase", "Number of phase executions",
+                        "Total time in phase (us)", "Median time in phase (us)", "90th percentile of time in phase (us)", "99th percentile of time in phase (us)", "Maximum time in phase (us)",
+                        "Total bytes allocated in phase", "Median bytes allocated in phase", "99th percentile of bytes allocated in phase", "Maximum bytes allocated in phase"
+        };
+        static final CompositeType ROW;
+        static final TabularType TABLE;
+
+        static {
+            OpenType<?>[] types = new OpenType<?>[ITEMS.length];
+            types[0] = SimpleType.STRING;
+            for (int i = 1; i < types.length; i++) {
+                types[i] = SimpleType.LONG;
+            }
+            try {
+                ROW = new CompositeType("PhaseMetrics", "Time and allocation metrics of a compiler phase", ITEMS, DESCRIPTIONS, types);
+                TABLE = new TabularType("PhaseMetricsTable", "Time and allocation metrics of compiler phases", ROW, new String[]{"phase"});
+            } catch (OpenDataException ex) {
+                throw new InternalError(ex);
+            }
+        }
+    }
+
     private static <T> T param(Object[] arr, int index, String name, Class<T> type, T defaultValue) {
         Object value = arr.length > index ? arr[index] : null;
         if (value == null || (value instanceof String && ((String) value).isEmpty())) {
@@ -305,6 +421,7 @@ public final class HotSpotGraalMBean implements DynamicMBean {
                 attrs.add(new MBeanAttributeInfo(descr.getName(), descr.getType().getName(), descr.getHelp(), true, true, false));
             }
         }
+        attrs.add(new OpenMBeanAttributeInfoSupport(PHASE_METRICS, "Time and allocation metrics of compiler phases (see TrackPhaseMetrics option)", PhaseMetricsTypes.TABLE, true, false, false));
         MBeanOperationInfo[] ops = {
                         new MBeanOperationInfo("dumpMethod", "Enable IGV dumps for provided method", new MBeanParameterInfo[]{
                                         new MBeanParameterInfo("className", "java.lang.String", "Class to observe"),
@@ -321,7 +438,10 @@ public final class HotSpotGraalMBean implements DynamicMBean {
                                         new MBeanParameterInfo("filter", "java.lang.String", "The parameter for Dump option"),
                                         new MBeanParameterInfo("host", "java.lang.String", "The host where the IGV tool is running at"),
                                         new MBeanParameterInfo("port", "int", "The port where the IGV tool is listening at"),
-                        }, "void", MBeanOperationInfo.ACTION)
+                        }, "void", MBeanOperationInfo.ACTION),
+                        new MBeanOperationInfo("dumpCompilationEvents", "Dump the recorded compilation events in binary format", new MBeanParameterInfo[]{
+                                        new MBeanParameterInfo("fileName", "java.lang.String", "File to write the events to"),
+                        }, "int", MBeanOperationInfo.ACTION)
         };
 
         return new MBeanInfo(
@@ -36,6 +36,7 @@ import java.lang.invoke.VolatileCallSite;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigInteger;
+import java.util.zip.Adler32;
 import java.util.zip.CRC32;
 
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
@@ -45,11 +46,17 @@ import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.hotspot.nodes.CurrentJavaThreadNode;
 import org.graalvm.compiler.hotspot.replacements.AESCryptSubstitutions;
+import org.graalvm.compiler.hotspot.replacements.Adler32Substitutions;
+import org.graalvm.compiler.hotspot.replacements.Base64DecoderSubstitutions;
+import org.graalvm.compiler.hotspot.replacements.Base64EncoderSubstitutions;
 import org.graalvm.compiler.hotspot.replacements.BigIntegerSubstitutions;
+import org.graalvm.compiler.hotspot.replacements.CRC32CSubstitutions;
 import org.graalvm.compiler.hotspot.replacements.CRC32Substitutions;
 import org.graalvm.compiler.hotspot.replacements.CallSiteTargetNode;
 import org.graalvm.compiler.hotspot.replacements.CipherBlockChainingSubstitutions;
 import org.graalvm.compiler.hotspot.replacements.ClassGetHubNode;
+import org.graalvm.compiler.hotspot.replacements.CounterModeSubstitutions;
+import org.graalvm.compiler.hotspot.replacements.GHASHSubstitutions;
 import org.graalvm.compiler.hotspot.replacements.HotSpotClassSubstitutions;
 import org.graalvm.compiler.hotspot.replacements.IdentityHashCodeNode;
 import org.graalvm.compiler.hotspot.replacements.ObjectCloneNode;
@@ -200,6 +207,9 @@ public class HotSpotGraphBuilderPlugins {
                 registerConstantPoolPlugins(invocationPlugins, wordTypes, config, replacementBytecodeProvider);
                 registerAESPlugins(invocationPlugins, config, replacementBytecodeProvider);
                 registerCRC32Plugins(invocationPlugins, config, replacementBytecodeProvider);
+                registerCRC32CPlugins(invocationPlugins, config, replacementBytecodeProvider);
+                registerAdler32Plugins(invocationPlugins, config, replacementBytecodeProvider);
+                registerBase64Plugins(invocationPlugins, config, replacementBytecodeProvider);
                 registerBigIntegerPlugins(invocationPlugins, config, replacementBytecodeProvider);
                 registerSHAPlugins(invocationPlugins, config, replacementBytecodeProvider);
                 StandardGraphBuilderPlugins.registerInvocationPlugins(metaAccess, snippetReflection, invocationPlugins, replacementBytecodeProvider, true);
@@ -484,6 +494,16 @@ public class HotSpotGraphBuilderPlugins {
             r.registerMethodSubstitution(AESCryptSubstitutions.class, aesEncryptName, Receiver.class, byte[].class, int.class, byte[].class, int.class);
             r.registerMethodSubstitution(AESCryptSubstitutions.class, aesDecryptName, aesDecryptName + decryptSuffix, Receiver.class, byte[].class, int.class, byte[].class, int.class);
         }
+        if (config.useAESIntrinsics && config.useAESCTRIntrinsics()) {
+            assert !Java8OrEarlier;
+            Registration r = new Registration(plugins, "com.sun.crypto.provider.CounterMode", bytecodeProvider);
+            r.registerMethodSubstitution(CounterModeSubstitutions.class, "implCrypt", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class);
+        }
+        if (config.useGHASHIntrinsics()) {
+            assert !Java8OrEarlier;
+            Registration r = new Registration(plugins, "com.sun.crypto.provider.GHASH", bytecodeProvider);
+            r.registerMethodSubstitution(GHASHSubstitutions.class, "processBlocks", byte[].class, int.class, int.class, long[].class, long[].class);
+        }
     }
 
     private static void registerBigIntegerPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, BytecodeProvider bytecodeProvider) {
@@ -553,4 +573,33 @@ public class HotSpotGraphBuilderPlugins {
             }
         }
     }
+
+    private static void registerCRC32CPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, BytecodeProvider bytecodeProvider) {
+        if (config.useCRC32CIntrinsics()) {
+            assert !Java8OrEarlier;
+            Registration r = new Registration(plugins, "java.util.zip.CRC32C", bytecodeProvider);
+            r.registerMethodSubstitution(CRC32CSubstitutions.class, "updateBytes", int.class, byte[].class, int.class, int.class);
+            r.registerMethodSubstitution(CRC32CSubstitutions.class, "updateDirectByteBuffer", int.class, long.class, int.class, int.class);
+        }
+    }
+
+    private static void registerAdler32Plugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, BytecodeProvider bytecodeProvider) {
+        if (config.useAdler32Intrinsics()) {
+            Registration r = new Registration(plugins, Adler32.class, bytecodeProvider);
+            r.registerMethodSubstitution(Adler32Substitutions.class, "updateBytes", int.class, byte[].class, int.class, int.class);
+            r.registerMethodSubstitution(Adler32Substitutions.class, "updateByteBuffer", int.class, long.class, int.class, int.class);
+        }
+    }
+
+    private static void registerBase64Plugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, BytecodeProvider bytecodeProvider) {
+        if (config.useBase64EncodeIntrinsic()) {
+            Registration r = new Registration(plugins, "java.util.Base64$Encoder", bytecodeProvider);
+            r.registerMethodSubstitution(Base64EncoderSubstitutions.class, "encodeBlock", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class, boolean.class);
+        }
+        if (config.useBase64DecodeIntrinsic()) {
+            Registration r = new Registration(plugins, "java.util.Base64$Decoder", bytecodeProvider);
+            r.registerMethodSubstitution(Base64DecoderSubstitutions.class, "decodeBlock", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class, boolean.class,
+                            boolean.class);
+        }
+    }
 }
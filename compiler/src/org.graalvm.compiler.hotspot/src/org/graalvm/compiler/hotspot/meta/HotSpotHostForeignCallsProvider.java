@@ -66,7 +66,13 @@ import static org.graalvm.compiler.hotspot.meta.DefaultHotSpotLoweringProvider.R
 import static org.graalvm.compiler.hotspot.meta.DefaultHotSpotLoweringProvider.RuntimeCalls.CREATE_CLASS_CAST_EXCEPTION;
 import static org.graalvm.compiler.hotspot.meta.DefaultHotSpotLoweringProvider.RuntimeCalls.CREATE_NULL_POINTER_EXCEPTION;
 import static org.graalvm.compiler.hotspot.meta.DefaultHotSpotLoweringProvider.RuntimeCalls.CREATE_OUT_OF_BOUNDS_EXCEPTION;
+import static org.graalvm.compiler.hotspot.replacements.Adler32Substitutions.UPDATE_BYTES_ADLER32;
 import static org.graalvm.compiler.hotspot.replacements.AssertionSnippets.ASSERTION_VM_MESSAGE_C;
+import static org.graalvm.compiler.hotspot.replacements.Base64DecoderSubstitutions.BASE64_DECODE_BLOCK;
+import static org.graalvm.compiler.hotspot.replacements.Base64EncoderSubstitutions.BASE64_ENCODE_BLOCK;
+import static org.graalvm.compiler.hotspot.replacements.CRC32CSubstitutions.UPDATE_BYTES_CRC32C;
+import static org.graalvm.compiler.hotspot.replacements.CounterModeSubstitutions.COUNTERMODE_IMPL_CRYPT;
+import static org.graalvm.compiler.hotspot.replacements.GHASHSubstitutions.GHASH_PROCESS_BLOCKS;
 import static org.graalvm.compiler.hotspot.replacements.HotSpotReplacementsUtil.MARK_WORD_LOCATION;
 import static org.graalvm.compiler.hotspot.replacements.HotSpotReplacementsUtil.TLAB_END_LOCATION;
 import static org.graalvm.compiler.hotspot.replacements.HotSpotReplacementsUtil.TLAB_TOP_LOCATION;
@@ -355,6 +361,22 @@ public abstract class HotSpotHostForeignCallsProvider extends HotSpotForeignCall
             registerForeignCall(SQUARE_TO_LEN, c.squareToLen, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
         }
 
+        if (c.useCRC32CIntrinsics()) {
+            registerForeignCall(UPDATE_BYTES_CRC32C, c.updateBytesCRC32C, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, any());
+        }
+        if (c.useAdler32Intrinsics()) {
+            registerForeignCall(UPDATE_BYTES_ADLER32, c.updateBytesAdler32, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, any());
+        }
+        if (c.useBase64EncodeIntrinsic()) {
+            registerForeignCall(BASE64_ENCODE_BLOCK, c.base64EncodeBlock, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Byte));
+        }
+        if (c.useBase64DecodeIntrinsic()) {
+            registerForeignCall(BASE64_DECODE_BLOCK, c.base64DecodeBlock, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Byte));
+        }
+        if (c.useGHASHIntrinsics()) {
+            registerForeignCall(GHASH_PROCESS_BLOCKS, c.ghashProcessBlocks, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Long));
+        }
+
         if (c.useAESIntrinsics) {
             /*
              * When the java.ext.dirs property is modified then the crypto classes might not be
@@ -385,6 +407,16 @@ public abstract class HotSpotHostForeignCallsProvider extends HotSpotForeignCall
                     throw e;
                 }
             }
+            if (c.useAESCTRIntrinsics()) {
+                try {
+                    // Also updates the receiver's int field 'used' hence any()
+                    registerForeignCall(COUNTERMODE_IMPL_CRYPT, c.counterModeAESCrypt, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, any());
+                } catch (GraalError e) {
+                    if (!(e.getCause() instanceof ClassNotFoundException)) {
+                        throw e;
+                    }
+                }
+            }
         }
     }
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.replacements;
+
+import static org.graalvm.compiler.hotspot.replacements.HotSpotReplacementsUtil.arrayBaseOffset;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
+import org.graalvm.compiler.graph.Node.ConstantNodeParameter;
+import org.graalvm.compiler.graph.Node.NodeIntrinsic;
+import org.graalvm.compiler.hotspot.nodes.ComputeObjectAddressNode;
+import org.graalvm.compiler.nodes.extended.ForeignCallNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.WordBase;
+import org.graalvm.word.WordFactory;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code java.util.Base64.Encoder}. The stub takes the start addresses of the
+ * arrays and the positions within them separately.
+ */
+@ClassSubstitution(className = "java.util.Base64$Encoder", optional = true)
+public class Base64EncoderSubstitutions {
+
+    /**
+     * @since 11
+     */
+    @MethodSubstitution(isStatic = false, optional = true)
+    static void encodeBlock(@SuppressWarnings("unused") Object receiver, byte[] src, int sp, int sl, byte[] dst, int dp, boolean isURL) {
+        Word srcAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(src, arrayBaseOffset(JavaKind.Byte)));
+        Word dstAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(dst, arrayBaseOffset(JavaKind.Byte)));
+        base64EncodeBlock(BASE64_ENCODE_BLOCK, srcAddr, sp, sl, dstAddr, dp, isURL);
+    }
+
+    public static final ForeignCallDescriptor BASE64_ENCODE_BLOCK = new ForeignCallDescriptor("base64EncodeBlock", void.class, WordBase.class, int.class, int.class, WordBase.class, int.class,
+                    boolean.class);
+
+    @NodeIntrinsic(ForeignCallNode.class)
+    public static native void base64EncodeBlock(@ConstantNodeParameter ForeignCallDescriptor descriptor, WordBase src, int sp, int sl, WordBase dst, int dp, boolean isURL);
+}
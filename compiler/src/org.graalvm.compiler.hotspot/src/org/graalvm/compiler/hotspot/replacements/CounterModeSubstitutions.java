@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.replacements;
+
+import static org.graalvm.compiler.hotspot.replacements.UnsafeAccess.UNSAFE;
+import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntimeProvider.getArrayBaseOffset;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.graph.Node.ConstantNodeParameter;
+import org.graalvm.compiler.graph.Node.NodeIntrinsic;
+import org.graalvm.compiler.hotspot.nodes.ComputeObjectAddressNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.extended.ForeignCallNode;
+import org.graalvm.compiler.nodes.extended.RawLoadNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.LocationIdentity;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code com.sun.crypto.provider.CounterMode} methods.
+ *
+ * @since 9
+ */
+@ClassSubstitution(className = "com.sun.crypto.provider.CounterMode", optional = true)
+public class CounterModeSubstitutions {
+
+    private static final long embeddedCipherOffset;
+    private static final long counterOffset;
+    private static final long encryptedCounterOffset;
+    private static final long usedOffset;
+    private static final Class<?> counterModeClass;
+
+    static {
+        try {
+            // Need to use the system class loader as com.sun.crypto.provider.CounterMode
+            // is normally loaded by the extension class loader which is not delegated
+            // to by the JVMCI class loader.
+            ClassLoader cl = ClassLoader.getSystemClassLoader();
+
+            Class<?> feedbackCipherClass = Class.forName("com.sun.crypto.provider.FeedbackCipher", true, cl);
+            embeddedCipherOffset = UNSAFE.objectFieldOffset(feedbackCipherClass.getDeclaredField("embeddedCipher"));
+
+            counterModeClass = Class.forName("com.sun.crypto.provider.CounterMode", true, cl);
+            counterOffset = UNSAFE.objectFieldOffset(counterModeClass.getDeclaredField("counter"));
+            encryptedCounterOffset = UNSAFE.objectFieldOffset(counterModeClass.getDeclaredField("encryptedCounter"));
+            usedOffset = UNSAFE.objectFieldOffset(counterModeClass.getDeclaredField("used"));
+        } catch (Exception ex) {
+            throw new GraalError(ex);
+        }
+    }
+
+    @Fold
+    static Class<?> getAESCryptClass() {
+        return AESCryptSubstitutions.AESCryptClass;
+    }
+
+    /**
+     * The stub processes {@code len} bytes in one call, keeping the partially consumed key stream
+     * block in {@code encryptedCounter} and its consumed length in {@code used} so that
+     * subsequent calls continue where this one left off.
+     */
+    @MethodSubstitution(isStatic = false)
+    static int implCrypt(Object rcvr, byte[] in, int inOff, int len, byte[] out, int outOff) {
+        Object realReceiver = PiNode.piCastNonNull(rcvr, counterModeClass);
+        Object embeddedCipher = RawLoadNode.load(realReceiver, embeddedCipherOffset, JavaKind.Object, LocationIdentity.any());
+        if (getAESCryptClass().isInstance(embeddedCipher)) {
+            Object aesCipher = getAESCryptClass().cast(embeddedCipher);
+            Object kObject = RawLoadNode.load(aesCipher, AESCryptSubstitutions.kOffset, JavaKind.Object, LocationIdentity.any());
+            Object counterObject = RawLoadNode.load(realReceiver, counterOffset, JavaKind.Object, LocationIdentity.any());
+            Object encryptedCounterObject = RawLoadNode.load(realReceiver, encryptedCounterOffset, JavaKind.Object, LocationIdentity.any());
+            Pointer kAddr = Word.objectToTrackedPointer(kObject).add(getArrayBaseOffset(JavaKind.Int));
+            Pointer counterAddr = Word.objectToTrackedPointer(counterObject).add(getArrayBaseOffset(JavaKind.Byte));
+            Pointer encryptedCounterAddr = Word.objectToTrackedPointer(encryptedCounterObject).add(getArrayBaseOffset(JavaKind.Byte));
+            Pointer usedAddr = Word.objectToTrackedPointer(realReceiver).add((int) usedOffset);
+            Word inAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(in, getArrayBaseOffset(JavaKind.Byte) + inOff));
+            Word outAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(out, getArrayBaseOffset(JavaKind.Byte) + outOff));
+            return counterModeAESCrypt(COUNTERMODE_IMPL_CRYPT, inAddr, outAddr, kAddr, counterAddr, len, encryptedCounterAddr, usedAddr);
+        } else {
+            return implCrypt(realReceiver, in, inOff, len, out, outOff);
+        }
+    }
+
+    public static final ForeignCallDescriptor COUNTERMODE_IMPL_CRYPT = new ForeignCallDescriptor("counterModeAESCrypt", int.class, Word.class, Word.class, Pointer.class, Pointer.class,
+                    int.class, Pointer.class, Pointer.class);
+
+    @NodeIntrinsic(ForeignCallNode.class)
+    public static native int counterModeAESCrypt(@ConstantNodeParameter ForeignCallDescriptor descriptor, Word in, Word out, Pointer key, Pointer counter, int len, Pointer encryptedCounter,
+                    Pointer used);
+}
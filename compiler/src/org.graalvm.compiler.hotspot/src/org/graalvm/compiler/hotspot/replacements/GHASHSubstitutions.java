@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.replacements;
+
+import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntimeProvider.getArrayBaseOffset;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
+import org.graalvm.compiler.graph.Node.ConstantNodeParameter;
+import org.graalvm.compiler.graph.Node.NodeIntrinsic;
+import org.graalvm.compiler.hotspot.nodes.ComputeObjectAddressNode;
+import org.graalvm.compiler.nodes.extended.ForeignCallNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.WordFactory;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code com.sun.crypto.provider.GHASH} methods.
+ *
+ * @since 9
+ */
+@ClassSubstitution(className = "com.sun.crypto.provider.GHASH", optional = true)
+public class GHASHSubstitutions {
+
+    @MethodSubstitution
+    static void processBlocks(byte[] data, int inOfs, int blocks, long[] st, long[] subH) {
+        Word stateAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(st, getArrayBaseOffset(JavaKind.Long)));
+        Word subkeyHAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(subH, getArrayBaseOffset(JavaKind.Long)));
+        Word dataAddr = WordFactory.unsigned(ComputeObjectAddressNode.get(data, getArrayBaseOffset(JavaKind.Byte) + inOfs));
+        ghashProcessBlocks(GHASH_PROCESS_BLOCKS, stateAddr, subkeyHAddr, dataAddr, blocks);
+    }
+
+    public static final ForeignCallDescriptor GHASH_PROCESS_BLOCKS = new ForeignCallDescriptor("ghashProcessBlocks", void.class, Word.class, Word.class, Word.class, int.class);
+
+    @NodeIntrinsic(ForeignCallNode.class)
+    public static native void ghashProcessBlocks(@ConstantNodeParameter ForeignCallDescriptor descriptor, Word state, Word subkeyH, Word data, int blocks);
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+import sun.misc.Unsafe;
+
+/**
+ * Emits code which lexicographically compares two compact string value arrays. Both arrays are
+ * {@code byte[]} and their element kind describes the encoding of their contents:
+ * {@link JavaKind#Byte} for Latin-1 and {@link JavaKind#Char} for UTF-16. The result follows the
+ * contract of {@code String.compareTo}: the difference of the first mismatching characters or the
+ * difference of the lengths if one array is a prefix of the other.
+ * <p>
+ * If the CPU supports SSE 4.1, equal prefixes are skipped with 16-byte vector compares; a Latin-1
+ * array compared against a UTF-16 array is inflated on the fly with {@code pmovzxbw}.
+ */
+@Opcode("ARRAY_COMPARE_TO")
+public final class AMD64ArrayCompareToOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayCompareToOp> TYPE = LIRInstructionClass.create(AMD64ArrayCompareToOp.class);
+
+    private final JavaKind kind1;
+    private final JavaKind kind2;
+    private final int arrayBaseOffset;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value array1Value;
+    @Alive({REG}) protected Value array2Value;
+    @Alive({REG}) protected Value length1Value;
+    @Alive({REG}) protected Value length2Value;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp1;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp2;
+
+    public AMD64ArrayCompareToOp(LIRGeneratorTool tool, JavaKind kind1, JavaKind kind2, Value result, Value array1, Value array2, Value length1, Value length2) {
+        super(TYPE);
+        assert kind1 == JavaKind.Byte || kind1 == JavaKind.Char : kind1;
+        assert kind2 == JavaKind.Byte || kind2 == JavaKind.Char : kind2;
+        this.kind1 = kind1;
+        this.kind2 = kind2;
+        this.arrayBaseOffset = Unsafe.ARRAY_BYTE_BASE_OFFSET;
+
+        this.resultValue = result;
+        this.array1Value = array1;
+        this.array2Value = array2;
+        this.length1Value = length1;
+        this.length2Value = length2;
+
+        this.temp1 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+
+        // We only need the vector temporaries if we generate SSE code.
+        if (supportsSSE41(tool.target())) {
+            this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+            this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        } else {
+            this.vectorTemp1 = Value.ILLEGAL;
+            this.vectorTemp2 = Value.ILLEGAL;
+        }
+    }
+
+    private static boolean supportsSSE41(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.SSE4_1);
+    }
+
+    /**
+     * Vector size in bytes used by the SSE 4.1 loop.
+     */
+    private static final int SSE4_1_VECTOR_SIZE = 16;
+
+    private static Scale scale(JavaKind kind) {
+        return kind == JavaKind.Char ? Scale.Times2 : Scale.Times1;
+    }
+
+    private AMD64Address elementAddress(Register array, Register index, JavaKind kind) {
+        return new AMD64Address(array, index, scale(kind), arrayBaseOffset);
+    }
+
+    private static void loadElement(AMD64MacroAssembler masm, Register dst, AMD64Address address, JavaKind kind) {
+        if (kind == JavaKind.Char) {
+            masm.movzwl(dst, address);
+        } else {
+            masm.movzbl(dst, address);
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register array1 = asRegister(array1Value);
+        Register array2 = asRegister(array2Value);
+        Register length1 = asRegister(length1Value);
+        Register length2 = asRegister(length2Value);
+        Register index = asRegister(temp1);
+        Register limit = asRegister(temp2);
+        Register temp = asRegister(temp3);
+
+        Label scalarLoop = new Label();
+        Label lengthDifference = new Label();
+        Label done = new Label();
+
+        // limit = min(length1, length2)
+        masm.movl(limit, length1);
+        masm.cmpl(limit, length2);
+        masm.cmovl(ConditionFlag.Greater, limit, length2);
+        masm.xorl(index, index);
+
+        if (supportsSSE41(crb.target)) {
+            emitSSE41Compare(crb, masm, array1, array2, index, limit, temp, scalarLoop);
+        }
+
+        // Compare the remaining elements (or the first mismatching vector) one at a time.
+        masm.bind(scalarLoop);
+        masm.cmpl(index, limit);
+        masm.jccb(ConditionFlag.GreaterEqual, lengthDifference);
+        loadElement(masm, result, elementAddress(array1, index, kind1), kind1);
+        loadElement(masm, temp, elementAddress(array2, index, kind2), kind2);
+        masm.subl(result, temp);
+        masm.jccb(ConditionFlag.NotZero, done);
+        masm.incrementl(index, 1);
+        masm.jmpb(scalarLoop);
+
+        // One array is a prefix of the other.
+        masm.bind(lengthDifference);
+        masm.movl(result, length1);
+        masm.subl(result, length2);
+
+        masm.bind(done);
+    }
+
+    /**
+     * Emits a loop which skips over equal 16-byte blocks. When a block differs, control is
+     * transferred to {@code scalarLoop} with {@code index} pointing to the first element of that
+     * block.
+     */
+    private void emitSSE41Compare(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register array1, Register array2, Register index, Register limit, Register vectorLimit,
+                    Label scalarLoop) {
+        Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+
+        // Number of elements per vector, bounded by the wider of the two encodings.
+        int elementsPerVector = SSE4_1_VECTOR_SIZE / Math.max(kind1.getByteCount(), kind2.getByteCount());
+
+        Label loop = new Label();
+
+        masm.movl(vectorLimit, limit);
+        masm.andl(vectorLimit, ~(elementsPerVector - 1));
+        masm.jcc(ConditionFlag.Zero, scalarLoop);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        loadVector(masm, vector1, elementAddress(array1, index, kind1), kind1, kind2);
+        loadVector(masm, vector2, elementAddress(array2, index, kind2), kind2, kind1);
+        masm.pxor(vector1, vector2);
+        masm.ptest(vector1, vector1);
+        masm.jcc(ConditionFlag.NotZero, scalarLoop);
+        masm.addl(index, elementsPerVector);
+        masm.cmpl(index, vectorLimit);
+        masm.jcc(ConditionFlag.Less, loop);
+    }
+
+    /**
+     * Loads a vector of elements, inflating Latin-1 bytes to UTF-16 chars if the other array is
+     * UTF-16 encoded.
+     */
+    private static void loadVector(AMD64MacroAssembler masm, Register vector, AMD64Address address, JavaKind kind, JavaKind otherKind) {
+        if (kind == JavaKind.Byte && otherKind == JavaKind.Char) {
+            masm.pmovzxbw(vector, address);
+        } else {
+            masm.movdqu(vector, address);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+import sun.misc.Unsafe;
+
+/**
+ * Emits code which stores a value into a range of elements of a primitive array. The value is
+ * broadcast into an XMM register and stored 16 bytes at a time; the remaining 8, 4, 2 and 1 byte
+ * tails are stored individually.
+ * <p>
+ * The value is expected as an {@code int} for element kinds up to 4 bytes (including the raw bits
+ * of a {@code float}) and as a {@code long} for 8 byte element kinds.
+ */
+@Opcode("ARRAY_FILL")
+public final class AMD64ArrayFillOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayFillOp> TYPE = LIRInstructionClass.create(AMD64ArrayFillOp.class);
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value fromIndexValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Alive({REG}) protected Value valueValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value vectorTemp;
+
+    public AMD64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value fromIndex, Value length, Value value) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void : kind;
+        this.kind = kind;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = UNSAFE.arrayBaseOffset(arrayClass);
+        this.arrayIndexScale = UNSAFE.arrayIndexScale(arrayClass);
+
+        this.arrayValue = array;
+        this.fromIndexValue = fromIndex;
+        this.lengthValue = length;
+        this.valueValue = value;
+
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    /**
+     * Vector size used by the main loop.
+     */
+    private static final int VECTOR_SIZE = 16;
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register pointer = asRegister(temp1);
+        Register length = asRegister(temp2);
+        Register pattern = asRegister(temp3);
+        Register vector = asRegister(vectorTemp, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label tail = new Label();
+
+        // Load the address of the first element, zero-extending the int index.
+        masm.movl(length, asRegister(fromIndexValue));
+        masm.leaq(pointer, new AMD64Address(asRegister(arrayValue), length, Scale.fromInt(arrayIndexScale), arrayBaseOffset));
+
+        // Get the number of bytes to fill as a long, since it may exceed the int range.
+        masm.movl(length, asRegister(lengthValue));
+        if (arrayIndexScale > 1) {
+            masm.shlq(length, Scale.fromInt(arrayIndexScale).log2);
+        }
+
+        emitBroadcast(masm, pattern, vector);
+
+        masm.cmpq(length, VECTOR_SIZE);
+        masm.jccb(ConditionFlag.Less, tail);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.movdqu(new AMD64Address(pointer, 0), vector);
+        masm.addq(pointer, VECTOR_SIZE);
+        masm.subq(length, VECTOR_SIZE);
+        masm.cmpq(length, VECTOR_SIZE);
+        masm.jccb(ConditionFlag.GreaterEqual, loop);
+
+        masm.bind(tail);
+        emitTailStores(masm, pointer, length, pattern, vector);
+    }
+
+    /**
+     * Replicates the value into all bytes of {@code pattern} (the low 4 bytes for element kinds
+     * smaller than 8 bytes) and into all 16 bytes of {@code vector}.
+     */
+    private void emitBroadcast(AMD64MacroAssembler masm, Register pattern, Register vector) {
+        Register value = asRegister(valueValue);
+        switch (kind.getByteCount()) {
+            case 1:
+                masm.movl(pattern, value);
+                masm.andl(pattern, 0xFF);
+                masm.imull(pattern, pattern, 0x01010101);
+                break;
+            case 2:
+                masm.movl(pattern, value);
+                masm.andl(pattern, 0xFFFF);
+                masm.imull(pattern, pattern, 0x00010001);
+                break;
+            case 4:
+                masm.movl(pattern, value);
+                break;
+            default:
+                assert kind.getByteCount() == 8 : kind;
+                masm.movq(pattern, value);
+                masm.movdq(vector, pattern);
+                masm.pshufd(vector, vector, 0x44);
+                return;
+        }
+        masm.movdl(vector, pattern);
+        masm.pshufd(vector, vector, 0x00);
+    }
+
+    /**
+     * Emits code to store the remaining 0 to 15 bytes.
+     */
+    private void emitTailStores(AMD64MacroAssembler masm, Register pointer, Register length, Register pattern, Register vector) {
+        Label store4Bytes = new Label();
+        Label store2Bytes = new Label();
+        Label store1Byte = new Label();
+        Label done = new Label();
+
+        masm.testl(length, 8);
+        masm.jccb(ConditionFlag.Zero, store4Bytes);
+        masm.movq(new AMD64Address(pointer, 0), vector);
+        masm.addq(pointer, 8);
+
+        masm.bind(store4Bytes);
+        if (kind.getByteCount() <= 4) {
+            masm.testl(length, 4);
+            masm.jccb(ConditionFlag.Zero, store2Bytes);
+            masm.movl(new AMD64Address(pointer, 0), pattern);
+            masm.addq(pointer, 4);
+        }
+
+        masm.bind(store2Bytes);
+        if (kind.getByteCount() <= 2) {
+            masm.testl(length, 2);
+            masm.jccb(ConditionFlag.Zero, store1Byte);
+            masm.movw(new AMD64Address(pointer, 0), pattern);
+            masm.addq(pointer, 2);
+        }
+
+        masm.bind(store1Byte);
+        if (kind.getByteCount() <= 1) {
+            masm.testl(length, 1);
+            masm.jccb(ConditionFlag.Zero, done);
+            masm.movb(new AMD64Address(pointer, 0), pattern);
+        }
+
+        masm.bind(done);
+    }
+
+    private static final Unsafe UNSAFE = initUnsafe();
+
+    private static Unsafe initUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException se) {
+            try {
+                Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return (Unsafe) theUnsafe.get(Unsafe.class);
+            } catch (Exception e) {
+                throw new RuntimeException("exception while trying to get Unsafe", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which inflates Latin-1 encoded bytes into UTF-16 chars. If the CPU supports SSE 4.1,
+ * 8 bytes at a time are zero-extended with {@code pmovzxbw}.
+ */
+@Opcode("STRING_LATIN1_INFLATE")
+public final class AMD64StringLatin1InflateOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64StringLatin1InflateOp> TYPE = LIRInstructionClass.create(AMD64StringLatin1InflateOp.class);
+
+    @Alive({REG}) protected Value srcValue;
+    @Alive({REG}) protected Value dstValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp;
+
+    public AMD64StringLatin1InflateOp(LIRGeneratorTool tool, Value src, Value dst, Value length) {
+        super(TYPE);
+        this.srcValue = src;
+        this.dstValue = dst;
+        this.lengthValue = length;
+
+        this.temp1 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+
+        // We only need the vector temporary if we generate SSE code.
+        if (supportsSSE41(tool.target())) {
+            this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        } else {
+            this.vectorTemp = Value.ILLEGAL;
+        }
+    }
+
+    private static boolean supportsSSE41(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.SSE4_1);
+    }
+
+    /**
+     * Number of bytes inflated per iteration of the SSE 4.1 loop.
+     */
+    private static final int BYTES_PER_VECTOR = 8;
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register src = asRegister(srcValue);
+        Register dst = asRegister(dstValue);
+        Register length = asRegister(lengthValue);
+        Register index = asRegister(temp1);
+        Register temp = asRegister(temp2);
+
+        Label tail = new Label();
+        Label done = new Label();
+
+        masm.xorl(index, index);
+
+        if (supportsSSE41(crb.target)) {
+            Register vector = asRegister(vectorTemp, AMD64Kind.DOUBLE);
+            Label loop = new Label();
+
+            masm.movl(temp, length);
+            masm.andl(temp, ~(BYTES_PER_VECTOR - 1));
+            masm.jccb(ConditionFlag.Zero, tail);
+
+            // Align the main loop
+            masm.align(crb.target.wordSize * 2);
+            masm.bind(loop);
+            masm.pmovzxbw(vector, new AMD64Address(src, index, Scale.Times1));
+            masm.movdqu(new AMD64Address(dst, index, Scale.Times2), vector);
+            masm.addl(index, BYTES_PER_VECTOR);
+            masm.cmpl(index, temp);
+            masm.jccb(ConditionFlag.Less, loop);
+        }
+
+        // Inflate the remaining bytes one at a time.
+        masm.bind(tail);
+        masm.cmpl(index, length);
+        masm.jccb(ConditionFlag.GreaterEqual, done);
+        masm.movzbl(temp, new AMD64Address(src, index, Scale.Times1));
+        masm.movw(new AMD64Address(dst, index, Scale.Times2), temp);
+        masm.incrementl(index, 1);
+        masm.jmpb(tail);
+
+        masm.bind(done);
+    }
+}
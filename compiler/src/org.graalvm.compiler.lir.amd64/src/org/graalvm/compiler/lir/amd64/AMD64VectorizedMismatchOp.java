@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which finds the first mismatching byte of two memory regions given as base object and
+ * offset pairs, as used by {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}. The length
+ * and the result are longs since a byte count can exceed the int range. The result is the byte
+ * index of the first mismatch or -1 if the regions are equal. If the CPU supports SSE 4.1,
+ * 16 bytes at a time are compared with {@code pxor} and {@code ptest}; otherwise 8 bytes at a time
+ * are compared in general purpose registers.
+ */
+@Opcode("VECTORIZED_MISMATCH")
+public final class AMD64VectorizedMismatchOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedMismatchOp> TYPE = LIRInstructionClass.create(AMD64VectorizedMismatchOp.class);
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value base1Value;
+    @Alive({REG}) protected Value offset1Value;
+    @Alive({REG}) protected Value base2Value;
+    @Alive({REG}) protected Value offset2Value;
+    @Alive({REG}) protected Value lengthValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp1;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp2;
+
+    public AMD64VectorizedMismatchOp(LIRGeneratorTool tool, Value result, Value base1, Value offset1, Value base2, Value offset2, Value length) {
+        super(TYPE);
+        this.resultValue = result;
+        this.base1Value = base1;
+        this.offset1Value = offset1;
+        this.base2Value = base2;
+        this.offset2Value = offset2;
+        this.lengthValue = length;
+
+        // Both pointers are derived from possibly null object references.
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+
+        // We only need the vector temporaries if we generate SSE code.
+        if (supportsSSE41(tool.target())) {
+            this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+            this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        } else {
+            this.vectorTemp1 = Value.ILLEGAL;
+            this.vectorTemp2 = Value.ILLEGAL;
+        }
+    }
+
+    private static boolean supportsSSE41(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.SSE4_1);
+    }
+
+    /**
+     * Vector size in bytes used by the SSE 4.1 loop.
+     */
+    private static final int SSE4_1_VECTOR_SIZE = 16;
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register pointer1 = asRegister(temp1);
+        Register pointer2 = asRegister(temp2);
+        Register index = asRegister(temp3);
+        Register temp = asRegister(temp4);
+        Register length = asRegister(lengthValue);
+
+        Label longLoop = new Label();
+        Label longLoopEntry = new Label();
+        Label byteLoop = new Label();
+        Label found = new Label();
+        Label notFound = new Label();
+        Label done = new Label();
+
+        masm.leaq(pointer1, new AMD64Address(asRegister(base1Value), asRegister(offset1Value), Scale.Times1));
+        masm.leaq(pointer2, new AMD64Address(asRegister(base2Value), asRegister(offset2Value), Scale.Times1));
+        masm.xorl(index, index);
+
+        if (supportsSSE41(crb.target)) {
+            Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+            Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+            Label vectorLoop = new Label();
+
+            masm.movq(result, length);
+            masm.andq(result, ~(SSE4_1_VECTOR_SIZE - 1));
+            masm.jccb(ConditionFlag.Zero, longLoopEntry);
+
+            // Align the main loop
+            masm.align(crb.target.wordSize * 2);
+            masm.bind(vectorLoop);
+            masm.movdqu(vector1, new AMD64Address(pointer1, index, Scale.Times1));
+            masm.movdqu(vector2, new AMD64Address(pointer2, index, Scale.Times1));
+            masm.pxor(vector1, vector2);
+            masm.ptest(vector1, vector1);
+            // The mismatch is located by the following scalar loops.
+            masm.jcc(ConditionFlag.NotZero, longLoopEntry);
+            masm.addq(index, SSE4_1_VECTOR_SIZE);
+            masm.cmpq(index, result);
+            masm.jccb(ConditionFlag.Less, vectorLoop);
+        }
+
+        // Compare 8 bytes at a time.
+        masm.bind(longLoopEntry);
+        masm.movq(result, length);
+        masm.subq(result, 8);
+        masm.bind(longLoop);
+        masm.cmpq(index, result);
+        masm.jccb(ConditionFlag.Greater, byteLoop);
+        masm.movq(temp, new AMD64Address(pointer1, index, Scale.Times1));
+        masm.cmpq(temp, new AMD64Address(pointer2, index, Scale.Times1));
+        masm.jccb(ConditionFlag.NotEqual, byteLoop);
+        masm.addq(index, 8);
+        masm.jmpb(longLoop);
+
+        // Compare the remaining bytes (or the first mismatching long) one at a time.
+        masm.bind(byteLoop);
+        masm.cmpq(index, length);
+        masm.jccb(ConditionFlag.GreaterEqual, notFound);
+        masm.movzbl(temp, new AMD64Address(pointer1, index, Scale.Times1));
+        masm.movzbl(result, new AMD64Address(pointer2, index, Scale.Times1));
+        masm.cmpl(temp, result);
+        masm.jccb(ConditionFlag.NotEqual, found);
+        masm.addq(index, 1);
+        masm.jmpb(byteLoop);
+
+        masm.bind(found);
+        masm.movq(result, index);
+        masm.jmpb(done);
+
+        masm.bind(notFound);
+        masm.movslq(result, -1);
+
+        masm.bind(done);
+    }
+}
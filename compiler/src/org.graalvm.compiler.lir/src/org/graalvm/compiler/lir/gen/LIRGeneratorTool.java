@@ -251,6 +251,31 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
 
     Variable emitArrayEquals(JavaKind kind, Value array1, Value array2, Value length);
 
+    @SuppressWarnings("unused")
+    default Variable emitArrayCompareTo(JavaKind kind1, JavaKind kind2, Value array1, Value array2, Value length1, Value length2) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default void emitStringLatin1Inflate(Value src, Value dst, Value length) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitStringUTF16Compress(Value src, Value dst, Value length) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value length, Value value) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitVectorizedMismatch(Value base1, Value offset1, Value base2, Value offset2, Value length) {
+        throw GraalError.unimplemented();
+    }
+
     @SuppressWarnings("unused")
     default Variable emitStringIndexOf(Value sourcePointer, Value sourceCount, Value targetPointer, Value targetCount, int constantTargetCount) {
         throw GraalError.unimplemented();
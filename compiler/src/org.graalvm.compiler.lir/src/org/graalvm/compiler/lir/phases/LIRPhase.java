@@ -26,7 +26,9 @@ import java.util.regex.Pattern;
 
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugOptions;
 import org.graalvm.compiler.debug.MemUseTrackerKey;
+import org.graalvm.compiler.debug.PhaseMetrics;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.lir.LIR;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
@@ -59,6 +61,12 @@ public abstract class LIRPhase<C> {
      */
     private final MemUseTrackerKey memUseTracker;
 
+    /**
+     * Records time and memory usage within {@link #apply} if
+     * {@link DebugOptions#TrackPhaseMetrics} is enabled.
+     */
+    private final PhaseMetrics phaseMetrics;
+
     public static final class LIRPhaseStatistics {
         /**
          * Records time spent within {@link #apply}.
@@ -70,9 +78,16 @@ public abstract class LIRPhase<C> {
          */
         public final MemUseTrackerKey memUseTracker;
 
+        /**
+         * Records time and memory usage within {@link #apply} if
+         * {@link DebugOptions#TrackPhaseMetrics} is enabled.
+         */
+        public final PhaseMetrics phaseMetrics;
+
         public LIRPhaseStatistics(Class<?> clazz) {
             timer = DebugContext.timer("LIRPhaseTime_%s", clazz);
             memUseTracker = DebugContext.memUseTracker("LIRPhaseMemUse_%s", clazz);
+            phaseMetrics = PhaseMetrics.get(clazz.getName());
         }
     }
 
@@ -101,6 +116,7 @@ public abstract class LIRPhase<C> {
         LIRPhaseStatistics statistics = getLIRPhaseStatistics(getClass());
         timer = statistics.timer;
         memUseTracker = statistics.memUseTracker;
+        phaseMetrics = statistics.phaseMetrics;
     }
 
     public final void apply(TargetDescription target, LIRGenerationResult lirGenRes, C context) {
@@ -111,7 +127,7 @@ public abstract class LIRPhase<C> {
     public final void apply(TargetDescription target, LIRGenerationResult lirGenRes, C context, boolean dumpLIR) {
         DebugContext debug = lirGenRes.getLIR().getDebug();
         try (DebugContext.Scope s = debug.scope(getName(), this)) {
-            try (DebugCloseable a = timer.start(debug); DebugCloseable c = memUseTracker.start(debug)) {
+            try (DebugCloseable a = timer.start(debug); DebugCloseable c = memUseTracker.start(debug); DebugCloseable m = phaseMetrics.start(lirGenRes.getLIR().getOptions())) {
                 run(target, lirGenRes, context);
                 if (dumpLIR && debug.areScopesEnabled()) {
                     dumpAfter(lirGenRes);
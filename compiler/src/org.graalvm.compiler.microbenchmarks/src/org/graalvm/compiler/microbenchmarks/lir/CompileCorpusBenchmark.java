@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.lir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.debug.Management;
+import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.PhaseSuite;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Compiles a corpus of large methods from the JDK that are closer to what the compiler threads of
+ * a real application face than the methods used by the phase level benchmarks: big switches, deep
+ * inlining trees, string formatting and collections.
+ *
+ * The benchmark score is the time of a complete compilation. The number of compilations and the
+ * time spent in each tier are reported as secondary results by {@link CompileCounters}. At the end
+ * of each trial a summary of the measurement iterations with the average time per tier, the peak
+ * number of bytes allocated by a single compilation and the size of the emitted code is printed.
+ * The summary can be saved as a baseline with {@code -p saveBaseline=<file>} and later runs can be
+ * compared against it with {@code -p baseline=<file>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompileCorpusBenchmark extends GraalBenchmark {
+
+    /**
+     * Changes of more than this percentage relative to the baseline are reported as regressions.
+     */
+    private static final double REGRESSION_THRESHOLD = 10;
+
+    enum Tier {
+        HighTier,
+        MidTier,
+        LowTier,
+        LIRGeneration,
+        PreAllocation,
+        Allocation,
+        PostAllocation,
+        CodeEmission
+    }
+
+    public static class CorpusState extends GraalCompilerState.Compile {
+        @MethodDescString @Param({
+                        "java.io.StreamTokenizer#nextToken",
+                        "java.text.SimpleDateFormat#subFormat",
+                        "java.util.regex.Pattern#sequence",
+                        "java.util.Formatter#parse",
+                        "java.math.BigDecimal#layoutChars",
+                        "java.util.HashMap#putVal",
+                        "java.util.HashMap#resize",
+                        "java.util.concurrent.ConcurrentHashMap#putVal",
+                        "java.util.concurrent.ConcurrentHashMap#transfer",
+                        "java.util.ComparableTimSort#mergeHi"
+        }) public String method;
+
+        /**
+         * File with a baseline saved by a previous run to compare the summary against.
+         */
+        @Param("") public String baseline;
+
+        /**
+         * File to which the summary is added as a new baseline.
+         */
+        @Param("") public String saveBaseline;
+
+        /**
+         * Time spent in each tier by the last compilation.
+         */
+        private final long[] compilationTierTimes = new long[Tier.values().length];
+
+        /*
+         * Totals of the measurement iterations for the summary.
+         */
+        private final long[] tierTimes = new long[Tier.values().length];
+        private long compilations;
+        private long peakAllocatedBytes;
+        private int codeSize;
+        private boolean measuring;
+
+        @Override
+        protected Suites createSuites(OptionValues opts) {
+            Suites suites = super.createSuites(opts);
+            return new Suites(new TimedPhaseSuite<>(suites.getHighTier(), compilationTierTimes, Tier.HighTier),
+                            new TimedPhaseSuite<>(suites.getMidTier(), compilationTierTimes, Tier.MidTier),
+                            new TimedPhaseSuite<>(suites.getLowTier(), compilationTierTimes, Tier.LowTier));
+        }
+
+        /**
+         * Discards the numbers collected during warmup when the first measurement iteration starts.
+         */
+        @Setup(Level.Iteration)
+        public void resetAfterWarmup(IterationParams iteration) {
+            if (iteration.getType() == IterationType.MEASUREMENT && !measuring) {
+                Arrays.fill(tierTimes, 0);
+                compilations = 0;
+                peakAllocatedBytes = 0;
+                measuring = true;
+            }
+        }
+
+        @Override
+        public CompilationResult compile() {
+            Arrays.fill(compilationTierTimes, 0);
+            long allocatedBefore = Management.getCurrentThreadAllocatedBytes();
+            emitFrontEnd();
+            long start = System.nanoTime();
+            generateLIR();
+            start = record(Tier.LIRGeneration, start);
+            preAllocationStage();
+            start = record(Tier.PreAllocation, start);
+            allocationStage();
+            start = record(Tier.Allocation, start);
+            postAllocationStage();
+            start = record(Tier.PostAllocation, start);
+            emitCode();
+            record(Tier.CodeEmission, start);
+
+            CompilationResult result = compilationResult();
+            for (int i = 0; i < tierTimes.length; i++) {
+                tierTimes[i] += compilationTierTimes[i];
+            }
+            peakAllocatedBytes = Math.max(peakAllocatedBytes, Management.getCurrentThreadAllocatedBytes() - allocatedBefore);
+            codeSize = result.getTargetCodeSize();
+            compilations++;
+            return result;
+        }
+
+        private long record(Tier tier, long start) {
+            long now = System.nanoTime();
+            compilationTierTimes[tier.ordinal()] += now - start;
+            return now;
+        }
+
+        @TearDown(Level.Trial)
+        public void report() throws IOException {
+            if (compilations == 0) {
+                return;
+            }
+            Map<String, Long> summary = new LinkedHashMap<>();
+            for (Tier tier : Tier.values()) {
+                summary.put(tier.name() + ".us", TimeUnit.NANOSECONDS.toMicros(tierTimes[tier.ordinal()] / compilations));
+            }
+            summary.put("peakAllocatedBytes", peakAllocatedBytes);
+            summary.put("codeSize", (long) codeSize);
+
+            Properties base = baseline.isEmpty() ? null : load(Paths.get(baseline));
+            StringBuilder sb = new StringBuilder(String.format("%nCompile corpus summary for %s (%d compilations)%n", method, compilations));
+            for (Map.Entry<String, Long> e : summary.entrySet()) {
+                long value = e.getValue();
+                sb.append(String.format("  %-24s %12d", e.getKey(), value));
+                String baseValue = base == null ? null : base.getProperty(key(e.getKey()));
+                if (baseValue != null) {
+                    long old = Long.parseLong(baseValue);
+                    double change = old == 0 ? 0 : (value - old) * 100.0 / old;
+                    sb.append(String.format("  baseline %12d  %+7.1f%%%s", old, change, change > REGRESSION_THRESHOLD ? "  REGRESSION" : ""));
+                }
+                sb.append(System.lineSeparator());
+            }
+            System.out.print(sb);
+
+            if (!saveBaseline.isEmpty()) {
+                Path path = Paths.get(saveBaseline);
+                Properties saved = Files.exists(path) ? load(path) : new Properties();
+                for (Map.Entry<String, Long> e : summary.entrySet()) {
+                    saved.setProperty(key(e.getKey()), String.valueOf(e.getValue()));
+                }
+                try (OutputStream out = Files.newOutputStream(path)) {
+                    saved.store(out, "Compile corpus baseline");
+                }
+            }
+        }
+
+        private String key(String metric) {
+            return method + "." + metric;
+        }
+
+        private static Properties load(Path path) throws IOException {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+            return properties;
+        }
+    }
+
+    /**
+     * Number of compilations and nanoseconds spent in each tier during an iteration, reported by JMH
+     * as secondary results. JMH sums them over the measurement iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CompileCounters {
+        public long compilations;
+        public long highTierNanos;
+        public long midTierNanos;
+        public long lowTierNanos;
+        public long lirGenerationNanos;
+        public long preAllocationNanos;
+        public long allocationNanos;
+        public long postAllocationNanos;
+        public long codeEmissionNanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            compilations = 0;
+            highTierNanos = 0;
+            midTierNanos = 0;
+            lowTierNanos = 0;
+            lirGenerationNanos = 0;
+            preAllocationNanos = 0;
+            allocationNanos = 0;
+            postAllocationNanos = 0;
+            codeEmissionNanos = 0;
+        }
+
+        void add(CorpusState s) {
+            long[] times = s.compilationTierTimes;
+            compilations++;
+            highTierNanos += times[Tier.HighTier.ordinal()];
+            midTierNanos += times[Tier.MidTier.ordinal()];
+            lowTierNanos += times[Tier.LowTier.ordinal()];
+            lirGenerationNanos += times[Tier.LIRGeneration.ordinal()];
+            preAllocationNanos += times[Tier.PreAllocation.ordinal()];
+            allocationNanos += times[Tier.Allocation.ordinal()];
+            postAllocationNanos += times[Tier.PostAllocation.ordinal()];
+            codeEmissionNanos += times[Tier.CodeEmission.ordinal()];
+        }
+    }
+
+    /**
+     * Accumulates the time spent in a tier of the front end.
+     */
+    private static final class TimedPhaseSuite<C> extends PhaseSuite<C> {
+        private final long[] tierTimes;
+        private final Tier tier;
+
+        TimedPhaseSuite(PhaseSuite<C> suite, long[] tierTimes, Tier tier) {
+            this.tierTimes = tierTimes;
+            this.tier = tier;
+            appendPhase(suite);
+        }
+
+        @Override
+        protected void run(StructuredGraph graph, C context) {
+            long start = System.nanoTime();
+            super.run(graph, context);
+            tierTimes[tier.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    @Benchmark
+    public CompilationResult compile(CorpusState s, CompileCounters counters) {
+        CompilationResult result = s.compile();
+        counters.add(s);
+        return result;
+    }
+}
@@ -470,6 +470,10 @@ public abstract class GraalCompilerState {
         return lirGenRes.getLIR();
     }
 
+    protected CompilationResult compilationResult() {
+        return request.compilationResult;
+    }
+
     public abstract static class Compile extends GraalCompilerState {
 
         @Setup(Level.Trial)
@@ -29,6 +29,7 @@ import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugOptions;
 import org.graalvm.compiler.debug.MemUseTrackerKey;
+import org.graalvm.compiler.debug.PhaseMetrics;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.graph.Graph;
 import org.graalvm.compiler.graph.Graph.Mark;
@@ -79,6 +80,12 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
      */
     private final MemUseTrackerKey memUseTracker;
 
+    /**
+     * Records time and memory usage within {@link #apply(StructuredGraph, Object, boolean)} if
+     * {@link DebugOptions#TrackPhaseMetrics} is enabled.
+     */
+    private final PhaseMetrics phaseMetrics;
+
     /** Lazy initialization to create pattern only when assertions are enabled. */
     static class NamePatternHolder {
         static final Pattern NAME_PATTERN = Pattern.compile("[A-Z][A-Za-z0-9]+");
@@ -106,11 +113,18 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
          */
         private final MemUseTrackerKey memUseTracker;
 
+        /**
+         * Records time and memory usage within {@link #apply(StructuredGraph, Object, boolean)} if
+         * {@link DebugOptions#TrackPhaseMetrics} is enabled.
+         */
+        private final PhaseMetrics phaseMetrics;
+
         public BasePhaseStatistics(Class<?> clazz) {
             timer = DebugContext.timer("PhaseTime_%s", clazz).doc("Time spent in phase.");
             executionCount = DebugContext.counter("PhaseCount_%s", clazz).doc("Number of phase executions.");
             memUseTracker = DebugContext.memUseTracker("PhaseMemUse_%s", clazz).doc("Memory allocated in phase.");
             inputNodesCount = DebugContext.counter("PhaseNodes_%s", clazz).doc("Number of nodes input to phase.");
+            phaseMetrics = PhaseMetrics.get(clazz.getName());
         }
     }
 
@@ -131,6 +145,7 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         executionCount = statistics.executionCount;
         memUseTracker = statistics.memUseTracker;
         inputNodesCount = statistics.inputNodesCount;
+        phaseMetrics = statistics.phaseMetrics;
     }
 
     public final void apply(final StructuredGraph graph, final C context) {
@@ -177,10 +192,11 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
     protected final void apply(final StructuredGraph graph, final C context, final boolean dumpGraph) {
         graph.checkCancellation();
         DebugContext debug = graph.getDebug();
-        try (DebugCloseable a = timer.start(debug); DebugContext.Scope s = debug.scope(getClass(), this); DebugCloseable c = memUseTracker.start(debug)) {
+        OptionValues options = graph.getOptions();
+        try (DebugCloseable a = timer.start(debug); DebugContext.Scope s = debug.scope(getClass(), this); DebugCloseable c = memUseTracker.start(debug);
+                        DebugCloseable m = phaseMetrics.start(options)) {
             int sizeBefore = 0;
             Mark before = null;
-            OptionValues options = graph.getOptions();
             boolean verifySizeContract = PhaseOptions.VerifyGraalPhasesSize.getValue(options) && checkContract();
             if (verifySizeContract) {
                 sizeBefore = NodeCostUtil.computeGraphSize(graph);
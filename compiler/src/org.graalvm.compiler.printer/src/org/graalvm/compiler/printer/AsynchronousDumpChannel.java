@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.printer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A channel that hands the bytes written to it to a background thread which writes them to an
+ * underlying channel. This takes socket and file I/O off the thread that is dumping graphs. At most
+ * {@link #MAX_PENDING_BYTES} bytes per channel are waiting to be written; writers block once this
+ * limit is reached. An error of a background write is reported by the next {@link #write} or by
+ * {@link #close}, which waits until all pending bytes are written.
+ */
+final class AsynchronousDumpChannel implements WritableByteChannel {
+
+    private static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * All asynchronous channels share a single writer thread. Tasks of one channel are executed in
+     * submission order.
+     */
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "GraalGraphDumpWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final WritableByteChannel channel;
+    private long pendingBytes;
+    private IOException failure;
+    private boolean open = true;
+
+    AsynchronousDumpChannel(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        byte[] bytes = new byte[length];
+        src.get(bytes);
+        synchronized (this) {
+            checkState();
+            boolean interrupted = false;
+            while (pendingBytes > 0 && pendingBytes + length > MAX_PENDING_BYTES) {
+                interrupted |= awaitWrites();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            checkState();
+            pendingBytes += length;
+            writer.execute(() -> writeInBackground(bytes));
+        }
+        return length;
+    }
+
+    private void writeInBackground(byte[] bytes) {
+        try {
+            if (getFailure() == null) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        } finally {
+            synchronized (this) {
+                pendingBytes -= bytes.length;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Waits for pending writes to complete. Must be called while holding the lock of this channel.
+     *
+     * @return {@code true} if the thread was interrupted while waiting
+     */
+    private boolean awaitWrites() {
+        try {
+            wait();
+            return false;
+        } catch (InterruptedException e) {
+            /*
+             * Like BinaryGraphPrinter, do not let interrupted threads abort the dump. The interrupt
+             * is restored once waiting is done.
+             */
+            return true;
+        }
+    }
+
+    private void checkState() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (failure != null) {
+            throw new IOException("Asynchronous graph dump write failed", failure);
+        }
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            boolean interrupted = false;
+            while (pendingBytes > 0) {
+                interrupted |= awaitWrites();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            error = failure;
+        }
+        channel.close();
+        if (error != null) {
+            throw new IOException("Asynchronous graph dump write failed", error);
+        }
+    }
+}
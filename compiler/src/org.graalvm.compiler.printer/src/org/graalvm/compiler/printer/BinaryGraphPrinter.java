@@ -26,6 +26,7 @@ import static org.graalvm.compiler.graph.Edges.Type.Inputs;
 import static org.graalvm.compiler.graph.Edges.Type.Successors;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
@@ -60,6 +61,7 @@ import org.graalvm.compiler.nodes.FixedNode;
 import org.graalvm.compiler.nodes.PhiNode;
 import org.graalvm.compiler.nodes.ProxyNode;
 import org.graalvm.compiler.nodes.StructuredGraph.ScheduleResult;
+import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.VirtualState;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
@@ -148,6 +150,8 @@ public class BinaryGraphPrinter implements GraphPrinter {
     }
 
     private final ConstantPool constantPool;
+    private WeakReference<Graph> lastGraph;
+    private long lastGraphFingerprint;
     private final ByteBuffer buffer;
     private final WritableByteChannel channel;
     private final SnippetReflectionProvider snippetReflection;
@@ -170,6 +174,9 @@ public class BinaryGraphPrinter implements GraphPrinter {
     @SuppressWarnings("all")
     @Override
     public void print(DebugContext debug, Graph graph, Map<Object, Object> properties, int id, String format, Object... args) throws IOException {
+        if (DebugOptions.PrintGraphSkipUnchanged.getValue(graph.getOptions()) && isUnchanged(graph)) {
+            return;
+        }
         writeByte(BEGIN_GRAPH);
         if (CURRENT_MAJOR_VERSION >= 3) {
             writeInt(id);
@@ -185,6 +192,43 @@ public class BinaryGraphPrinter implements GraphPrinter {
         flush();
     }
 
+    /**
+     * Determines if {@code graph} is the graph printed last and has the same
+     * {@linkplain #fingerprint(Graph) fingerprint} as when it was printed.
+     */
+    private boolean isUnchanged(Graph graph) {
+        long fingerprint = fingerprint(graph);
+        if (lastGraph != null && lastGraph.get() == graph && lastGraphFingerprint == fingerprint) {
+            return true;
+        }
+        lastGraph = new WeakReference<>(graph);
+        lastGraphFingerprint = fingerprint;
+        return false;
+    }
+
+    /**
+     * Computes a hash of the nodes, edges and stamps of a graph. This is much cheaper than
+     * serializing the graph and catches all changes of the graph structure. Changes that only
+     * modify other node properties in place are not detected.
+     */
+    private static long fingerprint(Graph graph) {
+        long hash = graph.getNodeCount();
+        for (Node node : graph.getNodes()) {
+            hash = hash * 31 + node.getId();
+            hash = hash * 31 + System.identityHashCode(node.getNodeClass());
+            for (Node input : node.inputs()) {
+                hash = hash * 31 + input.getId();
+            }
+            for (Node successor : node.successors()) {
+                hash = hash * 31 + successor.getId();
+            }
+            if (node instanceof ValueNode) {
+                hash = hash * 31 + ((ValueNode) node).stamp().hashCode();
+            }
+        }
+        return hash;
+    }
+
     private void writeGraph(DebugContext debug, Graph graph, Map<Object, Object> properties) throws IOException {
         boolean needSchedule = DebugOptions.PrintGraphWithSchedule.getValue(graph.getOptions()) || debug.contextLookup(Throwable.class) != null;
         ScheduleResult scheduleResult = needSchedule ? GraphPrinter.getScheduleOrNull(graph) : null;
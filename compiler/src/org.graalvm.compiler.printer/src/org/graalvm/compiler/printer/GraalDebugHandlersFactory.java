@@ -24,6 +24,8 @@ package org.graalvm.compiler.printer;
 
 import static org.graalvm.compiler.debug.DebugOptions.PrintBinaryGraphPort;
 import static org.graalvm.compiler.debug.DebugOptions.PrintBinaryGraphs;
+import static org.graalvm.compiler.debug.DebugOptions.PrintGraphAsync;
+import static org.graalvm.compiler.debug.DebugOptions.PrintGraphFileCompressed;
 import static org.graalvm.compiler.debug.DebugOptions.PrintGraphHost;
 import static org.graalvm.compiler.debug.DebugOptions.PrintXmlGraphPort;
 import static org.graalvm.compiler.debug.DebugOptions.ShowDumpFiles;
@@ -33,9 +35,11 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
@@ -45,6 +49,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
@@ -150,7 +155,7 @@ public class GraalDebugHandlersFactory implements DebugHandlersFactory {
         try {
             GraphPrinter printer;
             if (DebugOptions.PrintBinaryGraphs.getValue(options)) {
-                printer = new BinaryGraphPrinter(SocketChannel.open(new InetSocketAddress(host, port)), snippetReflection);
+                printer = new BinaryGraphPrinter(maybeAsynchronous(SocketChannel.open(new InetSocketAddress(host, port)), options), snippetReflection);
             } else {
                 printer = new IdealGraphPrinter(new Socket(host, port).getOutputStream(), true, snippetReflection);
             }
@@ -262,12 +267,30 @@ public class GraalDebugHandlersFactory implements DebugHandlersFactory {
         }
     }
 
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Wraps {@code channel} in an {@link AsynchronousDumpChannel} if
+     * {@link DebugOptions#PrintGraphAsync} is enabled. Compression of the dump is then also done by
+     * the background writer.
+     */
+    private static WritableByteChannel maybeAsynchronous(WritableByteChannel channel, OptionValues options) {
+        return PrintGraphAsync.getValue(options) ? new AsynchronousDumpChannel(channel) : channel;
+    }
+
     private static GraphPrinter createFilePrinter(Graph graph, OptionValues options, SnippetReflectionProvider snippetReflection) throws IOException {
-        Path path = createDumpPath(options, graph, PrintBinaryGraphs.getValue(options) ? "bgv" : "gv.xml", false);
+        boolean compressed = PrintBinaryGraphs.getValue(options) && PrintGraphFileCompressed.getValue(options);
+        Path path = createDumpPath(options, graph, PrintBinaryGraphs.getValue(options) ? (compressed ? "bgv.gz" : "bgv") : "gv.xml", false);
         try {
             GraphPrinter printer;
             if (DebugOptions.PrintBinaryGraphs.getValue(options)) {
-                printer = new BinaryGraphPrinter(FileChannel.open(path, StandardOpenOption.WRITE), snippetReflection);
+                WritableByteChannel channel;
+                if (compressed) {
+                    channel = Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(path), COMPRESSION_BUFFER_SIZE));
+                } else {
+                    channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                }
+                printer = new BinaryGraphPrinter(maybeAsynchronous(channel, options), snippetReflection);
             } else {
                 printer = new IdealGraphPrinter(Files.newOutputStream(path), true, snippetReflection);
             }
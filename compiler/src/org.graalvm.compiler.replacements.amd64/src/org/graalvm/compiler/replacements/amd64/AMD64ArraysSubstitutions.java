@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.replacements.nodes.ArrayFillNode;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@link java.util.Arrays} methods.
+ */
+@ClassSubstitution(java.util.Arrays.class)
+public class AMD64ArraysSubstitutions {
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, boolean value) {
+        ArrayFillNode.fill(a, 0, a.length, value ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, int fromIndex, int toIndex, boolean value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, byte value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, int fromIndex, int toIndex, byte value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, char value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, int fromIndex, int toIndex, char value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, short value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, int fromIndex, int toIndex, short value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int fromIndex, int toIndex, int value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, long value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, int fromIndex, int toIndex, long value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, float value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, int fromIndex, int toIndex, float value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, double value) {
+        ArrayFillNode.fill(a, 0, a.length, value, JavaKind.Double);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, int fromIndex, int toIndex, double value) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) {
+            // Let the original method throw the appropriate exception.
+            fill(a, fromIndex, toIndex, value);
+            return;
+        }
+        ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, value, JavaKind.Double);
+    }
+}
@@ -31,9 +31,16 @@ import static org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.Una
 import static org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.TAN;
 import static org.graalvm.compiler.serviceprovider.JDK9Method.Java8OrEarlier;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
 import org.graalvm.compiler.bytecode.BytecodeProvider;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool.RoundingMode;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.LeftShiftNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.RightShiftNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
 import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
@@ -53,6 +60,8 @@ import org.graalvm.compiler.replacements.nodes.BinaryMathIntrinsicNode.BinaryOpe
 import org.graalvm.compiler.replacements.nodes.BitCountNode;
 import org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode;
 import org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation;
+import org.graalvm.compiler.replacements.nodes.VectorizedMismatchNode;
+import org.graalvm.compiler.replacements.nodes.arithmetic.FusedMultiplyAddNode;
 import org.graalvm.word.LocationIdentity;
 
 import jdk.vm.ci.amd64.AMD64;
@@ -72,6 +81,7 @@ public class AMD64GraphBuilderPlugins {
                 registerIntegerLongPlugins(invocationPlugins, LongSubstitutions.class, JavaKind.Long, arch, replacementsBytecodeProvider);
                 registerUnsafePlugins(invocationPlugins, replacementsBytecodeProvider);
                 registerStringPlugins(invocationPlugins, arch, replacementsBytecodeProvider);
+                registerArraysPlugins(invocationPlugins, replacementsBytecodeProvider);
                 registerMathPlugins(invocationPlugins, arch, arithmeticStubs, replacementsBytecodeProvider);
             }
         });
@@ -146,6 +156,26 @@ public class AMD64GraphBuilderPlugins {
             registerRound(r, "ceil", RoundingMode.UP);
             registerRound(r, "floor", RoundingMode.DOWN);
         }
+
+        if (!Java8OrEarlier && arch.getFeatures().contains(CPUFeature.FMA)) {
+            /*
+             * Without FMA3 the JDK implementation is used as a separate multiply and add would
+             * round twice.
+             */
+            registerFusedMultiplyAdd(r, JavaKind.Float);
+            registerFusedMultiplyAdd(r, JavaKind.Double);
+        }
+    }
+
+    private static void registerFusedMultiplyAdd(Registration r, JavaKind kind) {
+        Class<?> type = kind.toJavaClass();
+        r.register3("fma", type, type, type, new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode x, ValueNode y, ValueNode z) {
+                b.addPush(kind, new FusedMultiplyAddNode(x, y, z));
+                return true;
+            }
+        });
     }
 
     private static void registerUnaryMath(Registration r, String name, UnaryOperation operation) {
@@ -179,12 +209,66 @@ public class AMD64GraphBuilderPlugins {
     }
 
     private static void registerStringPlugins(InvocationPlugins plugins, AMD64 arch, BytecodeProvider replacementsBytecodeProvider) {
-        if (Java8OrEarlier && arch.getFeatures().contains(CPUFeature.SSE4_2)) {
-            Registration r;
-            r = new Registration(plugins, String.class, replacementsBytecodeProvider);
-            r.setAllowOverwrite(true);
-            r.registerMethodSubstitution(AMD64StringSubstitutions.class, "indexOf", char[].class, int.class,
-                            int.class, char[].class, int.class, int.class, int.class);
+        if (Java8OrEarlier) {
+            if (arch.getFeatures().contains(CPUFeature.SSE4_2)) {
+                Registration r;
+                r = new Registration(plugins, String.class, replacementsBytecodeProvider);
+                r.setAllowOverwrite(true);
+                r.registerMethodSubstitution(AMD64StringSubstitutions.class, "indexOf", char[].class, int.class,
+                                int.class, char[].class, int.class, int.class, int.class);
+            }
+        } else {
+            registerStringLatin1Plugins(plugins, replacementsBytecodeProvider);
+            registerStringUTF16Plugins(plugins, arch, replacementsBytecodeProvider);
+        }
+    }
+
+    private static void registerStringLatin1Plugins(InvocationPlugins plugins, BytecodeProvider replacementsBytecodeProvider) {
+        Registration r = new Registration(plugins, "java.lang.StringLatin1", replacementsBytecodeProvider);
+        r.setAllowOverwrite(true);
+        r.registerMethodSubstitution(AMD64StringLatin1Substitutions.class, "compareTo", byte[].class, byte[].class);
+        r.registerMethodSubstitution(AMD64StringLatin1Substitutions.class, "compareToUTF16", byte[].class, byte[].class);
+        r.registerMethodSubstitution(AMD64StringLatin1Substitutions.class, "inflate", byte[].class, int.class, char[].class, int.class, int.class);
+        r.registerMethodSubstitution(AMD64StringLatin1Substitutions.class, "inflate", byte[].class, int.class, byte[].class, int.class, int.class);
+    }
+
+    private static void registerStringUTF16Plugins(InvocationPlugins plugins, AMD64 arch, BytecodeProvider replacementsBytecodeProvider) {
+        Registration r = new Registration(plugins, "java.lang.StringUTF16", replacementsBytecodeProvider);
+        r.setAllowOverwrite(true);
+        r.registerMethodSubstitution(AMD64StringUTF16Substitutions.class, "compareTo", byte[].class, byte[].class);
+        r.registerMethodSubstitution(AMD64StringUTF16Substitutions.class, "compareToLatin1", byte[].class, byte[].class);
+        r.registerMethodSubstitution(AMD64StringUTF16Substitutions.class, "compress", char[].class, int.class, byte[].class, int.class, int.class);
+        r.registerMethodSubstitution(AMD64StringUTF16Substitutions.class, "compress", byte[].class, int.class, byte[].class, int.class, int.class);
+        if (arch.getFeatures().contains(CPUFeature.SSE4_2)) {
+            r.registerMethodSubstitution(AMD64StringUTF16Substitutions.class, "indexOf", byte[].class, int.class, byte[].class, int.class, int.class);
+        }
+    }
+
+    private static void registerArraysPlugins(InvocationPlugins plugins, BytecodeProvider replacementsBytecodeProvider) {
+        Registration r = new Registration(plugins, Arrays.class, replacementsBytecodeProvider);
+        for (JavaKind kind : new JavaKind[]{JavaKind.Boolean, JavaKind.Byte, JavaKind.Char, JavaKind.Short, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double}) {
+            Class<?> javaClass = kind.toJavaClass();
+            Class<?> arrayClass = Array.newInstance(javaClass, 0).getClass();
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", arrayClass, javaClass);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", arrayClass, int.class, int.class, javaClass);
+        }
+
+        if (!Java8OrEarlier) {
+            // Also used by Arrays.mismatch, Arrays.compare and the equals/compareTo of the NIO buffers.
+            r = new Registration(plugins, "jdk.internal.util.ArraysSupport", replacementsBytecodeProvider);
+            r.register6("vectorizedMismatch", Object.class, long.class, Object.class, long.class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode base1, ValueNode offset1, ValueNode base2, ValueNode offset2,
+                                ValueNode length, ValueNode log2ArrayIndexScale) {
+                    ValueNode lengthInBytes = b.add(LeftShiftNode.create(b.add(SignExtendNode.create(length, 64)), log2ArrayIndexScale));
+                    ValueNode mismatch = b.add(new VectorizedMismatchNode(base1, offset1, base2, offset2, lengthInBytes));
+                    // The arithmetic shift keeps -1 for no mismatch, i.e., no remaining elements.
+                    ValueNode index = b.add(RightShiftNode.create(mismatch, log2ArrayIndexScale));
+                    b.addPush(JavaKind.Int, NarrowNode.create(index, 32));
+                    b.getGraph().markUnsafeAccess();
+                    return true;
+                }
+            });
         }
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.replacements.nodes.ArrayCompareToNode;
+import org.graalvm.compiler.replacements.nodes.StringLatin1InflateNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+import sun.misc.Unsafe;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code java.lang.StringLatin1} methods.
+ *
+ * Since JDK 9.
+ */
+@ClassSubstitution(className = "java.lang.StringLatin1", optional = true)
+public class AMD64StringLatin1Substitutions {
+
+    @MethodSubstitution(optional = true)
+    public static int compareTo(byte[] value, byte[] other) {
+        return ArrayCompareToNode.compareTo(value, other, value.length, other.length, JavaKind.Byte, JavaKind.Byte);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int compareToUTF16(byte[] value, byte[] other) {
+        return ArrayCompareToNode.compareTo(value, other, value.length, other.length >> 1, JavaKind.Byte, JavaKind.Char);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static void inflate(byte[] src, int srcOff, char[] dst, int dstOff, int len) {
+        if (len < 0 || srcOff < 0 || dstOff < 0 || srcOff > src.length - len || dstOff > dst.length - len) {
+            // Let the original method throw the appropriate exception.
+            inflate(src, srcOff, dst, dstOff, len);
+            return;
+        }
+        Pointer srcPointer = Word.objectToTrackedPointer(src).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(srcOff * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        Pointer dstPointer = Word.objectToTrackedPointer(dst).add(Unsafe.ARRAY_CHAR_BASE_OFFSET).add(dstOff * Unsafe.ARRAY_CHAR_INDEX_SCALE);
+        StringLatin1InflateNode.inflate(srcPointer, dstPointer, len, JavaKind.Char);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static void inflate(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        if (len < 0 || srcOff < 0 || dstOff < 0 || srcOff > src.length - len || dstOff > (dst.length >> 1) - len) {
+            // Let the original method throw the appropriate exception.
+            inflate(src, srcOff, dst, dstOff, len);
+            return;
+        }
+        Pointer srcPointer = Word.objectToTrackedPointer(src).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(srcOff * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        Pointer dstPointer = Word.objectToTrackedPointer(dst).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(dstOff * 2 * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        StringLatin1InflateNode.inflate(srcPointer, dstPointer, len, JavaKind.Byte);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.replacements.nodes.ArrayCompareToNode;
+import org.graalvm.compiler.replacements.nodes.StringUTF16CompressNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+import sun.misc.Unsafe;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code java.lang.StringUTF16} methods.
+ *
+ * Since JDK 9.
+ */
+@ClassSubstitution(className = "java.lang.StringUTF16", optional = true)
+public class AMD64StringUTF16Substitutions {
+
+    @MethodSubstitution(optional = true)
+    public static int compareTo(byte[] value, byte[] other) {
+        return ArrayCompareToNode.compareTo(value, other, value.length >> 1, other.length >> 1, JavaKind.Char, JavaKind.Char);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int compareToLatin1(byte[] value, byte[] other) {
+        /*
+         * Swapping array arguments because intrinsic expects order to be byte[]/char[] but kind
+         * arguments stay in original order.
+         */
+        return -ArrayCompareToNode.compareTo(other, value, other.length, value.length >> 1, JavaKind.Byte, JavaKind.Char);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int compress(char[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        if (len < 0 || srcOff < 0 || dstOff < 0 || srcOff > src.length - len || dstOff > dst.length - len) {
+            // Let the original method throw the appropriate exception.
+            return compress(src, srcOff, dst, dstOff, len);
+        }
+        Pointer srcPointer = Word.objectToTrackedPointer(src).add(Unsafe.ARRAY_CHAR_BASE_OFFSET).add(srcOff * Unsafe.ARRAY_CHAR_INDEX_SCALE);
+        Pointer dstPointer = Word.objectToTrackedPointer(dst).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(dstOff * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        return StringUTF16CompressNode.compress(srcPointer, dstPointer, len);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int compress(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        if (len < 0 || srcOff < 0 || dstOff < 0 || srcOff > (src.length >> 1) - len || dstOff > dst.length - len) {
+            // Let the original method throw the appropriate exception.
+            return compress(src, srcOff, dst, dstOff, len);
+        }
+        Pointer srcPointer = Word.objectToTrackedPointer(src).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(srcOff * 2 * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        Pointer dstPointer = Word.objectToTrackedPointer(dst).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(dstOff * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        return StringUTF16CompressNode.compress(srcPointer, dstPointer, len);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int indexOf(byte[] source, int sourceCount, byte[] target, int targetCount, int fromIndex) {
+        if (fromIndex >= sourceCount) {
+            return (targetCount == 0 ? sourceCount : -1);
+        }
+        if (targetCount == 0) {
+            return fromIndex;
+        }
+        if (fromIndex < 0 || sourceCount > (source.length >> 1) || targetCount > (target.length >> 1)) {
+            // Let the original method throw the appropriate exception.
+            return indexOf(source, sourceCount, target, targetCount, fromIndex);
+        }
+        if (sourceCount - fromIndex < targetCount) {
+            return -1;
+        }
+        // UTF-16 contents are laid out exactly like a char[], so the char based stub can be used.
+        Pointer sourcePointer = Word.objectToTrackedPointer(source).add(Unsafe.ARRAY_BYTE_BASE_OFFSET).add(fromIndex * 2 * Unsafe.ARRAY_BYTE_INDEX_SCALE);
+        Pointer targetPointer = Word.objectToTrackedPointer(target).add(Unsafe.ARRAY_BYTE_BASE_OFFSET);
+        int result = AMD64StringIndexOfNode.optimizedStringIndexPointer(sourcePointer, sourceCount - fromIndex, targetPointer, targetCount);
+        if (result >= 0) {
+            return result + fromIndex;
+        }
+        return result;
+    }
+}
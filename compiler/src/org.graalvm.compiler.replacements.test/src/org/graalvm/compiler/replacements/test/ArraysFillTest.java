@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.replacements.nodes.ArrayFillNode;
+import org.graalvm.compiler.replacements.nodes.VectorizedMismatchNode;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+
+/**
+ * Tests the {@link Arrays#fill} intrinsics, the replacement of array fill loops and the vectorized
+ * mismatch intrinsic behind the NIO buffer comparisons, around the vector sizes they use.
+ */
+public class ArraysFillTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100};
+
+    public static byte[] fillBytes(int length, byte value) {
+        byte[] array = new byte[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static char[] fillChars(int length, char value) {
+        char[] array = new char[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static short[] fillShortsRange(int length, int from, int to, short value) {
+        short[] array = new short[length];
+        Arrays.fill(array, from, to, value);
+        return array;
+    }
+
+    public static int[] fillInts(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static long[] fillLongsRange(int length, int from, int to, long value) {
+        long[] array = new long[length];
+        Arrays.fill(array, from, to, value);
+        return array;
+    }
+
+    public static float[] fillFloats(int length, float value) {
+        float[] array = new float[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static double[] fillDoubles(int length, double value) {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static boolean[] fillBooleans(int length, boolean value) {
+        boolean[] array = new boolean[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public static int fillLoop(int[] array, int start, int value) {
+        int length = array.length;
+        int i;
+        // the loop is only replaced if the start index is known to be non-negative
+        for (i = start & 0x7fffffff; i < length; i++) {
+            array[i] = value;
+        }
+        return i;
+    }
+
+    public static int compareBytes(byte[] a, byte[] b) {
+        return ByteBuffer.wrap(a).compareTo(ByteBuffer.wrap(b));
+    }
+
+    public static int compareInts(int[] a, int[] b) {
+        return IntBuffer.wrap(a).compareTo(IntBuffer.wrap(b));
+    }
+
+    @Test
+    public void testFill() {
+        for (int length : LENGTHS) {
+            test("fillBytes", length, (byte) 0x85);
+            test("fillChars", length, '\u20ac');
+            test("fillInts", length, 0x12345678);
+            test("fillFloats", length, -1.5f);
+            test("fillDoubles", length, Double.MIN_VALUE);
+            test("fillBooleans", length, true);
+        }
+    }
+
+    @Test
+    public void testFillRange() {
+        for (int length : LENGTHS) {
+            test("fillShortsRange", length, length / 3, length - length / 4, (short) -2);
+            test("fillLongsRange", length, 1, length, 0x123456789abcdefL);
+        }
+        // Out of bounds ranges throw the same exceptions as the original methods.
+        test("fillShortsRange", 10, 5, 4, (short) 1);
+        test("fillShortsRange", 10, -1, 4, (short) 1);
+        test("fillLongsRange", 10, 0, 11, 1L);
+    }
+
+    @Test
+    public void testFillLoop() {
+        for (int length : LENGTHS) {
+            test("fillLoop", new int[length], 0, 42);
+            test("fillLoop", new int[length], length / 2, -1);
+            test("fillLoop", new int[length], length + 1, 7);
+            if (getTarget().arch instanceof AMD64) {
+                Assert.assertTrue("expected fill loop to be replaced", lastCompiledGraph.getNodes().filter(ArrayFillNode.class).isNotEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testMismatchIntrinsic() throws ClassNotFoundException {
+        Assume.assumeFalse(Java8OrEarlier);
+        Assume.assumeTrue(getTarget().arch instanceof AMD64);
+        Class<?> arraysSupport = Class.forName("jdk.internal.util.ArraysSupport");
+        StructuredGraph graph = parseEager(getResolvedJavaMethod(arraysSupport, "mismatch", byte[].class, byte[].class, int.class), AllowAssumptions.YES);
+        Assert.assertTrue("expected vectorizedMismatch to be intrinsified", graph.getNodes().filter(VectorizedMismatchNode.class).isNotEmpty());
+    }
+
+    @Test
+    public void testMismatch() {
+        for (int length : LENGTHS) {
+            byte[] bytes = new byte[length];
+            int[] ints = new int[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) i;
+                ints[i] = i * 31;
+            }
+            test("compareBytes", bytes, bytes.clone());
+            test("compareInts", ints, ints.clone());
+            for (int i = 0; i < length; i++) {
+                byte[] otherBytes = bytes.clone();
+                otherBytes[i]++;
+                test("compareBytes", bytes, otherBytes);
+                int[] otherInts = ints.clone();
+                otherInts[i] -= 0x10000;
+                test("compareInts", ints, otherInts);
+            }
+            test("compareBytes", bytes, Arrays.copyOf(bytes, length + 1));
+        }
+    }
+}
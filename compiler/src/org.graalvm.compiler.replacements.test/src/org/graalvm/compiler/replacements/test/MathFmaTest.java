@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import static org.graalvm.compiler.serviceprovider.JDK9Method.Java8OrEarlier;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.replacements.nodes.arithmetic.FusedMultiplyAddNode;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests the intrinsics for {@code Math.fma} and {@code Math.multiplyHigh}. The methods are called
+ * through constant method handles as they only exist on JDK 9 and later.
+ */
+public class MathFmaTest extends GraalCompilerTest {
+
+    private static final MethodHandle FMA_DOUBLE;
+    private static final MethodHandle FMA_FLOAT;
+    private static final MethodHandle MULTIPLY_HIGH;
+
+    static {
+        MethodHandle fmaDouble = null;
+        MethodHandle fmaFloat = null;
+        MethodHandle multiplyHigh = null;
+        if (!Java8OrEarlier) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                fmaDouble = lookup.findStatic(Math.class, "fma", MethodType.methodType(double.class, double.class, double.class, double.class));
+                fmaFloat = lookup.findStatic(Math.class, "fma", MethodType.methodType(float.class, float.class, float.class, float.class));
+                multiplyHigh = lookup.findStatic(Math.class, "multiplyHigh", MethodType.methodType(long.class, long.class, long.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+        FMA_DOUBLE = fmaDouble;
+        FMA_FLOAT = fmaFloat;
+        MULTIPLY_HIGH = multiplyHigh;
+    }
+
+    private static final double[] DOUBLES = {0.0D, -0.0D, 0.1D, 1.0D, -1.0D, 10.0D, 1.0E-300D, Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.NaN};
+    private static final float[] FLOATS = {0.0F, -0.0F, 0.1F, 1.0F, -1.0F, 10.0F, 1.0E-30F, Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, Float.POSITIVE_INFINITY,
+                    Float.NEGATIVE_INFINITY, Float.NaN};
+    private static final long[] LONGS = {0L, 1L, -1L, 0xFFFFFFFFL, 0x100000000L, 0x123456789ABCDEFL, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    public static double fmaDouble(double a, double b, double c) throws Throwable {
+        return (double) FMA_DOUBLE.invokeExact(a, b, c);
+    }
+
+    public static float fmaFloat(float a, float b, float c) throws Throwable {
+        return (float) FMA_FLOAT.invokeExact(a, b, c);
+    }
+
+    public static long multiplyHigh(long a, long b) throws Throwable {
+        return (long) MULTIPLY_HIGH.invokeExact(a, b);
+    }
+
+    @Test
+    public void testReferenceFma() throws Throwable {
+        // rounding the product before the addition would yield exactly 0
+        Assert.assertEquals(5.551115123125783E-17D, FusedMultiplyAddNode.fma(0.1D, 10.0D, -1.0D), 0.0D);
+        Assert.assertEquals(1.4901161E-8F, FusedMultiplyAddNode.fma(0.1F, 10.0F, -1.0F), 0.0F);
+        // the rounded product overflows but the infinite addend still determines the result
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, FusedMultiplyAddNode.fma(Double.MAX_VALUE, Double.MAX_VALUE, Double.NEGATIVE_INFINITY), 0.0D);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, FusedMultiplyAddNode.fma(-Double.MAX_VALUE, Double.MAX_VALUE, Double.POSITIVE_INFINITY), 0.0D);
+        Assert.assertEquals(Float.NEGATIVE_INFINITY, FusedMultiplyAddNode.fma(Float.MAX_VALUE, Float.MAX_VALUE, Float.NEGATIVE_INFINITY), 0.0F);
+        Assert.assertEquals(Float.POSITIVE_INFINITY, FusedMultiplyAddNode.fma(-Float.MAX_VALUE, Float.MAX_VALUE, Float.POSITIVE_INFINITY), 0.0F);
+        if (!Java8OrEarlier) {
+            for (double a : DOUBLES) {
+                for (double b : DOUBLES) {
+                    for (double c : DOUBLES) {
+                        Assert.assertEquals(Double.doubleToLongBits(fmaDouble(a, b, c)), Double.doubleToLongBits(FusedMultiplyAddNode.fma(a, b, c)));
+                    }
+                }
+            }
+            for (float a : FLOATS) {
+                for (float b : FLOATS) {
+                    for (float c : FLOATS) {
+                        Assert.assertEquals(Float.floatToIntBits(fmaFloat(a, b, c)), Float.floatToIntBits(FusedMultiplyAddNode.fma(a, b, c)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFmaDouble() {
+        Assume.assumeFalse(Java8OrEarlier);
+        for (double a : DOUBLES) {
+            for (double b : DOUBLES) {
+                for (double c : DOUBLES) {
+                    test("fmaDouble", a, b, c);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFmaFloat() {
+        Assume.assumeFalse(Java8OrEarlier);
+        for (float a : FLOATS) {
+            for (float b : FLOATS) {
+                for (float c : FLOATS) {
+                    test("fmaFloat", a, b, c);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyHigh() {
+        Assume.assumeFalse(Java8OrEarlier);
+        for (long a : LONGS) {
+            for (long b : LONGS) {
+                test("multiplyHigh", a, b);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.replacements.nodes.ArrayCompareToNode;
+import org.graalvm.compiler.replacements.nodes.StringLatin1InflateNode;
+import org.graalvm.compiler.replacements.nodes.StringUTF16CompressNode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import jdk.vm.ci.amd64.AMD64;
+
+/**
+ * Tests {@link String#compareTo} and the compact string compression and inflation paths with
+ * mixes of Latin-1 and UTF-16 strings around the vector sizes used by the intrinsics.
+ */
+@RunWith(value = Parameterized.class)
+public class StringCompareToTest extends GraalCompilerTest {
+    @Parameterized.Parameter(value = 0) public String string1;
+    @Parameterized.Parameter(value = 1) public String string2;
+
+    @Parameterized.Parameters(name = "{0},{1}")
+    public static Collection<Object[]> data() {
+        ArrayList<Object[]> tests = new ArrayList<>();
+        String[] bases = new String[]{"", "a", "\u00e4", "\u20ac", "abcdefg", "abcdefgh", "abcdefghijklmnopq", "abcdefghijklmnop\u20ac", "\u00e4bcdefghijklmnopqrstuvwxyz012345"};
+        ArrayList<String> strings = new ArrayList<>();
+        for (String base : bases) {
+            strings.add(base);
+            strings.add(base + "x");
+            strings.add(base + "\u0100");
+        }
+        for (String s1 : strings) {
+            for (String s2 : strings) {
+                tests.add(new Object[]{s1, s2});
+            }
+        }
+        return tests;
+    }
+
+    public static int compareTo(String a, String b) {
+        return a.compareTo(b);
+    }
+
+    public static String copyChars(String s) {
+        return new String(s.toCharArray());
+    }
+
+    public static char[] toCharArray(String s) {
+        return s.toCharArray();
+    }
+
+    /**
+     * Checks that the last compiled graph uses the intrinsic. The intrinsics only exist for compact
+     * strings on AMD64.
+     */
+    private void assertIntrinsified(Class<? extends Node> intrinsic) {
+        if (!Java8OrEarlier && getTarget().arch instanceof AMD64) {
+            Assert.assertTrue("expected " + intrinsic.getSimpleName() + " in compiled graph", lastCompiledGraph.getNodes().filter(intrinsic).isNotEmpty());
+        }
+    }
+
+    @Test
+    public void testCompareTo() {
+        test("compareTo", string1, string2);
+        assertIntrinsified(ArrayCompareToNode.class);
+    }
+
+    @Test
+    public void testCompress() {
+        test("copyChars", string1 + string2);
+        assertIntrinsified(StringUTF16CompressNode.class);
+    }
+
+    @Test
+    public void testInflate() {
+        test("toCharArray", string1 + string2);
+        assertIntrinsified(StringLatin1InflateNode.class);
+    }
+}
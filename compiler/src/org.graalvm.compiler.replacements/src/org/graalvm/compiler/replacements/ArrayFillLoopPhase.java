@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph.Mark;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicConstantNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.tiers.PhaseContext;
+import org.graalvm.compiler.replacements.nodes.ArrayFillNode;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Replaces counted loops which store a loop-invariant value into every element of a primitive
+ * array up to its length with an {@link ArrayFillNode}. The recognized shape is
+ *
+ * <pre>
+ * for (int i = start; i &lt; a.length; i++) {
+ *     a[i] = value;
+ * }
+ * </pre>
+ *
+ * where {@code a.length} has been computed before the loop and {@code start} is known to be
+ * non-negative, so that no bounds check can fail. Rather than deleting the loop directly, its counter
+ * is made to start at its exit value and its condition is folded to the exit branch. Canonicalization
+ * then removes the loop while frame states after it still observe the right counter value.
+ */
+public class ArrayFillLoopPhase extends BasePhase<PhaseContext> {
+
+    public static class Options {
+
+        // @formatter:off
+        @Option(help = "Replace loops filling a primitive array with a loop-invariant value by an array fill intrinsic.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> OptArrayFillLoops = new OptionKey<>(true);
+        // @formatter:on
+    }
+
+    private static final CounterKey ARRAY_FILL_LOOPS = DebugContext.counter("ArrayFillLoops");
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public ArrayFillLoopPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (!graph.hasLoops() || !Options.OptArrayFillLoops.getValue(graph.getOptions())) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        Mark mark = graph.getMark();
+        boolean changed = false;
+        LoopsData data = new LoopsData(graph);
+        data.detectedCountedLoops();
+        for (LoopEx loop : data.countedLoops()) {
+            StoreIndexedNode store = matchFillLoop(loop);
+            if (store != null) {
+                debug.log("Replacing array fill loop %s", loop);
+                replaceFillLoop(graph, loop, store);
+                ARRAY_FILL_LOOPS.increment(debug);
+                changed = true;
+            }
+        }
+        data.deleteUnusedNodes();
+        if (changed) {
+            canonicalizer.applyIncremental(graph, context, mark);
+            debug.dump(DebugContext.DETAILED_LEVEL, graph, "After replacing array fill loops");
+        }
+    }
+
+    /**
+     * Returns the only store of {@code loop} if the loop fills a primitive array and can be
+     * replaced by an {@link ArrayFillNode}, and {@code null} otherwise.
+     */
+    private static StoreIndexedNode matchFillLoop(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        if (loopBegin.next() != counted.getLimitTest() || loopBegin.loopEnds().count() != 1 || loopBegin.phis().count() != 1) {
+            return null;
+        }
+        InductionVariable iv = counted.getCounter();
+        if (iv.valueNode() != loopBegin.phis().first() || iv.direction() != Direction.Up || !iv.isConstantStride() || iv.constantStride() != 1 || counted.isLimitIncluded()) {
+            return null;
+        }
+        if (((IntegerStamp) iv.initNode().stamp()).lowerBound() < 0) {
+            return null;
+        }
+
+        // The body must consist of the store alone.
+        AbstractBeginNode body = counted.getBody();
+        if (!(body.next() instanceof StoreIndexedNode)) {
+            return null;
+        }
+        StoreIndexedNode store = (StoreIndexedNode) body.next();
+        JavaKind kind = store.elementKind();
+        if (!kind.isPrimitive() || !(store.next() instanceof LoopEndNode)) {
+            return null;
+        }
+        if (store.index() != iv.valueNode() || !loop.isOutsideLoop(store.array()) || !loop.isOutsideLoop(store.value())) {
+            return null;
+        }
+
+        // Iterating up to the length of the stored array guarantees that all stores are in bounds.
+        ValueNode limit = counted.getLimit();
+        if (!(limit instanceof ArrayLengthNode) || GraphUtil.unproxify(((ArrayLengthNode) limit).array()) != GraphUtil.unproxify(store.array())) {
+            return null;
+        }
+        return store;
+    }
+
+    private static void replaceFillLoop(StructuredGraph graph, LoopEx loop, StoreIndexedNode store) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+        PhiNode phi = (PhiNode) counted.getCounter().valueNode();
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+
+        // The counter leaves the loop with max(start, limit).
+        ValueNode exitValue = graph.unique(new ConditionalNode(graph.unique(new IntegerLessThanNode(start, limit)), limit, start));
+        ValueNode length = graph.unique(new SubNode(exitValue, start));
+        ArrayFillNode fill = graph.add(new ArrayFillNode(store.array(), start, length, store.value(), store.elementKind()));
+        graph.addBeforeFixed(forwardEnd, fill);
+
+        phi.setValueAt(forwardEnd, exitValue);
+        IfNode limitTest = counted.getLimitTest();
+        limitTest.setCondition(LogicConstantNode.forBoolean(limitTest.falseSuccessor() == counted.getBody(), graph));
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.replacements.nodes.ArrayEqualsNode;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for the {@code java.lang.StringLatin1} and {@code java.lang.StringUTF16} helpers
+ * used by compact strings (JDK 9 and later). Both encodings store their contents in a
+ * {@code byte[]}, so equality is a plain byte-wise array comparison.
+ */
+@ClassSubstitution(className = {"java.lang.StringLatin1", "java.lang.StringUTF16"}, optional = true)
+public class CompactStringSubstitutions {
+
+    @MethodSubstitution(optional = true)
+    public static boolean equals(byte[] value, byte[] other) {
+        if (value.length != other.length) {
+            return false;
+        }
+        return ArrayEqualsNode.equals(value, other, value.length);
+    }
+}
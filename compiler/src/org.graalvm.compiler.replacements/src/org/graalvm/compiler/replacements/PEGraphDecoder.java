@@ -486,6 +486,7 @@ public abstract class PEGraphDecoder extends SimplifyingGraphDecoder {
     @Override
     protected void checkLoopExplosionIteration(MethodScope s, LoopScope loopScope) {
         PEMethodScope methodScope = (PEMethodScope) s;
+        graph.checkCancellation();
 
         if (loopScope.loopIteration > Options.MaximumLoopExplosionCount.getValue(options)) {
             throw tooManyLoopExplosionIterations(methodScope, options);
@@ -674,6 +675,7 @@ public abstract class PEGraphDecoder extends SimplifyingGraphDecoder {
         if (methodScope.inliningDepth > Options.InliningDepthError.getValue(options)) {
             throw tooDeepInlining(methodScope);
         }
+        graph.checkCancellation();
 
         for (InlineInvokePlugin plugin : inlineInvokePlugins) {
             plugin.notifyBeforeInline(inlineMethod);
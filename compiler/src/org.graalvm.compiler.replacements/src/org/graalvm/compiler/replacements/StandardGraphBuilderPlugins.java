@@ -99,6 +99,7 @@ import org.graalvm.compiler.replacements.nodes.ReverseBytesNode;
 import org.graalvm.compiler.replacements.nodes.VirtualizableInvokeMacroNode;
 import org.graalvm.compiler.replacements.nodes.arithmetic.IntegerAddExactNode;
 import org.graalvm.compiler.replacements.nodes.arithmetic.IntegerMulExactNode;
+import org.graalvm.compiler.replacements.nodes.arithmetic.IntegerMulHighNode;
 import org.graalvm.compiler.replacements.nodes.arithmetic.IntegerSubExactNode;
 import org.graalvm.word.LocationIdentity;
 
@@ -179,6 +180,12 @@ public class StandardGraphBuilderPlugins {
                     return true;
                 }
             });
+        } else {
+            Registration latin1 = new Registration(plugins, "java.lang.StringLatin1", bytecodeProvider);
+            latin1.registerMethodSubstitution(CompactStringSubstitutions.class, "equals", byte[].class, byte[].class);
+
+            Registration utf16 = new Registration(plugins, "java.lang.StringUTF16", bytecodeProvider);
+            utf16.registerMethodSubstitution(CompactStringSubstitutions.class, "equals", byte[].class, byte[].class);
         }
     }
 
@@ -404,6 +411,15 @@ public class StandardGraphBuilderPlugins {
                 });
             }
         }
+        if (!Java8OrEarlier) {
+            r.register2("multiplyHigh", Long.TYPE, Long.TYPE, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode x, ValueNode y) {
+                    b.push(JavaKind.Long, b.append(new IntegerMulHighNode(x, y)));
+                    return true;
+                }
+            });
+        }
         r.register1("abs", Float.TYPE, new InvocationPlugin() {
 
             @Override
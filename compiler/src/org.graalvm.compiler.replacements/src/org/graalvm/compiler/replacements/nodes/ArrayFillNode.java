@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.nodes;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_512;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+// JaCoCo Exclude
+
+/**
+ * Stores {@link #value} into the {@link #length} elements of a primitive array starting at
+ * {@link #fromIndex}. The caller is responsible for the bounds checks.
+ */
+@NodeInfo(cycles = CYCLES_512, size = SIZE_64)
+public final class ArrayFillNode extends FixedWithNextNode implements LIRLowerable, MemoryCheckpoint.Single, MemoryAccess {
+
+    public static final NodeClass<ArrayFillNode> TYPE = NodeClass.create(ArrayFillNode.class);
+
+    /** The array to be filled. */
+    @Input ValueNode array;
+
+    /** Index of the first element to be filled. */
+    @Input ValueNode fromIndex;
+
+    /** Number of elements to be filled. */
+    @Input ValueNode length;
+
+    /** Value stored into every element. */
+    @Input ValueNode value;
+
+    @OptionalInput(Memory) MemoryNode lastLocationAccess;
+
+    private final JavaKind kind;
+
+    public ArrayFillNode(ValueNode array, ValueNode fromIndex, ValueNode length, ValueNode value, @ConstantNodeParameter JavaKind kind) {
+        super(TYPE, StampFactory.forVoid());
+        assert kind.isPrimitive() && kind != JavaKind.Void : kind;
+        this.array = array;
+        this.fromIndex = fromIndex;
+        this.length = length;
+        this.value = value;
+        this.kind = kind;
+    }
+
+    public ValueNode getArray() {
+        return array;
+    }
+
+    public ValueNode getFromIndex() {
+        return fromIndex;
+    }
+
+    public ValueNode getLength() {
+        return length;
+    }
+
+    public ValueNode getValue() {
+        return value;
+    }
+
+    public JavaKind getKind() {
+        return kind;
+    }
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int fromIndex, int length, int value, @ConstantNodeParameter JavaKind kind);
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int fromIndex, int length, long value, @ConstantNodeParameter JavaKind kind);
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int fromIndex, int length, float value, @ConstantNodeParameter JavaKind kind);
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int fromIndex, int length, double value, @ConstantNodeParameter JavaKind kind);
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value fillValue = gen.operand(value);
+        if (kind == JavaKind.Float) {
+            fillValue = gen.getLIRGeneratorTool().getArithmetic().emitReinterpret(LIRKind.value(gen.getLIRGeneratorTool().target().arch.getPlatformKind(JavaKind.Int)), fillValue);
+        } else if (kind == JavaKind.Double) {
+            fillValue = gen.getLIRGeneratorTool().getArithmetic().emitReinterpret(LIRKind.value(gen.getLIRGeneratorTool().target().arch.getPlatformKind(JavaKind.Long)), fillValue);
+        }
+        gen.getLIRGeneratorTool().emitArrayFill(kind, gen.operand(array), gen.operand(fromIndex), gen.operand(length), fillValue);
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+
+    @Override
+    public MemoryNode getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryNode lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+}
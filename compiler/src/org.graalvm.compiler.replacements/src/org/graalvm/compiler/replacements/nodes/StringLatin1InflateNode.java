@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.nodes;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_512;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Inflates {@link #length} Latin-1 encoded bytes starting at {@link #src} into UTF-16 chars
+ * starting at {@link #dst}.
+ */
+@NodeInfo(cycles = CYCLES_512, size = SIZE_64)
+public final class StringLatin1InflateNode extends FixedWithNextNode implements LIRLowerable, MemoryCheckpoint.Single, MemoryAccess {
+
+    public static final NodeClass<StringLatin1InflateNode> TYPE = NodeClass.create(StringLatin1InflateNode.class);
+
+    /** {@link JavaKind} of the destination array elements. */
+    protected final JavaKind writeKind;
+
+    @Input ValueNode src;
+    @Input ValueNode dst;
+    @Input ValueNode length;
+
+    @OptionalInput(Memory) MemoryNode lastLocationAccess;
+
+    public StringLatin1InflateNode(ValueNode src, ValueNode dst, ValueNode length, @ConstantNodeParameter JavaKind writeKind) {
+        super(TYPE, StampFactory.forVoid());
+        this.src = src;
+        this.dst = dst;
+        this.length = length;
+        this.writeKind = writeKind;
+    }
+
+    @NodeIntrinsic
+    public static native void inflate(Pointer src, Pointer dst, int length, @ConstantNodeParameter JavaKind writeKind);
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitStringLatin1Inflate(gen.operand(src), gen.operand(dst), gen.operand(length));
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        // the source array is read and the destination array is written, which cannot be
+        // expressed with a single location
+        return LocationIdentity.any();
+    }
+
+    @Override
+    public MemoryNode getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryNode lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+}
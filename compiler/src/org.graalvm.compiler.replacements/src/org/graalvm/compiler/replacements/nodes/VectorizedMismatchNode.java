@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.nodes;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_512;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+// JaCoCo Exclude
+
+/**
+ * Finds the first mismatching byte of two memory regions, each given as a base object and an
+ * offset, in the manner of {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}. Produces
+ * the byte index of the first mismatch within the first {@link #length} bytes, or -1 if there is
+ * none. Both the length and the result are longs since a byte count can exceed the int range.
+ */
+@NodeInfo(cycles = CYCLES_512, size = SIZE_64)
+public final class VectorizedMismatchNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<VectorizedMismatchNode> TYPE = NodeClass.create(VectorizedMismatchNode.class);
+
+    @Input ValueNode base1;
+    @Input ValueNode offset1;
+    @Input ValueNode base2;
+    @Input ValueNode offset2;
+
+    /** Number of bytes to compare. */
+    @Input ValueNode length;
+
+    @OptionalInput(Memory) MemoryNode lastLocationAccess;
+
+    public VectorizedMismatchNode(ValueNode base1, ValueNode offset1, ValueNode base2, ValueNode offset2, ValueNode length) {
+        super(TYPE, StampFactory.forKind(JavaKind.Long));
+        this.base1 = base1;
+        this.offset1 = offset1;
+        this.base2 = base2;
+        this.offset2 = offset2;
+        this.length = length;
+    }
+
+    @NodeIntrinsic
+    public static native long vectorizedMismatch(Object base1, long offset1, Object base2, long offset2, long length);
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value result = gen.getLIRGeneratorTool().emitVectorizedMismatch(gen.operand(base1), gen.operand(offset1), gen.operand(base2), gen.operand(offset2), gen.operand(length));
+        gen.setResult(this, result);
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return LocationIdentity.any();
+    }
+
+    @Override
+    public MemoryNode getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryNode lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.nodes.arithmetic;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_4;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_1;
+
+import java.math.BigDecimal;
+
+import org.graalvm.compiler.core.common.type.FloatStamp;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.spi.Canonicalizable;
+import org.graalvm.compiler.graph.spi.CanonicalizerTool;
+import org.graalvm.compiler.lir.gen.ArithmeticLIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.FloatingNode;
+import org.graalvm.compiler.nodes.spi.ArithmeticLIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Computes {@code x * y + z} as if with unlimited range and precision and rounds the result once
+ * to the nearest {@code float} or {@code double}, as specified by {@code Math.fma}. This node must
+ * only be created for targets that can lower it to a fused instruction.
+ */
+@NodeInfo(shortName = "*+", cycles = CYCLES_4, size = SIZE_1)
+public final class FusedMultiplyAddNode extends FloatingNode implements ArithmeticLIRLowerable, Canonicalizable {
+    public static final NodeClass<FusedMultiplyAddNode> TYPE = NodeClass.create(FusedMultiplyAddNode.class);
+
+    @Input protected ValueNode x;
+    @Input protected ValueNode y;
+    @Input protected ValueNode z;
+
+    public FusedMultiplyAddNode(ValueNode x, ValueNode y, ValueNode z) {
+        super(TYPE, x.stamp().unrestricted());
+        assert x.getStackKind().isNumericFloat() && x.getStackKind() == y.getStackKind() && x.getStackKind() == z.getStackKind();
+        assert x.stamp() instanceof FloatStamp;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public ValueNode getX() {
+        return x;
+    }
+
+    public ValueNode getY() {
+        return y;
+    }
+
+    public ValueNode getZ() {
+        return z;
+    }
+
+    @Override
+    public ValueNode canonical(CanonicalizerTool tool) {
+        if (x.isJavaConstant() && y.isJavaConstant() && z.isJavaConstant()) {
+            JavaConstant a = x.asJavaConstant();
+            JavaConstant b = y.asJavaConstant();
+            JavaConstant c = z.asJavaConstant();
+            if (getStackKind() == JavaKind.Float) {
+                return ConstantNode.forFloat(fma(a.asFloat(), b.asFloat(), c.asFloat()));
+            } else {
+                assert getStackKind() == JavaKind.Double;
+                return ConstantNode.forDouble(fma(a.asDouble(), b.asDouble(), c.asDouble()));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool builder, ArithmeticLIRGeneratorTool gen) {
+        builder.setResult(this, gen.emitFusedMultiplyAdd(builder.operand(x), builder.operand(y), builder.operand(z)));
+    }
+
+    /**
+     * Reference implementation of {@code Math.fma(double, double, double)} that also works on JDK
+     * versions predating it.
+     */
+    public static double fma(double a, double b, double c) {
+        if (Double.isNaN(a) || Double.isNaN(b) || Double.isNaN(c)) {
+            return Double.NaN;
+        }
+        boolean infiniteA = Double.isInfinite(a);
+        boolean infiniteB = Double.isInfinite(b);
+        if (infiniteA || infiniteB || Double.isInfinite(c)) {
+            if ((infiniteA && b == 0.0D) || (infiniteB && a == 0.0D)) {
+                return Double.NaN;
+            }
+            if (!infiniteA && !infiniteB) {
+                // the exact product is finite, so the infinite addend determines the result even
+                // if the rounded product overflows
+                return c;
+            }
+            return a * b + c;
+        }
+        if (a == 0.0D || b == 0.0D) {
+            // the product is exact
+            return a * b + c;
+        }
+        BigDecimal result = new BigDecimal(a).multiply(new BigDecimal(b)).add(new BigDecimal(c));
+        if (result.signum() == 0) {
+            // an exact zero sum of non-zero operands is positive in round to nearest mode
+            return 0.0D;
+        }
+        return result.doubleValue();
+    }
+
+    /**
+     * Reference implementation of {@code Math.fma(float, float, float)} that also works on JDK
+     * versions predating it.
+     */
+    public static float fma(float a, float b, float c) {
+        if (!Float.isFinite(a) || !Float.isFinite(b) || !Float.isFinite(c)) {
+            // the product of two floats cannot overflow a double, so the double expression rounded
+            // to float gives the same non-finite result
+            return (float) ((double) a * (double) b + (double) c);
+        }
+        if (a == 0.0F || b == 0.0F) {
+            return a * b + c;
+        }
+        BigDecimal result = new BigDecimal(a).multiply(new BigDecimal(b)).add(new BigDecimal(c));
+        if (result.signum() == 0) {
+            return 0.0F;
+        }
+        return result.floatValue();
+    }
+}
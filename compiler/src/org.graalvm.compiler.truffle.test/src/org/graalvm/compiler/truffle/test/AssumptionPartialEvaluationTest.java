@@ -22,11 +22,15 @@
  */
 package org.graalvm.compiler.truffle.test;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import org.graalvm.compiler.truffle.OptimizedAssumption;
 import org.graalvm.compiler.truffle.OptimizedCallTarget;
 import org.graalvm.compiler.truffle.test.nodes.AbstractTestNode;
+import org.graalvm.compiler.truffle.test.nodes.AddTestNode;
 import org.graalvm.compiler.truffle.test.nodes.AssumptionCutsBranchTestNode;
 import org.graalvm.compiler.truffle.test.nodes.ConstantWithAssumptionTestNode;
 import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
@@ -35,6 +39,8 @@ import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 
+import jdk.vm.ci.code.InstalledCode;
+
 public class AssumptionPartialEvaluationTest extends PartialEvaluationTest {
     public static Object constant42() {
         return 42;
@@ -64,6 +70,83 @@ public class AssumptionPartialEvaluationTest extends PartialEvaluationTest {
         assertDeepEquals(43, callTarget.call());
     }
 
+    @Test
+    public void invalidateAssumptions() {
+        Assumption assumption1 = Truffle.getRuntime().createAssumption();
+        Assumption assumption2 = Truffle.getRuntime().createAssumption();
+        AbstractTestNode result = new AddTestNode(new ConstantWithAssumptionTestNode(assumption1, 20), new ConstantWithAssumptionTestNode(assumption2, 22));
+        RootTestNode rootNode = new RootTestNode(new FrameDescriptor(), "invalidateAssumptions", result);
+        OptimizedCallTarget callTarget = assertPartialEvalEquals("constant42", rootNode);
+        Assert.assertTrue(callTarget.isValid());
+        assertDeepEquals(42, callTarget.call());
+
+        Truffle.getRuntime().invalidateAssumptions(Arrays.asList(assumption1, assumption2));
+        Assert.assertFalse(assumption1.isValid());
+        Assert.assertFalse(assumption2.isValid());
+        Assert.assertFalse(callTarget.isValid());
+        assertDeepEquals(44, callTarget.call());
+    }
+
+    private static final class ReinstallingInstalledCode extends InstalledCode {
+
+        private long currentVersion;
+        private boolean valid = true;
+        private Runnable onInvalidate;
+
+        ReinstallingInstalledCode() {
+            super("reinstalling");
+        }
+
+        @Override
+        public long getVersion() {
+            return currentVersion;
+        }
+
+        @Override
+        public boolean isValid() {
+            return valid;
+        }
+
+        @Override
+        public void invalidate() {
+            valid = false;
+            Runnable r = onInvalidate;
+            onInvalidate = null;
+            if (r != null) {
+                r.run();
+            }
+        }
+
+        void reinstall() {
+            currentVersion++;
+            valid = true;
+        }
+    }
+
+    /**
+     * Code that is recompiled while its old version is invalidated by
+     * {@link com.oracle.truffle.api.TruffleRuntime#invalidateAssumptions} and registers with one of
+     * the assumptions again must be invalidated as well.
+     */
+    @Test
+    public void invalidateAssumptionsRecompile() {
+        OptimizedAssumption assumption1 = (OptimizedAssumption) Truffle.getRuntime().createAssumption();
+        OptimizedAssumption assumption2 = (OptimizedAssumption) Truffle.getRuntime().createAssumption();
+        ReinstallingInstalledCode code = new ReinstallingInstalledCode();
+        assumption1.registerInstalledCode(code);
+        assumption2.registerInstalledCode(code);
+        code.onInvalidate = () -> {
+            code.reinstall();
+            assumption2.registerInstalledCode(code);
+        };
+
+        Truffle.getRuntime().invalidateAssumptions(Arrays.asList(assumption1, assumption2));
+        Assert.assertFalse(assumption1.isValid());
+        Assert.assertFalse(assumption2.isValid());
+        Assert.assertEquals(1, code.getVersion());
+        Assert.assertFalse(code.isValid());
+    }
+
     /**
      * This tests whether a valid Assumption does successfully cut of the branch that is not
      * executed.
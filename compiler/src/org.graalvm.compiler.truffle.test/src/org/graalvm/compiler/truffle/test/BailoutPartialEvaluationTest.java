@@ -22,11 +22,23 @@
  */
 package org.graalvm.compiler.truffle.test;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.Test;
 
+import org.graalvm.compiler.core.common.CancellationBailoutException;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.truffle.CancellableCompileTask;
+import org.graalvm.compiler.truffle.DefaultInliningPolicy;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleDebugJavaMethod;
+import org.graalvm.compiler.truffle.TruffleInlining;
 import org.graalvm.compiler.truffle.test.nodes.AbstractTestNode;
 import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
@@ -61,4 +73,28 @@ public class BailoutPartialEvaluationTest extends PartialEvaluationTest {
         });
         compileHelper("partialEvaluationConstantBailout2", rootNode, new Object[]{});
     }
+
+    @SuppressWarnings("try")
+    @Test(expected = CancellationBailoutException.class)
+    public void cancelledPartialEvaluation() {
+        FrameDescriptor fd = new FrameDescriptor();
+        RootTestNode rootNode = new RootTestNode(fd, "cancelledPartialEvaluation", new AbstractTestNode() {
+            @Override
+            public int execute(VirtualFrame frame) {
+                return 42;
+            }
+        });
+        OptimizedCallTarget compilable = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(rootNode);
+        compilable.call();
+
+        CancellableCompileTask task = new CancellableCompileTask();
+        task.setFuture(new CompletableFuture<>());
+        task.cancel();
+
+        DebugContext debug = getDebugContext(TruffleCompilerOptions.getOptions());
+        try (DebugContext.Scope s = debug.scope("TruffleCompilation", new TruffleDebugJavaMethod(compilable))) {
+            truffleCompiler.getPartialEvaluator().createGraph(debug, compilable, new TruffleInlining(compilable, new DefaultInliningPolicy()), AllowAssumptions.YES, getCompilationId(compilable),
+                            task);
+        }
+    }
 }
@@ -27,8 +27,10 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInlinin
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMaximumRecursiveInlining;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.overrideOptions;
 
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
 import org.graalvm.compiler.truffle.TruffleCompilerOptions;
 import org.graalvm.compiler.truffle.TruffleInlining;
+import org.graalvm.compiler.truffle.TruffleInliningDecision;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -232,4 +234,46 @@ public class BasicTruffleInliningTest extends TruffleInliningTest {
             Assert.assertTrue("Decisions where made!", decisions.getCallSites().isEmpty());
         }
     }
+
+    @Test
+    public void testIncrementalInlining() {
+        // @formatter:off
+        OptimizedCallTarget caller = builder.
+                target("c").
+                target("d").
+                target("a").
+                    calls("c").
+                target("b").
+                    calls("d").
+                target("caller").
+                    calls("a").
+                    calls("b").
+                buildTarget();
+        // @formatter:on
+        TruffleInlining first = new TruffleInlining(caller, policy);
+        TruffleInlining second = new TruffleInlining(caller, policy, first);
+        assertInlined(second, "c");
+        assertInlined(second, "d");
+        // unchanged call sites are not explored again
+        Assert.assertSame(findDecision(first, "a").getCallSites().get(0), findDecision(second, "a").getCallSites().get(0));
+        Assert.assertSame(findDecision(first, "b").getCallSites().get(0), findDecision(second, "b").getCallSites().get(0));
+
+        OptimizedCallTarget b = findDecision(second, "b").getTarget();
+        b.nodeReplaced(b.getRootNode(), b.getRootNode(), "test");
+        TruffleInlining third = new TruffleInlining(caller, policy, second);
+        assertInlined(third, "c");
+        assertInlined(third, "d");
+        Assert.assertSame(findDecision(second, "a").getCallSites().get(0), findDecision(third, "a").getCallSites().get(0));
+        // the rewritten call target is explored again
+        Assert.assertNotSame(findDecision(second, "b").getCallSites().get(0), findDecision(third, "b").getCallSites().get(0));
+    }
+
+    private static TruffleInliningDecision findDecision(TruffleInlining decisions, String name) {
+        for (TruffleInliningDecision decision : decisions) {
+            if (decision.getTarget().toString().equals(name)) {
+                return decision;
+            }
+        }
+        throw new AssertionError(name + " not found");
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.graalvm.compiler.core.common.CompilationRequestIdentifier.asCompilationRequest;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class EncodedGraphCacheTest extends PartialEvaluationTest {
+
+    @CompilationFinal static int value;
+
+    private static final class ReadStaticRootNode extends RootNode {
+
+        ReadStaticRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return value;
+        }
+    }
+
+    private void compile(OptimizedCallTarget compilable) {
+        CompilationIdentifier compilationId = getCompilationId(compilable);
+        StructuredGraph graph = partialEval(compilable, new Object[0], AllowAssumptions.YES, compilationId);
+        truffleCompiler.compileMethodHelper(graph, "readStatic", null, compilable, asCompilationRequest(compilationId));
+    }
+
+    /**
+     * The value of a static {@link CompilationFinal} field must be read again when the code that
+     * folded it is recompiled.
+     */
+    @Test
+    public void testStaticCompilationFinalNotCached() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleEncodedGraphCache, true)) {
+            value = 1;
+            OptimizedCallTarget compilable = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new ReadStaticRootNode());
+            compile(compilable);
+            Assert.assertTrue(compilable.isValid());
+            Assert.assertEquals(1, compilable.call());
+
+            value = 2;
+            compilable.invalidate();
+            Assert.assertFalse(compilable.isValid());
+            compile(compilable);
+            Assert.assertTrue(compilable.isValid());
+            Assert.assertEquals(2, compilable.call());
+
+            // a call target of a new AST parses the same execute method
+            OptimizedCallTarget other = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new ReadStaticRootNode());
+            compile(other);
+            Assert.assertTrue(other.isValid());
+            Assert.assertEquals(2, other.call());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.OptimizedDirectCallNode;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.debug.AbstractDebugCompilationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Tests the splitting of call sites that cause a polymorphic specialization of the callee, enabled
+ * with {@link TruffleCompilerOptions#TruffleExperimentalSplitting}.
+ */
+public class ExperimentalSplittingTest {
+
+    private final GraalTruffleRuntime runtime = GraalTruffleRuntime.getRuntime();
+
+    @ReportPolymorphism
+    abstract static class ReportingNode extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        int doInt(int value) {
+            return value;
+        }
+
+        @Specialization(guards = "value == cachedValue", limit = "100")
+        long doCached(long value, @Cached("value") long cachedValue) {
+            return cachedValue;
+        }
+    }
+
+    private static final class FillerNode extends Node {
+    }
+
+    private static final class CalleeRootNode extends RootNode {
+
+        @Child ReportingNode node = ExperimentalSplittingTestFactory.ReportingNodeGen.create();
+        @Children final FillerNode[] fillers;
+
+        CalleeRootNode(int fillerCount) {
+            super(null);
+            fillers = new FillerNode[fillerCount];
+            for (int i = 0; i < fillerCount; i++) {
+                fillers[i] = new FillerNode();
+            }
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return node.execute(frame.getArguments()[0]);
+        }
+
+        @Override
+        public boolean isCloningAllowed() {
+            return true;
+        }
+    }
+
+    private static final class CallerRootNode extends RootNode {
+
+        @Child DirectCallNode callNode;
+
+        CallerRootNode(CallTarget target) {
+            super(null);
+            callNode = GraalTruffleRuntime.getRuntime().createDirectCallNode(target);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callNode.call(frame.getArguments());
+        }
+    }
+
+    private static final class SplitListener extends AbstractDebugCompilationListener {
+
+        int splits;
+        final List<String> failures = new ArrayList<>();
+
+        @Override
+        public void notifyCompilationSplit(OptimizedDirectCallNode callNode) {
+            splits++;
+        }
+
+        @Override
+        public void notifyCompilationSplitFailed(OptimizedDirectCallNode callNode, CharSequence reason) {
+            failures.add(reason.toString());
+        }
+    }
+
+    private OptimizedCallTarget[] createCallers(OptimizedCallTarget callee, int count) {
+        OptimizedCallTarget[] callers = new OptimizedCallTarget[count];
+        for (int i = 0; i < count; i++) {
+            callers[i] = (OptimizedCallTarget) runtime.createCallTarget(new CallerRootNode(callee));
+            // the first call is monomorphic and makes the call site known to the callee
+            callers[i].call(0);
+        }
+        return callers;
+    }
+
+    private static DirectCallNode getCallNode(OptimizedCallTarget caller) {
+        return ((CallerRootNode) caller.getRootNode()).callNode;
+    }
+
+    @Test
+    public void testSplitPolymorphicCallSite() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleExperimentalSplitting, true,
+                        TruffleCompilerOptions.TruffleSplittingGrowthLimit, 1000000.0, TruffleCompilerOptions.TruffleSplittingMaxCalleeSize, 0)) {
+            OptimizedCallTarget callee = (OptimizedCallTarget) runtime.createCallTarget(new CalleeRootNode(0));
+            OptimizedCallTarget[] callers = createCallers(callee, 2);
+            Assert.assertFalse(getCallNode(callers[0]).isCallTargetCloned());
+            Assert.assertFalse(getCallNode(callers[1]).isCallTargetCloned());
+
+            // the polymorphic specialization marks the call site, it is split on its next call
+            callers[0].call(1L);
+            callers[0].call(1L);
+            Assert.assertTrue(getCallNode(callers[0]).isCallTargetCloned());
+            Assert.assertFalse(getCallNode(callers[1]).isCallTargetCloned());
+        }
+    }
+
+    @Test
+    public void testNoSplitIfDisabled() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleExperimentalSplitting, false,
+                        TruffleCompilerOptions.TruffleSplittingMaxCalleeSize, 0)) {
+            OptimizedCallTarget callee = (OptimizedCallTarget) runtime.createCallTarget(new CalleeRootNode(0));
+            OptimizedCallTarget[] callers = createCallers(callee, 2);
+            callers[0].call(1L);
+            callers[0].call(1L);
+            callers[0].call(2L);
+            callers[0].call(2L);
+            Assert.assertFalse(getCallNode(callers[0]).isCallTargetCloned());
+            Assert.assertFalse(getCallNode(callers[1]).isCallTargetCloned());
+        }
+    }
+
+    @Test
+    public void testSplitBudget() {
+        OptimizedCallTarget callee = (OptimizedCallTarget) runtime.createCallTarget(new CalleeRootNode(50));
+        int calleeSize = callee.getNonTrivialNodeCount();
+        // room for three splits of the callee on top of what earlier splits already reserved
+        int budget = (int) runtime.getSplitNodeCount() + 3 * calleeSize + calleeSize / 2;
+        SplitListener listener = new SplitListener();
+        runtime.addCompilationListener(listener);
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleExperimentalSplitting, true,
+                        TruffleCompilerOptions.TruffleSplittingGrowthLimit, 1000000.0, TruffleCompilerOptions.TruffleSplittingMaxNumberOfSplitNodes, budget)) {
+            OptimizedCallTarget[] callers = createCallers(callee, 6);
+            for (int i = 0; i < callers.length; i++) {
+                callers[i].call((long) i + 1);
+                callers[i].call((long) i + 1);
+            }
+            for (int i = 0; i < callers.length; i++) {
+                Assert.assertEquals(i < 3, getCallNode(callers[i]).isCallTargetCloned());
+            }
+            Assert.assertEquals(3, listener.splits);
+            Assert.assertEquals(3, listener.failures.size());
+            for (String reason : listener.failures) {
+                Assert.assertEquals("split budget exhausted", reason);
+            }
+        } finally {
+            runtime.removeCompilationListener(listener);
+        }
+    }
+
+}
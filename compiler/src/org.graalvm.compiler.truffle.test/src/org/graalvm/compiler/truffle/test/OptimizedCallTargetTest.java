@@ -25,6 +25,9 @@ package org.graalvm.compiler.truffle.test;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationThreshold;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompileOnly;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleFunctionInlining;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationBackoffThreshold;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationHalfLife;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMaximumInvalidations;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOSRCompilationThreshold;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleReplaceReprofileCount;
 import static org.junit.Assert.assertEquals;
@@ -246,6 +249,69 @@ public class OptimizedCallTargetTest extends TestWithSynchronousCompiling {
         });
     }
 
+    @Test
+    public void testInvalidationBackoff() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleInvalidationBackoffThreshold, 2, TruffleMaximumInvalidations, 4, TruffleInvalidationHalfLife, 0)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new NamedRootNode("testInvalidationBackoff"));
+            target.call();
+            for (int i = 1; i <= 4; i++) {
+                target.compile();
+                assertCompiled(target);
+                target.invalidate();
+                assertNotCompiled(target);
+                assertEquals(i, target.getCompilationProfile().getCodeInvalidationCount());
+                assertEquals(i >= 2, target.getCompilationProfile().isSpeculationDisabled());
+            }
+            final int compilationThreshold = TruffleCompilerOptions.getValue(TruffleCompilationThreshold);
+            for (int i = 0; i < compilationThreshold * 2; i++) {
+                target.call();
+            }
+            assertNotCompiled(target);
+        }
+    }
+
+    @Test
+    public void testInvalidationBackoffKeepsCompiling() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleInvalidationBackoffThreshold, 2, TruffleInvalidationHalfLife, 0)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new NamedRootNode("testInvalidationBackoffKeepsCompiling"));
+            target.call();
+            for (int i = 1; i <= 6; i++) {
+                target.compile();
+                assertCompiled(target);
+                target.invalidate();
+                assertNotCompiled(target);
+            }
+            // by default the recompilation is only delayed
+            final int compilationThreshold = TruffleCompilerOptions.getValue(TruffleCompilationThreshold);
+            for (int i = 0; i < compilationThreshold << 8 && !target.isValid(); i++) {
+                target.call();
+            }
+            assertCompiled(target);
+        }
+    }
+
+    @Test
+    public void testInvalidationCountDecays() throws InterruptedException {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleInvalidationBackoffThreshold, 2, TruffleInvalidationHalfLife, 100)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new NamedRootNode("testInvalidationCountDecays"));
+            target.call();
+            for (int i = 1; i <= 4; i++) {
+                target.compile();
+                assertCompiled(target);
+                target.invalidate();
+            }
+            assertTrue(target.getCompilationProfile().getCodeInvalidationCount() >= 1);
+            // ten half-lives without an invalidation reset the count
+            Thread.sleep(1000);
+            target.compile();
+            assertCompiled(target);
+            target.invalidate();
+            assertEquals(1, target.getCompilationProfile().getCodeInvalidationCount());
+            // below the backoff threshold again, so the recompilation may speculate
+            assertFalse(target.getCompilationProfile().isSpeculationDisabled());
+        }
+    }
+
     private static class NamedRootNode extends RootNode {
 
         private String name;
@@ -167,6 +167,20 @@ public class OptimizedOSRLoopNodeTest extends TestWithSynchronousCompiling {
         assertNotCompiled(rootNode.getOSRTarget());
     }
 
+    /*
+     * Test that adaptive OSR compiles a slow loop before it reaches the osr threshold.
+     */
+    @SuppressWarnings("try")
+    @Theory
+    public void testAdaptiveOSR(OSRLoopFactory factory) {
+        try (TruffleCompilerOptions.TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleAdaptiveOSR, true,
+                        TruffleCompilerOptions.TruffleOSRTimeThreshold, 0)) {
+            TestRootNode rootNode = new TestRootNode(factory, new TestRepeatingNode());
+            runtime.createCallTarget(rootNode).call(OSR_THRESHOLD / 10);
+            assertCompiled(rootNode.getOSRTarget());
+        }
+    }
+
     /*
      * Test frame slot changes in the loop cause deoptimization and reoptimization.
      */
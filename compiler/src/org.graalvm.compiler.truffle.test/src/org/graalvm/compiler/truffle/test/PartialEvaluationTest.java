@@ -85,7 +85,7 @@ public class PartialEvaluationTest extends GraalCompilerTest {
         return assertPartialEvalEquals(methodName, root, new Object[0]);
     }
 
-    private CompilationIdentifier getCompilationId(final OptimizedCallTarget compilable) {
+    protected CompilationIdentifier getCompilationId(final OptimizedCallTarget compilable) {
         return ((GraalTruffleRuntime) Truffle.getRuntime()).getCompilationIdentifier(compilable, truffleCompiler.getPartialEvaluator().getCompilationRootMethods()[0], getBackend());
     }
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.debug.AbstractDebugCompilationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class PolymorphicSpecializeTest {
+
+    @ReportPolymorphism
+    abstract static class ReportingNode extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        int doInt(int value) {
+            return value;
+        }
+
+        @Specialization(guards = "value == cachedValue", limit = "3")
+        long doCached(long value, @Cached("value") long cachedValue) {
+            return cachedValue;
+        }
+
+        @Specialization
+        String doString(String value) {
+            return value;
+        }
+    }
+
+    private static final class TestRootNode extends RootNode {
+
+        @Child ReportingNode node = PolymorphicSpecializeTestFactory.ReportingNodeGen.create();
+
+        private TestRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return node.execute(frame.getArguments()[0]);
+        }
+    }
+
+    private static final class CountingListener extends AbstractDebugCompilationListener {
+
+        int count;
+        OptimizedCallTarget lastTarget;
+        Node lastSource;
+
+        @Override
+        public void notifyPolymorphicSpecialize(OptimizedCallTarget target, Node source) {
+            count++;
+            lastTarget = target;
+            lastSource = source;
+        }
+    }
+
+    @Test
+    public void testReportPolymorphicSpecialize() {
+        GraalTruffleRuntime runtime = GraalTruffleRuntime.getRuntime();
+        TestRootNode rootNode = new TestRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(rootNode);
+        CountingListener listener = new CountingListener();
+        runtime.addCompilationListener(listener);
+        try {
+            target.call(1);
+            // the first specialization is not polymorphic
+            Assert.assertEquals(0, listener.count);
+            target.call(2);
+            Assert.assertEquals(0, listener.count);
+
+            target.call(1L);
+            Assert.assertEquals(1, listener.count);
+            Assert.assertSame(target, listener.lastTarget);
+            Assert.assertSame(rootNode.node, listener.lastSource);
+
+            // a new instance of a cached specialization is reported
+            target.call(2L);
+            Assert.assertEquals(2, listener.count);
+            target.call(2L);
+            Assert.assertEquals(2, listener.count);
+
+            target.call("a");
+            Assert.assertEquals(3, listener.count);
+            target.call("b");
+            Assert.assertEquals(3, listener.count);
+        } finally {
+            runtime.removeCompilationListener(listener);
+        }
+    }
+
+}
@@ -28,7 +28,11 @@ import org.graalvm.compiler.nodes.Cancellable;
 
 public class CancellableCompileTask implements Cancellable {
     Future<?> future = null;
-    boolean cancelled = false;
+    /*
+     * Polled by the compiler thread during partial evaluation and compilation, therefore it is
+     * read without acquiring the lock.
+     */
+    private volatile boolean cancelled = false;
 
     // This cannot be done in the constructor because the CancellableCompileTask needs to be
     // passed down to the compiler through a Runnable inner class.
@@ -46,12 +50,15 @@ public class CancellableCompileTask implements Cancellable {
     }
 
     @Override
-    public synchronized boolean isCancelled() {
-        assert future != null;
-        assert !cancelled || future.isCancelled();
+    public boolean isCancelled() {
         return cancelled;
     }
 
+    /**
+     * Requests cancellation of this task. A task that has not started yet will never run. A task
+     * that is already running observes the request cooperatively by polling {@link #isCancelled()}
+     * and aborts with a {@link org.graalvm.compiler.core.common.CancellationBailoutException}.
+     */
     public synchronized void cancel() {
         if (!cancelled) {
             assert future != null;
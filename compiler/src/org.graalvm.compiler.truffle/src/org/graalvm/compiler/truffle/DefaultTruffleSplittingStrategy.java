@@ -50,13 +50,18 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
 
     @Override
     public void forceSplitting() {
-        if (!canSplit()) {
+        if (!canSplit(call)) {
             return;
         }
         call.split();
     }
 
-    private boolean canSplit() {
+    @Override
+    public void polymorphicSpecialize() {
+        // splitting decisions are only based on the callee size and cost
+    }
+
+    static boolean canSplit(OptimizedDirectCallNode call) {
         if (call.isCallTargetCloned()) {
             return false;
         }
@@ -70,7 +75,7 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
     }
 
     private boolean shouldSplit() {
-        if (!canSplit()) {
+        if (!canSplit(call)) {
             return false;
         }
 
@@ -81,9 +86,7 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
         }
 
         // disable recursive splitting for now
-        OptimizedCallTarget root = (OptimizedCallTarget) call.getRootNode().getCallTarget();
-        if (root == callTarget || root.getSourceCallTarget() == callTarget) {
-            // recursive call found
+        if (isRecursiveCall(call)) {
             return false;
         }
 
@@ -94,6 +97,12 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
         return countPolymorphic(call) >= 1;
     }
 
+    static boolean isRecursiveCall(OptimizedDirectCallNode call) {
+        OptimizedCallTarget callTarget = call.getCallTarget();
+        OptimizedCallTarget root = (OptimizedCallTarget) call.getRootNode().getCallTarget();
+        return root == callTarget || root.getSourceCallTarget() == callTarget;
+    }
+
     private static boolean isMaxSingleCall(OptimizedDirectCallNode call) {
         return NodeUtil.countNodes(call.getCallTarget().getRootNode(), new NodeCountFilter() {
             @Override
@@ -40,6 +40,11 @@ import sun.misc.Unsafe;
  * More efficient implementation of the Truffle frame that has no safety checks for frame accesses
  * and therefore is much faster. Should not be used during debugging as potential misuses of the
  * frame object would show up very late and would be hard to identify.
+ *
+ * The primitive storage is only allocated with the first primitive store, so frames that only ever
+ * hold objects need just the locals and the tags array. A primitive slot can only be read after a
+ * primitive store has set its tag, therefore readers may assume the primitive storage is present.
+ * Frames allocated during partial evaluation always start with all three (virtual) arrays.
  */
 public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame {
     private final FrameDescriptor descriptor;
@@ -76,7 +81,6 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         if (defaultValue != null) {
             Arrays.fill(locals, defaultValue);
         }
-        this.primitiveLocals = new long[size];
         this.tags = new byte[size];
     }
 
@@ -106,6 +110,15 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return unsafeCast(this.primitiveLocals, long[].class, true, true);
     }
 
+    private long[] getOrCreatePrimitiveLocals() {
+        long[] curPrimitiveLocals = this.primitiveLocals;
+        if (curPrimitiveLocals == null) {
+            curPrimitiveLocals = new long[getTags().length];
+            this.primitiveLocals = curPrimitiveLocals;
+        }
+        return curPrimitiveLocals;
+    }
+
     byte[] getTags() {
         return unsafeCast(tags, byte[].class, true, true);
     }
@@ -146,7 +159,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setByteUnsafe(int slotIndex, FrameSlot slot, byte value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutInt(getPrimitiveLocals(), offset, value, slot);
+        unsafePutInt(getOrCreatePrimitiveLocals(), offset, value, slot);
     }
 
     @Override
@@ -170,7 +183,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setBooleanUnsafe(int slotIndex, FrameSlot slot, boolean value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutInt(getPrimitiveLocals(), offset, value ? 1 : 0, slot);
+        unsafePutInt(getOrCreatePrimitiveLocals(), offset, value ? 1 : 0, slot);
     }
 
     @Override
@@ -194,7 +207,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setFloatUnsafe(int slotIndex, FrameSlot slot, float value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutFloat(getPrimitiveLocals(), offset, value, slot);
+        unsafePutFloat(getOrCreatePrimitiveLocals(), offset, value, slot);
     }
 
     @Override
@@ -218,7 +231,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setLongUnsafe(int slotIndex, FrameSlot slot, long value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutLong(getPrimitiveLocals(), offset, value, slot);
+        unsafePutLong(getOrCreatePrimitiveLocals(), offset, value, slot);
     }
 
     @Override
@@ -242,7 +255,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setIntUnsafe(int slotIndex, FrameSlot slot, int value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutInt(getPrimitiveLocals(), offset, value, slot);
+        unsafePutInt(getOrCreatePrimitiveLocals(), offset, value, slot);
     }
 
     @Override
@@ -266,7 +279,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     private void setDoubleUnsafe(int slotIndex, FrameSlot slot, double value) {
         long offset = getPrimitiveOffset(slotIndex);
-        unsafePutDouble(getPrimitiveLocals(), offset, value, slot);
+        unsafePutDouble(getOrCreatePrimitiveLocals(), offset, value, slot);
     }
 
     @Override
@@ -345,7 +358,9 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         if (newSize > oldSize) {
             locals = Arrays.copyOf(locals, newSize);
             Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
-            primitiveLocals = Arrays.copyOf(primitiveLocals, newSize);
+            if (primitiveLocals != null) {
+                primitiveLocals = Arrays.copyOf(primitiveLocals, newSize);
+            }
             tags = Arrays.copyOf(tags, newSize);
             return true;
         }
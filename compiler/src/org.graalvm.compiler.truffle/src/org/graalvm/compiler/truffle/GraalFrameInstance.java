@@ -61,6 +61,14 @@ public final class GraalFrameInstance implements FrameInstance {
     private final InspectedFrame callTargetFrame;
     private final InspectedFrame callNodeFrame;
 
+    /*
+     * Reading locals of an inspected frame has to decode the frame state, so the call target and
+     * call node are looked up at most once per frame instance.
+     */
+    private CallTarget callTarget;
+    private Node callNode;
+    private boolean callNodeResolved;
+
     public GraalFrameInstance(InspectedFrame callTargetFrame, InspectedFrame callNodeFrame) {
         this.callTargetFrame = callTargetFrame;
         this.callNodeFrame = callNodeFrame;
@@ -102,11 +110,24 @@ public final class GraalFrameInstance implements FrameInstance {
 
     @Override
     public CallTarget getCallTarget() {
-        return (CallTarget) callTargetFrame.getLocal(CALL_TARGET_INDEX);
+        CallTarget result = callTarget;
+        if (result == null) {
+            result = (CallTarget) callTargetFrame.getLocal(CALL_TARGET_INDEX);
+            callTarget = result;
+        }
+        return result;
     }
 
     @Override
     public Node getCallNode() {
+        if (!callNodeResolved) {
+            callNode = lookupCallNode();
+            callNodeResolved = true;
+        }
+        return callNode;
+    }
+
+    private Node lookupCallNode() {
         if (callNodeFrame != null) {
             Object receiver = callNodeFrame.getLocal(CALL_NODE_NOTIFY_INDEX);
             if (receiver instanceof DirectCallNode || receiver instanceof IndirectCallNode) {
@@ -71,6 +71,10 @@ final class GraalTVMCI extends TVMCI {
         super.onFirstExecution(callTarget.getRootNode());
     }
 
+    void onExecution(OptimizedCallTarget callTarget) {
+        super.onExecution(callTarget.getRootNode());
+    }
+
     @Override
     protected void onLoad(RootNode rootNode) {
         super.onLoad(rootNode);
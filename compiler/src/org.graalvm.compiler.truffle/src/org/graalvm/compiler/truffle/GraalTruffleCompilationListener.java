@@ -51,6 +51,13 @@ public interface GraalTruffleCompilationListener {
 
     void notifyCompilationSplit(OptimizedDirectCallNode callNode);
 
+    /**
+     * Invoked if a call site was considered for splitting but was not split.
+     *
+     * @param reason a textual description of the reason why the call site was not split
+     */
+    void notifyCompilationSplitFailed(OptimizedDirectCallNode callNode, CharSequence reason);
+
     /**
      * Invoked if a call target was queued to the compilation queue.
      */
@@ -88,6 +95,25 @@ public interface GraalTruffleCompilationListener {
 
     void notifyCompilationDeoptimized(OptimizedCallTarget target, Frame frame);
 
+    /**
+     * Invoked if the compiled code of a call target was invalidated too often and its
+     * recompilation gets delayed, its profile speculation gets disabled or it is no longer
+     * compiled.
+     *
+     * @param invalidationCount the number of compilations whose code was invalidated so far
+     * @param reason a textual description of the action taken
+     */
+    void notifyCompilationBackoff(OptimizedCallTarget target, int invalidationCount, CharSequence reason);
+
+    /**
+     * Invoked if a node of a call target reported a transition to a polymorphic or megamorphic
+     * state using {@link Node#reportPolymorphicSpecialize()}. Always invoked in the interpreter on
+     * the thread that specialized the node.
+     *
+     * @param source the node that changed its specialization state
+     */
+    void notifyPolymorphicSpecialize(OptimizedCallTarget target, Node source);
+
     /**
      * Invoked as the compiler gets shut down.
      */
@@ -27,9 +27,12 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompila
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationRepeats;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompileOnly;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilerThreads;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleExperimentalSplitting;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBoundaries;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBranches;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleProfilingEnabled;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleSplittingGrowthLimit;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleSplittingMaxNumberOfSplitNodes;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleUseFrameWithoutBoxing;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.getValue;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.overrideOptions;
@@ -52,6 +55,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.graalvm.compiler.api.runtime.GraalRuntime;
@@ -68,6 +72,7 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.debug.CompilationEventRecorderListener;
 import org.graalvm.compiler.truffle.debug.CompilationStatisticsListener;
 import org.graalvm.compiler.truffle.debug.PrintCallTargetProfiling;
 import org.graalvm.compiler.truffle.debug.TraceCompilationASTListener;
@@ -159,6 +164,13 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
 
     private volatile GraalTestTVMCI testTvmci;
 
+    /*
+     * Non-trivial node counts of all executed call targets and of all split call targets. Used to
+     * limit the experimental splitting relative to the size of the guest program.
+     */
+    private final AtomicLong executedNodeCount = new AtomicLong();
+    private final AtomicLong splitNodeCount = new AtomicLong();
+
     /**
      * The instrumentation object is used by the Truffle instrumentation to count executions. The
      * value is lazily initialized the first time it is requested because it depends on the Truffle
@@ -244,6 +256,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         TraceSplittingListener.install(this);
         PrintCallTargetProfiling.install(this);
         CompilationStatisticsListener.install(this);
+        CompilationEventRecorderListener.install(this);
         TraceCompilationASTListener.install(this);
         installShutdownHooks();
         compilationNotify.notifyStartup(this);
@@ -345,10 +358,60 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         return new OptimizedAssumption(name);
     }
 
+    @Override
+    public void invalidateAssumptions(Iterable<? extends Assumption> assumptions) {
+        OptimizedAssumption.invalidateAll(assumptions);
+    }
+
     public GraalTruffleCompilationListener getCompilationNotify() {
         return compilationNotify;
     }
 
+    @Override
+    public void notifyPolymorphicSpecialize(Node source) {
+        boolean experimentalSplitting = getValue(TruffleExperimentalSplitting);
+        if (compilationListeners.isEmpty() && !experimentalSplitting) {
+            return;
+        }
+        RootNode rootNode = source.getRootNode();
+        if (rootNode != null && rootNode.getCallTarget() instanceof OptimizedCallTarget) {
+            OptimizedCallTarget target = (OptimizedCallTarget) rootNode.getCallTarget();
+            if (experimentalSplitting) {
+                PolymorphismTruffleSplittingStrategy.polymorphicSpecialize(this, target);
+            }
+            getCompilationNotify().notifyPolymorphicSpecialize(target, source);
+        }
+    }
+
+    void addExecutedNodeCount(int nodeCount) {
+        executedNodeCount.addAndGet(nodeCount);
+    }
+
+    /**
+     * Returns the number of nodes reserved for splitting so far. Reserved nodes are never released,
+     * not even when the split call target is discarded.
+     */
+    public long getSplitNodeCount() {
+        return splitNodeCount.get();
+    }
+
+    /**
+     * Reserves the given number of nodes from the splitting budget. Returns <code>false</code> if
+     * the budget is exhausted, in which case nothing is reserved.
+     */
+    boolean reserveSplitNodes(int nodeCount) {
+        long limit = Math.min((long) (executedNodeCount.get() * getValue(TruffleSplittingGrowthLimit)), getValue(TruffleSplittingMaxNumberOfSplitNodes));
+        while (true) {
+            long current = splitNodeCount.get();
+            if (current + nodeCount > limit) {
+                return false;
+            }
+            if (splitNodeCount.compareAndSet(current, current + nodeCount)) {
+                return true;
+            }
+        }
+    }
+
     @TruffleBoundary
     @Override
     public <T> T iterateFrames(final FrameInstanceVisitor<T> visitor) {
@@ -835,6 +898,13 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
             }
         }
 
+        @Override
+        public void notifyCompilationSplitFailed(OptimizedDirectCallNode callNode, CharSequence reason) {
+            for (GraalTruffleCompilationListener l : compilationListeners) {
+                l.notifyCompilationSplitFailed(callNode, reason);
+            }
+        }
+
         @Override
         public void notifyCompilationGraalTierFinished(OptimizedCallTarget target, StructuredGraph graph) {
             for (GraalTruffleCompilationListener l : compilationListeners) {
@@ -849,6 +919,20 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
             }
         }
 
+        @Override
+        public void notifyCompilationBackoff(OptimizedCallTarget target, int invalidationCount, CharSequence reason) {
+            for (GraalTruffleCompilationListener l : compilationListeners) {
+                l.notifyCompilationBackoff(target, invalidationCount, reason);
+            }
+        }
+
+        @Override
+        public void notifyPolymorphicSpecialize(OptimizedCallTarget target, Node source) {
+            for (GraalTruffleCompilationListener l : compilationListeners) {
+                l.notifyPolymorphicSpecialize(target, source);
+            }
+        }
+
         @Override
         public void notifyCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, StructuredGraph graph, CompilationResult result) {
             for (GraalTruffleCompilationListener l : compilationListeners) {
@@ -26,8 +26,15 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTruffleAs
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTruffleStackTraceLimit;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.util.EconomicMap;
+import org.graalvm.util.Equivalence;
+import org.graalvm.util.MapCursor;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.impl.AbstractAssumption;
@@ -43,8 +50,31 @@ public final class OptimizedAssumption extends AbstractAssumption {
         Entry next;
     }
 
+    /**
+     * A version of an installed code collected by {@link #invalidateAll} and the assumption it was
+     * collected from.
+     */
+    private static final class DependentCode {
+        final OptimizedAssumption assumption;
+        final long version;
+
+        DependentCode(OptimizedAssumption assumption, long version) {
+            this.assumption = assumption;
+            this.version = version;
+        }
+    }
+
     private Entry first;
 
+    /*
+     * Number of entries and the number of entries at which entries of collected or reinstalled
+     * code are pruned next. The threshold grows with the number of live entries such that the
+     * pruning cost is amortized over the registrations.
+     */
+    private int size;
+    private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+    private static final int MIN_PRUNE_THRESHOLD = 16;
+
     public OptimizedAssumption(String name) {
         super(name);
     }
@@ -65,7 +95,15 @@ public final class OptimizedAssumption extends AbstractAssumption {
     }
 
     @TruffleBoundary
-    private synchronized void invalidateImpl() {
+    private void invalidateImpl() {
+        invalidateImpl(null);
+    }
+
+    /**
+     * Invalidates this assumption and all dependent installed code except for the code versions
+     * contained in {@code alreadyInvalidated}.
+     */
+    private synchronized void invalidateImpl(EconomicMap<InstalledCode, DependentCode> alreadyInvalidated) {
         /*
          * Check again, now that we are holding the lock. Since isValid is defined volatile,
          * double-checked locking is allowed.
@@ -78,7 +116,7 @@ public final class OptimizedAssumption extends AbstractAssumption {
         Entry e = first;
         while (e != null) {
             InstalledCode installedCode = e.installedCode.get();
-            if (installedCode != null && installedCode.getVersion() == e.version) {
+            if (installedCode != null && installedCode.getVersion() == e.version && !isAlreadyInvalidated(alreadyInvalidated, installedCode, e.version)) {
                 invalidateWithReason(installedCode, "assumption invalidated");
                 invalidatedInstalledCode = true;
                 if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
@@ -88,6 +126,7 @@ public final class OptimizedAssumption extends AbstractAssumption {
             e = e.next;
         }
         first = null;
+        size = 0;
         isValid = false;
 
         if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
@@ -97,13 +136,85 @@ public final class OptimizedAssumption extends AbstractAssumption {
         }
     }
 
+    private static boolean isAlreadyInvalidated(EconomicMap<InstalledCode, DependentCode> alreadyInvalidated, InstalledCode installedCode, long version) {
+        if (alreadyInvalidated == null) {
+            return false;
+        }
+        DependentCode invalidated = alreadyInvalidated.get(installedCode);
+        return invalidated != null && invalidated.version == version;
+    }
+
+    /**
+     * Invalidates all given assumptions at once. The installed code depending on any of the
+     * assumptions is collected first and each installed code is invalidated only once, no matter
+     * on how many of the assumptions it depends. Like for {@link #invalidate()}, the assumptions
+     * are marked invalid only after their dependent code was invalidated.
+     */
+    @TruffleBoundary
+    static void invalidateAll(Iterable<? extends Assumption> assumptions) {
+        EconomicMap<InstalledCode, DependentCode> dependentCode = EconomicMap.create(Equivalence.IDENTITY);
+        List<OptimizedAssumption> optimizedAssumptions = new ArrayList<>();
+        for (Assumption assumption : assumptions) {
+            if (assumption instanceof OptimizedAssumption) {
+                OptimizedAssumption optimizedAssumption = (OptimizedAssumption) assumption;
+                if (optimizedAssumption.isValid) {
+                    optimizedAssumption.collectDependentCode(dependentCode);
+                    optimizedAssumptions.add(optimizedAssumption);
+                }
+            } else {
+                assumption.invalidate();
+            }
+        }
+
+        boolean trace = TruffleCompilerOptions.getValue(TraceTruffleAssumptions);
+        MapCursor<InstalledCode, DependentCode> cursor = dependentCode.getEntries();
+        while (cursor.advance()) {
+            InstalledCode installedCode = cursor.getKey();
+            OptimizedAssumption assumption = cursor.getValue().assumption;
+            // code reinstalled in the meantime is invalidated by the assumptions it registered with
+            if (installedCode.getVersion() == cursor.getValue().version) {
+                assumption.invalidateWithReason(installedCode, "assumption invalidated");
+                if (trace) {
+                    assumption.logInvalidatedInstalledCode(installedCode);
+                }
+            }
+        }
+        if (trace && !dependentCode.isEmpty()) {
+            logStackTrace();
+        }
+
+        /*
+         * Invalidates the code that was registered while the dependent code was invalidated,
+         * including new versions of the code collected above.
+         */
+        for (OptimizedAssumption assumption : optimizedAssumptions) {
+            assumption.invalidateImpl(dependentCode);
+        }
+    }
+
+    private synchronized void collectDependentCode(EconomicMap<InstalledCode, DependentCode> dependentCode) {
+        if (!isValid) {
+            return;
+        }
+        for (Entry e = first; e != null; e = e.next) {
+            InstalledCode installedCode = e.installedCode.get();
+            if (installedCode != null && installedCode.getVersion() == e.version && !dependentCode.containsKey(installedCode)) {
+                dependentCode.put(installedCode, new DependentCode(this, e.version));
+            }
+        }
+    }
+
     public synchronized void registerInstalledCode(InstalledCode installedCode) {
         if (isValid) {
+            if (size >= pruneThreshold) {
+                pruneEntries();
+            }
             Entry e = new Entry();
             e.installedCode = new WeakReference<>(installedCode);
             e.version = installedCode.getVersion();
             e.next = first;
             first = e;
+            size++;
         } else {
             invalidateWithReason(installedCode, "assumption already invalidated when installing code");
             if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
@@ -113,6 +224,30 @@ public final class OptimizedAssumption extends AbstractAssumption {
         }
     }
 
+    /**
+     * Removes the entries of installed code that was garbage collected or reinstalled since it was
+     * registered. Such entries would be skipped on invalidation anyway.
+     */
+    private void pruneEntries() {
+        Entry prev = null;
+        int live = 0;
+        for (Entry e = first; e != null; e = e.next) {
+            InstalledCode installedCode = e.installedCode.get();
+            if (installedCode == null || installedCode.getVersion() != e.version) {
+                if (prev == null) {
+                    first = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+            } else {
+                prev = e;
+                live++;
+            }
+        }
+        size = live;
+        pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, live * 2);
+    }
+
     private void invalidateWithReason(InstalledCode installedCode, String reason) {
         if (installedCode instanceof OptimizedCallTarget) {
             ((OptimizedCallTarget) installedCode).invalidate(this, reason);
@@ -28,6 +28,7 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCallTar
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreFatal;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsArePrinted;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleExperimentalSplitting;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TrufflePerformanceWarningsAreFatal;
 
 import java.io.PrintWriter;
@@ -104,6 +105,8 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     private volatile SpeculationLog speculationLog;
     private volatile int callSitesKnown;
     private volatile CancellableCompileTask compilationTask;
+    /** The inlining decisions of the last successful compilation, reused when recompiling. */
+    private volatile TruffleInlining previousInlining;
     /**
      * When this call target is inlined, the inlining {@link InstalledCode} registers this
      * assumption. It gets invalidated when a node rewriting is performed. This ensures that all
@@ -215,6 +218,7 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     protected final Object callBoundary(Object[] args) {
         if (CompilerDirectives.inInterpreter()) {
             // We are called and we are still in Truffle interpreter mode.
+            runtime().getTvmci().onExecution(this);
             compilationProfile.interpreterCall(this);
             if (isValid()) {
                 // Stubs were deoptimized => reinstall.
@@ -261,6 +265,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     }
 
     private void notifyDeoptimized(VirtualFrame frame) {
+        if (!isValid()) {
+            compilationProfile.reportCodeInvalidated(this, "deoptimized");
+        }
         runtime().getCompilationNotify().notifyCompilationDeoptimized(this, frame);
     }
 
@@ -276,6 +283,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             tvmci.onFirstExecution(this);
+            if (sourceCallTarget == null && TruffleCompilerOptions.getValue(TruffleExperimentalSplitting)) {
+                runtime().addExecutedNodeCount(getNonTrivialNodeCount());
+            }
             this.compilationProfile = createCompilationProfile();
         }
     }
@@ -342,6 +352,10 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         cachedNonTrivialNodeCount = -1;
         if (isValid()) {
             runtime().invalidateInstalledCode(this, source, reason);
+            OptimizedCompilationProfile profile = this.compilationProfile;
+            if (profile != null) {
+                profile.reportCodeInvalidated(this, reason);
+            }
         }
         runtime().cancelInstalledTask(this, source, reason);
     }
@@ -624,6 +638,14 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         this.compilationTask = null;
     }
 
+    TruffleInlining getPreviousInlining() {
+        return previousInlining;
+    }
+
+    void setPreviousInlining(TruffleInlining inlining) {
+        this.previousInlining = inlining;
+    }
+
     public <T> T getOptionValue(OptionKey<T> key) {
         return PolyglotCompilerOptions.getValue(rootNode, key);
     }
@@ -24,13 +24,17 @@ package org.graalvm.compiler.truffle;
 
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleArgumentTypeSpeculation;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompileImmediately;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationBackoffThreshold;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationHalfLife;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationReprofileCount;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMaximumInvalidations;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMinInvokeThreshold;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleReplaceReprofileCount;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleReturnTypeSpeculation;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.graalvm.options.OptionValues;
 
@@ -50,6 +54,18 @@ public class OptimizedCompilationProfile {
     private int invalidationCount;
     private int deferredCount;
 
+    /**
+     * Number of successful compilations and the compilation whose code was last seen invalidated.
+     * Used to count an invalidation only once per compilation, no matter how many frames get
+     * deoptimized.
+     */
+    private volatile int compilationCount;
+    private int invalidatedCompilation;
+    private int codeInvalidationCount;
+    private long lastInvalidationTime;
+    private CharSequence lastInvalidationReason;
+    private volatile boolean speculationDisabled;
+
     private int interpreterCallCount;
     private int interpreterCallAndLoopCount;
     private int compilationCallThreshold;
@@ -167,7 +183,7 @@ public class OptimizedCompilationProfile {
         if (CompilerDirectives.inInterpreter() && returnTypeAssumption == null) {
             // we only profile return values in the interpreter as we don't want to deoptimize
             // for immediate compiles.
-            if (TruffleCompilerOptions.getValue(TruffleReturnTypeSpeculation)) {
+            if (TruffleCompilerOptions.getValue(TruffleReturnTypeSpeculation) && !speculationDisabled) {
                 profiledReturnType = classOf(result);
                 profiledReturnTypeAssumption = createAssumption("Profiled Return Type");
             }
@@ -243,6 +259,92 @@ public class OptimizedCompilationProfile {
         ensureProfiling(reprofile, reprofile);
     }
 
+    final void reportCompilationSuccess() {
+        compilationCount++;
+    }
+
+    /**
+     * Reports that the compiled code of the call target was invalidated or deoptimized. Frequently
+     * invalidated call targets are recompiled with an exponentially growing delay and without
+     * profile speculation. The invalidation count is halved for every
+     * {@link TruffleCompilerOptions#TruffleInvalidationHalfLife} without an invalidation, so only
+     * a high rate of invalidations causes a backoff. Once the decayed count is below
+     * {@link TruffleCompilerOptions#TruffleInvalidationBackoffThreshold} again, profile speculation
+     * is re-enabled for the recompilation. Synchronized because frames may be deoptimized on
+     * several threads at once.
+     */
+    final synchronized void reportCodeInvalidated(OptimizedCallTarget callTarget, CharSequence reason) {
+        CompilerAsserts.neverPartOfCompilation();
+        int compilation = compilationCount;
+        if (compilation == 0 || compilation == invalidatedCompilation) {
+            return;
+        }
+        invalidatedCompilation = compilation;
+        long now = System.nanoTime();
+        int halfLife = TruffleCompilerOptions.getValue(TruffleInvalidationHalfLife);
+        if (halfLife > 0 && codeInvalidationCount > 0) {
+            long halfLives = TimeUnit.NANOSECONDS.toMillis(now - lastInvalidationTime) / halfLife;
+            codeInvalidationCount >>= Math.min(halfLives, 31);
+        }
+        lastInvalidationTime = now;
+        int invalidations = ++codeInvalidationCount;
+        lastInvalidationReason = reason;
+
+        int backoffThreshold = TruffleCompilerOptions.getValue(TruffleInvalidationBackoffThreshold);
+        if (invalidations < backoffThreshold) {
+            if (speculationDisabled) {
+                enableSpeculation();
+            }
+            return;
+        }
+        if (compilationFailed) {
+            return;
+        }
+        GraalTruffleCompilationListener notify = OptimizedCallTarget.runtime().getCompilationNotify();
+        int maximumInvalidations = TruffleCompilerOptions.getValue(TruffleMaximumInvalidations);
+        if (maximumInvalidations > 0 && invalidations >= maximumInvalidations) {
+            // same as for failed compilations, the call target remains in the interpreter
+            compilationFailed = true;
+            notify.notifyCompilationBackoff(callTarget, invalidations, "compilation disabled");
+            return;
+        }
+        if (!speculationDisabled) {
+            disableSpeculation();
+            notify.notifyCompilationBackoff(callTarget, invalidations, "profile speculation disabled");
+        }
+        int delay = PolyglotCompilerOptions.getValue(callTarget.getRootNode(), PolyglotCompilerOptions.CompilationThreshold) << Math.min(invalidations - backoffThreshold + 1, 16);
+        ensureProfiling(TruffleCompilerOptions.getValue(TruffleInvalidationReprofileCount), Math.max(delay, 0));
+        notify.notifyCompilationBackoff(callTarget, invalidations, "recompilation delayed");
+    }
+
+    private void disableSpeculation() {
+        speculationDisabled = true;
+        if (profiledArgumentTypesAssumption == null) {
+            profiledArgumentTypesAssumption = createAssumption("Profiled Argument Types");
+        }
+        profiledArgumentTypesAssumption.invalidate();
+        profiledArgumentTypes = null;
+        if (profiledReturnTypeAssumption == null) {
+            profiledReturnTypeAssumption = createAssumption("Profiled Return Type");
+        }
+        profiledReturnTypeAssumption.invalidate();
+        profiledReturnType = null;
+        exceptionType = Object.class;
+    }
+
+    /*
+     * Resets the profiles to their initial state, so that the next calls in the interpreter create
+     * new profiling assumptions.
+     */
+    private void enableSpeculation() {
+        speculationDisabled = false;
+        profiledArgumentTypesAssumption = null;
+        profiledArgumentTypes = null;
+        profiledReturnTypeAssumption = null;
+        profiledReturnType = null;
+        exceptionType = null;
+    }
+
     final void reportNodeReplaced() {
         // delay compilation until tree is deemed stable enough
         int replaceBackoff = TruffleCompilerOptions.getValue(TruffleReplaceReprofileCount);
@@ -296,7 +398,7 @@ public class OptimizedCompilationProfile {
     private void initializeProfiledArgumentTypes(Object[] args) {
         CompilerAsserts.neverPartOfCompilation();
         profiledArgumentTypesAssumption = createAssumption("Profiled Argument Types");
-        if (TruffleCompilerOptions.getValue(TruffleArgumentTypeSpeculation)) {
+        if (TruffleCompilerOptions.getValue(TruffleArgumentTypeSpeculation) && !speculationDisabled) {
             Class<?>[] result = new Class<?>[args.length];
             for (int i = 0; i < args.length; i++) {
                 result[i] = classOf(args[i]);
@@ -346,6 +448,9 @@ public class OptimizedCompilationProfile {
         properties.put("Calls/Thres", callsThreshold);
         properties.put("CallsAndLoop/Thres", loopsThreshold);
         properties.put("Inval#", invalidations);
+        if (lastInvalidationReason != null) {
+            properties.put("LastInvalidation", lastInvalidationReason);
+        }
         return properties;
     }
 
@@ -353,6 +458,18 @@ public class OptimizedCompilationProfile {
         return invalidationCount;
     }
 
+    /**
+     * Returns the number of compilations whose code was invalidated or deoptimized, halved for
+     * every {@link TruffleCompilerOptions#TruffleInvalidationHalfLife} without an invalidation.
+     */
+    public int getCodeInvalidationCount() {
+        return codeInvalidationCount;
+    }
+
+    public boolean isSpeculationDisabled() {
+        return speculationDisabled;
+    }
+
     public int getInterpreterCallAndLoopCount() {
         return interpreterCallAndLoopCount;
     }
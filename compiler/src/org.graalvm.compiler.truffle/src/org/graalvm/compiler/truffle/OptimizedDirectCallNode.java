@@ -48,7 +48,11 @@ public final class OptimizedDirectCallNode extends DirectCallNode {
         super(target);
         assert target.getSourceCallTarget() == null;
         this.runtime = runtime;
-        this.splittingStrategy = new DefaultTruffleSplittingStrategy(this);
+        if (TruffleCompilerOptions.getValue(TruffleCompilerOptions.TruffleExperimentalSplitting)) {
+            this.splittingStrategy = new PolymorphismTruffleSplittingStrategy(this, runtime);
+        } else {
+            this.splittingStrategy = new DefaultTruffleSplittingStrategy(this);
+        }
     }
 
     @Override
@@ -119,6 +123,14 @@ public final class OptimizedDirectCallNode extends DirectCallNode {
         splittingStrategy.beforeCall(arguments);
     }
 
+    /**
+     * Invoked if a node of the current call target reported a polymorphic specialization while it
+     * was called from this call site.
+     */
+    void polymorphicSpecialize() {
+        splittingStrategy.polymorphicSpecialize();
+    }
+
     /** Used by the splitting strategy to install new targets. */
     synchronized void split() {
         CompilerAsserts.neverPartOfCompilation();
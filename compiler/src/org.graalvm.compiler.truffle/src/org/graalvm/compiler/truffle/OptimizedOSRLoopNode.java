@@ -22,11 +22,14 @@
  */
 package org.graalvm.compiler.truffle;
 
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleAdaptiveOSR;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationReprofileCount;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOSR;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOSRCompilationThreshold;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOSRTimeThreshold;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -53,6 +56,20 @@ import jdk.vm.ci.meta.SpeculationLog;
  */
 public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceObserver {
 
+    /**
+     * With {@link TruffleCompilerOptions#TruffleAdaptiveOSR adaptive OSR} the interpreter time of
+     * a loop is sampled every {@code ADAPTIVE_CHECK_MASK + 1} iterations.
+     */
+    private static final int ADAPTIVE_CHECK_MASK = 0x3F;
+
+    /**
+     * Number of queued compilations above which the compilation queue is considered overloaded.
+     * OSR compilations are neither triggered early nor at the threshold while the queue is
+     * overloaded, up to {@link #MAX_THRESHOLD_DEFERRAL} times the threshold.
+     */
+    private static final int OVERLOADED_QUEUE_SIZE = 8;
+    private static final int MAX_THRESHOLD_DEFERRAL = 4;
+
     @Child private RepeatingNode repeatableNode;
 
     /**
@@ -107,11 +124,16 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
     @Override
     public void executeLoop(VirtualFrame frame) {
         if (CompilerDirectives.inInterpreter()) {
+            /*
+             * Local to this loop invocation, the same node may be executed recursively or by
+             * multiple threads at the same time.
+             */
+            long profilingStartTime = TruffleCompilerOptions.getValue(TruffleAdaptiveOSR) ? System.nanoTime() : 0;
             try {
                 boolean done = false;
                 while (!done) {
                     if (compiledOSRLoop == null) {
-                        done = profilingLoop(frame);
+                        done = profilingLoop(frame, profilingStartTime);
                     } else {
                         done = compilingLoop(frame);
                     }
@@ -130,13 +152,26 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
         }
     }
 
-    private boolean profilingLoop(VirtualFrame frame) {
+    /**
+     * @param profilingStartTime the time stamp of the start of this loop invocation if adaptive OSR
+     *            is enabled, otherwise {@code 0}
+     */
+    private boolean profilingLoop(VirtualFrame frame, long profilingStartTime) {
         int iterations = 0;
         int threshold = getThreshold();
+        boolean adaptive = profilingStartTime != 0;
         try {
             while (repeatableNode.executeRepeating(frame)) {
                 // the baseLoopCount might be updated from a child loop during an iteration.
                 if (++iterations + baseLoopCount > threshold) {
+                    int deferredThreshold = adaptive ? deferCompilation(iterations + baseLoopCount) : 0;
+                    if (deferredThreshold > 0) {
+                        threshold = deferredThreshold;
+                    } else {
+                        compileLoop(frame);
+                        return false;
+                    }
+                } else if (adaptive && (iterations & ADAPTIVE_CHECK_MASK) == 0 && isSlowLoop(profilingStartTime)) {
                     compileLoop(frame);
                     return false;
                 }
@@ -148,6 +183,35 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
         }
     }
 
+    /**
+     * Returns {@code true} if this loop invocation has been running in the interpreter for longer
+     * than {@link TruffleCompilerOptions#TruffleOSRTimeThreshold} and the compiler has capacity for
+     * an early OSR compilation.
+     */
+    private static boolean isSlowLoop(long profilingStartTime) {
+        long timeThreshold = TimeUnit.MILLISECONDS.toNanos(TruffleCompilerOptions.getValue(TruffleOSRTimeThreshold));
+        return System.nanoTime() - profilingStartTime > timeThreshold && !isCompilationQueueOverloaded();
+    }
+
+    /**
+     * Returns the raised threshold of this loop invocation if the compilation queue is overloaded
+     * and the threshold was not deferred to its maximum yet, otherwise {@code 0}. The raised
+     * threshold is derived from the current loop count, so it does not need to be kept when the
+     * profiling loop is entered again.
+     */
+    private int deferCompilation(int loopCount) {
+        int threshold = getThreshold();
+        long maxThreshold = (long) threshold * MAX_THRESHOLD_DEFERRAL;
+        if (loopCount >= maxThreshold || !isCompilationQueueOverloaded()) {
+            return 0;
+        }
+        return (int) Math.min(maxThreshold, (long) loopCount + Math.max(1, threshold / MAX_THRESHOLD_DEFERRAL));
+    }
+
+    private static boolean isCompilationQueueOverloaded() {
+        return GraalTruffleRuntime.getRuntime().getCompilationQueueSize() > OVERLOADED_QUEUE_SIZE;
+    }
+
     private void reportParentLoopCount(int iterations) {
         Node parent = getParent();
         if (parent != null) {
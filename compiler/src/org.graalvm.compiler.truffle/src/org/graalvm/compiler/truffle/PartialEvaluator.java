@@ -26,6 +26,7 @@ import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.Inl
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.PrintTruffleExpansionHistogram;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTrufflePerformanceWarnings;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTruffleStackTraceLimit;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleEncodedGraphCache;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleFunctionInlining;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInlineAcrossTruffleBoundary;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBoundaries;
@@ -45,7 +46,9 @@ import java.util.List;
 import java.util.Map;
 
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.bytecode.BytecodeProvider;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.spi.ConstantFieldProvider;
 import org.graalvm.compiler.core.common.type.StampPair;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Scope;
@@ -54,6 +57,7 @@ import org.graalvm.compiler.debug.Indent;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.java.ComputeLoopFrequenciesClosure;
 import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EncodedGraph;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.ValueNode;
@@ -105,6 +109,7 @@ import org.graalvm.util.Equivalence;
 import org.graalvm.util.MapCursor;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
@@ -112,6 +117,7 @@ import jdk.vm.ci.code.Architecture;
 import jdk.vm.ci.common.JVMCIError;
 import jdk.vm.ci.meta.JavaConstant;
 import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaField;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import jdk.vm.ci.meta.ResolvedJavaType;
 import jdk.vm.ci.meta.SpeculationLog;
@@ -135,6 +141,19 @@ public class PartialEvaluator {
     private final NodePlugin[] nodePlugins;
     private final KnownTruffleFields knownTruffleFields;
 
+    /**
+     * Maximum number of encoded graphs kept in the {@link #encodedGraphCache}.
+     */
+    private static final int ENCODED_GRAPH_CACHE_SIZE = 1024;
+
+    /**
+     * Encoded graphs of parsed methods shared by all partial evaluations. The graphs do not depend
+     * on the compiled Truffle AST, so they remain valid across compilations as long as no
+     * assumptions were recorded and no static {@link CompilationFinal} field was folded while
+     * parsing them. The least recently used graphs are evicted once the cache is full.
+     */
+    private final Map<ResolvedJavaMethod, EncodedGraph> encodedGraphCache = Collections.synchronizedMap(new LRUCache<>(ENCODED_GRAPH_CACHE_SIZE));
+
     public PartialEvaluator(Providers providers, GraphBuilderConfiguration configForRoot, SnippetReflectionProvider snippetReflection, Architecture architecture,
                     InstrumentPhase.Instrumentation instrumentation) {
         this.providers = providers;
@@ -423,11 +442,101 @@ public class PartialEvaluator {
             plugins.appendInlineInvokePlugin(new InlineDuringParsingPlugin());
         }
 
-        Providers compilationUnitProviders = providers.copyWith(new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess()));
+        TruffleConstantFieldProvider constantFieldProvider = new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess());
+        if (TruffleCompilerOptions.getValue(TruffleEncodedGraphCache) && !TruffleCompilerOptions.getValue(PrintTruffleExpansionHistogram)) {
+            StaticCompilationFinalTracker tracker = new StaticCompilationFinalTracker(constantFieldProvider);
+            return new SharedCachingPEGraphDecoder(architecture, graph, providers.copyWith(tracker), newConfig, TruffleCompiler.Optimizations, AllowAssumptions.ifNonNull(graph.getAssumptions()),
+                            loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, tracker);
+        }
+        Providers compilationUnitProviders = providers.copyWith(constantFieldProvider);
         return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompiler.Optimizations, AllowAssumptions.ifNonNull(graph.getAssumptions()),
                         loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList);
     }
 
+    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int maxCacheSize;
+
+        LRUCache(int maxCacheSize) {
+            super(16, 0.75F, true);
+            this.maxCacheSize = maxCacheSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxCacheSize;
+        }
+    }
+
+    /**
+     * Records whether the value of a static {@link CompilationFinal} field was folded. Such a
+     * value is only stable until the field is written and the dependent code is invalidated, so
+     * graphs that contain it must not outlive the current compilation.
+     */
+    private static final class StaticCompilationFinalTracker implements ConstantFieldProvider {
+
+        private final ConstantFieldProvider delegate;
+        boolean folded;
+
+        StaticCompilationFinalTracker(ConstantFieldProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> T readConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
+            T result = delegate.readConstantField(field, tool);
+            if (result != null && field.isStatic() && !field.isFinal() && field.getAnnotation(CompilationFinal.class) != null) {
+                folded = true;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Looks up encoded graphs in the cache shared by all partial evaluations first. Graphs parsed
+     * by this decoder are added to the shared cache only after the decoding finished, so that
+     * other compiler threads never observe a graph that is still being decoded for the first time.
+     */
+    private final class SharedCachingPEGraphDecoder extends CachingPEGraphDecoder {
+
+        private final EconomicMap<ResolvedJavaMethod, EncodedGraph> parsedGraphs = EconomicMap.create();
+        private final StaticCompilationFinalTracker tracker;
+
+        SharedCachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
+                        AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
+                        ParameterPlugin parameterPlugin, NodePlugin[] nodePlugins, StaticCompilationFinalTracker tracker) {
+            super(architecture, graph, providers, graphBuilderConfig, optimisticOpts, allowAssumptions, loopExplosionPlugin, invocationPlugins, inlineInvokePlugins, parameterPlugin,
+                            nodePlugins);
+            this.tracker = tracker;
+        }
+
+        @Override
+        protected EncodedGraph lookupEncodedGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider) {
+            if (intrinsicBytecodeProvider == null) {
+                EncodedGraph cached = encodedGraphCache.get(method);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            tracker.folded = false;
+            EncodedGraph result = super.lookupEncodedGraph(method, intrinsicBytecodeProvider);
+            if (result != null && intrinsicBytecodeProvider == null && !tracker.folded && (result.getAssumptions() == null || result.getAssumptions().isEmpty())) {
+                parsedGraphs.put(method, result);
+            }
+            return result;
+        }
+
+        @Override
+        public void decode(ResolvedJavaMethod method) {
+            super.decode(method);
+            MapCursor<ResolvedJavaMethod, EncodedGraph> cursor = parsedGraphs.getEntries();
+            while (cursor.advance()) {
+                encodedGraphCache.putIfAbsent(cursor.getKey(), cursor.getValue());
+            }
+            parsedGraphs.clear();
+        }
+    }
+
     protected void doGraphPE(OptimizedCallTarget callTarget, StructuredGraph graph, HighTierContext tierContext, TruffleInlining inliningDecision) {
         LoopExplosionPlugin loopExplosionPlugin = new PELoopExplosionPlugin();
         ParameterPlugin parameterPlugin = new InterceptReceiverPlugin(callTarget);
@@ -484,6 +593,7 @@ public class PartialEvaluator {
     private void fastPartialEvaluation(OptimizedCallTarget callTarget, TruffleInlining inliningDecision, StructuredGraph graph, PhaseContext baseContext, HighTierContext tierContext) {
         DebugContext debug = graph.getDebug();
         doGraphPE(callTarget, graph, tierContext, inliningDecision);
+        graph.checkCancellation();
         debug.dump(DebugContext.BASIC_LEVEL, graph, "After Partial Evaluation");
 
         graph.maybeCompress();
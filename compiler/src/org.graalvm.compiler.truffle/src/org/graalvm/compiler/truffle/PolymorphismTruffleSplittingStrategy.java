@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle;
+
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Splits a call site only if a node of the callee reported a polymorphic specialization while the
+ * callee was called from this call site. The split is deferred to the next interpreted call of the
+ * call site, as the polymorphic specialization is reported in the middle of a callee execution.
+ * The total number of split nodes is limited relative to the size of all executed call targets.
+ */
+final class PolymorphismTruffleSplittingStrategy implements TruffleSplittingStrategy {
+
+    private final OptimizedDirectCallNode call;
+    private final GraalTruffleRuntime runtime;
+
+    private volatile boolean needsSplit;
+
+    PolymorphismTruffleSplittingStrategy(OptimizedDirectCallNode call, GraalTruffleRuntime runtime) {
+        this.call = call;
+        this.runtime = runtime;
+    }
+
+    @Override
+    public void beforeCall(Object[] arguments) {
+        if (needsSplit) {
+            needsSplit = false;
+            trySplit();
+        }
+    }
+
+    private void trySplit() {
+        if (call.isCallTargetCloned()) {
+            return;
+        }
+        if (!DefaultTruffleSplittingStrategy.canSplit(call)) {
+            splitFailed("splitting not allowed");
+            return;
+        }
+        // disable recursive splitting for now
+        if (DefaultTruffleSplittingStrategy.isRecursiveCall(call)) {
+            splitFailed("recursive call");
+            return;
+        }
+        OptimizedCallTarget callTarget = call.getCallTarget();
+        if (callTarget.getKnownCallSiteCount() <= 1) {
+            splitFailed("single call site");
+            return;
+        }
+        if (!runtime.reserveSplitNodes(callTarget.getNonTrivialNodeCount())) {
+            splitFailed("split budget exhausted");
+            return;
+        }
+        call.split();
+    }
+
+    private void splitFailed(CharSequence reason) {
+        runtime.getCompilationNotify().notifyCompilationSplitFailed(call, reason);
+    }
+
+    @Override
+    public void forceSplitting() {
+        if (!DefaultTruffleSplittingStrategy.canSplit(call)) {
+            return;
+        }
+        call.split();
+    }
+
+    @Override
+    public void polymorphicSpecialize() {
+        needsSplit = true;
+    }
+
+    /**
+     * Marks the call site that called the given target for splitting, if the target is currently
+     * executing and was invoked through a direct call.
+     */
+    static void polymorphicSpecialize(GraalTruffleRuntime runtime, OptimizedCallTarget target) {
+        if (target.getKnownCallSiteCount() <= 1) {
+            return;
+        }
+        FrameInstance current = runtime.getCurrentFrame();
+        if (current == null || current.getCallTarget() != target) {
+            return;
+        }
+        FrameInstance caller = runtime.getCallerFrame();
+        if (caller == null) {
+            return;
+        }
+        Node callNode = caller.getCallNode();
+        if (callNode instanceof OptimizedDirectCallNode) {
+            OptimizedDirectCallNode directCall = (OptimizedDirectCallNode) callNode;
+            if (directCall.getCurrentCallTarget() == target) {
+                directCall.polymorphicSpecialize();
+            }
+        }
+    }
+
+}
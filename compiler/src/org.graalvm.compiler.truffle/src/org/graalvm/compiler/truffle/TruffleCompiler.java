@@ -27,6 +27,7 @@ import static org.graalvm.compiler.core.GraalCompiler.compileGraph;
 import static org.graalvm.compiler.core.common.CompilationRequestIdentifier.asCompilationRequest;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleEnableInfopoints;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleExcludeAssertions;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleIncrementalInlining;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBoundaries;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBranches;
 
@@ -36,6 +37,7 @@ import java.util.List;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.core.CompilationPrinter;
+import org.graalvm.compiler.core.common.CancellationBailoutException;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
 import org.graalvm.compiler.core.target.Backend;
@@ -163,7 +165,8 @@ public abstract class TruffleCompiler {
         compilationNotify.notifyCompilationStarted(compilable);
 
         try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(TruffleCompilerOptions.getOptions())) {
-            TruffleInlining inliningDecision = new TruffleInlining(compilable, new DefaultInliningPolicy());
+            boolean incrementalInlining = TruffleCompilerOptions.getValue(TruffleIncrementalInlining);
+            TruffleInlining inliningDecision = new TruffleInlining(compilable, new DefaultInliningPolicy(), incrementalInlining ? compilable.getPreviousInlining() : null);
             PhaseSuite<HighTierContext> graphBuilderSuite = createGraphBuilderSuite();
             try (DebugCloseable a = PartialEvaluationTime.start(debug); DebugCloseable c = PartialEvaluationMemUse.start(debug)) {
                 graph = partialEvaluator.createGraph(debug, compilable, inliningDecision, rootMethod, AllowAssumptions.YES, compilationId, task);
@@ -180,12 +183,20 @@ public abstract class TruffleCompiler {
             compilationNotify.notifyCompilationTruffleTierFinished(compilable, inliningDecision, graph);
             CompilationResult compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, compilable, asCompilationRequest(compilationId));
             compilationNotify.notifyCompilationSuccess(compilable, inliningDecision, graph, compilationResult);
+            compilable.getCompilationProfile().reportCompilationSuccess();
+            if (incrementalInlining) {
+                compilable.setPreviousInlining(inliningDecision);
+            }
 
             // Partial evaluation and installation are included in
             // compilation time and memory usage reported by printer
             printer.finish(compilationResult);
 
             dequeueInlinedCallSites(inliningDecision, compilable);
+        } catch (CancellationBailoutException e) {
+            // The task was cancelled while the compilation was in progress. The cancelling thread
+            // already reported the dequeue, so this is not a compilation failure.
+            return;
         } catch (Throwable t) {
             // Note: If the compiler cancels the compilation with a bailout exception, then the
             // graph is null
@@ -237,6 +248,9 @@ public abstract class TruffleCompiler {
 
         compilationNotify.notifyCompilationGraalTierFinished(predefinedInstalledCode, graph);
 
+        // do not install code for a task that was cancelled during the Graal tier
+        graph.checkCancellation();
+
         try (DebugCloseable a = CodeInstallationTime.start(debug); DebugCloseable c = CodeInstallationMemUse.start(debug)) {
             backend.createInstalledCode(debug, graph.method(), compilationRequest, result, graph.getSpeculationLog(), predefinedInstalledCode, false);
         } catch (Throwable e) {
@@ -155,6 +155,15 @@ public class TruffleCompilerOptions {
     @Option(help = "Delay compilation after a node replacement", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleReplaceReprofileCount = new OptionKey<>(3);
 
+    @Option(help = "Delay recompilation exponentially and disable profile speculation after the compiled code of a call target was invalidated this many times", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleInvalidationBackoffThreshold = new OptionKey<>(10);
+
+    @Option(help = "Halve the invalidation count of a call target for every this many milliseconds without an invalidation (0 disables the decay)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleInvalidationHalfLife = new OptionKey<>(10000);
+
+    @Option(help = "Stop compiling a call target after its compiled code was invalidated this many times (0 never stops compiling)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleMaximumInvalidations = new OptionKey<>(0);
+
     @Option(help = "Enable automatic inlining of call targets", type = OptionType.Debug)
     public static final OptionKey<Boolean> TruffleFunctionInlining = new OptionKey<>(true);
 
@@ -164,6 +173,12 @@ public class TruffleCompilerOptions {
     @Option(help = "Maximum level of recursive inlining", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleMaximumRecursiveInlining = new OptionKey<>(4);
 
+    @Option(help = "Reuse the inlining decisions of unchanged call sites when a call target is recompiled", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleIncrementalInlining = new OptionKey<>(true);
+
+    @Option(help = "Keep the encoded graphs of parsed methods for subsequent partial evaluations", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleEncodedGraphCache = new OptionKey<>(false);
+
     @Option(help = "Enable call target splitting", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleSplitting = new OptionKey<>(true);
 
@@ -173,9 +188,24 @@ public class TruffleCompilerOptions {
     @Option(help = "Number of loop iterations until on-stack-replacement compilation is triggered.", type = OptionType.Debug)
     public static final OptionKey<Integer> TruffleOSRCompilationThreshold = new OptionKey<>(100000);
 
+    @Option(help = "Adapt the OSR compilation threshold of a loop to its observed iteration rate and to the load of the compilation queue", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleAdaptiveOSR = new OptionKey<>(false);
+
+    @Option(help = "Interpreter time in milliseconds after which a slow loop is OSR compiled before reaching TruffleOSRCompilationThreshold (requires TruffleAdaptiveOSR)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleOSRTimeThreshold = new OptionKey<>(100);
+
     @Option(help = "Disable call target splitting if tree size exceeds this limit", type = OptionType.Debug)
     public static final OptionKey<Integer> TruffleSplittingMaxCalleeSize = new OptionKey<>(100);
 
+    @Option(help = "Split call sites only if a callee node reported a polymorphic specialization caused by the call site", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleExperimentalSplitting = new OptionKey<>(false);
+
+    @Option(help = "Maximum ratio of split nodes to the nodes of all executed call targets for experimental splitting", type = OptionType.Expert)
+    public static final OptionKey<Double> TruffleSplittingGrowthLimit = new OptionKey<>(1.5);
+
+    @Option(help = "Maximum total number of nodes split by experimental splitting over the lifetime of the runtime; nodes of discarded split call targets are not released", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleSplittingMaxNumberOfSplitNodes = new OptionKey<>(500000);
+
     @Option(help = "Enable asynchronous truffle compilation in background thread", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleBackgroundCompilation = new OptionKey<>(true);
 
@@ -207,7 +237,7 @@ public class TruffleCompilerOptions {
     @Option(help = "Print information for compilation queuing", type = OptionType.Debug)
     public static final OptionKey<Boolean> TraceTruffleCompilationDetails = new OptionKey<>(false);
 
-    @Option(help = "Print all polymorphic and generic nodes after each compilation", type = OptionType.Debug)
+    @Option(help = "Print all polymorphic and generic nodes after each compilation and the most frequently respecialized nodes on shutdown", type = OptionType.Debug)
     public static final OptionKey<Boolean> TraceTruffleCompilationPolymorphism = new OptionKey<>(false);
 
     @Option(help = "Print all polymorphic and generic nodes after each compilation", type = OptionType.Debug)
@@ -258,6 +288,12 @@ public class TruffleCompilerOptions {
     @Option(help = "Print additional more verbose Truffle compilation statistics at the end of a run.", type = OptionType.Debug)
     public static final OptionKey<Boolean> TruffleCompilationStatisticDetails = new OptionKey<>(false);
 
+    @Option(help = "Number of recent compilation events kept by the compilation event recorder (0 disables the recorder).", type = OptionType.Debug)
+    public static final OptionKey<Integer> TruffleCompilationEventRecorderSize = new OptionKey<>(1024);
+
+    @Option(help = "File to which all compilation events are streamed in the binary format of the compilation event recorder.", type = OptionType.Debug)
+    public static final OptionKey<String> TruffleCompilationEventLog = new OptionKey<>(null);
+
     @Option(help = "Enable support for simple infopoints in truffle partial evaluations.", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleEnableInfopoints = new OptionKey<>(false);
 
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerOptions;
 import com.oracle.truffle.api.nodes.Node;
@@ -51,32 +52,48 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision> {
     }
 
     public TruffleInlining(OptimizedCallTarget sourceTarget, TruffleInliningPolicy policy) {
-        this(createDecisions(sourceTarget, policy, sourceTarget.getRootNode().getCompilerOptions()));
+        this(sourceTarget, policy, null);
+    }
 
+    /**
+     * Creates the inlining decisions for a call target. Inlined call sites of the previous inlining
+     * decisions of the same call target are reused without exploring them again, unless the
+     * inlined call targets changed since the previous decisions were made.
+     *
+     * @param previous the inlining decisions of a previous compilation or <code>null</code>
+     */
+    public TruffleInlining(OptimizedCallTarget sourceTarget, TruffleInliningPolicy policy, TruffleInlining previous) {
+        this(createDecisions(sourceTarget, policy, sourceTarget.getRootNode().getCompilerOptions(), previous));
     }
 
-    private static List<TruffleInliningDecision> createDecisions(OptimizedCallTarget sourceTarget, TruffleInliningPolicy policy, CompilerOptions options) {
+    private static List<TruffleInliningDecision> createDecisions(OptimizedCallTarget sourceTarget, TruffleInliningPolicy policy, CompilerOptions options, TruffleInlining previous) {
         if (!TruffleCompilerOptions.getValue(TruffleFunctionInlining)) {
             return Collections.emptyList();
         }
         int[] visitedNodes = {0};
         int nodeCount = sourceTarget.getNonTrivialNodeCount();
-        List<TruffleInliningDecision> exploredCallSites = exploreCallSites(new ArrayList<>(Arrays.asList(sourceTarget)), nodeCount, policy, visitedNodes, new HashMap<>());
+        List<TruffleInliningDecision> exploredCallSites = exploreCallSites(new ArrayList<>(Arrays.asList(sourceTarget)), nodeCount, policy, visitedNodes, new HashMap<>(), previous);
         return decideInlining(exploredCallSites, policy, nodeCount, options);
     }
 
     private static List<TruffleInliningDecision> exploreCallSites(List<OptimizedCallTarget> stack, int callStackNodeCount, TruffleInliningPolicy policy, int[] visitedNodes,
-                    Map<OptimizedCallTarget, TruffleInliningDecision> rejectedDecisionsCache) {
+                    Map<OptimizedCallTarget, TruffleInliningDecision> rejectedDecisionsCache, TruffleInlining previous) {
         List<TruffleInliningDecision> exploredCallSites = new ArrayList<>();
         List<OptimizedCallTarget> toRemoveFromCache = new LinkedList<>();
         OptimizedCallTarget parentTarget = stack.get(stack.size() - 1);
         for (OptimizedDirectCallNode callNode : getCallNodes(parentTarget)) {
             OptimizedCallTarget currentTarget = callNode.getCurrentCallTarget();
             stack.add(currentTarget); // push
+            TruffleInliningDecision previousDecision = previous != null ? previous.findByCall(callNode) : null;
+            if (previousDecision != null && previousDecision.getTarget() != currentTarget) {
+                previousDecision = null;
+            }
             TruffleInliningDecision decision = rejectedDecisionsCache.get(currentTarget);
-            if (decision == null) {
+            if (decision == null && previousDecision != null && previousDecision.isReusable()) {
+                decision = reuseCallSite(stack, policy, callNode, previousDecision);
+            } else if (decision == null) {
                 // Cache miss
-                decision = exploreCallSite(stack, callStackNodeCount, policy, callNode, visitedNodes, rejectedDecisionsCache);
+                decision = exploreCallSite(stack, callStackNodeCount, policy, callNode, visitedNodes, rejectedDecisionsCache, previousDecision);
                 if (!policy.isAllowed(decision.getProfile(), callStackNodeCount, callNode.getRootNode().getCompilerOptions())) {
                     rejectedDecisionsCache.put(currentTarget, decision);
                     toRemoveFromCache.add(currentTarget);
@@ -99,7 +116,7 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision> {
         return exploredCallSites;
     }
 
-    private static List<OptimizedDirectCallNode> getCallNodes(OptimizedCallTarget target) {
+    static List<OptimizedDirectCallNode> getCallNodes(OptimizedCallTarget target) {
         final List<OptimizedDirectCallNode> callNodes = new ArrayList<>();
         target.getRootNode().accept(new NodeVisitor() {
             @Override
@@ -113,11 +130,31 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision> {
         return callNodes;
     }
 
+    /**
+     * Creates a decision for a call site whose previous decision is still valid. The profile of
+     * the call site itself is updated, the inlined call sites are taken from the previous decision.
+     */
+    private static TruffleInliningDecision reuseCallSite(List<OptimizedCallTarget> callStack, TruffleInliningPolicy policy, OptimizedDirectCallNode callNode,
+                    TruffleInliningDecision previousDecision) {
+        OptimizedCallTarget parentTarget = callStack.get(callStack.size() - 2);
+        TruffleInliningProfile previousProfile = previousDecision.getProfile();
+        TruffleInliningProfile profile = new TruffleInliningProfile(callNode, previousProfile.getNodeCount(), previousProfile.getDeepNodeCount(), calculateFrequency(parentTarget, callNode),
+                        countRecursions(callStack));
+        profile.setScore(policy.calculateScore(profile));
+        /* Copy the call sites, the previous decisions must not be modified. */
+        return new TruffleInliningDecision(previousDecision.getTarget(), profile, new ArrayList<>(previousDecision.getCallSites()), previousDecision.getNodeRewritingAssumption());
+    }
+
     private static TruffleInliningDecision exploreCallSite(List<OptimizedCallTarget> callStack, int callStackNodeCount, TruffleInliningPolicy policy, OptimizedDirectCallNode callNode,
-                    int[] visitedNodes, Map<OptimizedCallTarget, TruffleInliningDecision> rejectedDecisionsCache) {
+                    int[] visitedNodes, Map<OptimizedCallTarget, TruffleInliningDecision> rejectedDecisionsCache, TruffleInliningDecision previousDecision) {
 
         OptimizedCallTarget parentTarget = callStack.get(callStack.size() - 2);
         OptimizedCallTarget currentTarget = callStack.get(callStack.size() - 1);
+        /*
+         * The assumption is read before the call sites of the target are explored, such that
+         * changes during the exploration invalidate the decision.
+         */
+        Assumption nodeRewritingAssumption = currentTarget.getNodeRewritingAssumption();
 
         List<TruffleInliningDecision> childCallSites = Collections.emptyList();
         double frequency = calculateFrequency(parentTarget, callNode);
@@ -135,7 +172,8 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision> {
              */
             final CompilerOptions options = callNode.getRootNode().getCompilerOptions();
             if (policy.isAllowed(new TruffleInliningProfile(callNode, nodeCount, nodeCount, frequency, recursions), callStackNodeCount, options)) {
-                List<TruffleInliningDecision> exploredCallSites = exploreCallSites(callStack, callStackNodeCount + nodeCount, policy, visitedNodes, rejectedDecisionsCache);
+                List<TruffleInliningDecision> exploredCallSites = exploreCallSites(callStack, callStackNodeCount + nodeCount, policy, visitedNodes, rejectedDecisionsCache,
+                                previousDecision);
                 childCallSites = decideInlining(exploredCallSites, policy, nodeCount, options);
                 for (TruffleInliningDecision childCallSite : childCallSites) {
                     if (childCallSite.isInline()) {
@@ -150,7 +188,7 @@ public class TruffleInlining implements Iterable<TruffleInliningDecision> {
 
         TruffleInliningProfile profile = new TruffleInliningProfile(callNode, nodeCount, deepNodeCount, frequency, recursions);
         profile.setScore(policy.calculateScore(profile));
-        return new TruffleInliningDecision(currentTarget, profile, childCallSites);
+        return new TruffleInliningDecision(currentTarget, profile, childCallSites, nodeRewritingAssumption);
     }
 
     private static double calculateFrequency(OptimizedCallTarget target, OptimizedDirectCallNode ocn) {
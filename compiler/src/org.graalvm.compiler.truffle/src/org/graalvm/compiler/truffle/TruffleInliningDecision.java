@@ -25,16 +25,24 @@ package org.graalvm.compiler.truffle;
 import java.util.Iterator;
 import java.util.List;
 
+import com.oracle.truffle.api.Assumption;
+
 public final class TruffleInliningDecision extends TruffleInlining implements Comparable<TruffleInliningDecision> {
 
     private final OptimizedCallTarget target;
     private final TruffleInliningProfile profile;
+    private final Assumption nodeRewritingAssumption;
     private boolean inline;
 
     public TruffleInliningDecision(OptimizedCallTarget target, TruffleInliningProfile profile, List<TruffleInliningDecision> children) {
+        this(target, profile, children, null);
+    }
+
+    TruffleInliningDecision(OptimizedCallTarget target, TruffleInliningProfile profile, List<TruffleInliningDecision> children, Assumption nodeRewritingAssumption) {
         super(children);
         this.target = target;
         this.profile = profile;
+        this.nodeRewritingAssumption = nodeRewritingAssumption;
     }
 
     public OptimizedCallTarget getTarget() {
@@ -53,6 +61,43 @@ public final class TruffleInliningDecision extends TruffleInlining implements Co
         return profile;
     }
 
+    /**
+     * Returns the node rewriting assumption of the target at the time its call sites were explored
+     * or <code>null</code> if unknown.
+     */
+    Assumption getNodeRewritingAssumption() {
+        return nodeRewritingAssumption;
+    }
+
+    /**
+     * Returns <code>true</code> if this decision and its call sites can be reused when the caller
+     * is recompiled. This is the case if the target was inlined, was not rewritten since its call
+     * sites were explored and still has the same call sites, and the same holds for all inlined
+     * call sites.
+     */
+    boolean isReusable() {
+        if (!isInline() || nodeRewritingAssumption == null || !nodeRewritingAssumption.isValid()) {
+            return false;
+        }
+        if (profile.getCallNode().getCurrentCallTarget() != target) {
+            return false;
+        }
+        List<OptimizedDirectCallNode> callNodes = getCallNodes(target);
+        if (callNodes.size() != getCallSites().size()) {
+            return false;
+        }
+        for (OptimizedDirectCallNode callNode : callNodes) {
+            TruffleInliningDecision callSite = findByCall(callNode);
+            if (callSite == null || callSite.getTarget() != callNode.getCurrentCallTarget()) {
+                return false;
+            }
+            if (callSite.isInline() && !callSite.isReusable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public int compareTo(TruffleInliningDecision o) {
         return Double.compare(o.getProfile().getScore(), getProfile().getScore());
@@ -28,4 +28,10 @@ public interface TruffleSplittingStrategy {
 
     void forceSplitting();
 
+    /**
+     * Invoked if a node of the current call target reported a polymorphic specialization while it
+     * was called from this call site.
+     */
+    void polymorphicSpecialize();
+
 }
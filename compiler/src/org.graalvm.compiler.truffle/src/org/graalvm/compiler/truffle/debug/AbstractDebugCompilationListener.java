@@ -33,6 +33,7 @@ import org.graalvm.compiler.truffle.OptimizedDirectCallNode;
 import org.graalvm.compiler.truffle.TruffleInlining;
 
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.nodes.Node;
 
 public abstract class AbstractDebugCompilationListener implements GraalTruffleCompilationListener {
 
@@ -64,6 +65,10 @@ public abstract class AbstractDebugCompilationListener implements GraalTruffleCo
     public void notifyCompilationSplit(OptimizedDirectCallNode callNode) {
     }
 
+    @Override
+    public void notifyCompilationSplitFailed(OptimizedDirectCallNode callNode, CharSequence reason) {
+    }
+
     @Override
     public void notifyCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, StructuredGraph graph, CompilationResult result) {
     }
@@ -72,10 +77,18 @@ public abstract class AbstractDebugCompilationListener implements GraalTruffleCo
     public void notifyCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
     }
 
+    @Override
+    public void notifyCompilationBackoff(OptimizedCallTarget target, int invalidationCount, CharSequence reason) {
+    }
+
     @Override
     public void notifyCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
     }
 
+    @Override
+    public void notifyPolymorphicSpecialize(OptimizedCallTarget target, Node source) {
+    }
+
     @Override
     public void notifyShutdown(GraalTruffleRuntime runtime) {
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.debug;
+
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationEventLog;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationEventRecorderSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.debug.CompilationEventRecorder;
+import org.graalvm.compiler.debug.CompilationEventRecorder.Kind;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleInlining;
+
+import com.oracle.truffle.api.frame.Frame;
+
+/**
+ * Records compilation events into a {@link CompilationEventRecorder} that can be dumped on demand
+ * and optionally streams them to {@link TruffleCompilerOptions#TruffleCompilationEventLog}.
+ */
+public final class CompilationEventRecorderListener extends AbstractDebugCompilationListener {
+
+    private final CompilationEventRecorder recorder;
+
+    private CompilationEventRecorderListener(CompilationEventRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public static void install(GraalTruffleRuntime runtime) {
+        int size = TruffleCompilerOptions.getValue(TruffleCompilationEventRecorderSize);
+        String log = TruffleCompilerOptions.getValue(TruffleCompilationEventLog);
+        if (size <= 0 && log == null) {
+            return;
+        }
+        CompilationEventRecorder recorder = new CompilationEventRecorder(Math.max(1, size));
+        if (log != null) {
+            try {
+                recorder.streamTo(Files.newOutputStream(Paths.get(log)));
+            } catch (IOException e) {
+                runtime.log("Cannot stream compilation events to " + log + ": " + e);
+            }
+        }
+        CompilationEventRecorder.install(recorder);
+        runtime.addCompilationListener(new CompilationEventRecorderListener(recorder));
+    }
+
+    @Override
+    public void notifyCompilationQueued(OptimizedCallTarget target) {
+        recorder.record(Kind.QUEUED, target.toString(), target.getNonTrivialNodeCount(), null);
+    }
+
+    @Override
+    public void notifyCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
+        recorder.record(Kind.DEQUEUED, target.toString(), 0, reason);
+    }
+
+    @Override
+    public void notifyCompilationStarted(OptimizedCallTarget target) {
+        recorder.record(Kind.STARTED, target.toString(), target.getNonTrivialNodeCount(), null);
+    }
+
+    @Override
+    public void notifyCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, StructuredGraph graph, CompilationResult result) {
+        recorder.record(Kind.SUCCEEDED, target.toString(), result.getTargetCodeSize(), null);
+    }
+
+    @Override
+    public void notifyCompilationFailed(OptimizedCallTarget target, StructuredGraph graph, Throwable t) {
+        recorder.record(Kind.FAILED, target.toString(), 0, t.toString());
+    }
+
+    @Override
+    public void notifyCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+        recorder.record(Kind.INVALIDATED, target.toString(), 0, reason);
+    }
+
+    @Override
+    public void notifyCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
+        recorder.record(Kind.DEOPTIMIZED, target.toString(), 0, null);
+    }
+
+    @Override
+    public void notifyShutdown(GraalTruffleRuntime runtime) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            runtime.log("Cannot close compilation event log: " + e);
+        }
+    }
+}
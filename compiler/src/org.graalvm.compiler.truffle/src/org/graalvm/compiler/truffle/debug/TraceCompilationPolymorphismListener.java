@@ -24,8 +24,13 @@ package org.graalvm.compiler.truffle.debug;
 
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTruffleCompilationPolymorphism;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.nodes.StructuredGraph;
@@ -37,9 +42,23 @@ import org.graalvm.compiler.truffle.TruffleInlining;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeCost;
 import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.RootNode;
 
+/**
+ * Prints the polymorphic and megamorphic nodes of each compiled call target. Nodes that report
+ * their polymorphic specializations (see {@link Node#reportPolymorphicSpecialize()}) are printed
+ * first, ordered by the number of reported specializations. On shutdown the most frequently
+ * respecialized nodes of all call targets are printed.
+ */
 public final class TraceCompilationPolymorphismListener extends AbstractDebugCompilationListener {
 
+    private static final int MAX_SHUTDOWN_SITES = 20;
+
+    /*
+     * Nodes are kept weakly so that the statistics do not keep replaced or collected ASTs alive.
+     */
+    private final Map<Node, Integer> polymorphicSpecializations = new WeakHashMap<>();
+
     private TraceCompilationPolymorphismListener() {
     }
 
@@ -49,20 +68,70 @@ public final class TraceCompilationPolymorphismListener extends AbstractDebugCom
         }
     }
 
+    @Override
+    public void notifyPolymorphicSpecialize(OptimizedCallTarget target, Node source) {
+        synchronized (polymorphicSpecializations) {
+            Integer count = polymorphicSpecializations.get(source);
+            polymorphicSpecializations.put(source, count == null ? 1 : count + 1);
+        }
+    }
+
     @Override
     public void notifyCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, StructuredGraph graph, CompilationResult result) {
         super.notifyCompilationSuccess(target, inliningDecision, graph, result);
 
+        List<Node> polymorphicNodes = new ArrayList<>();
         for (Node node : target.nodeIterable(inliningDecision)) {
             if (node != null && (node.getCost() == NodeCost.MEGAMORPHIC || node.getCost() == NodeCost.POLYMORPHIC)) {
-                NodeCost cost = node.getCost();
-                Map<String, Object> props = new LinkedHashMap<>();
-                props.put("simpleName", node.getClass().getSimpleName());
-                props.put("subtree", "\n" + NodeUtil.printCompactTreeToString(node));
-                String msg = cost == NodeCost.MEGAMORPHIC ? "megamorphic" : "polymorphic";
-                log(0, msg, node.toString(), props);
+                polymorphicNodes.add(node);
+            }
+        }
+        Map<Node, Integer> counts = snapshotCounts();
+        Collections.sort(polymorphicNodes, (n1, n2) -> getCount(counts, n2) - getCount(counts, n1));
+
+        for (Node node : polymorphicNodes) {
+            NodeCost cost = node.getCost();
+            Map<String, Object> props = new LinkedHashMap<>();
+            props.put("simpleName", node.getClass().getSimpleName());
+            Integer count = counts.get(node);
+            if (count != null) {
+                props.put("specializations", count);
             }
+            props.put("subtree", "\n" + NodeUtil.printCompactTreeToString(node));
+            String msg = cost == NodeCost.MEGAMORPHIC ? "megamorphic" : "polymorphic";
+            log(0, msg, node.toString(), props);
         }
     }
 
+    @Override
+    public void notifyShutdown(GraalTruffleRuntime runtime) {
+        Map<Node, Integer> counts = snapshotCounts();
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Node> nodes = new ArrayList<>(counts.keySet());
+        Collections.sort(nodes, (n1, n2) -> getCount(counts, n2) - getCount(counts, n1));
+        runtime.log(String.format("Truffle polymorphic sites: %d nodes reported polymorphic specializations, top %d:", nodes.size(), Math.min(nodes.size(), MAX_SHUTDOWN_SITES)));
+        for (Node node : nodes.subList(0, Math.min(nodes.size(), MAX_SHUTDOWN_SITES))) {
+            Map<String, Object> props = new LinkedHashMap<>();
+            props.put("specializations", counts.get(node));
+            props.put("cost", node.getCost());
+            RootNode rootNode = node.getRootNode();
+            props.put("root", rootNode != null ? rootNode.getName() : null);
+            props.put("source", node.getEncapsulatingSourceSection());
+            log(0, "polymorphic site", node.getClass().getSimpleName(), props);
+        }
+    }
+
+    private Map<Node, Integer> snapshotCounts() {
+        synchronized (polymorphicSpecializations) {
+            return new HashMap<>(polymorphicSpecializations);
+        }
+    }
+
+    private static int getCount(Map<Node, Integer> counts, Node node) {
+        Integer count = counts.get(node);
+        return count == null ? 0 : count;
+    }
+
 }
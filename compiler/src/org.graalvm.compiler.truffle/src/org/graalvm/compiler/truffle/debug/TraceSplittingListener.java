@@ -49,4 +49,11 @@ public final class TraceSplittingListener extends AbstractDebugCompilationListen
         log(0, label, callTarget.toString(), callTarget.getDebugProperties(null));
     }
 
+    @Override
+    public void notifyCompilationSplitFailed(OptimizedDirectCallNode callNode, CharSequence reason) {
+        OptimizedCallTarget callTarget = callNode.getCallTarget();
+        String label = String.format("split failed %-4s ", callNode.getCallCount());
+        log(0, label, callTarget.toString() + " " + reason, callTarget.getDebugProperties(null));
+    }
+
 }
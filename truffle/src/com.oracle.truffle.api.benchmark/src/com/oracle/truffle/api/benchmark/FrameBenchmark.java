@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+
+/**
+ * Measures the allocation and slot access costs of the frames created by the current Truffle
+ * runtime, separately for frames that only hold objects and frames that hold primitives.
+ */
+@State(Scope.Thread)
+public class FrameBenchmark extends TruffleBenchmark {
+
+    private static final int SLOTS = 8;
+    private static final Object[] ARGUMENTS = new Object[0];
+
+    private final FrameDescriptor objectDescriptor = createDescriptor(FrameSlotKind.Object);
+    private final FrameDescriptor intDescriptor = createDescriptor(FrameSlotKind.Int);
+    private final FrameSlot[] objectSlots = objectDescriptor.getSlots().toArray(new FrameSlot[0]);
+    private final FrameSlot[] intSlots = intDescriptor.getSlots().toArray(new FrameSlot[0]);
+    private final Object value = new Object();
+
+    private MaterializedFrame objectFrame;
+    private MaterializedFrame intFrame;
+
+    private static FrameDescriptor createDescriptor(FrameSlotKind kind) {
+        FrameDescriptor descriptor = new FrameDescriptor();
+        for (int i = 0; i < SLOTS; i++) {
+            descriptor.addFrameSlot("slot" + i, kind);
+        }
+        return descriptor;
+    }
+
+    @Setup
+    public void setup() {
+        objectFrame = Truffle.getRuntime().createMaterializedFrame(ARGUMENTS, objectDescriptor);
+        intFrame = Truffle.getRuntime().createMaterializedFrame(ARGUMENTS, intDescriptor);
+        for (int i = 0; i < SLOTS; i++) {
+            objectFrame.setObject(objectSlots[i], value);
+            intFrame.setInt(intSlots[i], i);
+        }
+    }
+
+    @Benchmark
+    public Object allocateObjectFrame() {
+        MaterializedFrame frame = Truffle.getRuntime().createMaterializedFrame(ARGUMENTS, objectDescriptor);
+        frame.setObject(objectSlots[0], value);
+        return frame;
+    }
+
+    @Benchmark
+    public Object allocateIntFrame() {
+        MaterializedFrame frame = Truffle.getRuntime().createMaterializedFrame(ARGUMENTS, intDescriptor);
+        frame.setInt(intSlots[0], 42);
+        return frame;
+    }
+
+    @Benchmark
+    public Object accessObjectSlots() throws FrameSlotTypeException {
+        MaterializedFrame frame = objectFrame;
+        Object result = null;
+        for (int i = 0; i < SLOTS; i++) {
+            FrameSlot slot = objectSlots[i];
+            result = frame.getObject(slot);
+            frame.setObject(slot, result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int accessIntSlots() throws FrameSlotTypeException {
+        MaterializedFrame frame = intFrame;
+        int sum = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            FrameSlot slot = intSlots[i];
+            int slotValue = frame.getInt(slot);
+            frame.setInt(slot, slotValue);
+            sum += slotValue;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object accessGenericSlots() {
+        MaterializedFrame frame = intFrame;
+        Object result = null;
+        for (int i = 0; i < SLOTS; i++) {
+            result = frame.getValue(intSlots[i]);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateUncached;
+import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
+import com.oracle.truffle.api.dsl.test.GenerateUncachedTestFactory.Uncached1NodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateUncachedTestFactory.Uncached2NodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateUncachedTestFactory.Uncached3NodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateUncachedTestFactory.Uncached4NodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateUncachedTestFactory.Uncached5NodeGen;
+import com.oracle.truffle.api.dsl.test.TypeSystemTest.ValueNode;
+import com.oracle.truffle.api.dsl.test.examples.ExampleTypes;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+@SuppressWarnings("unused")
+public class GenerateUncachedTest {
+
+    @Test
+    public void testUncached1() throws UnexpectedResultException {
+        Uncached1Node node = Uncached1NodeGen.getUncached();
+        assertSame(node, Uncached1NodeGen.getUncached());
+        assertEquals(NodeCost.MEGAMORPHIC, node.getCost());
+        assertEquals(null, node.getParent());
+        assertEquals("s1", node.execute(42));
+        assertEquals("s2", node.execute(42L));
+        assertEquals("fallback", node.execute("42"));
+        assertEquals(3, node.executeInt(3));
+    }
+
+    @GenerateUncached
+    abstract static class Uncached1Node extends Node {
+
+        abstract Object execute(Object arg);
+
+        abstract int executeInt(Object arg) throws UnexpectedResultException;
+
+        @Specialization(guards = "v == 3")
+        static int s0(int v) {
+            return v;
+        }
+
+        @Specialization
+        static String s1(int v) {
+            return "s1";
+        }
+
+        @Specialization
+        static String s2(long v) {
+            return "s2";
+        }
+
+        @Fallback
+        static String fallback(Object v) {
+            return "fallback";
+        }
+
+    }
+
+    @Test
+    public void testUncached2() {
+        Uncached2Node node = Uncached2NodeGen.getUncached();
+        assertEquals(42, node.execute(42, 0));
+        assertEquals(43, node.execute(42, 1));
+        assertEquals(-1, node.execute(Integer.MAX_VALUE, 1));
+        assertEquals(-1, node.execute(Integer.MAX_VALUE, 1));
+        try {
+            node.execute("42", 1);
+            fail();
+        } catch (UnsupportedSpecializationException e) {
+            assertSame(node, e.getNode());
+        }
+    }
+
+    @GenerateUncached
+    abstract static class Uncached2Node extends Node {
+
+        abstract int execute(Object arg0, Object arg1);
+
+        @Specialization(rewriteOn = ArithmeticException.class)
+        static int s0(int arg0, int arg1) {
+            return Math.addExact(arg0, arg1);
+        }
+
+        @Specialization
+        static int s1(int arg0, int arg1) {
+            return -1;
+        }
+
+    }
+
+    @Test
+    public void testUncached3() {
+        Uncached3Node node = Uncached3NodeGen.getUncached();
+        assertEquals("cached42", node.execute(42));
+        assertEquals("cached43", node.execute(43));
+        assertEquals("uncached44", node.execute(44));
+        Uncached3Node.assumption.invalidate();
+        assertEquals("generic", node.execute(42));
+    }
+
+    @GenerateUncached
+    abstract static class Uncached3Node extends Node {
+
+        static final Assumption assumption = Truffle.getRuntime().createAssumption();
+
+        abstract Object execute(Object arg);
+
+        @Specialization(guards = "arg == cachedArg", limit = "1", assumptions = "assumption")
+        static String s0(int arg, @Cached("arg") int cachedArg, @Cached(value = "prefix(cachedArg)", uncached = "uncachedPrefix(cachedArg)") String prefix) {
+            return prefix + cachedArg;
+        }
+
+        @Specialization
+        static String s1(Object arg) {
+            return "generic";
+        }
+
+        static String prefix(int value) {
+            return "cached";
+        }
+
+        static String uncachedPrefix(int value) {
+            return value > 43 ? "uncached" : "cached";
+        }
+
+    }
+
+    @Test
+    public void testUncached4() {
+        Uncached4Node node = Uncached4NodeGen.getUncached();
+        assertEquals(42.0d, node.execute(42), 0.0d);
+        assertEquals(42.5d, node.execute(42.5d), 0.0d);
+    }
+
+    @GenerateUncached
+    @TypeSystemReference(ExampleTypes.class)
+    abstract static class Uncached4Node extends Node {
+
+        abstract double execute(Object arg);
+
+        @Specialization
+        static double s0(double arg) {
+            return arg;
+        }
+
+    }
+
+    @Test
+    public void testUncached5() {
+        Uncached5Node node = Uncached5NodeGen.getUncached();
+        assertEquals(42, node.execute(42));
+        assertEquals(42, node.execute(42));
+        assertEquals(null, node.getParent());
+    }
+
+    @GenerateUncached
+    abstract static class Uncached5Node extends Node {
+
+        abstract Object execute(Object arg);
+
+        @Specialization
+        static Object s0(Object arg, @Cached(value = "createChild()", uncached = "getUncachedChild()") Uncached1Node child) {
+            assertSame(Uncached1NodeGen.getUncached(), child);
+            return arg;
+        }
+
+        static Uncached1Node createChild() {
+            return Uncached1NodeGen.create();
+        }
+
+        static Uncached1Node getUncachedChild() {
+            return Uncached1NodeGen.getUncached();
+        }
+
+    }
+
+    @ExpectError("Nodes with @NodeChild are not supported by @GenerateUncached. Pass all operands to the execute methods instead.")
+    @GenerateUncached
+    @NodeChild
+    abstract static class UncachedError1Node extends ValueNode {
+
+        @Specialization
+        static int s0(int arg) {
+            return arg;
+        }
+
+    }
+
+    @ExpectError("Nodes with @NodeField are not supported by @GenerateUncached.")
+    @GenerateUncached
+    @NodeField(name = "field", type = int.class)
+    abstract static class UncachedError2Node extends Node {
+
+        abstract Object execute(Object arg);
+
+        @Specialization
+        static int s0(int arg) {
+            return arg;
+        }
+
+    }
+
+    @ExpectError("Nodes with @GenerateUncached must declare a non-private constructor without parameters.")
+    @GenerateUncached
+    abstract static class UncachedError3Node extends Node {
+
+        UncachedError3Node(int value) {
+        }
+
+        abstract Object execute(Object arg);
+
+        @Specialization
+        static int s0(int arg) {
+            return arg;
+        }
+
+    }
+
+    @GenerateUncached
+    abstract static class UncachedError4Node extends Node {
+
+        abstract Object execute(Object arg);
+
+        @Specialization
+        static Object s0(Object arg,
+                        @ExpectError("Cached parameters of node type must specify an uncached expression for nodes with @GenerateUncached, " +
+                                        "for example @Cached(value = \"create()\", uncached = \"getUncached()\").") @Cached("createChild()") Uncached1Node child) {
+            return arg;
+        }
+
+        static Uncached1Node createChild() {
+            return Uncached1NodeGen.create();
+        }
+
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.dsl.test.ReportPolymorphismTestFactory.NoReportNodeGen;
+import com.oracle.truffle.api.dsl.test.ReportPolymorphismTestFactory.Report1NodeGen;
+import com.oracle.truffle.api.dsl.test.ReportPolymorphismTestFactory.Report2NodeGen;
+import com.oracle.truffle.api.dsl.test.ReportPolymorphismTestFactory.Report3NodeGen;
+import com.oracle.truffle.api.dsl.test.ReportPolymorphismTestFactory.Report4NodeGen;
+import com.oracle.truffle.api.dsl.test.examples.ExampleTypes;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+public class ReportPolymorphismTest {
+
+    @Test
+    public void testRewriteOn() {
+        Report1Node node = TestHelper.createRoot(Report1NodeGen.create());
+        assertEquals(NodeCost.UNINITIALIZED, node.getCost());
+        assertEquals(3, node.execute(1, 2));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+        assertEquals((long) Integer.MAX_VALUE + 1, node.execute(Integer.MAX_VALUE, 1));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+        assertEquals(3L, node.execute(1, 2));
+        assertEquals("ab", node.execute("a", "b"));
+        assertEquals(NodeCost.POLYMORPHIC, node.getCost());
+    }
+
+    @ReportPolymorphism
+    abstract static class Report1Node extends Node {
+
+        abstract Object execute(Object left, Object right);
+
+        @Specialization(rewriteOn = ArithmeticException.class)
+        int doInt(int left, int right) {
+            return Math.addExact(left, right);
+        }
+
+        @Specialization
+        long doLong(int left, int right) {
+            return (long) left + right;
+        }
+
+        @Specialization
+        String doString(String left, String right) {
+            return left + right;
+        }
+    }
+
+    @Test
+    public void testCached() {
+        Report2Node node = TestHelper.createRoot(Report2NodeGen.create());
+        assertEquals(1, node.execute(1));
+        assertEquals(1, node.execute(1));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+        assertEquals(2, node.execute(2));
+        assertEquals(NodeCost.POLYMORPHIC, node.getCost());
+        assertEquals(3, node.execute(3));
+        assertEquals(-4, node.execute(4));
+        assertEquals(-2, node.execute(2));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+    }
+
+    @ReportPolymorphism
+    abstract static class Report2Node extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization(guards = "value == cachedValue", limit = "3")
+        int doCached(int value, @Cached("value") int cachedValue) {
+            return cachedValue;
+        }
+
+        @Specialization(replaces = "doCached")
+        int doGeneric(int value) {
+            return -value;
+        }
+    }
+
+    @Test
+    public void testImplicitCast() {
+        Report3Node node = TestHelper.createRoot(Report3NodeGen.create());
+        assertEquals(1.0d, node.execute(1));
+        assertEquals(1.5d, node.execute(1.5d));
+        assertEquals(2.0d, node.execute(2));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+    }
+
+    @ReportPolymorphism
+    @TypeSystemReference(ExampleTypes.class)
+    abstract static class Report3Node extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        double doDouble(double value) {
+            return value;
+        }
+    }
+
+    @Test
+    public void testInherited() {
+        Report4Node node = TestHelper.createRoot(Report4NodeGen.create());
+        assertEquals(42, node.execute(42));
+        assertEquals("42", node.execute("42"));
+        assertEquals(NodeCost.POLYMORPHIC, node.getCost());
+        assertTrue(hasPolymorphismCheck(Report4NodeGen.class));
+        assertTrue(hasPolymorphismCheck(Report1NodeGen.class));
+        assertFalse(hasPolymorphismCheck(NoReportNodeGen.class));
+    }
+
+    @ReportPolymorphism
+    abstract static class ReportBaseNode extends Node {
+
+        abstract Object execute(Object value);
+
+    }
+
+    abstract static class Report4Node extends ReportBaseNode {
+
+        @Specialization
+        int doInt(int value) {
+            return value;
+        }
+
+        @Specialization
+        String doString(String value) {
+            return value;
+        }
+    }
+
+    abstract static class NoReportNode extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        int doInt(int value) {
+            return value;
+        }
+
+        @Specialization
+        String doString(String value) {
+            return value;
+        }
+    }
+
+    private static boolean hasPolymorphismCheck(Class<?> generatedClass) {
+        for (Method method : generatedClass.getDeclaredMethods()) {
+            if (method.getName().equals("checkForPolymorphicSpecialize")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
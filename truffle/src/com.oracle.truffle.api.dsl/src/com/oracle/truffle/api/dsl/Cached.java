@@ -253,4 +253,17 @@ public @interface Cached {
      */
     int dimensions() default -1;
 
+    /**
+     * Defines the expression that is used to compute the parameter value in the uncached version
+     * of the node. The uncached version is only generated for nodes annotated with
+     * {@link GenerateUncached}. The expression is evaluated for every execution of the uncached
+     * node and uses the same syntax and binding rules as the {@link #value() initializer}
+     * expression. If not specified, the initializer expression is used instead. Cached parameters
+     * of {@link Node node} type must specify an uncached expression.
+     *
+     * @see GenerateUncached
+     * @since 0.27
+     */
+    String uncached() default "";
+
 }
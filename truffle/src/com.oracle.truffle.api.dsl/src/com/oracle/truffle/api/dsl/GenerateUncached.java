@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates an uncached version of a node in addition to the specializing one. The uncached
+ * version is a stateless singleton that can be obtained by calling the static
+ * <code>getUncached()</code> method of the generated node class or factory. On each execution it
+ * checks the specializations in declaration order and invokes the first one whose type checks,
+ * guards and assumptions pass. No state is recorded, no cached values are stored and no nodes are
+ * allocated or adopted. This makes the uncached version suitable for calls from slow paths, for
+ * example behind a {@link com.oracle.truffle.api.CompilerDirectives.TruffleBoundary boundary},
+ * where creating and adopting a specializing node would be too expensive.
+ * <p>
+ * Cached parameters are re-evaluated for every execution using their
+ * {@link Cached#uncached() uncached} expression or, if not specified, their initializer expression.
+ * Specialization limits are ignored. If a specialization fails with one of its
+ * {@link Specialization#rewriteOn() rewriteOn} exceptions the remaining specializations are tried.
+ * <p>
+ * The following restrictions apply to nodes annotated with {@link GenerateUncached}:
+ * <ul>
+ * <li>The node must not declare any {@link NodeChild children} or {@link NodeField node fields}.
+ * All operands must be passed to its execute methods.
+ * <li>The node must declare a constructor without parameters.
+ * <li>Cached parameters of {@link com.oracle.truffle.api.nodes.Node node} type must specify an
+ * {@link Cached#uncached() uncached} expression that does not allocate a new node.
+ * </ul>
+ * The uncached instance is shared and must not be adopted by other nodes.
+ *
+ * <pre>
+ * &#064;GenerateUncached
+ * abstract class ToStringNode extends Node {
+ *
+ *     abstract String execute(Object value);
+ *
+ *     &#064;Specialization
+ *     String doInt(int value) {
+ *         return Integer.toString(value);
+ *     }
+ *
+ *     &#064;Specialization
+ *     String doObject(Object value) {
+ *         return String.valueOf(value);
+ *     }
+ * }
+ *
+ * ToStringNodeGen.getUncached().execute(42);
+ * </pre>
+ *
+ * @see Cached#uncached()
+ * @since 0.27
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface GenerateUncached {
+
+}
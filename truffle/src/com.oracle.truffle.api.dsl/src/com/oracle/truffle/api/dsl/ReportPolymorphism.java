@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables reporting of polymorphic specializations of a DSL generated node to the runtime. If
+ * applied, the generated node calls
+ * {@link com.oracle.truffle.api.nodes.Node#reportPolymorphicSpecialize()} whenever it was
+ * specialized while already being in a specialized state and the specialization changed the set
+ * of active specializations, the set of excluded specializations or added an instance to a cached
+ * specialization. The first specialization of an uninitialized node is never reported.
+ * <p>
+ * Runtimes may use the reported events to rank and trace polymorphic sites. For example, the
+ * Graal runtime counts the events per node and prints the most frequently respecialized nodes with
+ * the compilation polymorphism trace. Reporting only happens in the interpreter, the generated
+ * fast-path code is unaffected.
+ * <p>
+ * The annotation is inherited by subclasses of the annotated node class.
+ *
+ * <pre>
+ * &#064;ReportPolymorphism
+ * abstract class AddNode extends Node {
+ *
+ *     abstract Object execute(Object left, Object right);
+ *
+ *     &#064;Specialization(rewriteOn = ArithmeticException.class)
+ *     int doInt(int left, int right) {
+ *         return Math.addExact(left, right);
+ *     }
+ *
+ *     &#064;Specialization
+ *     double doDouble(double left, double right) {
+ *         return left + right;
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 0.27
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface ReportPolymorphism {
+
+}
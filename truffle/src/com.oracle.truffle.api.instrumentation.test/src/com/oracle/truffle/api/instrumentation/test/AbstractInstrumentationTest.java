@@ -31,6 +31,8 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import com.oracle.truffle.api.vm.PolyglotRuntime;
@@ -123,6 +125,13 @@ public abstract class AbstractInstrumentationTest {
         return Source.newBuilder(b.toString()).name("unknown").mimeType(InstrumentationTestLanguage.MIME_TYPE).build();
     }
 
+    /*
+     * Returns the root node of a function that was defined with DEFINE in the test language.
+     */
+    final RootNode getFunctionRoot(String identifier) {
+        return ((RootCallTarget) ((Context) context[0]).callTargets.get(identifier)).getRootNode();
+    }
+
     @After
     public void teardown() {
         if (engine != null) {
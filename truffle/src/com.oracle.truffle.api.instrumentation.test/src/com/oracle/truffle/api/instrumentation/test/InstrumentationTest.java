@@ -38,6 +38,7 @@ import java.io.InputStreamReader;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.Reader;
+import java.lang.reflect.Field;
 import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -59,6 +60,7 @@ import com.oracle.truffle.api.instrumentation.EventContext;
 import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
 import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
 import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.InstrumentableFactory.WrapperNode;
 import com.oracle.truffle.api.instrumentation.Instrumenter;
 import com.oracle.truffle.api.instrumentation.ProvidedTags;
 import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
@@ -68,8 +70,10 @@ import com.oracle.truffle.api.instrumentation.TruffleInstrument.Registration;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.LanguageInfo;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.test.ReflectionUtils;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import com.oracle.truffle.api.vm.PolyglotRuntime;
 import com.oracle.truffle.api.vm.PolyglotRuntime.Instrument;
@@ -539,6 +543,63 @@ public class InstrumentationTest extends AbstractInstrumentationTest {
         }
     }
 
+    /*
+     * Test that with lazy binding, roots that are not on the stack when a binding is attached are
+     * instrumented on their next execution.
+     */
+    @Test
+    public void testLazyBinding() throws IOException {
+        TestLazyBinding.onEnter = 0;
+        run("ROOT(DEFINE(foo, EXPRESSION))");
+        run("ROOT(CALL(foo))");
+
+        enableLazyBinding();
+        engine.getRuntime().getInstruments().get("testLazyBinding").setEnabled(true);
+
+        RootNode foo = getFunctionRoot("foo");
+        Assert.assertTrue(NodeUtil.findAllNodeInstances(foo, WrapperNode.class).isEmpty());
+        Assert.assertEquals(0, TestLazyBinding.onEnter);
+
+        run("ROOT(CALL(foo))");
+        Assert.assertFalse(NodeUtil.findAllNodeInstances(foo, WrapperNode.class).isEmpty());
+        Assert.assertEquals(1, TestLazyBinding.onEnter);
+
+        run("ROOT(CALL(foo))");
+        Assert.assertEquals(2, TestLazyBinding.onEnter);
+    }
+
+    private void enableLazyBinding() {
+        try {
+            Object handler = ReflectionUtils.getField(engine.getRuntime(), "instrumentationHandler");
+            Field lazyField = handler.getClass().getDeclaredField("lazyBinding");
+            ReflectionUtils.setAccessible(lazyField, true);
+            lazyField.setBoolean(handler, true);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Registration(id = "testLazyBinding")
+    public static class TestLazyBinding extends TruffleInstrument {
+
+        static int onEnter = 0;
+
+        @Override
+        protected void onCreate(final Env env) {
+            env.getInstrumenter().attachListener(SourceSectionFilter.newBuilder().tagIs(InstrumentationTestLanguage.EXPRESSION).build(), new ExecutionEventListener() {
+                public void onEnter(EventContext context, VirtualFrame frame) {
+                    onEnter++;
+                }
+
+                public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+                }
+
+                public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+                }
+            });
+        }
+    }
+
     /*
      * Test that parsing and executing foreign languages work.
      */
@@ -74,6 +74,26 @@ public class SourceSectionFilterTest {
         }
     }
 
+    private static boolean isInstrumentedRootSource(SourceSectionFilter filter, Source source) {
+        try {
+            Method m = filter.getClass().getDeclaredMethod("isInstrumentedRootSource", Source.class);
+            ReflectionUtils.setAccessible(m, true);
+            return (boolean) m.invoke(filter, source);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isInstrumentedNode(SourceSectionFilter filter, Node instrumentedNode, Source includedSource) {
+        try {
+            Method m = filter.getClass().getDeclaredMethod("isInstrumentedNode", Set.class, Node.class, SourceSection.class, Source.class);
+            ReflectionUtils.setAccessible(m, true);
+            return (boolean) m.invoke(filter, ALL_TAGS, instrumentedNode, instrumentedNode.getSourceSection(), includedSource);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static Node createNode(final SourceSection section, final Class<?>... tags) {
         return new Node() {
 
@@ -653,6 +673,51 @@ public class SourceSectionFilterTest {
         Assert.assertNotNull(filter.toString());
     }
 
+    @Test
+    public void testRootSource() {
+        Source sampleSource1 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown1").mimeType("mime1").build();
+        Source sampleSource2 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown2").mimeType("mime2").build();
+
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.ANY, sampleSource1));
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.newBuilder().sourceIs(sampleSource1).build(), sampleSource1));
+        Assert.assertFalse(isInstrumentedRootSource(SourceSectionFilter.newBuilder().sourceIs(sampleSource1).build(), sampleSource2));
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.newBuilder().mimeTypeIs("mime2").build(), sampleSource2));
+        Assert.assertFalse(isInstrumentedRootSource(SourceSectionFilter.newBuilder().mimeTypeIs("mime2").build(), sampleSource1));
+        Assert.assertFalse(isInstrumentedRootSource(SourceSectionFilter.newBuilder().sourceIs(s -> s == sampleSource2).build(), sampleSource1));
+
+        // expressions that do not only depend on the source never exclude a root source
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.newBuilder().tagIs(InstrumentationTestLanguage.STATEMENT).lineIs(42).build(), sampleSource1));
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.newBuilder().rootNameIs(name -> false).build(), sampleSource1));
+    }
+
+    @Test
+    public void testIncludedSource() {
+        Source sampleSource1 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown1").mimeType("mime1").build();
+        Source sampleSource2 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown2").mimeType("mime1").build();
+        int[] predicateCalls = new int[1];
+        SourceSectionFilter filter = SourceSectionFilter.newBuilder().sourceIs(s -> {
+            predicateCalls[0]++;
+            return s == sampleSource1;
+        }).tagIs(InstrumentationTestLanguage.STATEMENT).build();
+
+        Node statement1 = createNode(sampleSource1.createSection(0, 5), tags(InstrumentationTestLanguage.STATEMENT));
+        Node expression1 = createNode(sampleSource1.createSection(0, 5), tags(InstrumentationTestLanguage.EXPRESSION));
+        Node statement2 = createNode(sampleSource2.createSection(0, 5), tags(InstrumentationTestLanguage.STATEMENT));
+
+        Assert.assertTrue(isInstrumentedNode(filter, statement1, null));
+        Assert.assertEquals(1, predicateCalls[0]);
+
+        // the source predicate is not evaluated again for nodes of an included source
+        predicateCalls[0] = 0;
+        Assert.assertTrue(isInstrumentedNode(filter, statement1, sampleSource1));
+        Assert.assertFalse(isInstrumentedNode(filter, expression1, sampleSource1));
+        Assert.assertEquals(0, predicateCalls[0]);
+
+        // nodes of other sources are still checked
+        Assert.assertFalse(isInstrumentedNode(filter, statement2, sampleSource1));
+        Assert.assertEquals(1, predicateCalls[0]);
+    }
+
     private static Class<?>[] tags(Class<?>... tags) {
         return tags;
     }
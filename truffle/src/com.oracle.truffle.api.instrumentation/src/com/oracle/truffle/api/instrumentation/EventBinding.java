@@ -138,6 +138,14 @@ public final class EventBinding<T> {
         return getFilter().isInstrumentedNode(providedTags, instrumentedNode, section);
     }
 
+    boolean isInstrumentedLeaf(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection section, Source includedSource) {
+        return getFilter().isInstrumentedNode(providedTags, instrumentedNode, section, includedSource);
+    }
+
+    boolean isInstrumentedRootSource(Source source) {
+        return getFilter().isInstrumentedRootSource(source);
+    }
+
     boolean isInstrumentedSource(Source source) {
         return getInstrumenter().isInstrumentableSource(source) && getFilter().isInstrumentedSource(source);
     }
@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -48,8 +49,14 @@ import org.graalvm.options.OptionDescriptor;
 import org.graalvm.options.OptionDescriptors;
 import org.graalvm.options.OptionValues;
 
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.ReplaceObserver;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.TruffleOptions;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
 import com.oracle.truffle.api.impl.Accessor;
 import com.oracle.truffle.api.impl.Accessor.Nodes;
 import com.oracle.truffle.api.impl.DispatchOutputStream;
@@ -73,8 +80,23 @@ final class InstrumentationHandler {
     /* Enable trace output to stdout. */
     private static final boolean TRACE = Boolean.getBoolean("truffle.instrumentation.trace");
 
+    /*
+     * Defer inserting wrappers for new execution bindings into roots that are not on the stack
+     * until their next execution. Enable with -Dtruffle.instrumentation.lazy=true.
+     */
+    private static final boolean LAZY_BINDING = Boolean.getBoolean("truffle.instrumentation.lazy");
+
+    /*
+     * Set once any handler deferred inserting wrappers into a root, so that executions do not have
+     * to look up their handler as long as lazy binding is not used.
+     */
+    private static volatile boolean lazyBindingUsed;
+
     private final Object sourceVM;
 
+    /* Initialized from LAZY_BINDING; tests enable it per handler. */
+    private boolean lazyBinding = LAZY_BINDING;
+
     /*
      * The contract is the following: "sources" and "sourcesList" can only be accessed while
      * synchronized on "sources". both will only be lazily initialized from "loadedRoots" when the
@@ -87,6 +109,13 @@ final class InstrumentationHandler {
 
     private final Collection<RootNode> loadedRoots = new WeakAsyncList<>(256);
     private final Collection<RootNode> executedRoots = new WeakAsyncList<>(64);
+    /*
+     * Executed roots that have not been visited for the execution bindings attached since, because
+     * they were not on the stack when the bindings were attached. Wrappers are inserted on their
+     * next execution. Can only be accessed while synchronized on "pendingRoots".
+     */
+    private final Set<RootNode> pendingRoots = Collections.newSetFromMap(new WeakHashMap<RootNode, Boolean>());
+    private volatile boolean hasPendingRoots;
     private final Collection<AllocationReporter> allocationReporters = new WeakAsyncList<>(16);
 
     private final Collection<EventBinding<?>> executionBindings = new EventBindingList(8);
@@ -174,6 +203,20 @@ final class InstrumentationHandler {
         visitRoot(root, new InsertWrappersVisitor(executionBindings));
     }
 
+    void onExecution(RootNode root) {
+        if (!hasPendingRoots) {
+            return;
+        }
+        boolean pending;
+        synchronized (pendingRoots) {
+            pending = pendingRoots.remove(root);
+            hasPendingRoots = !pendingRoots.isEmpty();
+        }
+        if (pending && !executionBindings.isEmpty()) {
+            visitRoot(root, new InsertWrappersVisitor(executionBindings));
+        }
+    }
+
     void initializeInstrument(Object vmObject, Class<?> instrumentClass) {
         Env env = new Env(vmObject, out, err, in);
         env.instrumenter = new InstrumentClientInstrumenter(env, instrumentClass);
@@ -252,7 +295,11 @@ final class InstrumentationHandler {
         this.executionBindings.add(binding);
 
         if (!executedRoots.isEmpty()) {
-            visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            if (lazyBinding) {
+                addPendingRoots(binding);
+            } else {
+                visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            }
         }
 
         if (TRACE) {
@@ -366,9 +413,93 @@ final class InstrumentationHandler {
     }
 
     private void visitRoots(Collection<RootNode> roots, AbstractNodeVisitor addBindingsVisitor) {
+        /*
+         * Many roots typically share the same source. We index the source checks of the filters by
+         * source, so roots of non-matching sources are skipped without computing their provided
+         * tags or evaluating the remaining filter expressions.
+         */
+        Map<Source, Boolean> includedSources = new IdentityHashMap<>();
         for (RootNode root : roots) {
+            SourceSection sourceSection = root.getSourceSection();
+            Source source = sourceSection != null ? sourceSection.getSource() : null;
+            if (source != null) {
+                Boolean included = includedSources.get(source);
+                if (included == null) {
+                    included = addBindingsVisitor.isSourceIncluded(source);
+                    includedSources.put(source, included);
+                }
+                if (!included) {
+                    continue;
+                }
+            }
+            addBindingsVisitor.rootSource = source;
             visitRoot(root, addBindingsVisitor);
         }
+        addBindingsVisitor.rootSource = null;
+    }
+
+    /*
+     * Only the roots that are on the current stack are visited right away, as their activations
+     * would not execute again through their call target. All other roots that may be instrumented by
+     * the binding get their wrappers on their next execution, like roots that are executed for the
+     * first time. Their compiled code is invalidated, so that the next execution goes through the
+     * runtime. Note that activations on other threads only see the binding after their next entry.
+     */
+    private void addPendingRoots(EventBinding<?> binding) {
+        Set<RootNode> activeRoots = findActiveRoots();
+        List<RootNode> visitNow = new ArrayList<>();
+        Map<Source, Boolean> includedSources = new IdentityHashMap<>();
+        int deferred = 0;
+        lazyBindingUsed = true;
+        for (RootNode root : executedRoots) {
+            SourceSection sourceSection = root.getSourceSection();
+            if (sourceSection != null) {
+                Source source = sourceSection.getSource();
+                Boolean included = includedSources.get(source);
+                if (included == null) {
+                    included = binding.isInstrumentedRootSource(source);
+                    includedSources.put(source, included);
+                }
+                if (!included) {
+                    continue;
+                }
+            }
+            if (!binding.isInstrumentedRoot(getProvidedTags(root), root, sourceSection)) {
+                continue;
+            }
+            if (activeRoots.contains(root)) {
+                visitNow.add(root);
+            } else {
+                synchronized (pendingRoots) {
+                    pendingRoots.add(root);
+                    hasPendingRoots = true;
+                }
+                CallTarget target = root.getCallTarget();
+                if (target instanceof ReplaceObserver) {
+                    ((ReplaceObserver) target).nodeReplaced(root, root, "Lazy instrumentation");
+                }
+                deferred++;
+            }
+        }
+        if (TRACE) {
+            trace("Deferred wrappers for %s roots, visiting %s active roots%n", deferred, visitNow.size());
+        }
+        visitRoots(visitNow, new InsertWrappersWithBindingVisitor(binding));
+    }
+
+    private static Set<RootNode> findActiveRoots() {
+        final Set<RootNode> roots = Collections.newSetFromMap(new IdentityHashMap<RootNode, Boolean>());
+        Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Void>() {
+            @Override
+            public Void visitFrame(FrameInstance frameInstance) {
+                CallTarget target = frameInstance.getCallTarget();
+                if (target instanceof RootCallTarget) {
+                    roots.add(((RootCallTarget) target).getRootNode());
+                }
+                return null;
+            }
+        });
+        return roots;
     }
 
     void disposeBinding(EventBinding<?> binding) {
@@ -698,9 +829,13 @@ final class InstrumentationHandler {
 
         RootNode root;
         Set<Class<?>> providedTags;
+        /* Source of the visited root if it is known to be included by the source filters. */
+        Source rootSource;
 
         abstract boolean shouldVisit();
 
+        abstract boolean isSourceIncluded(Source source);
+
     }
 
     private abstract class AbstractBindingVisitor extends AbstractNodeVisitor {
@@ -716,10 +851,15 @@ final class InstrumentationHandler {
             return binding.isInstrumentedRoot(providedTags, root, root.getSourceSection());
         }
 
+        @Override
+        boolean isSourceIncluded(Source source) {
+            return binding.isInstrumentedRootSource(source);
+        }
+
         public final boolean visit(Node node) {
             SourceSection sourceSection = node.getSourceSection();
             if (isInstrumentableNode(node, sourceSection)) {
-                if (binding.isInstrumentedLeaf(providedTags, node, sourceSection)) {
+                if (binding.isInstrumentedLeaf(providedTags, node, sourceSection, rootSource)) {
                     if (TRACE) {
                         traceFilterCheck("hit", providedTags, binding, node, sourceSection);
                     }
@@ -776,6 +916,16 @@ final class InstrumentationHandler {
             return false;
         }
 
+        @Override
+        boolean isSourceIncluded(Source source) {
+            for (EventBinding<?> binding : bindings) {
+                if (binding.isInstrumentedRootSource(source)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         public final boolean visit(Node node) {
             SourceSection sourceSection = node.getSourceSection();
             if (isInstrumentableNode(node, sourceSection)) {
@@ -1506,6 +1656,17 @@ final class InstrumentationHandler {
                 }
             }
 
+            @Override
+            public void onExecution(RootNode rootNode) {
+                if (!lazyBindingUsed) {
+                    return;
+                }
+                InstrumentationHandler handler = getHandler(rootNode);
+                if (handler != null) {
+                    handler.onExecution(rootNode);
+                }
+            }
+
             @Override
             public void onLoad(RootNode rootNode) {
                 InstrumentationHandler handler = getHandler(rootNode);
@@ -133,10 +133,23 @@ public final class SourceSectionFilter {
     }
 
     boolean isInstrumentedNode(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection sourceSection) {
+        return isInstrumentedNode(providedTags, instrumentedNode, sourceSection, null);
+    }
+
+    /*
+     * The includedSource is a source that is already known to pass isInstrumentedRootSource, e.g.
+     * the source of the enclosing root. For nodes of that source the source expressions are not
+     * evaluated again, which avoids calling source predicates for every node of a root.
+     */
+    boolean isInstrumentedNode(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection sourceSection, Source includedSource) {
         if (sourceSection == null) {
             return false;
         }
+        boolean sourceIncluded = includedSource != null && sourceSection.getSource() == includedSource;
         for (EventFilterExpression exp : expressions) {
+            if (sourceIncluded && exp.isRootSourceOnly()) {
+                continue;
+            }
             if (!exp.isIncluded(providedTags, instrumentedNode, sourceSection)) {
                 return false;
             }
@@ -144,6 +157,20 @@ public final class SourceSectionFilter {
         return true;
     }
 
+    /*
+     * Returns false if all roots of the given source are excluded by this filter. Equivalent to the
+     * source part of isInstrumentedRoot for roots with the given source, but independent of the
+     * individual root so that it can be computed once per source.
+     */
+    boolean isInstrumentedRootSource(Source source) {
+        for (EventFilterExpression exp : expressions) {
+            if (exp.isRootSourceOnly() && !exp.isSourceIncluded(source)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     boolean isInstrumentedSource(Source source) {
         if (source == null) {
             return false;
@@ -551,6 +578,13 @@ public final class SourceSectionFilter {
             return false;
         }
 
+        /*
+         * Returns true if the expression only depends on the source, for nodes as well as for roots.
+         */
+        boolean isRootSourceOnly() {
+            return false;
+        }
+
         public final int compareTo(EventFilterExpression o) {
             return o.getOrder() - getOrder();
         }
@@ -576,6 +610,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source src) {
                 if (src == null) {
@@ -663,6 +702,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source src) {
                 for (Source otherSource : sources) {
@@ -718,6 +762,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source source) {
                 String mimeType = source.getMimeType();
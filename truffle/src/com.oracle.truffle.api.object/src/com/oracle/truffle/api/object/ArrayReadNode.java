@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+/**
+ * Reads elements of array stores managed by an {@link ArrayStrategy}. The node specializes on the
+ * strategy of the first store it sees, so that a monomorphic site reads from the unboxed array
+ * directly; it falls back to a generic lookup once it has seen stores of different strategies.
+ *
+ * @since 0.27
+ */
+public final class ArrayReadNode extends Node {
+    @CompilationFinal private ArrayStrategy cachedStrategy;
+    @CompilationFinal private boolean generic;
+
+    private ArrayReadNode() {
+    }
+
+    /** @since 0.27 */
+    public static ArrayReadNode create() {
+        return new ArrayReadNode();
+    }
+
+    /**
+     * Reads the element at {@code index}; numeric elements are returned boxed.
+     *
+     * @throws ArrayIndexOutOfBoundsException if {@code index} is outside the store
+     * @throws IllegalArgumentException if {@code store} is not an array store
+     * @since 0.27
+     */
+    public Object execute(Object store, int index) {
+        ArrayStrategy strategy = cachedStrategy;
+        if (strategy != null && strategy.isInstance(store)) {
+            return strategy.get(store, index);
+        }
+        if (!generic) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (strategy == null) {
+                cachedStrategy = ArrayStrategy.forStore(store);
+            } else {
+                generic = true;
+            }
+        }
+        return ArrayStrategy.forStore(store).get(store, index);
+    }
+
+    /** @since 0.27 */
+    @Override
+    public NodeCost getCost() {
+        if (generic) {
+            return NodeCost.MEGAMORPHIC;
+        } else if (cachedStrategy == null) {
+            return NodeCost.UNINITIALIZED;
+        } else {
+            return NodeCost.MONOMORPHIC;
+        }
+    }
+}
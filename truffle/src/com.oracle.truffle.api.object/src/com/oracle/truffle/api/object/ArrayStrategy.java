@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Storage strategy for the elements of a guest language array, backed by a Java {@code int[]},
+ * {@code long[]}, {@code double[]} or {@code Object[]} store. Numeric arrays are kept unboxed as
+ * long as only values of the respective type are stored; storing a value the current strategy does
+ * not {@linkplain #accepts(Object) accept} requires the store to be converted to a more general
+ * strategy:
+ *
+ * <pre>
+ *  int --> long ---> Object
+ *   \               ^
+ *    `--> double --'
+ * </pre>
+ *
+ * Like the {@link Layout.ImplicitCast implicit casts} of object layouts, {@code int} values are
+ * widened when stored into {@code long} and {@code double} arrays and are read back as
+ * {@link Long} and {@link Double}, respectively.
+ * <p>
+ * The store itself is a plain Java array, so it can be kept in a {@link DynamicObject} property.
+ * Guest languages are responsible for tracking the array length; elements beyond it are
+ * unspecified. {@link ArrayReadNode} and {@link ArrayWriteNode} provide partial-evaluation friendly
+ * access with automatic generalization.
+ *
+ * @since 0.27
+ */
+public abstract class ArrayStrategy {
+    private static final ArrayStrategy INT = new IntArrayStrategy();
+    private static final ArrayStrategy LONG = new LongArrayStrategy();
+    private static final ArrayStrategy DOUBLE = new DoubleArrayStrategy();
+    private static final ArrayStrategy OBJECT = new ObjectArrayStrategy();
+
+    ArrayStrategy() {
+    }
+
+    /**
+     * Strategy for {@code int[]} stores.
+     *
+     * @since 0.27
+     */
+    public static ArrayStrategy intStrategy() {
+        return INT;
+    }
+
+    /**
+     * Strategy for {@code long[]} stores.
+     *
+     * @since 0.27
+     */
+    public static ArrayStrategy longStrategy() {
+        return LONG;
+    }
+
+    /**
+     * Strategy for {@code double[]} stores.
+     *
+     * @since 0.27
+     */
+    public static ArrayStrategy doubleStrategy() {
+        return DOUBLE;
+    }
+
+    /**
+     * Strategy for {@code Object[]} stores.
+     *
+     * @since 0.27
+     */
+    public static ArrayStrategy objectStrategy() {
+        return OBJECT;
+    }
+
+    /**
+     * Returns the most specific strategy that accepts {@code value}.
+     *
+     * @since 0.27
+     */
+    public static ArrayStrategy forValue(Object value) {
+        if (value instanceof Integer) {
+            return INT;
+        } else if (value instanceof Long) {
+            return LONG;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else {
+            return OBJECT;
+        }
+    }
+
+    /**
+     * Returns the strategy of an existing store.
+     *
+     * @throws IllegalArgumentException if {@code store} is not a supported array store
+     * @since 0.27
+     */
+    public static ArrayStrategy forStore(Object store) {
+        if (INT.isInstance(store)) {
+            return INT;
+        } else if (LONG.isInstance(store)) {
+            return LONG;
+        } else if (DOUBLE.isInstance(store)) {
+            return DOUBLE;
+        } else if (OBJECT.isInstance(store)) {
+            return OBJECT;
+        } else {
+            throw unsupportedStore(store);
+        }
+    }
+
+    @TruffleBoundary
+    private static IllegalArgumentException unsupportedStore(Object store) {
+        return new IllegalArgumentException("Not an array store: " + (store == null ? "null" : store.getClass().getName()));
+    }
+
+    /**
+     * The class of the Java array used as store.
+     *
+     * @since 0.27
+     */
+    public abstract Class<?> getStoreClass();
+
+    /**
+     * Returns {@code true} if {@code store} is a store of this strategy.
+     *
+     * @since 0.27
+     */
+    public final boolean isInstance(Object store) {
+        return store != null && store.getClass() == getStoreClass();
+    }
+
+    /**
+     * Returns {@code true} if {@code value} can be stored without generalizing the store.
+     *
+     * @since 0.27
+     */
+    public abstract boolean accepts(Object value);
+
+    /**
+     * Allocates a new store.
+     *
+     * @since 0.27
+     */
+    public abstract Object newStore(int capacity);
+
+    /**
+     * The number of elements the store can hold.
+     *
+     * @since 0.27
+     */
+    public abstract int getCapacity(Object store);
+
+    /**
+     * Reads an element of the store; numeric elements are boxed.
+     *
+     * @since 0.27
+     */
+    public abstract Object get(Object store, int index);
+
+    /**
+     * Writes an element of the store. The value must be {@linkplain #accepts(Object) accepted} by
+     * this strategy.
+     *
+     * @since 0.27
+     */
+    public abstract void set(Object store, int index, Object value);
+
+    /**
+     * Returns a copy of the store with the given capacity.
+     *
+     * @since 0.27
+     */
+    public abstract Object resize(Object store, int newCapacity);
+
+    /**
+     * Returns the least general strategy that accepts the values of both this and {@code other}.
+     *
+     * @since 0.27
+     */
+    public final ArrayStrategy generalize(ArrayStrategy other) {
+        if (this == other) {
+            return this;
+        } else if (this == OBJECT || other == OBJECT) {
+            return OBJECT;
+        } else if (this == INT) {
+            return other;
+        } else if (other == INT) {
+            return this;
+        } else {
+            // long and double
+            return OBJECT;
+        }
+    }
+
+    /**
+     * Returns the least general strategy that accepts the values of this strategy and
+     * {@code value}.
+     *
+     * @since 0.27
+     */
+    public final ArrayStrategy generalizeFor(Object value) {
+        return accepts(value) ? this : generalize(forValue(value));
+    }
+
+    /**
+     * Copies the elements of a store of this strategy into a new store of another strategy, which
+     * must be a generalization of this one.
+     *
+     * @since 0.27
+     */
+    @TruffleBoundary
+    public final Object convert(Object store, ArrayStrategy target, int newCapacity) {
+        assert generalize(target) == target : "not a generalization";
+        Object newStore = target.newStore(newCapacity);
+        int length = Math.min(getCapacity(store), newCapacity);
+        for (int i = 0; i < length; i++) {
+            target.set(newStore, i, get(store, i));
+        }
+        return newStore;
+    }
+
+    static final class IntArrayStrategy extends ArrayStrategy {
+        @Override
+        public Class<?> getStoreClass() {
+            return int[].class;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        public Object newStore(int capacity) {
+            return new int[capacity];
+        }
+
+        @Override
+        public int getCapacity(Object store) {
+            return ((int[]) store).length;
+        }
+
+        @Override
+        public Object get(Object store, int index) {
+            return ((int[]) store)[index];
+        }
+
+        @Override
+        public void set(Object store, int index, Object value) {
+            ((int[]) store)[index] = (int) value;
+        }
+
+        @Override
+        public Object resize(Object store, int newCapacity) {
+            return Arrays.copyOf((int[]) store, newCapacity);
+        }
+
+        @Override
+        public String toString() {
+            return "int";
+        }
+    }
+
+    static final class LongArrayStrategy extends ArrayStrategy {
+        @Override
+        public Class<?> getStoreClass() {
+            return long[].class;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return value instanceof Long || value instanceof Integer;
+        }
+
+        @Override
+        public Object newStore(int capacity) {
+            return new long[capacity];
+        }
+
+        @Override
+        public int getCapacity(Object store) {
+            return ((long[]) store).length;
+        }
+
+        @Override
+        public Object get(Object store, int index) {
+            return ((long[]) store)[index];
+        }
+
+        @Override
+        public void set(Object store, int index, Object value) {
+            ((long[]) store)[index] = value instanceof Integer ? (int) value : (long) value;
+        }
+
+        @Override
+        public Object resize(Object store, int newCapacity) {
+            return Arrays.copyOf((long[]) store, newCapacity);
+        }
+
+        @Override
+        public String toString() {
+            return "long";
+        }
+    }
+
+    static final class DoubleArrayStrategy extends ArrayStrategy {
+        @Override
+        public Class<?> getStoreClass() {
+            return double[].class;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return value instanceof Double || value instanceof Integer;
+        }
+
+        @Override
+        public Object newStore(int capacity) {
+            return new double[capacity];
+        }
+
+        @Override
+        public int getCapacity(Object store) {
+            return ((double[]) store).length;
+        }
+
+        @Override
+        public Object get(Object store, int index) {
+            return ((double[]) store)[index];
+        }
+
+        @Override
+        public void set(Object store, int index, Object value) {
+            ((double[]) store)[index] = value instanceof Integer ? (int) value : (double) value;
+        }
+
+        @Override
+        public Object resize(Object store, int newCapacity) {
+            return Arrays.copyOf((double[]) store, newCapacity);
+        }
+
+        @Override
+        public String toString() {
+            return "double";
+        }
+    }
+
+    static final class ObjectArrayStrategy extends ArrayStrategy {
+        @Override
+        public Class<?> getStoreClass() {
+            return Object[].class;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        public Object newStore(int capacity) {
+            return new Object[capacity];
+        }
+
+        @Override
+        public int getCapacity(Object store) {
+            return ((Object[]) store).length;
+        }
+
+        @Override
+        public Object get(Object store, int index) {
+            return ((Object[]) store)[index];
+        }
+
+        @Override
+        public void set(Object store, int index, Object value) {
+            ((Object[]) store)[index] = value;
+        }
+
+        @Override
+        public Object resize(Object store, int newCapacity) {
+            return Arrays.copyOf((Object[]) store, newCapacity);
+        }
+
+        @Override
+        public String toString() {
+            return "Object";
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+/**
+ * Writes elements of array stores managed by an {@link ArrayStrategy}, generalizing the store if
+ * the value is not accepted by its strategy and growing it if the index is beyond its capacity.
+ * Since both operations replace the store, the node returns the store the caller has to keep, e.g.
+ * in a {@link DynamicObject} property.
+ * <p>
+ * The node specializes on the strategy it sees; when a store is generalized, the node follows to
+ * the more general strategy. Stores of a less general strategy than the cached one make the node
+ * generic.
+ *
+ * @since 0.27
+ */
+public final class ArrayWriteNode extends Node {
+    private static final int MIN_CAPACITY = 8;
+    /** Some VMs reserve header words in arrays, so larger arrays may fail to allocate. */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    @CompilationFinal private ArrayStrategy cachedStrategy;
+    @CompilationFinal private boolean generic;
+    private final BranchProfile growProfile = BranchProfile.create();
+
+    private ArrayWriteNode() {
+    }
+
+    /** @since 0.27 */
+    public static ArrayWriteNode create() {
+        return new ArrayWriteNode();
+    }
+
+    /**
+     * Writes {@code value} at {@code index}.
+     *
+     * @return {@code store}, or a new store if it had to be generalized or grown
+     * @throws ArrayIndexOutOfBoundsException if {@code index} is negative or the store would have
+     *             to grow beyond the maximum array size
+     * @throws IllegalArgumentException if {@code store} is not an array store
+     * @since 0.27
+     */
+    public Object execute(Object store, int index, Object value) {
+        ArrayStrategy strategy = cachedStrategy;
+        if (strategy != null && strategy.isInstance(store) && strategy.accepts(value)) {
+            Object target = store;
+            int capacity = strategy.getCapacity(store);
+            if (index >= capacity) {
+                growProfile.enter();
+                target = strategy.resize(store, newCapacity(capacity, index));
+            }
+            strategy.set(target, index, value);
+            return target;
+        }
+        return executeAndSpecialize(store, index, value);
+    }
+
+    private Object executeAndSpecialize(Object store, int index, Object value) {
+        ArrayStrategy current = ArrayStrategy.forStore(store);
+        ArrayStrategy target = current.generalizeFor(value);
+        if (!generic) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (cachedStrategy == null || cachedStrategy.generalize(target) == target) {
+                cachedStrategy = target;
+            } else {
+                generic = true;
+            }
+        }
+
+        int capacity = current.getCapacity(store);
+        int newCapacity = index >= capacity ? newCapacity(capacity, index) : capacity;
+        Object newStore;
+        if (target != current) {
+            newStore = current.convert(store, target, newCapacity);
+        } else if (newCapacity != capacity) {
+            newStore = current.resize(store, newCapacity);
+        } else {
+            newStore = store;
+        }
+        target.set(newStore, index, value);
+        return newStore;
+    }
+
+    private static int newCapacity(int capacity, int index) {
+        long minCapacity = (long) index + 1;
+        if (minCapacity > MAX_CAPACITY) {
+            CompilerDirectives.transferToInterpreter();
+            throw new ArrayIndexOutOfBoundsException("index " + index + " exceeds the maximum array size");
+        }
+        long grownCapacity = Math.min(Math.max(MIN_CAPACITY, (long) capacity << 1), MAX_CAPACITY);
+        return (int) Math.max(minCapacity, grownCapacity);
+    }
+
+    /** @since 0.27 */
+    @Override
+    public NodeCost getCost() {
+        if (generic) {
+            return NodeCost.MEGAMORPHIC;
+        } else if (cachedStrategy == null) {
+            return NodeCost.UNINITIALIZED;
+        } else {
+            return NodeCost.MONOMORPHIC;
+        }
+    }
+}
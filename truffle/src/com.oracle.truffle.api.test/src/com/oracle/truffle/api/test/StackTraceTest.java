@@ -39,6 +39,8 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleException;
+import com.oracle.truffle.api.TruffleStackTraceElement;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
@@ -144,6 +146,48 @@ public class StackTraceTest {
         Assert.assertSame(findCallNode(direct), stack.frames.get(3).getCallNode());
     }
 
+    @Test
+    public void testGuestStackTrace() {
+        CallTarget throwing = createCallTarget(new ThrowGuestExceptionNode(-1));
+        CallTarget indirect = createCallTarget(new TestCallWithIndirectTargetNode(throwing));
+        CallTarget direct = createCallTarget(new TestCallWithDirectTargetNode(indirect));
+        try {
+            direct.call();
+            Assert.fail();
+        } catch (GuestException e) {
+            List<TruffleStackTraceElement> elements = TruffleStackTraceElement.getStackTrace(e);
+            Assert.assertEquals(3, elements.size());
+            Assert.assertSame(throwing, elements.get(0).getTarget());
+            Assert.assertSame(e.getLocation(), elements.get(0).getLocation());
+            Assert.assertSame(indirect, elements.get(1).getTarget());
+            Assert.assertSame(findCallNode(indirect), elements.get(1).getLocation());
+            Assert.assertSame(direct, elements.get(2).getTarget());
+            Assert.assertSame(findCallNode(direct), elements.get(2).getLocation());
+            // elements are created once and then reused
+            Assert.assertSame(elements, TruffleStackTraceElement.getStackTrace(e));
+        }
+    }
+
+    @Test
+    public void testGuestStackTraceLimit() {
+        for (int limit = 0; limit <= 1; limit++) {
+            CallTarget throwing = createCallTarget(new ThrowGuestExceptionNode(limit));
+            CallTarget indirect = createCallTarget(new TestCallWithIndirectTargetNode(throwing));
+            CallTarget direct = createCallTarget(new TestCallWithDirectTargetNode(indirect));
+            try {
+                direct.call();
+                Assert.fail();
+            } catch (GuestException e) {
+                List<TruffleStackTraceElement> elements = TruffleStackTraceElement.getStackTrace(e);
+                // roots without a language are internal and do not count towards the limit
+                Assert.assertEquals(limit == 0 ? 0 : 3, elements.size());
+                if (limit > 0) {
+                    Assert.assertSame(throwing, elements.get(0).getTarget());
+                }
+            }
+        }
+    }
+
     @Test
     public void testFrameAccess() {
         CallTarget callTarget = createCallTarget(new TestCallWithCallTargetNode(null));
@@ -377,6 +421,46 @@ public class StackTraceTest {
         }
     }
 
+    @SuppressWarnings("serial")
+    private static class GuestException extends RuntimeException implements TruffleException {
+
+        private final Node location;
+        private final int stackTraceElementLimit;
+
+        GuestException(Node location, int stackTraceElementLimit) {
+            this.location = location;
+            this.stackTraceElementLimit = stackTraceElementLimit;
+        }
+
+        @Override
+        public Node getLocation() {
+            return location;
+        }
+
+        @Override
+        public int getStackTraceElementLimit() {
+            return stackTraceElementLimit;
+        }
+
+    }
+
+    private static class ThrowGuestExceptionNode extends TestCallNode {
+
+        private final int stackTraceElementLimit;
+
+        ThrowGuestExceptionNode(int stackTraceElementLimit) {
+            super(null);
+            this.stackTraceElementLimit = stackTraceElementLimit;
+        }
+
+        @Override
+        Object execute(VirtualFrame frame) {
+            GuestException e = new GuestException(this, stackTraceElementLimit);
+            TruffleStackTraceElement.fillIn(e);
+            throw e;
+        }
+    }
+
     private static class StackTrace {
 
         final List<FrameInstance> frames;
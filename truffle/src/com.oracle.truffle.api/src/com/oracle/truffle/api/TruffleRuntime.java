@@ -36,6 +36,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 import com.oracle.truffle.api.nodes.RootNode;
 
@@ -217,4 +218,32 @@ public interface TruffleRuntime {
      */
     boolean isProfilingEnabled();
 
+    /**
+     * Notifies the runtime that a node transitioned to a polymorphic or megamorphic state. Only
+     * invoked for nodes that call {@link Node#reportPolymorphicSpecialize()}, for example DSL
+     * generated nodes annotated with <code>com.oracle.truffle.api.dsl.ReportPolymorphism</code>.
+     * The notification is always delivered in the interpreter. The default implementation does
+     * nothing.
+     *
+     * @param source the node that changed its specialization state
+     * @since 0.27
+     */
+    default void notifyPolymorphicSpecialize(Node source) {
+    }
+
+    /**
+     * Invalidates all given assumptions at once. Compared to invalidating the assumptions one by
+     * one, a runtime may invalidate compiled code that depends on several of the assumptions only
+     * once. The default implementation invalidates the assumptions one by one.
+     *
+     * @param assumptions the assumptions to invalidate
+     * @see Assumption#invalidate()
+     * @since 0.27
+     */
+    default void invalidateAssumptions(Iterable<? extends Assumption> assumptions) {
+        for (Assumption assumption : assumptions) {
+            assumption.invalidate();
+        }
+    }
+
 }
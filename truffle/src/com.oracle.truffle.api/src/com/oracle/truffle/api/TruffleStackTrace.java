@@ -24,7 +24,7 @@
  */
 package com.oracle.truffle.api;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -35,17 +35,45 @@ import com.oracle.truffle.api.nodes.ControlFlowException;
 import com.oracle.truffle.api.nodes.Node;
 
 /**
+ * Captures the guest language frames of an exception. Only the call sites and call targets are
+ * recorded while walking the stack; the {@link TruffleStackTraceElement elements} are created
+ * lazily when the stack trace is requested for the first time, as many exceptions are caught and
+ * discarded without ever looking at their guest frames.
+ *
  * @see TruffleStackTraceElement To lookup the stack trace.
  */
 @SuppressWarnings("serial")
 final class TruffleStackTrace extends Exception {
 
-    private static final TruffleStackTrace EMPTY = new TruffleStackTrace(Collections.emptyList());
+    private static final TruffleStackTrace EMPTY = new TruffleStackTrace(null, null, 0);
+
+    private final Node[] locations;
+    private final RootCallTarget[] targets;
+    private final int size;
 
     private List<TruffleStackTraceElement> frames;
 
-    private TruffleStackTrace(List<TruffleStackTraceElement> frames) {
-        this.frames = frames;
+    private TruffleStackTrace(Node[] locations, RootCallTarget[] targets, int size) {
+        this.locations = locations;
+        this.targets = targets;
+        this.size = size;
+    }
+
+    private synchronized List<TruffleStackTraceElement> getFrames() {
+        List<TruffleStackTraceElement> result = frames;
+        if (result == null) {
+            if (size == 0) {
+                result = Collections.emptyList();
+            } else {
+                TruffleStackTraceElement[] elements = new TruffleStackTraceElement[size];
+                for (int i = 0; i < size; i++) {
+                    elements[i] = new TruffleStackTraceElement(locations[i], targets[i]);
+                }
+                result = Collections.unmodifiableList(Arrays.asList(elements));
+            }
+            frames = result;
+        }
+        return result;
     }
 
     @Override
@@ -57,7 +85,7 @@ final class TruffleStackTrace extends Exception {
     static List<TruffleStackTraceElement> find(Throwable t) {
         TruffleStackTrace stack = findImpl(t);
         if (stack != null) {
-            return stack.frames;
+            return stack.getFrames();
         }
         return null;
     }
@@ -97,32 +125,65 @@ final class TruffleStackTrace extends Exception {
                 stackFrameLimit = -1;
             }
 
-            List<TruffleStackTraceElement> frames = new ArrayList<>();
-            Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<FrameInstance>() {
-                boolean first = true;
-                int stackFrameIndex = 0;
-
-                @Override
-                public FrameInstance visitFrame(FrameInstance frameInstance) {
-                    if (stackFrameIndex == stackFrameLimit) {
-                        // no more frames to create
-                        return frameInstance;
-                    }
-                    Node location = frameInstance.getCallNode();
-                    RootCallTarget target = (RootCallTarget) frameInstance.getCallTarget();
-                    if (first) {
-                        location = topCallSite;
-                        first = false;
-                    }
-                    frames.add(new TruffleStackTraceElement(location, target));
-                    first = false;
-                    if (!target.getRootNode().isInternal()) {
-                        stackFrameIndex++;
-                    }
-                    return null;
+            if (stackFrameLimit == 0) {
+                // no frames requested, avoid walking the stack at all
+                insert(insertCause, new TruffleStackTrace(null, null, 0));
+                return;
+            }
+
+            FrameCollector collector = new FrameCollector(topCallSite, stackFrameLimit);
+            Truffle.getRuntime().iterateFrames(collector);
+            insert(insertCause, new TruffleStackTrace(collector.locations, collector.targets, collector.size));
+        }
+    }
+
+    private static final class FrameCollector implements FrameInstanceVisitor<FrameInstance> {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final Node topCallSite;
+        private final int stackFrameLimit;
+
+        private boolean first = true;
+        private int stackFrameIndex;
+
+        Node[] locations;
+        RootCallTarget[] targets;
+        int size;
+
+        FrameCollector(Node topCallSite, int stackFrameLimit) {
+            this.topCallSite = topCallSite;
+            this.stackFrameLimit = stackFrameLimit;
+            int capacity = stackFrameLimit > 0 ? Math.min(stackFrameLimit, INITIAL_CAPACITY) : INITIAL_CAPACITY;
+            this.locations = new Node[capacity];
+            this.targets = new RootCallTarget[capacity];
+        }
+
+        @Override
+        public FrameInstance visitFrame(FrameInstance frameInstance) {
+            RootCallTarget target = (RootCallTarget) frameInstance.getCallTarget();
+            Node location;
+            if (first) {
+                location = topCallSite;
+                first = false;
+            } else {
+                location = frameInstance.getCallNode();
+            }
+            if (size == targets.length) {
+                locations = Arrays.copyOf(locations, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            locations[size] = location;
+            targets[size] = target;
+            size++;
+            if (!target.getRootNode().isInternal()) {
+                stackFrameIndex++;
+                if (stackFrameIndex == stackFrameLimit) {
+                    // stop right away instead of walking on to the next guest frame
+                    return frameInstance;
                 }
-            });
-            insert(insertCause, Collections.unmodifiableList(frames));
+            }
+            return null;
         }
     }
 
@@ -141,9 +202,9 @@ final class TruffleStackTrace extends Exception {
         return null;
     }
 
-    private static void insert(Throwable t, List<TruffleStackTraceElement> frames) {
+    private static void insert(Throwable t, TruffleStackTrace stack) {
         try {
-            t.initCause(new TruffleStackTrace(frames));
+            t.initCause(stack);
         } catch (IllegalStateException e) {
             // if the cause is initialized to null we have no chance of attaching guest language
             // stack traces
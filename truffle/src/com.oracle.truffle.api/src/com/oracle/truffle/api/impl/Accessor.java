@@ -249,6 +249,8 @@ public abstract class Accessor {
 
         public abstract void onFirstExecution(RootNode rootNode);
 
+        public abstract void onExecution(RootNode rootNode);
+
         public abstract void onLoad(RootNode rootNode);
 
         @SuppressWarnings("static-method")
@@ -57,6 +57,8 @@ public final class DefaultCallTarget implements RootCallTarget {
     Object callDirectOrIndirect(final Node callNode, Object... args) {
         if (!this.initialized) {
             initialize();
+        } else {
+            getRuntime().getTvmci().onExecution(this);
         }
         final DefaultVirtualFrame frame = new DefaultVirtualFrame(getRootNode().getFrameDescriptor(), args);
         getRuntime().pushFrame(frame, this, callNode);
@@ -74,6 +76,8 @@ public final class DefaultCallTarget implements RootCallTarget {
     public Object call(Object... args) {
         if (!this.initialized) {
             initialize();
+        } else {
+            getRuntime().getTvmci().onExecution(this);
         }
         final DefaultVirtualFrame frame = new DefaultVirtualFrame(getRootNode().getFrameDescriptor(), args);
         getRuntime().pushFrame(frame, this);
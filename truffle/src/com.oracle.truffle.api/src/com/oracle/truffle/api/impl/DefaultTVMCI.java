@@ -37,6 +37,10 @@ final class DefaultTVMCI extends TVMCI {
         super.onFirstExecution(callTarget.getRootNode());
     }
 
+    void onExecution(DefaultCallTarget callTarget) {
+        super.onExecution(callTarget.getRootNode());
+    }
+
     void onLoad(DefaultCallTarget callTarget) {
         super.onLoad(callTarget.getRootNode());
     }
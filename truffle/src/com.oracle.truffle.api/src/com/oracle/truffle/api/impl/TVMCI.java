@@ -119,6 +119,21 @@ public abstract class TVMCI {
         }
     }
 
+    /**
+     * Reports that an already initialized <code>rootNode</code> is about to be executed outside of
+     * compiled code. Gives instrumentation that was attached while the root node was not executing
+     * the chance to be inserted before the root node runs.
+     *
+     * @param rootNode
+     * @since 0.27
+     */
+    protected void onExecution(RootNode rootNode) {
+        final Accessor.InstrumentSupport accessor = Accessor.instrumentAccess();
+        if (accessor != null) {
+            accessor.onExecution(rootNode);
+        }
+    }
+
     /**
      * Finds the language associated with given root node.
      *
@@ -41,6 +41,7 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.ReplaceObserver;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.TruffleOptions;
 import com.oracle.truffle.api.TruffleRuntime;
@@ -115,6 +116,21 @@ public abstract class Node implements NodeInterface, Cloneable {
         return NodeCost.MONOMORPHIC;
     }
 
+    /**
+     * Reports to the runtime that this node transitioned to a polymorphic or megamorphic state,
+     * for example because an additional specialization or specialization instance was activated.
+     * Runtimes may use this information to trace or rank polymorphic sites. DSL generated nodes
+     * annotated with <code>com.oracle.truffle.api.dsl.ReportPolymorphism</code> invoke this method
+     * automatically. Must only be invoked in the interpreter.
+     *
+     * @see TruffleRuntime#notifyPolymorphicSpecialize(Node)
+     * @since 0.27
+     */
+    protected final void reportPolymorphicSpecialize() {
+        CompilerAsserts.neverPartOfCompilation();
+        Truffle.getRuntime().notifyPolymorphicSpecialize(this);
+    }
+
     /**
      * Retrieves the segment of guest language source code that is represented by this Node. The
      * default implementation of this method returns <code>null</code>. If your node represents a
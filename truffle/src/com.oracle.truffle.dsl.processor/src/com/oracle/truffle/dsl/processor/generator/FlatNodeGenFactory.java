@@ -115,6 +115,14 @@ import com.oracle.truffle.dsl.processor.parser.SpecializationGroup.TypeGuard;
 public class FlatNodeGenFactory {
 
     private static final String METHOD_FALLBACK_GUARD = "fallbackGuard_";
+    private static final String METHOD_EXECUTE_UNCACHED = "executeUncached";
+    private static final String METHOD_CHECK_POLYMORPHIC_SPECIALIZE = "checkForPolymorphicSpecialize";
+    private static final String METHOD_COUNT_CACHES = "countCaches";
+    private static final String OLD_STATE = "oldState";
+    private static final String OLD_EXCLUDE = "oldExclude";
+    private static final String OLD_CACHE_COUNT = "oldCacheCount";
+    private static final String UNCACHED_CLASS = "Uncached";
+    static final String UNCACHED_INSTANCE = "UNCACHED";
     private static final String FRAME_VALUE = TemplateMethod.FRAME_NAME;
     private static final String STATE_VALUE = "state";
 
@@ -354,6 +362,12 @@ public class FlatNodeGenFactory {
         }
 
         clazz.addOptional(createExecuteAndSpecialize());
+        if (node.isReportPolymorphism() && node.needsRewrites(context)) {
+            clazz.add(createCheckForPolymorphicSpecialize());
+            if (requiresCacheCount()) {
+                clazz.add(createCountCaches());
+            }
+        }
 
         NodeInfo nodeInfo = node.getTemplateType().getAnnotation(NodeInfo.class);
         if (nodeInfo == null || nodeInfo.cost() == NodeCost.MONOMORPHIC /* the default */) {
@@ -371,6 +385,14 @@ public class FlatNodeGenFactory {
             clazz.add(createIsValid(assumptionType));
         }
 
+        if (node.isGenerateUncached()) {
+            CodeTypeElement uncached = createUncachedClass(executableTypes);
+            clazz.add(uncached);
+            CodeVariableElement uncachedInstance = new CodeVariableElement(modifiers(PRIVATE, STATIC, FINAL), uncached.asType(), UNCACHED_INSTANCE);
+            uncachedInstance.createInitBuilder().startNew(uncached.asType()).end();
+            clazz.add(uncachedInstance);
+        }
+
         clazz.getEnclosedElements().addAll(removeThisMethods.values());
 
         if (node.isReflectable()) {
@@ -967,6 +989,16 @@ public class FlatNodeGenFactory {
         builder.declaration(context.getType(Lock.class), "lock", "getLock()");
         builder.declaration(context.getType(boolean.class), "hasLock", "true");
         builder.statement("lock.lock()");
+        boolean reportPolymorphism = node.isReportPolymorphism();
+        if (reportPolymorphism) {
+            builder.declaration(state.getType(), OLD_STATE, state.createMaskedFieldRead("this", node.getUninitializedSpecialization()));
+            if (requiresExclude()) {
+                builder.declaration(exclude.getType(), OLD_EXCLUDE, "this." + exclude.getFieldName());
+            }
+            if (requiresCacheCount()) {
+                builder.declaration(context.getType(int.class), OLD_CACHE_COUNT, METHOD_COUNT_CACHES + "()");
+            }
+        }
         builder.startTryBlock();
 
         builder.tree(state.createLoad(frameState, node.getUninitializedSpecialization()));
@@ -988,11 +1020,273 @@ public class FlatNodeGenFactory {
         builder.startIf().string("hasLock").end().startBlock();
         builder.statement("lock.unlock()");
         builder.end();
+        if (reportPolymorphism) {
+            // the first specialization of an uninitialized node is not polymorphic
+            builder.startIf().string(OLD_STATE, " != 0");
+            if (requiresExclude()) {
+                builder.string(" || ", OLD_EXCLUDE, " != 0");
+            }
+            builder.end().startBlock();
+            builder.startStatement().startCall(METHOD_CHECK_POLYMORPHIC_SPECIALIZE).tree(createPolymorphicSpecializeArguments()).end().end();
+            builder.end();
+        }
         builder.end();
 
         return method;
     }
 
+    /*
+     * Reports the node to the runtime if the last specialization activated or excluded a
+     * specialization or added a new instance to a cached specialization.
+     */
+    private CodeExecutableElement createCheckForPolymorphicSpecialize() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE), getType(void.class), METHOD_CHECK_POLYMORPHIC_SPECIALIZE);
+        method.addParameter(new CodeVariableElement(state.getType(), OLD_STATE));
+        if (requiresExclude()) {
+            method.addParameter(new CodeVariableElement(exclude.getType(), OLD_EXCLUDE));
+        }
+        if (requiresCacheCount()) {
+            method.addParameter(new CodeVariableElement(getType(int.class), OLD_CACHE_COUNT));
+        }
+        CodeTreeBuilder builder = method.createBuilder();
+        builder.startIf();
+        builder.string("(", OLD_STATE, " ^ (").tree(state.createMaskedFieldRead("this", node.getUninitializedSpecialization())).string(")) != 0");
+        if (requiresExclude()) {
+            builder.string(" || (", OLD_EXCLUDE, " ^ this.", exclude.getFieldName(), ") != 0");
+        }
+        if (requiresCacheCount()) {
+            builder.string(" || ", OLD_CACHE_COUNT, " < ", METHOD_COUNT_CACHES, "()");
+        }
+        builder.end().startBlock();
+        builder.statement("this.reportPolymorphicSpecialize()");
+        builder.end();
+        return method;
+    }
+
+    private CodeTree createPolymorphicSpecializeArguments() {
+        CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
+        builder.string(OLD_STATE);
+        if (requiresExclude()) {
+            builder.string(", ", OLD_EXCLUDE);
+        }
+        if (requiresCacheCount()) {
+            builder.string(", ", OLD_CACHE_COUNT);
+        }
+        return builder.build();
+    }
+
+    private boolean requiresCacheCount() {
+        for (SpecializationData specialization : reachableSpecializations) {
+            if (useSpecializationClass(specialization) && specialization.getMaximumNumberOfInstances() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CodeExecutableElement createCountCaches() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE), getType(int.class), METHOD_COUNT_CACHES);
+        CodeTreeBuilder builder = method.createBuilder();
+        builder.declaration(context.getType(int.class), "cacheCount", "0");
+        for (SpecializationData specialization : reachableSpecializations) {
+            if (useSpecializationClass(specialization) && specialization.getMaximumNumberOfInstances() > 1) {
+                String typeName = createSpecializationTypeName(specialization);
+                String fieldName = createSpecializationFieldName(specialization);
+                String localName = createSpecializationLocalName(specialization);
+                builder.declaration(typeName, localName, "this." + fieldName);
+                builder.startWhile().string(localName, " != null").end().startBlock();
+                builder.statement("cacheCount++");
+                builder.statement(localName + " = " + localName + ".next_");
+                builder.end();
+            }
+        }
+        builder.startReturn().string("cacheCount").end();
+        return method;
+    }
+
+    /*
+     * The uncached class executes the specializations in declaration order without any state.
+     * Cached values are recomputed for every execution.
+     */
+    private CodeTypeElement createUncachedClass(List<ExecutableTypeData> executableTypes) {
+        CodeTypeElement uncached = GeneratorUtils.createClass(node, null, modifiers(PRIVATE, STATIC, FINAL), UNCACHED_CLASS, node.getTemplateType().asType());
+
+        for (ExecutableTypeData type : executableTypes) {
+            if (!type.isAbstract()) {
+                continue;
+            }
+            FrameState frameState = FrameState.load(this, type, Integer.MAX_VALUE);
+            CodeExecutableElement method = createExecuteMethod(null, type, frameState, true);
+            method.createBuilder().tree(createCallGenericExecute(METHOD_EXECUTE_UNCACHED, type, frameState));
+            uncached.add(method);
+        }
+
+        uncached.add(createUncachedExecute());
+
+        CodeExecutableElement getCost = new CodeExecutableElement(modifiers(PUBLIC), getType(NodeCost.class), "getCost");
+        getCost.getAnnotationMirrors().add(new CodeAnnotationMirror(context.getDeclaredType(Override.class)));
+        getCost.createBuilder().startReturn().staticReference(getType(NodeCost.class), "MEGAMORPHIC").end();
+        uncached.add(getCost);
+        return uncached;
+    }
+
+    private CodeExecutableElement createUncachedExecute() {
+        final FrameState frameState = FrameState.load(this);
+        String frame = null;
+        if (needsFrame(reachableSpecializations)) {
+            frame = FRAME_VALUE;
+        }
+
+        CodeExecutableElement method = frameState.createMethod(modifiers(PRIVATE), executeAndSpecializeType.getReturnType(), METHOD_EXECUTE_UNCACHED, frame);
+        CodeTreeBuilder builder = method.createBuilder();
+
+        SpecializationData fallback = null;
+        boolean hasFallthrough = true;
+        for (SpecializationData specialization : reachableSpecializations) {
+            if (specialization.isFallback()) {
+                fallback = specialization;
+            } else {
+                hasFallthrough = createUncachedSpecialization(builder, frameState.copy(), specialization);
+            }
+        }
+
+        if (fallback != null) {
+            builder.tree(createUncachedCall(builder, frameState, fallback));
+        } else if (hasFallthrough) {
+            builder.tree(createThrowUnsupported(builder, frameState));
+        }
+        return method;
+    }
+
+    private boolean createUncachedSpecialization(CodeTreeBuilder builder, FrameState frameState, SpecializationData specialization) {
+        int blocks = 0;
+
+        for (Parameter parameter : specialization.getSignatureParameters()) {
+            NodeExecutionData execution = parameter.getSpecification().getExecution();
+            LocalVariable value = frameState.getValue(execution);
+            TypeMirror targetType = parameter.getType();
+            if (value == null || !needsCastTo(value.getTypeMirror(), targetType)) {
+                continue;
+            }
+            CodeTree valueReference = value.createReference();
+            CodeTree check;
+            CodeTree cast;
+            List<ImplicitCastData> sourceTypes = typeSystem.lookupByTargetType(targetType);
+            if (sourceTypes.isEmpty()) {
+                check = TypeSystemCodeGenerator.check(typeSystem, targetType, valueReference);
+                cast = TypeSystemCodeGenerator.cast(typeSystem, targetType, valueReference);
+            } else {
+                CodeTree implicitState = CodeTreeBuilder.singleString("0b" + allsetMask(sourceTypes.size() + 1));
+                check = TypeSystemCodeGenerator.implicitCheckFlat(typeSystem, targetType, valueReference, implicitState);
+                cast = TypeSystemCodeGenerator.implicitCastFlat(typeSystem, targetType, valueReference, implicitState);
+            }
+            builder.startIf().tree(check).end().startBlock();
+            blocks++;
+            LocalVariable castVariable = value.nextName().newType(targetType).accessWith(null);
+            builder.tree(castVariable.createDeclaration(cast));
+            frameState.setValue(execution, castVariable);
+        }
+
+        boolean hasFallthrough = blocks > 0 || !specialization.getGuards().isEmpty() || !specialization.getAssumptionExpressions().isEmpty() || !specialization.getExceptions().isEmpty();
+        if (blocks == 0 && !specialization.getCaches().isEmpty()) {
+            // scope for the cache locals
+            builder.startBlock();
+            blocks++;
+        }
+
+        // caches bound by guards or assumptions are initialized right before their first use
+        Set<CacheExpression> initialized = new HashSet<>();
+        for (GuardExpression guard : specialization.getGuards()) {
+            builder.tree(initializeUncachedCaches(builder, frameState, specialization, specialization.getBoundCaches(guard.getExpression()), initialized));
+            DSLExpression expression = guard.getExpression();
+            builder.startIf().tree(DSLExpressionGenerator.write(expression, null, castBoundTypes(bindExpressionValues(frameState, expression, specialization)))).end().startBlock();
+            blocks++;
+        }
+        for (AssumptionExpression assumption : specialization.getAssumptionExpressions()) {
+            DSLExpression expression = assumption.getExpression();
+            builder.tree(initializeUncachedCaches(builder, frameState, specialization, specialization.getBoundCaches(expression), initialized));
+            CodeTree assumptionValue = DSLExpressionGenerator.write(expression, null, castBoundTypes(bindExpressionValues(frameState, expression, specialization)));
+            builder.startIf().tree(createAssumptionGuard(assumption, assumptionValue)).end().startBlock();
+            blocks++;
+        }
+        builder.tree(initializeUncachedCaches(builder, frameState, specialization, new HashSet<>(specialization.getCaches()), initialized));
+
+        CodeTree call = createUncachedCall(builder, frameState, specialization);
+        if (specialization.getExceptions().isEmpty()) {
+            builder.tree(call);
+        } else {
+            TypeMirror[] exceptionTypes = new TypeMirror[specialization.getExceptions().size()];
+            for (int i = 0; i < exceptionTypes.length; i++) {
+                exceptionTypes[i] = specialization.getExceptions().get(i).getJavaClass();
+            }
+            builder.startTryBlock();
+            builder.tree(call);
+            builder.end().startCatchBlock(exceptionTypes, "ex");
+            builder.lineComment("fall through to the next specialization");
+            builder.end();
+        }
+
+        for (int i = 0; i < blocks; i++) {
+            builder.end();
+        }
+        return hasFallthrough;
+    }
+
+    private static CodeTree initializeUncachedCaches(CodeTreeBuilder parent, FrameState frameState, SpecializationData specialization, Set<CacheExpression> caches,
+                    Set<CacheExpression> initialized) {
+        CodeTreeBuilder builder = parent.create();
+        // keep the declaration order, cache expressions may bind previous caches
+        for (CacheExpression cache : specialization.getCaches()) {
+            if (!caches.contains(cache) || !initialized.add(cache)) {
+                continue;
+            }
+            DSLExpression expression = cache.getUncachedExpression();
+            String name = createFieldName(specialization, cache.getParameter());
+            CodeTree initializer = DSLExpressionGenerator.write(expression, null, castBoundTypes(bindExpressionValues(frameState, expression, specialization)));
+            LocalVariable var = new LocalVariable(cache.getParameter().getType(), name.substring(0, name.length() - 1), null);
+            frameState.set(name, var);
+            builder.tree(var.createDeclaration(initializer));
+        }
+        return builder.build();
+    }
+
+    private CodeTree createUncachedCall(CodeTreeBuilder parent, FrameState frameState, SpecializationData specialization) {
+        CodeTreeBuilder builder = parent.create();
+        CodeTree[] bindings = new CodeTree[specialization.getParameters().size()];
+        int signatureIndex = 0;
+        for (int i = 0; i < bindings.length; i++) {
+            Parameter parameter = specialization.getParameters().get(i);
+            LocalVariable var;
+            if (parameter.getSpecification().isCached()) {
+                var = frameState.get(createFieldName(specialization, parameter));
+            } else {
+                var = frameState.get(parameter, signatureIndex);
+                if (var == null) {
+                    var = frameState.get(parameter.getLocalName());
+                }
+            }
+            if (var != null) {
+                bindings[i] = createTypeSafeReference(var, parameter.getType());
+            }
+            if (parameter.getSpecification().isSignature()) {
+                signatureIndex++;
+            }
+        }
+        CodeTree call = callMethod(null, specialization.getMethod(), bindings);
+        TypeMirror returnType = executeAndSpecializeType.getReturnType();
+        if (isVoid(specialization.getMethod().getReturnType())) {
+            builder.statement(call);
+            if (isVoid(returnType)) {
+                builder.returnStatement();
+            } else {
+                builder.startReturn().defaultValue(returnType).end();
+            }
+        } else {
+            builder.startReturn().tree(expectOrCast(specialization.getReturnType().getType(), executeAndSpecializeType, call)).end();
+        }
+        return builder.build();
+    }
+
     private CodeTree createThrowUnsupported(final CodeTreeBuilder parent, final FrameState frameState) {
         CodeTreeBuilder builder = parent.create();
         builder.startThrow().startNew(context.getType(UnsupportedSpecializationException.class));
@@ -2667,6 +2961,11 @@ public class FlatNodeGenFactory {
         builder.end().startFinallyBlock();
         builder.statement("lock.unlock()");
         builder.end();
+        if (mode.isSlowPath() && node.isReportPolymorphism()) {
+            // the nested executeAndSpecialize reports the transition
+            builder.statement(OLD_STATE + " = 0");
+            builder.statement(OLD_EXCLUDE + " = 0");
+        }
         builder.tree(createCallExecuteAndSpecialize(forType, frameState));
         builder.end();
         return builder.build();
@@ -2785,6 +3084,10 @@ public class FlatNodeGenFactory {
     }
 
     private CodeTree createCallExecuteAndSpecialize(ExecutableTypeData forType, FrameState frameState) {
+        return createCallGenericExecute("executeAndSpecialize", forType, frameState);
+    }
+
+    private CodeTree createCallGenericExecute(String methodName, ExecutableTypeData forType, FrameState frameState) {
         TypeMirror returnType = node.getPolymorphicSpecialization().getReturnType().getType();
         String frame = null;
         if (needsFrame(reachableSpecializations)) {
@@ -2792,7 +3095,7 @@ public class FlatNodeGenFactory {
         }
 
         CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
-        builder.startCall("executeAndSpecialize");
+        builder.startCall(methodName);
         frameState.addReferencesTo(builder, frame);
         builder.end();
         CodeTree call = builder.build();
@@ -3228,24 +3531,37 @@ public class FlatNodeGenFactory {
 
         }
 
+        public TypeMirror getType() {
+            return bitSetType;
+        }
+
+        public String getFieldName() {
+            return name + "_";
+        }
+
         public CodeTree createLoad(FrameState frameState, Object maskObject) {
             if (frameState.get(name) != null) {
                 // already loaded
                 return CodeTreeBuilder.singleString("");
             }
             CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
-            String fieldName = name + "_";
             LocalVariable var = new LocalVariable(bitSetType, name, null);
-            CodeTreeBuilder init = builder.create();
-            init.tree(CodeTreeBuilder.singleString(fieldName));
+            builder.tree(var.createDeclaration(createMaskedFieldRead(null, maskObject)));
+            frameState.set(name, var);
+            return builder.build();
+        }
+
+        public CodeTree createMaskedFieldRead(String receiver, Object maskObject) {
+            CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
+            if (receiver != null) {
+                builder.string(receiver, ".");
+            }
+            builder.string(getFieldName());
             if (maskObject != null) {
                 long mask = ~createMask(0, -1, new Object[]{maskObject});
-                init.string(" & ").string(formatMask(mask));
-                init.string("/* mask-active ", toString(maskObject), "*/");
+                builder.string(" & ").string(formatMask(mask));
+                builder.string("/* mask-active ", toString(maskObject), "*/");
             }
-
-            builder.tree(var.createDeclaration(init.build()));
-            frameState.set(name, var);
             return builder.build();
         }
 
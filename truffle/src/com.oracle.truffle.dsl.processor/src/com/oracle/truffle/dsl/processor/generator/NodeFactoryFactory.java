@@ -25,6 +25,7 @@ package com.oracle.truffle.dsl.processor.generator;
 import static com.oracle.truffle.dsl.processor.java.ElementUtils.modifiers;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 import java.util.Arrays;
 import java.util.List;
@@ -259,6 +260,15 @@ class NodeFactoryFactory {
                 ElementUtils.setVisibility(constructor.getModifiers(), Modifier.PRIVATE);
             }
         }
+        if (node.isGenerateUncached() && !node.hasErrors() && !node.getSpecializations().isEmpty()) {
+            clazz.add(createGetUncachedMethod());
+        }
+    }
+
+    private CodeExecutableElement createGetUncachedMethod() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC, STATIC), node.getNodeType(), "getUncached");
+        method.createBuilder().startReturn().staticReference(NodeCodeGenerator.nodeType(node), FlatNodeGenFactory.UNCACHED_INSTANCE).end();
+        return method;
     }
 
     private CodeExecutableElement createCreateMethod(ExecutableElement constructor) {
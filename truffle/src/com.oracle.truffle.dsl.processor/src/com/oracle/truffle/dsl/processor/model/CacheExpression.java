@@ -35,6 +35,7 @@ public final class CacheExpression extends MessageContainer {
     private final Parameter sourceParameter;
     private final AnnotationMirror sourceAnnotationMirror;
     private int dimensions = -1;
+    private DSLExpression uncachedExpression;
 
     public CacheExpression(Parameter sourceParameter, AnnotationMirror sourceAnnotationMirror, DSLExpression expression) {
         this.sourceParameter = sourceParameter;
@@ -73,4 +74,17 @@ public final class CacheExpression extends MessageContainer {
         return expression;
     }
 
+    public void setUncachedExpression(DSLExpression uncachedExpression) {
+        this.uncachedExpression = uncachedExpression;
+    }
+
+    /* Returns the expression used by uncached nodes; falls back to the initializer expression. */
+    public DSLExpression getUncachedExpression() {
+        return uncachedExpression != null ? uncachedExpression : expression;
+    }
+
+    public boolean hasUncachedExpression() {
+        return uncachedExpression != null;
+    }
+
 }
@@ -61,6 +61,8 @@ public class NodeData extends Template implements Comparable<NodeData> {
 
     private TypeMirror frameType;
     private boolean reflectable;
+    private boolean generateUncached;
+    private boolean reportPolymorphism;
 
     public NodeData(ProcessorContext context, TypeElement type, String shortName, TypeSystemData typeSystem, boolean generateFactory) {
         super(context, type, null);
@@ -95,6 +97,22 @@ public class NodeData extends Template implements Comparable<NodeData> {
         this.reflectable = reflectable;
     }
 
+    public boolean isGenerateUncached() {
+        return generateUncached;
+    }
+
+    public void setGenerateUncached(boolean generateUncached) {
+        this.generateUncached = generateUncached;
+    }
+
+    public boolean isReportPolymorphism() {
+        return reportPolymorphism;
+    }
+
+    public void setReportPolymorphism(boolean reportPolymorphism) {
+        this.reportPolymorphism = reportPolymorphism;
+    }
+
     public boolean isFallbackReachable() {
         SpecializationData generic = getGenericSpecialization();
         if (generic != null) {
@@ -57,6 +57,7 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CreateCast;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.GeneratedBy;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Introspectable;
@@ -64,6 +65,7 @@ import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeChildren;
 import com.oracle.truffle.api.dsl.NodeField;
 import com.oracle.truffle.api.dsl.NodeFields;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.Frame;
@@ -209,6 +211,22 @@ public class NodeParser extends AbstractParser<NodeData> {
             }
         }
 
+        AnnotationMirror generateUncached = findFirstAnnotation(lookupTypes, GenerateUncached.class);
+        if (generateUncached != null) {
+            node.setGenerateUncached(true);
+            if (node.getTypeSystem().getOptions().defaultGenerator() != com.oracle.truffle.api.dsl.internal.DSLOptions.DSLGenerator.FLAT) {
+                node.addError(generateUncached, null, "Uncached nodes are not supported by the used DSL layout. Only the flat DSL layout supports uncached nodes.");
+            }
+        }
+
+        AnnotationMirror reportPolymorphism = findFirstAnnotation(lookupTypes, ReportPolymorphism.class);
+        if (reportPolymorphism != null) {
+            node.setReportPolymorphism(true);
+            if (node.getTypeSystem().getOptions().defaultGenerator() != com.oracle.truffle.api.dsl.internal.DSLOptions.DSLGenerator.FLAT) {
+                node.addError(reportPolymorphism, null, "Polymorphism reporting is not supported by the used DSL layout. Only the flat DSL layout supports polymorphism reporting.");
+            }
+        }
+
         node.getFields().addAll(parseFields(lookupTypes, members));
         node.getChildren().addAll(parseChildren(lookupTypes, members));
         node.getChildExecutions().addAll(parseExecutions(node.getFields(), node.getChildren(), members));
@@ -241,6 +259,7 @@ public class NodeParser extends AbstractParser<NodeData> {
         verifyConstructors(node);
         verifyNamingConvention(node.getShortCircuits(), "needs");
         verifySpecializationThrows(node);
+        verifyUncached(node);
         return node;
     }
 
@@ -1286,6 +1305,21 @@ public class NodeParser extends AbstractParser<NodeData> {
                     cacheExpression.addError("Error parsing expression '%s': %s", initializer, e.getMessage());
                 }
 
+                String uncachedInitializer = ElementUtils.getAnnotationValue(String.class, annotationMirror, "uncached");
+                if (!cacheExpression.hasErrors() && !uncachedInitializer.isEmpty()) {
+                    try {
+                        DSLExpression uncachedExpression = DSLExpression.parse(uncachedInitializer);
+                        uncachedExpression.accept(localResolver);
+                        cacheExpression.setUncachedExpression(uncachedExpression);
+                        if (!ElementUtils.typeEquals(uncachedExpression.getResolvedType(), parameter.getType())) {
+                            cacheExpression.addError("Incompatible return type %s. The uncached expression type must be equal to the parameter type %s.",
+                                            ElementUtils.getSimpleName(uncachedExpression.getResolvedType()), ElementUtils.getSimpleName(parameter.getType()));
+                        }
+                    } catch (InvalidExpressionException e) {
+                        cacheExpression.addError("Error parsing uncached expression '%s': %s", uncachedInitializer, e.getMessage());
+                    }
+                }
+
                 if (!cacheExpression.hasErrors()) {
                     Cached cached = cacheExpression.getParameter().getVariableElement().getAnnotation(Cached.class);
                     cacheExpression.setDimensions(cached.dimensions());
@@ -1741,6 +1775,49 @@ public class NodeParser extends AbstractParser<NodeData> {
         }
     }
 
+    private void verifyUncached(NodeData node) {
+        if (!node.isGenerateUncached() || node.hasErrors()) {
+            return;
+        }
+        if (!node.getChildren().isEmpty()) {
+            node.addError("Nodes with @%s are not supported by @%s. Pass all operands to the execute methods instead.", NodeChild.class.getSimpleName(), GenerateUncached.class.getSimpleName());
+        }
+        for (NodeFieldData field : node.getFields()) {
+            if (field.isGenerated()) {
+                node.addError("Nodes with @%s are not supported by @%s.", NodeField.class.getSimpleName(), GenerateUncached.class.getSimpleName());
+                break;
+            }
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(node.getTemplateType().getEnclosedElements());
+        boolean defaultConstructor = constructors.isEmpty();
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && ElementUtils.getVisibility(constructor.getModifiers()) != Modifier.PRIVATE) {
+                defaultConstructor = true;
+                break;
+            }
+        }
+        if (!defaultConstructor) {
+            node.addError("Nodes with @%s must declare a non-private constructor without parameters.", GenerateUncached.class.getSimpleName());
+        }
+
+        TypeMirror nodeInterface = context.getType(NodeInterface.class);
+        for (SpecializationData specialization : node.getSpecializations()) {
+            for (CacheExpression cache : specialization.getCaches()) {
+                if (cache.hasUncachedExpression()) {
+                    continue;
+                }
+                TypeMirror type = cache.getParameter().getType();
+                if (type.getKind() == TypeKind.ARRAY) {
+                    type = ((ArrayType) type).getComponentType();
+                }
+                if (ElementUtils.isAssignable(type, nodeInterface)) {
+                    cache.addError("Cached parameters of node type must specify an uncached expression for nodes with @%s, for example @%s(value = \"create()\", uncached = \"getUncached()\").",
+                                    GenerateUncached.class.getSimpleName(), Cached.class.getSimpleName());
+                }
+            }
+        }
+    }
+
     private static void verifyConstructors(NodeData nodeData) {
         List<ExecutableElement> constructors = ElementFilter.constructorsIn(nodeData.getTemplateType().getEnclosedElements());
         if (constructors.isEmpty()) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.object.ArrayReadNode;
+import com.oracle.truffle.api.object.ArrayStrategy;
+import com.oracle.truffle.api.object.ArrayWriteNode;
+
+public class ArrayStrategyTest {
+
+    @Test
+    public void testGeneralize() {
+        ArrayStrategy intStrategy = ArrayStrategy.intStrategy();
+        ArrayStrategy longStrategy = ArrayStrategy.longStrategy();
+        ArrayStrategy doubleStrategy = ArrayStrategy.doubleStrategy();
+        ArrayStrategy objectStrategy = ArrayStrategy.objectStrategy();
+
+        Assert.assertSame(intStrategy, ArrayStrategy.forValue(42));
+        Assert.assertSame(longStrategy, ArrayStrategy.forValue(42L));
+        Assert.assertSame(doubleStrategy, ArrayStrategy.forValue(4.2));
+        Assert.assertSame(objectStrategy, ArrayStrategy.forValue("42"));
+
+        Assert.assertSame(longStrategy, intStrategy.generalizeFor(1L));
+        Assert.assertSame(doubleStrategy, intStrategy.generalizeFor(1.0));
+        Assert.assertSame(longStrategy, longStrategy.generalizeFor(1));
+        Assert.assertSame(doubleStrategy, doubleStrategy.generalizeFor(1));
+        Assert.assertSame(objectStrategy, longStrategy.generalizeFor(1.0));
+        Assert.assertSame(objectStrategy, doubleStrategy.generalizeFor(1L));
+        Assert.assertSame(objectStrategy, intStrategy.generalizeFor(null));
+        Assert.assertSame(objectStrategy, objectStrategy.generalizeFor(1));
+    }
+
+    @Test
+    public void testForStore() {
+        Assert.assertSame(ArrayStrategy.intStrategy(), ArrayStrategy.forStore(new int[0]));
+        Assert.assertSame(ArrayStrategy.longStrategy(), ArrayStrategy.forStore(new long[0]));
+        Assert.assertSame(ArrayStrategy.doubleStrategy(), ArrayStrategy.forStore(new double[0]));
+        Assert.assertSame(ArrayStrategy.objectStrategy(), ArrayStrategy.forStore(new Object[0]));
+        try {
+            ArrayStrategy.forStore(new String[0]);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testWriteGeneralizes() {
+        ArrayWriteNode write = ArrayWriteNode.create();
+        ArrayReadNode read = ArrayReadNode.create();
+        Assert.assertEquals(NodeCost.UNINITIALIZED, write.getCost());
+
+        Object store = ArrayStrategy.intStrategy().newStore(4);
+        store = write.execute(store, 0, 1);
+        store = write.execute(store, 1, 2);
+        Assert.assertTrue(store instanceof int[]);
+        Assert.assertEquals(NodeCost.MONOMORPHIC, write.getCost());
+        Assert.assertEquals(2, read.execute(store, 1));
+
+        store = write.execute(store, 2, 2.5);
+        Assert.assertTrue(store instanceof double[]);
+        Assert.assertEquals(1.0, read.execute(store, 0));
+        Assert.assertEquals(2.5, read.execute(store, 2));
+
+        store = write.execute(store, 3, "x");
+        Assert.assertTrue(store instanceof Object[]);
+        Assert.assertEquals(1.0, read.execute(store, 0));
+        Assert.assertEquals("x", read.execute(store, 3));
+        Assert.assertEquals(NodeCost.MONOMORPHIC, write.getCost());
+        Assert.assertEquals(NodeCost.MEGAMORPHIC, read.getCost());
+
+        // a less general store makes the node generic
+        Object intStore = write.execute(new int[1], 0, 7);
+        Assert.assertTrue(intStore instanceof int[]);
+        Assert.assertEquals(NodeCost.MEGAMORPHIC, write.getCost());
+    }
+
+    @Test
+    public void testWriteGrows() {
+        ArrayWriteNode write = ArrayWriteNode.create();
+        Object store = ArrayStrategy.longStrategy().newStore(0);
+        for (int i = 0; i < 100; i++) {
+            store = write.execute(store, i, (long) i);
+        }
+        Assert.assertTrue(store instanceof long[]);
+        Assert.assertTrue(ArrayStrategy.longStrategy().getCapacity(store) >= 100);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals((long) i, ArrayStrategy.longStrategy().get(store, i));
+        }
+        // int values are widened
+        store = write.execute(store, 0, 5);
+        Assert.assertEquals(5L, ArrayStrategy.longStrategy().get(store, 0));
+    }
+
+    @Test
+    public void testWriteBeyondMaximumSize() {
+        ArrayWriteNode write = ArrayWriteNode.create();
+        Object store = ArrayStrategy.intStrategy().newStore(4);
+        store = write.execute(store, 0, 1);
+        try {
+            write.execute(store, Integer.MAX_VALUE, 2);
+            Assert.fail();
+        } catch (ArrayIndexOutOfBoundsException e) {
+        }
+        Assert.assertEquals(4, ArrayStrategy.intStrategy().getCapacity(store));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+@SuppressWarnings("deprecation")
+public class ShapeFootprintTest {
+
+    final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+
+    @Test
+    public void testSharedPropertyMaps() {
+        Assume.assumeTrue(ObjectStorageOptions.SharedPropertyMaps);
+        Shape rootShape = layout.createShape(new ObjectType());
+        Shape otherRootShape = rootShape.changeType(new ObjectType());
+
+        Shape a = rootShape.defineProperty("a", 1, 0).defineProperty("b", 2, 0);
+        Shape b = otherRootShape.defineProperty("a", 1, 0).defineProperty("b", 2, 0);
+
+        Assert.assertNotSame(a, b);
+        Assert.assertEquals(a.getPropertyList(), b.getPropertyList());
+        Assert.assertSame(((ShapeImpl) a).getPropertyMap(), ((ShapeImpl) b).getPropertyMap());
+    }
+
+    @Test
+    public void testWeakTransitions() {
+        Assume.assumeTrue(ObjectStorageOptions.WeakTransitions);
+        Shape rootShape = layout.createShape(new ObjectType());
+        WeakReference<Shape> child = new WeakReference<>(rootShape.defineProperty("a", 1, 0).defineProperty("b", 2, 0));
+
+        for (int i = 0; i < 100 && child.get() != null; i++) {
+            System.gc();
+            Thread.yield();
+        }
+        Assert.assertNull("unused successor shape should have been collected", child.get());
+        Assert.assertTrue(((ShapeImpl) rootShape).getTransitionMapForRead().isEmpty());
+
+        // the transition is recreated on demand
+        Shape shape = rootShape.defineProperty("a", 1, 0);
+        Assert.assertSame(shape, rootShape.defineProperty("a", 1, 0));
+    }
+
+    @Test
+    public void testFootprintVisitor() {
+        Shape rootShape = layout.createShape(new ObjectType());
+        Shape a = rootShape.defineProperty("a", 1, 0);
+        Shape ab = a.defineProperty("b", 2, 0);
+        Shape ac = a.defineProperty("c", 3, 0);
+
+        com.oracle.truffle.object.debug.ShapeFootprintVisitor visitor = new com.oracle.truffle.object.debug.ShapeFootprintVisitor();
+        visitor.visitShape(rootShape);
+
+        Assert.assertEquals(4, visitor.getShapeCount());
+        Assert.assertEquals(1, visitor.getRootShapeCount());
+        Assert.assertEquals(2, visitor.getLeafShapeCount());
+        Assert.assertEquals(3, visitor.getTransitionCount());
+        Assert.assertEquals(2, visitor.getMaxDepth());
+        Assert.assertEquals(2, visitor.getMaxTransitions());
+        // {a}, {a, b} and {a, c} share the cell for "a"
+        Assert.assertEquals(3, visitor.getPropertyMapCellCount());
+        Assert.assertEquals(5, visitor.getUnsharedPropertyMapCellCount());
+        Assert.assertTrue(visitor.getEstimatedBytes() > 0);
+        Assert.assertTrue(visitor.toString().contains("property map cells"));
+
+        // keep the shapes reachable until the visitor has run
+        Assert.assertNotSame(ab, ac);
+    }
+}
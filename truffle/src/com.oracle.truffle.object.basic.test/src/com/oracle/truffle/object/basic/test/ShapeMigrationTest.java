@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.Layout.ImplicitCast;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+/**
+ * Tests for {@link ObjectStorageOptions#EagerShapeMigration}, enabled for the tested layout only.
+ */
+public class ShapeMigrationTest {
+
+    final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout().addAllowedImplicitCast(ImplicitCast.IntToDouble), true);
+    final Shape rootShape = layout.createShape(new ObjectType());
+
+    @Test
+    public void testGeneralizeMarksBranchObsolete() {
+        DynamicObject object1 = rootShape.newInstance();
+        object1.define("a", 1);
+        object1.define("b", 2);
+        DynamicObject object2 = rootShape.newInstance();
+        object2.define("a", 3);
+        object2.define("b", 4);
+        Shape oldShape = object2.getShape();
+
+        object1.define("a", 1.5);
+
+        Assert.assertTrue(object1.getShape().isValid());
+        Assert.assertFalse(oldShape.isValid());
+        Assert.assertTrue(((ShapeImpl) oldShape).isObsolete());
+        Assert.assertEquals(1.5, object1.get("a"));
+        Assert.assertEquals(2, object1.get("b"));
+
+        // objects of the obsolete branch move to the merged shape in one step
+        Assert.assertTrue(object2.updateShape());
+        Assert.assertSame(object1.getShape(), object2.getShape());
+        Assert.assertEquals(3.0, object2.get("a"));
+        Assert.assertEquals(4, object2.get("b"));
+        Assert.assertFalse(object2.updateShape());
+    }
+
+    @Test
+    public void testNewObjectsUseMergedShape() {
+        DynamicObject object1 = rootShape.newInstance();
+        object1.define("a", 1);
+        object1.define("b", "x");
+        object1.define("a", 1.5);
+
+        DynamicObject object2 = rootShape.newInstance();
+        object2.define("a", 2);
+        object2.define("b", "y");
+
+        Assert.assertSame(object1.getShape(), object2.getShape());
+        Assert.assertEquals(2.0, object2.get("a"));
+        Assert.assertEquals("y", object2.get("b"));
+    }
+
+    @Test
+    public void testDefineOnObsoleteShapeMigrates() {
+        DynamicObject object1 = rootShape.newInstance();
+        object1.define("a", 1);
+        object1.define("b", 2);
+        DynamicObject object2 = rootShape.newInstance();
+        object2.define("a", 3);
+        object2.define("b", 4);
+
+        object1.define("b", "str");
+        Assert.assertFalse(object2.getShape().isValid());
+
+        object2.define("c", 5);
+        Assert.assertTrue(object2.getShape().isValid());
+        Assert.assertEquals(3, object2.get("a"));
+        Assert.assertEquals(4, object2.get("b"));
+        Assert.assertEquals(5, object2.get("c"));
+
+        Assert.assertTrue(object2.delete("a"));
+        Assert.assertEquals(4, object2.get("b"));
+        Assert.assertEquals(5, object2.get("c"));
+    }
+}
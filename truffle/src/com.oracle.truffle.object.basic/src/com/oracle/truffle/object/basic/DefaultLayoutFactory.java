@@ -26,6 +26,7 @@ import com.oracle.truffle.api.object.Layout;
 import com.oracle.truffle.api.object.LayoutFactory;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.object.ObjectStorageOptions;
 import com.oracle.truffle.object.PropertyImpl;
 
 public class DefaultLayoutFactory implements LayoutFactory {
@@ -33,6 +34,14 @@ public class DefaultLayoutFactory implements LayoutFactory {
         return BasicLayout.createLayoutImpl(layoutBuilder, new DefaultStrategy());
     }
 
+    /**
+     * Creates a layout that uses {@link ObjectStorageOptions#EagerShapeMigration eager shape
+     * migration} independent of the system property.
+     */
+    public Layout createLayout(Layout.Builder layoutBuilder, boolean eagerShapeMigration) {
+        return BasicLayout.createLayoutImpl(layoutBuilder, new DefaultStrategy(eagerShapeMigration));
+    }
+
     public Property createProperty(Object id, Location location) {
         return createProperty(id, location, 0);
     }
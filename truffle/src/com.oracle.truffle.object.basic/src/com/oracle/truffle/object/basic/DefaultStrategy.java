@@ -26,23 +26,44 @@ import java.util.Objects;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.object.DynamicObjectImpl;
 import com.oracle.truffle.object.LayoutImpl;
 import com.oracle.truffle.object.LayoutStrategy;
 import com.oracle.truffle.object.LocationImpl;
+import com.oracle.truffle.object.ObjectStorageOptions;
 import com.oracle.truffle.object.ShapeImpl;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
 
 class DefaultStrategy extends LayoutStrategy {
+    private final boolean eagerShapeMigration;
+
+    DefaultStrategy() {
+        this(ObjectStorageOptions.EagerShapeMigration);
+    }
+
+    DefaultStrategy(boolean eagerShapeMigration) {
+        this.eagerShapeMigration = eagerShapeMigration;
+    }
+
+    @Override
+    protected boolean isEagerShapeMigration() {
+        return eagerShapeMigration;
+    }
+
     @Override
     public boolean updateShape(DynamicObject object) {
+        if (((ShapeImpl) object.getShape()).isObsolete()) {
+            return migrateObsoleteShape((DynamicObjectImpl) object);
+        }
         assert object.getShape().isValid();
         return false;
     }
 
     @Override
     public ShapeImpl ensureValid(ShapeImpl newShape) {
-        assert newShape.isValid();
-        return newShape;
+        ShapeImpl validShape = getValidSuccessor(newShape);
+        assert validShape.isValid();
+        return validShape;
     }
 
     private static boolean assertLocationInRange(ShapeImpl shape, Location location) {
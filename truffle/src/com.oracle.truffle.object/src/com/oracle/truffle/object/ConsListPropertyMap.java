@@ -23,6 +23,7 @@
 package com.oracle.truffle.object;
 
 import com.oracle.truffle.api.object.Property;
+import java.lang.ref.WeakReference;
 import java.util.AbstractSet;
 import java.util.ArrayDeque;
 import java.util.Arrays;
@@ -41,6 +42,11 @@ final class ConsListPropertyMap extends PropertyMap {
     private final ConsListPropertyMap car;
     private final Property cdr;
     private final int size;
+    /**
+     * The most recently created extension of this map, weakly held. Shapes in different parts of
+     * the shape tree that add the same property to the same map share the resulting map.
+     */
+    private volatile WeakReference<ConsListPropertyMap> lastChild;
 
     private static final ConsListPropertyMap EMPTY = new ConsListPropertyMap();
 
@@ -352,7 +358,19 @@ final class ConsListPropertyMap extends PropertyMap {
 
     @Override
     public ConsListPropertyMap putCopy(Property value) {
-        return new ConsListPropertyMap(this, value);
+        if (!ObjectStorageOptions.SharedPropertyMaps) {
+            return new ConsListPropertyMap(this, value);
+        }
+        WeakReference<ConsListPropertyMap> ref = lastChild;
+        if (ref != null) {
+            ConsListPropertyMap child = ref.get();
+            if (child != null && child.cdr.equals(value)) {
+                return child;
+            }
+        }
+        ConsListPropertyMap child = new ConsListPropertyMap(this, value);
+        lastChild = new WeakReference<>(child);
+        return child;
     }
 
     @Override
@@ -105,6 +105,9 @@ class Debug {
                         if (ObjectStorageOptions.DumpShapesIGV) {
                             dumpIGV();
                         }
+                        if (ObjectStorageOptions.DumpShapesFootprint) {
+                            dumpFootprint();
+                        }
                     } catch (FileNotFoundException | UnsupportedEncodingException e) {
                         throw new RuntimeException(e);
                     }
@@ -160,6 +163,16 @@ class Debug {
                     printer.printToNetwork(false);
                 }
 
+                private void dumpFootprint() {
+                    com.oracle.truffle.object.debug.ShapeFootprintVisitor visitor = new com.oracle.truffle.object.debug.ShapeFootprintVisitor();
+                    for (ShapeImpl shape : getAllShapes()) {
+                        if (isRootShape(shape)) {
+                            visitor.visitShape(shape);
+                        }
+                    }
+                    System.out.print(visitor);
+                }
+
                 private boolean isRootShape(ShapeImpl shape) {
                     return shape.getParent() == null;
                 }
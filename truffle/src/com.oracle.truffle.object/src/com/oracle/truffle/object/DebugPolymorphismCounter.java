@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Counts the distinct shapes observed per site, e.g. per property access node, to find sites that
+ * suffer from cache polymorphism. Like {@link DebugCounter}, only active with the
+ * {@code DebugCounters} option; the per-site histogram is printed on exit.
+ *
+ * @since 0.27
+ */
+public abstract class DebugPolymorphismCounter {
+    /** Sites that have seen more shapes than this are reported as megamorphic. */
+    static final int MEGAMORPHIC_LIMIT = 8;
+
+    private DebugPolymorphismCounter() {
+    }
+
+    /**
+     * Records that {@code site} has seen {@code shape}.
+     *
+     * @since 0.27
+     */
+    public abstract void record(Object site, Shape shape);
+
+    /**
+     * Returns the number of distinct shapes seen by {@code site}, saturating at a value above the
+     * megamorphic limit.
+     *
+     * @since 0.27
+     */
+    public abstract int getPolymorphism(Object site);
+
+    /** @since 0.27 */
+    public static DebugPolymorphismCounter create(String name) {
+        return ObjectStorageOptions.DebugCounters ? DebugPolymorphismCounterImpl.createImpl(name) : Dummy.INSTANCE;
+    }
+
+    /** @since 0.27 */
+    public static void dumpCounters() {
+        if (ObjectStorageOptions.DebugCounters) {
+            DebugPolymorphismCounterImpl.dumpCounters(System.out);
+        }
+    }
+
+    private static final class DebugPolymorphismCounterImpl extends DebugPolymorphismCounter {
+        private static final List<DebugPolymorphismCounterImpl> allCounters = Collections.synchronizedList(new ArrayList<DebugPolymorphismCounterImpl>());
+        private static final int TOP_SITES = 10;
+
+        private final String name;
+        private final ConcurrentHashMap<Object, Set<Shape>> sites = new ConcurrentHashMap<>();
+
+        private DebugPolymorphismCounterImpl(String name) {
+            this.name = name;
+            allCounters.add(this);
+        }
+
+        private static DebugPolymorphismCounter createImpl(String name) {
+            return new DebugPolymorphismCounterImpl(name);
+        }
+
+        @Override
+        public void record(Object site, Shape shape) {
+            Set<Shape> shapes = sites.get(site);
+            if (shapes == null) {
+                shapes = Collections.newSetFromMap(new ConcurrentHashMap<Shape, Boolean>());
+                Set<Shape> existing = sites.putIfAbsent(site, shapes);
+                if (existing != null) {
+                    shapes = existing;
+                }
+            }
+            if (shapes.size() <= MEGAMORPHIC_LIMIT) {
+                shapes.add(shape);
+            }
+        }
+
+        @Override
+        public int getPolymorphism(Object site) {
+            Set<Shape> shapes = sites.get(site);
+            return shapes == null ? 0 : shapes.size();
+        }
+
+        private void dump(PrintStream out) {
+            Map<Integer, Integer> histogram = new TreeMap<>();
+            List<Map.Entry<Object, Set<Shape>>> entries = new ArrayList<>(sites.entrySet());
+            for (Map.Entry<Object, Set<Shape>> entry : entries) {
+                int polymorphism = Math.min(entry.getValue().size(), MEGAMORPHIC_LIMIT + 1);
+                Integer count = histogram.get(polymorphism);
+                histogram.put(polymorphism, count == null ? 1 : count + 1);
+            }
+            out.println(name + ": " + entries.size() + " sites");
+            for (Map.Entry<Integer, Integer> bucket : histogram.entrySet()) {
+                String label = bucket.getKey() > MEGAMORPHIC_LIMIT ? "megamorphic" : bucket.getKey() + " shapes";
+                out.println("  " + label + ": " + bucket.getValue());
+            }
+            Collections.sort(entries, new Comparator<Map.Entry<Object, Set<Shape>>>() {
+                public int compare(Map.Entry<Object, Set<Shape>> o1, Map.Entry<Object, Set<Shape>> o2) {
+                    return Integer.compare(o2.getValue().size(), o1.getValue().size());
+                }
+            });
+            for (Map.Entry<Object, Set<Shape>> entry : entries.subList(0, Math.min(TOP_SITES, entries.size()))) {
+                if (entry.getValue().size() > 1) {
+                    out.println("  " + entry.getKey() + ": " + entry.getValue().size());
+                }
+            }
+        }
+
+        private static void dumpCounters(PrintStream out) {
+            synchronized (allCounters) {
+                for (DebugPolymorphismCounterImpl counter : allCounters) {
+                    counter.dump(out);
+                }
+            }
+        }
+
+        static {
+            assert ObjectStorageOptions.DebugCounters;
+            if (ObjectStorageOptions.DumpDebugCounters) {
+                Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                    public void run() {
+                        dumpCounters(System.out);
+                    }
+                }));
+            }
+        }
+    }
+
+    private static final class Dummy extends DebugPolymorphismCounter {
+        static final DebugPolymorphismCounter INSTANCE = new Dummy();
+
+        private Dummy() {
+        }
+
+        @Override
+        public void record(Object site, Shape shape) {
+        }
+
+        @Override
+        public int getPolymorphism(Object site) {
+            return 0;
+        }
+    }
+}
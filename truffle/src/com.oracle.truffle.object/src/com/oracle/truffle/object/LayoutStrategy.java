@@ -25,13 +25,16 @@ package com.oracle.truffle.object;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.LocationFactory;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.object.TypedLocation;
 import com.oracle.truffle.object.Locations.DeclaredLocation;
+import com.oracle.truffle.object.Locations.ValueLocation;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
 import com.oracle.truffle.object.Transition.AddPropertyTransition;
 import com.oracle.truffle.object.Transition.DirectReplacePropertyTransition;
@@ -126,8 +129,21 @@ public abstract class LayoutStrategy {
         return newShape;
     }
 
-    /** @since 0.17 or earlier */
+    /**
+     * Generalizes the location of a property so that it can hold {@code value}. With
+     * {@link #isEagerShapeMigration() eager shape migration}, the property is generalized in the shape
+     * that added it, and the whole branch of the shape tree below that shape is merged into the
+     * new branch and marked obsolete.
+     *
+     * @since 0.17 or earlier
+     */
     protected ShapeImpl generalizeProperty(Property oldProperty, Object value, ShapeImpl currentShape, ShapeImpl nextShape) {
+        if (isEagerShapeMigration() && currentShape == nextShape) {
+            ShapeImpl mergedShape = generalizePropertyInOwningShape(oldProperty, value, currentShape);
+            if (mergedShape != null) {
+                return mergedShape;
+            }
+        }
         Location oldLocation = oldProperty.getLocation();
         Location newLocation = currentShape.allocator().locationForValueUpcast(value, oldLocation);
         Property newProperty = oldProperty.relocate(newLocation);
@@ -135,17 +151,43 @@ public abstract class LayoutStrategy {
         return newShape;
     }
 
+    /**
+     * Returns {@code true} if properties are generalized in the shape that added them, see
+     * {@link ObjectStorageOptions#EagerShapeMigration}.
+     *
+     * @since 0.27
+     */
+    protected boolean isEagerShapeMigration() {
+        return ObjectStorageOptions.EagerShapeMigration;
+    }
+
     /** @since 0.17 or earlier */
     protected void propertySetFallback(Property property, DynamicObject store, Object value, ShapeImpl currentShape) {
         ShapeImpl oldShape = currentShape;
+        if (oldShape.isObsolete() && migrateObsoleteShape((DynamicObjectImpl) store)) {
+            oldShape = (ShapeImpl) store.getShape();
+        }
         ShapeImpl newShape = defineProperty(oldShape, property.getKey(), value, property.getFlags(), getDefaultLocationFactory());
         Property newProperty = newShape.getProperty(property.getKey());
-        newProperty.setSafe(store, value, oldShape, newShape);
+        if (oldShape.isObsolete()) {
+            // the property was generalized in the shape tree; move the object over first
+            migrateObsoleteShape((DynamicObjectImpl) store);
+            newProperty.setSafe(store, value, newShape);
+        } else {
+            newProperty.setSafe(store, value, oldShape, newShape);
+        }
     }
 
     /** @since 0.17 or earlier */
     protected void propertySetWithShapeFallback(Property property, DynamicObject store, Object value, ShapeImpl currentShape, ShapeImpl nextShape) {
         ShapeImpl oldShape = currentShape;
+        if (oldShape.isObsolete() || nextShape.isObsolete()) {
+            if (migrateObsoleteShape((DynamicObjectImpl) store)) {
+                oldShape = (ShapeImpl) store.getShape();
+            }
+            objectDefineProperty((DynamicObjectImpl) store, property.getKey(), value, property.getFlags(), getDefaultLocationFactory(), oldShape);
+            return;
+        }
         ShapeImpl newNextShape = generalizeProperty(property, value, oldShape, nextShape);
         Property newProperty = newNextShape.getProperty(property.getKey());
         newProperty.setSafe(store, value, oldShape, newNextShape);
@@ -154,11 +196,20 @@ public abstract class LayoutStrategy {
     /** @since 0.17 or earlier */
     protected void objectDefineProperty(DynamicObjectImpl object, Object key, Object value, int flags, LocationFactory locationFactory, ShapeImpl currentShape) {
         ShapeImpl oldShape = currentShape;
+        if (oldShape.isObsolete() && migrateObsoleteShape(object)) {
+            oldShape = object.getShape();
+        }
+        definePropertySiteCounter.record(key, oldShape);
         Property oldProperty = oldShape.getProperty(key);
         ShapeImpl newShape = defineProperty(oldShape, key, value, flags, locationFactory, oldProperty);
         if (oldShape == newShape) {
             assert oldProperty.equals(newShape.getProperty(key));
             oldProperty.setSafe(object, value, oldShape);
+        } else if (oldShape.isObsolete()) {
+            // the property was generalized in the shape tree; move the object over first
+            migrateObsoleteShape(object);
+            Property newProperty = newShape.getProperty(key);
+            newProperty.setSafe(object, value, newShape);
         } else {
             Property newProperty = newShape.getProperty(key);
             newProperty.setSafe(object, value, oldShape, newShape);
@@ -168,10 +219,125 @@ public abstract class LayoutStrategy {
     /** @since 0.17 or earlier */
     protected void objectRemoveProperty(DynamicObjectImpl object, Property property, ShapeImpl currentShape) {
         ShapeImpl oldShape = currentShape;
-        ShapeImpl newShape = oldShape.removeProperty(property);
+        Property oldProperty = property;
+        if (oldShape.isObsolete() && migrateObsoleteShape(object)) {
+            oldShape = object.getShape();
+            oldProperty = oldShape.getProperty(property.getKey());
+        }
+        ShapeImpl newShape = oldShape.removeProperty(oldProperty);
         reshapeAfterDelete(object, oldShape, newShape, ShapeImpl.findCommonAncestor(oldShape, newShape));
     }
 
+    private ShapeImpl generalizePropertyInOwningShape(Property oldProperty, Object value, ShapeImpl shape) {
+        if (shape.isShared()) {
+            return null;
+        }
+        ShapeImpl owningShape = getShapeFromProperty(shape, oldProperty.getKey());
+        if (owningShape == null || !owningShape.isValid()) {
+            return null;
+        }
+        ShapeImpl parentShape = owningShape.getParent();
+        Location newLocation = parentShape.allocator().locationForValueUpcast(value, oldProperty.getLocation());
+        ShapeImpl newOwningShape = addProperty(parentShape, oldProperty.relocate(newLocation));
+        if (ObjectStorageOptions.TraceReshape) {
+            int limit = 150;
+            System.out.printf("GENERALIZE\nOLD %s\nNEW %s\nPROPERTY %s\n---\n", owningShape.toStringLimit(limit), newOwningShape.toStringLimit(limit), oldProperty);
+        }
+        mergeObsoleteShape(owningShape, newOwningShape);
+        assert shape.isObsolete();
+        return getValidSuccessor(shape);
+    }
+
+    /**
+     * Replays the transitions of an obsolete branch of the shape tree on the shape it is merged
+     * into, so that objects of every shape in the branch can be moved to their counterpart in a
+     * single step.
+     */
+    private void mergeObsoleteShape(ShapeImpl obsoleteShape, ShapeImpl mergedShape) {
+        for (Map.Entry<Transition, ShapeImpl> entry : obsoleteShape.getTransitionMapForRead().entrySet()) {
+            Transition transition = entry.getKey();
+            ShapeImpl child = entry.getValue();
+            if (!transition.isDirect() || child.isShared() || child.isObsolete()) {
+                continue;
+            }
+            ShapeImpl mergedChild;
+            if (isRedundantReplace(transition, mergedShape)) {
+                mergedChild = mergedShape;
+            } else {
+                mergedChild = applyTransition(mergedShape, transition, true);
+            }
+            mergeObsoleteShape(child, mergedChild);
+        }
+        obsoleteShape.markObsolete(mergedShape);
+        shapeMergeCount.inc();
+    }
+
+    /**
+     * A replace transition that only widened the location type is redundant if the merged shape
+     * already has a location of the same type.
+     */
+    private static boolean isRedundantReplace(Transition transition, ShapeImpl mergedShape) {
+        if (!(transition instanceof DirectReplacePropertyTransition)) {
+            return false;
+        }
+        Property after = ((DirectReplacePropertyTransition) transition).getPropertyAfter();
+        Property current = mergedShape.getProperty(after.getKey());
+        if (current == null || current.getFlags() != after.getFlags()) {
+            return false;
+        }
+        Location currentLocation = current.getLocation();
+        Location afterLocation = after.getLocation();
+        if (currentLocation instanceof ValueLocation || afterLocation instanceof ValueLocation) {
+            return false;
+        }
+        return getLocationType(currentLocation) == getLocationType(afterLocation);
+    }
+
+    private static Class<?> getLocationType(Location location) {
+        return location instanceof TypedLocation ? ((TypedLocation) location).getType() : Object.class;
+    }
+
+    /**
+     * Follows the successors of an obsolete shape to the valid shape it has been merged into.
+     *
+     * @since 0.27
+     */
+    protected static ShapeImpl getValidSuccessor(ShapeImpl shape) {
+        ShapeImpl current = shape;
+        while (current.isObsolete()) {
+            current = current.getSuccessorShape();
+        }
+        return current;
+    }
+
+    /**
+     * Moves an object whose shape is obsolete to the valid shape it has been merged into, copying
+     * the values of all properties whose location has changed.
+     *
+     * @return {@code true} if the object has been migrated
+     * @since 0.27
+     */
+    protected boolean migrateObsoleteShape(DynamicObjectImpl object) {
+        ShapeImpl oldShape = object.getShape();
+        if (!oldShape.isObsolete()) {
+            return false;
+        }
+        ShapeImpl newShape = getValidSuccessor(oldShape);
+        ShapeImpl ancestor = ShapeImpl.findCommonAncestor(oldShape, newShape);
+        while (!ancestor.isValid()) {
+            ancestor = ancestor.getParent();
+        }
+        if (ObjectStorageOptions.TraceReshape) {
+            int limit = 150;
+            System.out.printf("MIGRATE\nOLD %s\nNEW %s\nLCA %s\n---\n", oldShape.toStringLimit(limit), newShape.toStringLimit(limit), ancestor.toStringLimit(limit));
+        }
+        DynamicObject original = object.cloneWithShape(oldShape);
+        object.setShapeAndResize(oldShape, newShape);
+        object.copyProperties(original, ancestor);
+        objectMigrationCount.inc();
+        return true;
+    }
+
     /** @since 0.17 or earlier */
     protected void reshapeAfterDelete(DynamicObjectImpl object, ShapeImpl oldShape, ShapeImpl newShape, ShapeImpl deletedParentShape) {
         DynamicObject original = object.cloneWithShape(oldShape);
@@ -332,4 +498,8 @@ public abstract class LayoutStrategy {
 
         return null;
     }
+
+    private static final DebugCounter shapeMergeCount = DebugCounter.create("Obsolete shapes merged");
+    private static final DebugCounter objectMigrationCount = DebugCounter.create("Objects migrated from obsolete shapes");
+    private static final DebugPolymorphismCounter definePropertySiteCounter = DebugPolymorphismCounter.create("Shapes per defined property key");
 }
@@ -49,6 +49,29 @@ public final class ObjectStorageOptions {
      */
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
+    /**
+     * Hold successor shapes in the transition map weakly, so that shape subtrees that are no longer
+     * in use can be garbage collected.
+     *
+     * @since 0.27
+     */
+    public static final boolean WeakTransitions = booleanOption(OPTION_PREFIX + "WeakTransitions", true);
+    /**
+     * Share property map storage between shapes that add the same property to the same map.
+     *
+     * @since 0.27
+     */
+    public static final boolean SharedPropertyMaps = booleanOption(OPTION_PREFIX + "SharedPropertyMaps", true);
+
+    /**
+     * When a property location has to be generalized, rebuild the branch of the shape tree below the
+     * shape that added the property with the generalized location, and mark the old branch
+     * obsolete, instead of appending a replace-property transition to the current shape.
+     *
+     * @since 0.27
+     */
+    public static final boolean EagerShapeMigration = booleanOption(OPTION_PREFIX + "EagerShapeMigration", false);
+
     // Debug options (should be final)
     /** @since 0.17 or earlier */
     public static final boolean TraceReshape = booleanOption(OPTION_PREFIX + "TraceReshape", false);
@@ -59,7 +82,8 @@ public final class ObjectStorageOptions {
     static final boolean DumpShapesDOT = booleanOption(OPTION_PREFIX + "DumpShapesDOT", false);
     static final boolean DumpShapesJSON = booleanOption(OPTION_PREFIX + "DumpShapesJSON", false);
     static final boolean DumpShapesIGV = booleanOption(OPTION_PREFIX + "DumpShapesIGV", false);
-    static final boolean DumpShapes = DumpShapesDOT || DumpShapesJSON || DumpShapesIGV;
+    static final boolean DumpShapesFootprint = booleanOption(OPTION_PREFIX + "DumpShapesFootprint", false);
+    static final boolean DumpShapes = DumpShapesDOT || DumpShapesJSON || DumpShapesIGV || DumpShapesFootprint;
     static final String DumpShapesPath = System.getProperty(OPTION_PREFIX + "DumpShapesPath", "");
 
     /** @since 0.17 or earlier */
@@ -22,12 +22,14 @@
  */
 package com.oracle.truffle.object;
 
+import java.lang.ref.WeakReference;
 import java.util.AbstractMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -125,6 +127,8 @@ public abstract class ShapeImpl extends Shape {
      * <li>{@link Map.Entry}: immutable single entry map
      * <li>{@link Map}: mutable multiple entry map
      * </ol>
+     * Successor shapes are held weakly if {@link ObjectStorageOptions#WeakTransitions} is enabled,
+     * so that subtrees of the shape tree that are no longer in use can be garbage collected.
      *
      * @see #getTransitionMapForRead()
      * @see #addTransitionInternal(Transition, ShapeImpl)
@@ -133,6 +137,14 @@ public abstract class ShapeImpl extends Shape {
 
     private final Transition transitionFromParent;
 
+    /**
+     * The shape this shape has been merged into after it became obsolete; {@code null} as long as
+     * this shape is not obsolete.
+     *
+     * @see LayoutStrategy#generalizeProperty(Property, Object, ShapeImpl, ShapeImpl)
+     */
+    private volatile ShapeImpl successorShape;
+
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Object> TRANSITION_MAP_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Object.class, "transitionMap");
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Assumption> LEAF_ASSUMPTION_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Assumption.class, "leafAssumption");
 
@@ -301,44 +313,91 @@ public abstract class ShapeImpl extends Shape {
     }
 
     private void addTransitionInternal(Transition transition, ShapeImpl successor) {
+        Object value = wrapSuccessor(successor);
         Object prev;
         Object next;
         do {
             prev = TRANSITION_MAP_UPDATER.get(this);
             if (prev == null) {
                 invalidateLeafAssumption();
-                next = new AbstractMap.SimpleImmutableEntry<>(transition, successor);
+                next = new AbstractMap.SimpleImmutableEntry<>(transition, value);
             } else if (prev instanceof Map.Entry<?, ?>) {
                 @SuppressWarnings("unchecked")
-                Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) prev;
-                ConcurrentHashMap<Transition, ShapeImpl> map = new ConcurrentHashMap<>();
-                map.put(entry.getKey(), entry.getValue());
-                map.put(transition, successor);
-                next = map;
+                Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) prev;
+                if (unwrapSuccessor(entry.getValue()) == null) {
+                    // the only successor has been collected; just replace the entry
+                    next = new AbstractMap.SimpleImmutableEntry<>(transition, value);
+                } else {
+                    ConcurrentHashMap<Transition, Object> map = new ConcurrentHashMap<>();
+                    map.put(entry.getKey(), entry.getValue());
+                    map.put(transition, value);
+                    next = map;
+                }
             } else {
                 assert prev instanceof Map<?, ?>;
                 @SuppressWarnings("unchecked")
-                Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) prev;
-                map.put(transition, successor);
+                Map<Transition, Object> map = (Map<Transition, Object>) prev;
+                map.put(transition, value);
+                if (ObjectStorageOptions.WeakTransitions && Integer.bitCount(map.size()) == 1) {
+                    expungeCollectedTransitions(map);
+                }
                 break;
             }
         } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
     }
 
-    /** @since 0.17 or earlier */
+    private static Object wrapSuccessor(ShapeImpl successor) {
+        return ObjectStorageOptions.WeakTransitions ? new WeakReference<>(successor) : successor;
+    }
+
+    private static ShapeImpl unwrapSuccessor(Object value) {
+        if (value instanceof WeakReference<?>) {
+            return (ShapeImpl) ((WeakReference<?>) value).get();
+        }
+        return (ShapeImpl) value;
+    }
+
+    /**
+     * Removes entries whose successor shape has been garbage collected. Called whenever the map
+     * size reaches a power of two, so the cost is amortized over the insertions.
+     */
+    private static void expungeCollectedTransitions(Map<Transition, Object> map) {
+        for (Iterator<Object> iterator = map.values().iterator(); iterator.hasNext();) {
+            if (unwrapSuccessor(iterator.next()) == null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the transitions to successor shapes that are still alive.
+     *
+     * @since 0.17 or earlier
+     */
     public final Map<Transition, ShapeImpl> getTransitionMapForRead() {
         Object trans = transitionMap;
         if (trans == null) {
             return Collections.<Transition, ShapeImpl> emptyMap();
         } else if (trans instanceof Map.Entry<?, ?>) {
             @SuppressWarnings("unchecked")
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
-            return Collections.singletonMap(entry.getKey(), entry.getValue());
+            Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) trans;
+            ShapeImpl successor = unwrapSuccessor(entry.getValue());
+            if (successor == null) {
+                return Collections.<Transition, ShapeImpl> emptyMap();
+            }
+            return Collections.singletonMap(entry.getKey(), successor);
         } else {
             assert trans instanceof Map<?, ?>;
             @SuppressWarnings("unchecked")
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map;
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            Map<Transition, ShapeImpl> result = new LinkedHashMap<>();
+            for (Map.Entry<Transition, Object> entry : map.entrySet()) {
+                ShapeImpl successor = unwrapSuccessor(entry.getValue());
+                if (successor != null) {
+                    result.put(entry.getKey(), successor);
+                }
+            }
+            return result;
         }
     }
 
@@ -348,17 +407,26 @@ public abstract class ShapeImpl extends Shape {
             return null;
         } else if (trans instanceof Map.Entry<?, ?>) {
             @SuppressWarnings("unchecked")
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
+            Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) trans;
             if (entry.getKey().equals(transition)) {
-                return entry.getValue();
+                return unwrapSuccessor(entry.getValue());
             } else {
                 return null;
             }
         } else {
             assert trans instanceof Map<?, ?>;
             @SuppressWarnings("unchecked")
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map.get(transition);
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            Object value = map.get(transition);
+            if (value == null) {
+                return null;
+            }
+            ShapeImpl successor = unwrapSuccessor(value);
+            if (successor == null) {
+                map.remove(transition, value);
+                transitionCollectedCount.inc();
+            }
+            return successor;
         }
     }
 
@@ -604,6 +672,33 @@ public abstract class ShapeImpl extends Shape {
         getValidAssumption().invalidate();
     }
 
+    /**
+     * Returns {@code true} if this shape has been made obsolete by a property generalization and
+     * merged into a {@linkplain #getSuccessorShape() successor shape}.
+     *
+     * @since 0.27
+     */
+    public final boolean isObsolete() {
+        return successorShape != null;
+    }
+
+    /**
+     * Returns the shape this obsolete shape has been merged into, or {@code null} if this shape is
+     * not obsolete. The successor may itself be obsolete.
+     *
+     * @since 0.27
+     */
+    public final ShapeImpl getSuccessorShape() {
+        return successorShape;
+    }
+
+    void markObsolete(ShapeImpl successor) {
+        assert !isShared() && successor != this;
+        this.successorShape = successor;
+        invalidateValidAssumption();
+        shapeObsoleteCount.inc();
+    }
+
     /** @since 0.17 or earlier */
     @Override
     public final boolean isLeaf() {
@@ -1180,6 +1275,8 @@ public abstract class ShapeImpl extends Shape {
     private static final DebugCounter shapeCloneCount = DebugCounter.create("Shapes allocated cloned");
     private static final DebugCounter shapeCacheHitCount = DebugCounter.create("Shape cache hits");
     private static final DebugCounter shapeCacheMissCount = DebugCounter.create("Shape cache misses");
+    private static final DebugCounter shapeObsoleteCount = DebugCounter.create("Shapes obsoleted");
+    private static final DebugCounter transitionCollectedCount = DebugCounter.create("Shape transitions collected");
 
     /** @since 0.17 or earlier */
     public ForeignAccess getForeignAccessFactory(DynamicObject object) {
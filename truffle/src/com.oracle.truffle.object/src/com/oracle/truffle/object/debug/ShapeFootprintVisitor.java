@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.debug;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.PropertyMap;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.Transition;
+
+/**
+ * Walks a shape tree and collects statistics about its heap footprint: the number of shapes and
+ * transitions, the depth and width of the tree, and how much of the property map storage is
+ * shared between shapes.
+ */
+@SuppressWarnings("deprecation")
+@Deprecated
+public class ShapeFootprintVisitor extends com.oracle.truffle.object.DebugShapeVisitor<ShapeFootprintVisitor> {
+    /*
+     * Approximate object sizes on a 64-bit VM with compressed oops, used for the estimate only.
+     */
+    private static final int SHAPE_BYTES = 104;
+    private static final int TRANSITION_BYTES = 48;
+    private static final int PROPERTY_MAP_CELL_BYTES = 24;
+
+    private final Set<Shape> visited = Collections.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+    private final Set<PropertyMap> propertyMapCells = Collections.newSetFromMap(new IdentityHashMap<PropertyMap, Boolean>());
+
+    private int shapeCount;
+    private int rootShapeCount;
+    private int leafShapeCount;
+    private int invalidShapeCount;
+    private int sharedShapeCount;
+    private int directTransitionCount;
+    private int indirectTransitionCount;
+    private int maxDepth;
+    private int maxTransitions;
+    private long unsharedPropertyMapCells;
+
+    public ShapeFootprintVisitor() {
+    }
+
+    @Override
+    public ShapeFootprintVisitor visitShape(Shape shape, Map<? extends Transition, ? extends Shape> transitions) {
+        if (!visited.add(shape)) {
+            return this;
+        }
+
+        shapeCount++;
+        if (shape.getParent() == null) {
+            rootShapeCount++;
+        }
+        if (transitions.isEmpty()) {
+            leafShapeCount++;
+        }
+        if (!shape.isValid()) {
+            invalidShapeCount++;
+        }
+        if (shape.isShared()) {
+            sharedShapeCount++;
+        }
+        maxDepth = Math.max(maxDepth, ((ShapeImpl) shape).getDepth());
+        maxTransitions = Math.max(maxTransitions, transitions.size());
+
+        PropertyMap propertyMap = ((ShapeImpl) shape).getPropertyMap();
+        unsharedPropertyMapCells += propertyMap.size();
+        for (PropertyMap current = propertyMap; current != null && !current.isEmpty(); current = current.getParentMap()) {
+            if (!propertyMapCells.add(current)) {
+                break;
+            }
+        }
+
+        for (Map.Entry<? extends Transition, ? extends Shape> entry : transitions.entrySet()) {
+            if (entry.getKey().isDirect()) {
+                directTransitionCount++;
+            } else {
+                indirectTransitionCount++;
+            }
+            this.visitShape(entry.getValue());
+        }
+        return this;
+    }
+
+    public int getShapeCount() {
+        return shapeCount;
+    }
+
+    public int getRootShapeCount() {
+        return rootShapeCount;
+    }
+
+    public int getLeafShapeCount() {
+        return leafShapeCount;
+    }
+
+    public int getInvalidShapeCount() {
+        return invalidShapeCount;
+    }
+
+    public int getSharedShapeCount() {
+        return sharedShapeCount;
+    }
+
+    public int getTransitionCount() {
+        return directTransitionCount + indirectTransitionCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxTransitions() {
+        return maxTransitions;
+    }
+
+    /** Number of distinct property map cells reachable from the visited shapes. */
+    public int getPropertyMapCellCount() {
+        return propertyMapCells.size();
+    }
+
+    /** Number of property map cells the visited shapes would need without any sharing. */
+    public long getUnsharedPropertyMapCellCount() {
+        return unsharedPropertyMapCells;
+    }
+
+    /** Rough estimate of the retained size of the visited shapes in bytes. */
+    public long getEstimatedBytes() {
+        return (long) shapeCount * SHAPE_BYTES + (long) getTransitionCount() * TRANSITION_BYTES + (long) getPropertyMapCellCount() * PROPERTY_MAP_CELL_BYTES;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Shape footprint:\n");
+        sb.append(String.format("  %-28s %10d%n", "shapes", shapeCount));
+        sb.append(String.format("  %-28s %10d%n", "root shapes", rootShapeCount));
+        sb.append(String.format("  %-28s %10d%n", "leaf shapes", leafShapeCount));
+        sb.append(String.format("  %-28s %10d%n", "invalid shapes", invalidShapeCount));
+        sb.append(String.format("  %-28s %10d%n", "shared shapes", sharedShapeCount));
+        sb.append(String.format("  %-28s %10d%n", "direct transitions", directTransitionCount));
+        sb.append(String.format("  %-28s %10d%n", "indirect transitions", indirectTransitionCount));
+        sb.append(String.format("  %-28s %10d%n", "max depth", maxDepth));
+        sb.append(String.format("  %-28s %10d%n", "max transitions per shape", maxTransitions));
+        sb.append(String.format("  %-28s %10d%n", "property map cells", getPropertyMapCellCount()));
+        sb.append(String.format("  %-28s %10d%n", "property map cells unshared", unsharedPropertyMapCells));
+        sb.append(String.format("  %-28s %10d%n", "estimated bytes", getEstimatedBytes()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.instrumentation.test.AbstractInstrumentationTest;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.tools.CPUSampler;
+import com.oracle.truffle.tools.CPUSampler.CallTreeNode;
+
+public class CPUSamplerTest extends AbstractInstrumentationTest {
+
+    private CPUSampler sampler;
+
+    // Checkstyle: stop
+    private final Source source = lines("ROOT(", //
+                    "DEFINE(foo,ROOT(LOOP(100, STATEMENT))),", //
+                    "DEFINE(bar,ROOT(LOOP(100, CALL(foo)))),", //
+                    "LOOP(10, CALL(bar))", //
+                    ")");
+    // Checkstyle: resume
+
+    @Before
+    public void setupSampler() {
+        sampler = CPUSampler.find(engine);
+        Assert.assertNotNull(sampler);
+    }
+
+    @Test
+    public void testCollecting() throws IOException {
+        Assert.assertFalse(sampler.isCollecting());
+        Assert.assertFalse(sampler.hasData());
+
+        sampler.setPeriod(1);
+        sampler.setCollecting(true);
+        Assert.assertTrue(sampler.isCollecting());
+        for (int i = 0; i < 10000 && !sampler.hasData(); i++) {
+            assertEvalOut(source, "");
+        }
+        sampler.setCollecting(false);
+        Assert.assertFalse(sampler.isCollecting());
+        Assert.assertTrue(sampler.hasData());
+        Assert.assertTrue(sampler.getSampleCount() > 0);
+        Assert.assertFalse(sampler.hasStackOverflowed());
+
+        Collection<CallTreeNode> roots = sampler.getRootNodes();
+        Assert.assertEquals(1, roots.size());
+        CallTreeNode root = roots.iterator().next();
+        Assert.assertNull(root.getParent());
+        assertConsistent(root);
+
+        Map<Thread, Collection<CallTreeNode>> threads = sampler.getThreadToNodesMap();
+        Assert.assertTrue(threads.containsKey(Thread.currentThread()));
+
+        long samples = sampler.getSampleCount();
+        assertEvalOut(source, "");
+        Assert.assertEquals(samples, sampler.getSampleCount());
+
+        sampler.clearData();
+        Assert.assertFalse(sampler.hasData());
+        Assert.assertEquals(0, sampler.getSampleCount());
+        Assert.assertTrue(sampler.getRootNodes().isEmpty());
+    }
+
+    @Test
+    public void testFlameGraph() throws IOException {
+        sampler.setCollecting(true);
+        for (int i = 0; i < 10000 && !sampler.hasData(); i++) {
+            assertEvalOut(source, "");
+        }
+        sampler.setCollecting(false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sampler.printFlameGraph(new PrintStream(bytes));
+        String output = bytes.toString();
+        Assert.assertFalse(output.isEmpty());
+        for (String line : output.split("\n")) {
+            Assert.assertTrue(line, line.matches("[^ ]+(;[^ ;]+)+ [0-9]+"));
+        }
+    }
+
+    @Test
+    public void testConfiguration() {
+        sampler.setStackLimit(2);
+        Assert.assertEquals(2, sampler.getStackLimit());
+        sampler.setPeriod(5);
+        Assert.assertEquals(5, sampler.getPeriod());
+        sampler.setCollecting(true);
+        try {
+            sampler.setPeriod(1);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        sampler.setCollecting(false);
+        try {
+            sampler.setStackLimit(0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertConsistent(CallTreeNode node) {
+        long childHits = 0;
+        for (CallTreeNode child : node.getChildren()) {
+            Assert.assertSame(node, child.getParent());
+            assertConsistent(child);
+            childHits += child.getHitCount();
+        }
+        Assert.assertEquals(node.getSelfInterpretedHitCount() + node.getSelfCompiledHitCount(), node.getSelfHitCount());
+        Assert.assertEquals(node.getHitCount(), node.getSelfHitCount() + childHits);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.instrumentation.test.AllocationReporterTest.AllocationReporterLanguage;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.tools.MemoryTracer;
+import com.oracle.truffle.tools.MemoryTracer.AllocationSite;
+
+public class MemoryTracerTest {
+
+    private PolyglotEngine engine;
+    private MemoryTracer tracer;
+
+    private final Source source = Source.newBuilder("10\n12345678901234\nNEW\n").name("Allocations").mimeType(AllocationReporterLanguage.MIME_TYPE).build();
+
+    @Before
+    public void setUp() {
+        engine = PolyglotEngine.newBuilder().build();
+        tracer = MemoryTracer.find(engine);
+        Assert.assertNotNull(tracer);
+    }
+
+    @After
+    public void tearDown() {
+        engine.dispose();
+    }
+
+    @Test
+    public void testAggregation() {
+        Assert.assertFalse(tracer.isCollecting());
+        tracer.setStackSampleInterval(1);
+        tracer.setCollecting(true);
+        engine.eval(source);
+        engine.eval(source);
+        tracer.setCollecting(false);
+        Assert.assertTrue(tracer.hasData());
+        Assert.assertFalse(tracer.hasOverflowed());
+
+        List<AllocationSite> sites = tracer.getSites();
+        Assert.assertEquals(1, sites.size());
+        AllocationSite site = sites.get(0);
+        Assert.assertEquals(6, site.getCount());
+        Assert.assertEquals(2 * (4 + 8), site.getBytes());
+        Assert.assertEquals(2, site.getUnknownSizeCount());
+        Map<List<String>, Long> stacks = site.getStackSamples();
+        Assert.assertEquals(1, stacks.size());
+        Assert.assertEquals(6L, (long) stacks.values().iterator().next());
+
+        engine.eval(source);
+        Assert.assertEquals(6, tracer.getSites().get(0).getCount());
+
+        tracer.clearData();
+        Assert.assertFalse(tracer.hasData());
+        Assert.assertTrue(tracer.getSites().isEmpty());
+    }
+
+    @Test
+    public void testBoundedStacks() {
+        tracer.setStackSampleInterval(1);
+        tracer.setMaxStacksPerSite(0);
+        tracer.setCollecting(true);
+        engine.eval(source);
+        tracer.setCollecting(false);
+        Assert.assertTrue(tracer.hasOverflowed());
+        AllocationSite site = tracer.getSites().get(0);
+        Assert.assertEquals(3, site.getCount());
+        Assert.assertTrue(site.getStackSamples().isEmpty());
+    }
+
+    @Test
+    public void testExport() {
+        tracer.setCollecting(true);
+        engine.eval(source);
+        tracer.setCollecting(false);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        tracer.printJSON(new PrintStream(json));
+        String output = json.toString().trim();
+        Assert.assertTrue(output, output.startsWith("{\"overflowed\": false, \"sites\": [{\"root\": "));
+        Assert.assertTrue(output, output.contains("\"count\": 3, \"bytes\": 12, \"unknownSizeCount\": 1"));
+        Assert.assertTrue(output, output.endsWith("]}"));
+
+        ByteArrayOutputStream histogram = new ByteArrayOutputStream();
+        tracer.printHistogram(new PrintStream(histogram));
+        Assert.assertTrue(histogram.toString().contains("Meta-object"));
+    }
+}
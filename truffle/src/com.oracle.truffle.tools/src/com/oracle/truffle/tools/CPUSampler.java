@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter.SourcePredicate;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.api.vm.PolyglotRuntime;
+import com.oracle.truffle.tools.ShadowStack.StackEntry;
+import com.oracle.truffle.tools.ShadowStack.ThreadLocalStack;
+
+/**
+ * Sampling based profiler for guest language code.
+ * <p>
+ * Unlike the {@link Profiler}, which counts every invocation, the sampler periodically records the
+ * guest stack of every thread executing guest code and aggregates the samples into a call tree per
+ * thread. Guest stacks are recorded in a shadow stack, as {@link TruffleRuntime#iterateFrames}
+ * can only inspect the current thread; entering and leaving a {@linkplain StandardTags.RootTag
+ * root} only costs an array store, which keeps the overhead low enough for production use.
+ * <p>
+ * Each sample is attributed to the top-most root, distinguishing whether that root was executing
+ * interpreted or compiled code. Results are available as {@linkplain #getRootNodes() call trees}
+ * or in the folded stack format consumed by flame graph tools, see
+ * {@link #printFlameGraph(PrintStream)}.
+ *
+ * @since 0.27
+ */
+public final class CPUSampler {
+
+    /**
+     * Finds the sampler associated with given engine. There is at most one sampler associated with
+     * any {@link PolyglotEngine}.
+     *
+     * @param engine the engine to find the sampler for
+     * @return an instance of the associated sampler, never <code>null</code>
+     * @since 0.27
+     */
+    public static CPUSampler find(PolyglotEngine engine) {
+        PolyglotRuntime.Instrument instrument = engine.getRuntime().getInstruments().get(CPUSamplerInstrument.ID);
+        if (instrument == null) {
+            throw new IllegalStateException();
+        }
+        return instrument.lookup(CPUSampler.class);
+    }
+
+    private static final SourceSectionFilter DEFAULT_FILTER = SourceSectionFilter.newBuilder().tagIs(StandardTags.RootTag.class).sourceIs(new SourcePredicate() {
+        public boolean test(Source source) {
+            return !source.isInternal();
+        }
+    }).build();
+
+    private final Instrumenter instrumenter;
+
+    private boolean collecting;
+
+    private long period = 1;
+
+    private int stackLimit = 10000;
+
+    private SourceSectionFilter filter = DEFAULT_FILTER;
+
+    private ShadowStack shadowStack;
+
+    private EventBinding<?> binding;
+
+    private Timer samplerThread;
+
+    private final Map<Thread, CallTreeNode> threadRoots = new LinkedHashMap<>();
+
+    private long sampleCount;
+
+    private boolean stackOverflowed;
+
+    private boolean disposed;
+
+    CPUSampler(Instrumenter instrumenter) {
+        this.instrumenter = instrumenter;
+    }
+
+    synchronized void dispose() {
+        if (!disposed) {
+            collecting = false;
+            resetSampling();
+            threadRoots.clear();
+            disposed = true;
+        }
+    }
+
+    /**
+     * Controls whether samples are being taken, {@code false} by default. Previously collected
+     * samples are kept unless explicitly {@linkplain #clearData() cleared}.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void setCollecting(boolean collecting) {
+        verifyNotDisposed();
+        if (this.collecting != collecting) {
+            this.collecting = collecting;
+            resetSampling();
+        }
+    }
+
+    /**
+     * Are samples currently being taken (default {@code false})?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized boolean isCollecting() {
+        verifyNotDisposed();
+        return collecting;
+    }
+
+    /**
+     * Sets the sampling period in milliseconds, {@code 1} by default. Must not be changed while
+     * collecting.
+     *
+     * @throws IllegalStateException if disposed or collecting
+     * @throws IllegalArgumentException if the period is not positive
+     * @since 0.27
+     */
+    public synchronized void setPeriod(long milliseconds) {
+        verifyConfigurable();
+        if (milliseconds < 1) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        this.period = milliseconds;
+    }
+
+    /**
+     * Gets the sampling period in milliseconds.
+     *
+     * @since 0.27
+     */
+    public synchronized long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Sets the maximum number of guest frames recorded per thread, {@code 10000} by default.
+     * Frames beyond the limit are not sampled and are reported by {@link #hasStackOverflowed()}.
+     * Must not be changed while collecting.
+     *
+     * @throws IllegalStateException if disposed or collecting
+     * @throws IllegalArgumentException if the limit is not positive
+     * @since 0.27
+     */
+    public synchronized void setStackLimit(int stackLimit) {
+        verifyConfigurable();
+        if (stackLimit < 1) {
+            throw new IllegalArgumentException("stack limit must be positive");
+        }
+        this.stackLimit = stackLimit;
+    }
+
+    /**
+     * Gets the maximum number of guest frames recorded per thread.
+     *
+     * @since 0.27
+     */
+    public synchronized int getStackLimit() {
+        return stackLimit;
+    }
+
+    /**
+     * Sets the filter selecting the roots recorded in the guest stacks. The default filter
+     * selects all {@linkplain StandardTags.RootTag roots} of non internal sources. Must not be
+     * changed while collecting.
+     *
+     * @throws IllegalStateException if disposed or collecting
+     * @since 0.27
+     */
+    public synchronized void setFilter(SourceSectionFilter filter) {
+        verifyConfigurable();
+        this.filter = filter == null ? DEFAULT_FILTER : filter;
+    }
+
+    /**
+     * Gets the number of samples taken so far, including samples of threads that were not
+     * executing guest code.
+     *
+     * @since 0.27
+     */
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Returns {@code true} if a guest stack exceeded the {@linkplain #setStackLimit(int) stack
+     * limit} and samples were therefore truncated.
+     *
+     * @since 0.27
+     */
+    public synchronized boolean hasStackOverflowed() {
+        return stackOverflowed;
+    }
+
+    /**
+     * Is any sample of guest code available?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized boolean hasData() {
+        verifyNotDisposed();
+        for (CallTreeNode root : threadRoots.values()) {
+            if (!root.children.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discards all samples taken so far.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void clearData() {
+        verifyNotDisposed();
+        threadRoots.clear();
+        sampleCount = 0;
+        stackOverflowed = false;
+    }
+
+    /**
+     * Returns a snapshot of the call trees of each sampled thread. The returned nodes are the
+     * outermost sampled roots and are not updated by further samples.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized Map<Thread, Collection<CallTreeNode>> getThreadToNodesMap() {
+        verifyNotDisposed();
+        Map<Thread, Collection<CallTreeNode>> result = new LinkedHashMap<>();
+        for (Map.Entry<Thread, CallTreeNode> entry : threadRoots.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().copy(null).getChildren());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns a snapshot of the call trees of all sampled threads merged into one.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized Collection<CallTreeNode> getRootNodes() {
+        verifyNotDisposed();
+        CallTreeNode merged = new CallTreeNode(null, null);
+        for (CallTreeNode root : threadRoots.values()) {
+            merged.merge(root);
+        }
+        return merged.getChildren();
+    }
+
+    /**
+     * Prints the samples in the folded stack format understood by flame graph tools: one line per
+     * distinct stack, listing the frames from the outermost root separated by {@code ;}, followed
+     * by the number of samples. Frames are named by root name and source location. Frames that
+     * were executing compiled code carry the {@code _[j]} suffix used by these tools to color JIT
+     * compiled code.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void printFlameGraph(PrintStream out) {
+        verifyNotDisposed();
+        for (Map.Entry<Thread, CallTreeNode> entry : threadRoots.entrySet()) {
+            StringBuilder prefix = new StringBuilder(escapeFrame(entry.getKey().getName()));
+            for (CallTreeNode child : entry.getValue().children.values()) {
+                printFolded(out, prefix, child);
+            }
+        }
+        out.flush();
+    }
+
+    private static void printFolded(PrintStream out, StringBuilder prefix, CallTreeNode node) {
+        int length = prefix.length();
+        prefix.append(';').append(escapeFrame(node.getRootName() + " " + getShortDescription(node.getSourceSection())));
+        if (node.selfInterpretedHitCount > 0) {
+            out.println(prefix + " " + node.selfInterpretedHitCount);
+        }
+        if (node.selfCompiledHitCount > 0) {
+            out.println(prefix + "_[j] " + node.selfCompiledHitCount);
+        }
+        for (CallTreeNode child : node.children.values()) {
+            printFolded(out, prefix, child);
+        }
+        prefix.setLength(length);
+    }
+
+    private static String escapeFrame(String frame) {
+        return frame.replace(';', ':').replace(' ', '_');
+    }
+
+    private static String getShortDescription(SourceSection sourceSection) {
+        if (sourceSection == null || sourceSection.getSource() == null) {
+            return "<unknown>";
+        }
+        return sourceSection.getSource().getName() + ":" + sourceSection.getStartLine();
+    }
+
+    private void verifyNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("disposed sampler");
+        }
+    }
+
+    private void verifyConfigurable() {
+        verifyNotDisposed();
+        if (collecting) {
+            throw new IllegalStateException("cannot change the configuration while collecting");
+        }
+    }
+
+    private void resetSampling() {
+        if (samplerThread != null) {
+            samplerThread.cancel();
+            samplerThread = null;
+        }
+        if (binding != null) {
+            binding.dispose();
+            binding = null;
+        }
+        shadowStack = null;
+        if (collecting) {
+            shadowStack = new ShadowStack(stackLimit);
+            binding = shadowStack.install(instrumenter, filter);
+            samplerThread = new Timer("Truffle CPU Sampler", true);
+            samplerThread.scheduleAtFixedRate(new SamplingTask(shadowStack, stackLimit), 0, period);
+        }
+    }
+
+    private synchronized void addSample(ShadowStack stack, Thread thread, StackEntry[] entries, boolean[] compiled, int count, boolean overflowed) {
+        if (stack != shadowStack) {
+            // sampling was reconfigured concurrently
+            return;
+        }
+        CallTreeNode node = threadRoots.get(thread);
+        if (node == null) {
+            node = new CallTreeNode(null, null);
+            threadRoots.put(thread, node);
+        }
+        for (int i = 0; i < count; i++) {
+            node = node.getOrCreateChild(entries[i]);
+            node.hitCount++;
+        }
+        if (count > 0) {
+            if (compiled[count - 1]) {
+                node.selfCompiledHitCount++;
+            } else {
+                node.selfInterpretedHitCount++;
+            }
+        }
+        stackOverflowed |= overflowed;
+    }
+
+    private synchronized void sampleTaken(ShadowStack stack) {
+        if (stack == shadowStack) {
+            sampleCount++;
+        }
+    }
+
+    private final class SamplingTask extends TimerTask {
+
+        private final ShadowStack stack;
+        private final StackEntry[] entries;
+        private final boolean[] compiled;
+
+        SamplingTask(ShadowStack stack, int stackLimit) {
+            this.stack = stack;
+            this.entries = new StackEntry[stackLimit];
+            this.compiled = new boolean[stackLimit];
+        }
+
+        @Override
+        public void run() {
+            for (ThreadLocalStack threadStack : stack.getStacks()) {
+                Thread thread = threadStack.getThread();
+                if (!thread.isAlive()) {
+                    stack.removeStack(threadStack);
+                    continue;
+                }
+                int count = threadStack.copyTo(entries, compiled);
+                if (count > 0) {
+                    addSample(stack, thread, entries, compiled, count, threadStack.hasOverflowed());
+                }
+            }
+            sampleTaken(stack);
+        }
+    }
+
+    /**
+     * A node in the sampled call tree, identifying a guest root by its name and source section.
+     *
+     * @since 0.27
+     */
+    public static final class CallTreeNode {
+
+        private final CallTreeNode parent;
+        private final StackEntry entry;
+        private final Map<StackEntry, CallTreeNode> children = new HashMap<>();
+
+        private long hitCount;
+        private long selfInterpretedHitCount;
+        private long selfCompiledHitCount;
+
+        CallTreeNode(CallTreeNode parent, StackEntry entry) {
+            this.parent = parent;
+            this.entry = entry;
+        }
+
+        /**
+         * Gets the name of the sampled {@link RootNode}.
+         *
+         * @since 0.27
+         */
+        public String getRootName() {
+            return entry.getRootName();
+        }
+
+        /**
+         * Gets the source section of the sampled {@link RootNode}.
+         *
+         * @since 0.27
+         */
+        public SourceSection getSourceSection() {
+            return entry.getSourceSection();
+        }
+
+        /**
+         * Gets the caller of this node, or {@code null} for an outermost root.
+         *
+         * @since 0.27
+         */
+        public CallTreeNode getParent() {
+            return parent;
+        }
+
+        /**
+         * Gets the callees of this node sorted by descending {@linkplain #getHitCount() hit count}.
+         *
+         * @since 0.27
+         */
+        public Collection<CallTreeNode> getChildren() {
+            List<CallTreeNode> sorted = new ArrayList<>(children.values());
+            Collections.sort(sorted, new Comparator<CallTreeNode>() {
+                public int compare(CallTreeNode o1, CallTreeNode o2) {
+                    return Long.compare(o2.hitCount, o1.hitCount);
+                }
+            });
+            return Collections.unmodifiableList(sorted);
+        }
+
+        /**
+         * Gets the number of samples in which this node was on the stack.
+         *
+         * @since 0.27
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Gets the number of samples in which this node was the top-most root.
+         *
+         * @since 0.27
+         */
+        public long getSelfHitCount() {
+            return selfInterpretedHitCount + selfCompiledHitCount;
+        }
+
+        /**
+         * Gets the number of samples in which this node was the top-most root and was executed by
+         * the interpreter.
+         *
+         * @since 0.27
+         */
+        public long getSelfInterpretedHitCount() {
+            return selfInterpretedHitCount;
+        }
+
+        /**
+         * Gets the number of samples in which this node was the top-most root and was executing
+         * compiled code.
+         *
+         * @since 0.27
+         */
+        public long getSelfCompiledHitCount() {
+            return selfCompiledHitCount;
+        }
+
+        CallTreeNode getOrCreateChild(StackEntry childEntry) {
+            CallTreeNode child = children.get(childEntry);
+            if (child == null) {
+                // children of the synthetic per thread root are outermost roots
+                child = new CallTreeNode(entry == null ? null : this, childEntry);
+                children.put(childEntry, child);
+            }
+            return child;
+        }
+
+        CallTreeNode copy(CallTreeNode newParent) {
+            CallTreeNode copy = new CallTreeNode(newParent, entry);
+            copy.hitCount = hitCount;
+            copy.selfInterpretedHitCount = selfInterpretedHitCount;
+            copy.selfCompiledHitCount = selfCompiledHitCount;
+            for (CallTreeNode child : children.values()) {
+                copy.children.put(child.entry, child.copy(entry == null ? null : copy));
+            }
+            return copy;
+        }
+
+        void merge(CallTreeNode other) {
+            hitCount += other.hitCount;
+            selfInterpretedHitCount += other.selfInterpretedHitCount;
+            selfCompiledHitCount += other.selfCompiledHitCount;
+            for (CallTreeNode otherChild : other.children.values()) {
+                getOrCreateChild(otherChild.entry).merge(otherChild);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CallTreeNode[" + getRootName() + ", hits=" + hitCount + ", self=" + getSelfHitCount() + "]";
+        }
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.instrumentation.AllocationEvent;
+import com.oracle.truffle.api.instrumentation.AllocationEventFilter;
+import com.oracle.truffle.api.instrumentation.AllocationListener;
+import com.oracle.truffle.api.instrumentation.AllocationReporter;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.nodes.LanguageInfo;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.api.vm.PolyglotRuntime;
+
+/**
+ * Traces guest language allocations reported through {@link AllocationReporter}.
+ * <p>
+ * Allocations are aggregated into {@linkplain AllocationSite sites} identified by the allocating
+ * root, the language and the meta-object of the allocated value. Every
+ * {@linkplain #setStackSampleInterval(int) n-th} allocation additionally captures the guest stack,
+ * so that hot sites can be attributed to their callers without walking the stack on every
+ * allocation.
+ * <p>
+ * Memory usage is bounded: at most {@linkplain #setMaxSites(int) a fixed number} of sites and
+ * {@linkplain #setMaxStacksPerSite(int) stacks per site} are kept. Allocations beyond these limits
+ * are counted in a shared overflow site and {@link #hasOverflowed()} reports the truncation.
+ * <p>
+ * Results are available as {@linkplain #getSites() site snapshots}, as a
+ * {@linkplain #printHistogram(PrintStream) textual histogram}, whose format is subject to change,
+ * and as {@linkplain #printJSON(PrintStream) JSON}.
+ *
+ * @since 0.27
+ */
+public final class MemoryTracer {
+
+    /**
+     * Finds the memory tracer associated with given engine. There is at most one tracer associated
+     * with any {@link PolyglotEngine}.
+     *
+     * @param engine the engine to find the tracer for
+     * @return an instance of the associated tracer, never <code>null</code>
+     * @since 0.27
+     */
+    public static MemoryTracer find(PolyglotEngine engine) {
+        PolyglotRuntime.Instrument instrument = engine.getRuntime().getInstruments().get(MemoryTracerInstrument.ID);
+        if (instrument == null) {
+            throw new IllegalStateException();
+        }
+        return instrument.lookup(MemoryTracer.class);
+    }
+
+    private static final String UNKNOWN = "<unknown>";
+    private static final SiteKey OVERFLOW_KEY = new SiteKey("<other>", null, UNKNOWN, UNKNOWN);
+
+    private final Env env;
+
+    private boolean collecting;
+
+    private AllocationEventFilter filter = AllocationEventFilter.ANY;
+
+    private int stackSampleInterval = 100;
+
+    private int maxSites = 10000;
+
+    private int maxStacksPerSite = 16;
+
+    private EventBinding<?> binding;
+
+    private final Map<SiteKey, AllocationSite> sites = new HashMap<>();
+
+    /*
+     * Meta-object names by language and Java class of the allocated value. Looking up the meta
+     * object of every allocation would be too expensive on the allocation path.
+     */
+    private final Map<LanguageInfo, Map<Class<?>, String>> metaObjectNames = new HashMap<>();
+
+    private long allocationCount;
+
+    private boolean overflowed;
+
+    private boolean disposed;
+
+    MemoryTracer(Env env) {
+        this.env = env;
+    }
+
+    synchronized void dispose() {
+        if (!disposed) {
+            collecting = false;
+            resetTracing();
+            sites.clear();
+            disposed = true;
+        }
+    }
+
+    /**
+     * Controls whether allocations are being traced, {@code false} by default. Previously
+     * collected data is kept unless explicitly {@linkplain #clearData() cleared}.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void setCollecting(boolean collecting) {
+        verifyNotDisposed();
+        if (this.collecting != collecting) {
+            this.collecting = collecting;
+            resetTracing();
+        }
+    }
+
+    /**
+     * Are allocations currently being traced (default {@code false})?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized boolean isCollecting() {
+        verifyNotDisposed();
+        return collecting;
+    }
+
+    /**
+     * Sets the filter selecting the traced allocations, {@link AllocationEventFilter#ANY} by
+     * default. Takes effect immediately if allocations are being collected.
+     *
+     * @since 0.27
+     */
+    public synchronized void setFilter(AllocationEventFilter filter) {
+        verifyNotDisposed();
+        this.filter = filter == null ? AllocationEventFilter.ANY : filter;
+        resetTracing();
+    }
+
+    /**
+     * Sets how often the guest stack is captured: once every {@code interval} allocations,
+     * {@code 100} by default. An interval of {@code 1} captures every allocation.
+     *
+     * @throws IllegalArgumentException if the interval is not positive
+     * @since 0.27
+     */
+    public synchronized void setStackSampleInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.stackSampleInterval = interval;
+    }
+
+    /**
+     * Gets the interval of guest stack captures.
+     *
+     * @since 0.27
+     */
+    public synchronized int getStackSampleInterval() {
+        return stackSampleInterval;
+    }
+
+    /**
+     * Sets the maximum number of distinct allocation sites kept, {@code 10000} by default.
+     *
+     * @throws IllegalArgumentException if the limit is not positive
+     * @since 0.27
+     */
+    public synchronized void setMaxSites(int maxSites) {
+        if (maxSites < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.maxSites = maxSites;
+    }
+
+    /**
+     * Sets the maximum number of distinct stacks kept per allocation site, {@code 16} by default.
+     *
+     * @throws IllegalArgumentException if the limit is negative
+     * @since 0.27
+     */
+    public synchronized void setMaxStacksPerSite(int maxStacksPerSite) {
+        if (maxStacksPerSite < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        this.maxStacksPerSite = maxStacksPerSite;
+    }
+
+    /**
+     * Returns {@code true} if sites or stacks were dropped because of the configured limits.
+     *
+     * @since 0.27
+     */
+    public synchronized boolean hasOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Is any allocation data collected?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized boolean hasData() {
+        verifyNotDisposed();
+        return allocationCount > 0;
+    }
+
+    /**
+     * Discards all collected data.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void clearData() {
+        verifyNotDisposed();
+        sites.clear();
+        allocationCount = 0;
+        overflowed = false;
+    }
+
+    /**
+     * Returns snapshots of all allocation sites sorted by descending allocated bytes.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized List<AllocationSite> getSites() {
+        verifyNotDisposed();
+        List<AllocationSite> result = new ArrayList<>(sites.size());
+        for (AllocationSite site : sites.values()) {
+            result.add(site.copy());
+        }
+        Collections.sort(result, new Comparator<AllocationSite>() {
+            public int compare(AllocationSite o1, AllocationSite o2) {
+                int compare = Long.compare(o2.bytes, o1.bytes);
+                return compare != 0 ? compare : Long.compare(o2.count, o1.count);
+            }
+        });
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Prints a histogram of the allocation sites, format subject to change. Use
+     * {@linkplain #getSites() sites} explicitly for reliable access.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public void printHistogram(PrintStream out) {
+        List<AllocationSite> sorted = getSites();
+        out.println("Truffle memory tracer histogram");
+        out.println(String.format("%12s | %14s | %-15s | %-20s | %s", "Count", "Bytes", "Name", "Meta-object", "Source"));
+        for (AllocationSite site : sorted) {
+            out.println(String.format("%12d | %14d | %-15s | %-20s | %s", site.getCount(), site.getBytes(), site.getRootName(), site.getMetaObject(), getShortDescription(site.getSourceSection())));
+        }
+        out.println();
+    }
+
+    /**
+     * Prints all allocation sites and their sampled stacks as a JSON object of the form
+     * <code>{"overflowed": false, "sites": [{"root": ..., "source": ..., "language": ...,
+     * "metaObject": ..., "count": ..., "bytes": ..., "unknownSizeCount": ..., "stacks": [{"frames":
+     * [...], "count": ...}]}]}</code>.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public void printJSON(PrintStream out) {
+        List<AllocationSite> sorted = getSites();
+        StringBuilder b = new StringBuilder();
+        b.append("{\"overflowed\": ").append(hasOverflowed()).append(", \"sites\": [");
+        String siteSeparator = "";
+        for (AllocationSite site : sorted) {
+            b.append(siteSeparator).append('{');
+            b.append("\"root\": ").append(jsonString(site.getRootName()));
+            b.append(", \"source\": ").append(jsonString(getShortDescription(site.getSourceSection())));
+            b.append(", \"language\": ").append(jsonString(site.getLanguage()));
+            b.append(", \"metaObject\": ").append(jsonString(site.getMetaObject()));
+            b.append(", \"count\": ").append(site.getCount());
+            b.append(", \"bytes\": ").append(site.getBytes());
+            b.append(", \"unknownSizeCount\": ").append(site.getUnknownSizeCount());
+            b.append(", \"stacks\": [");
+            String stackSeparator = "";
+            for (Map.Entry<List<String>, Long> stack : site.getStackSamples().entrySet()) {
+                b.append(stackSeparator).append("{\"frames\": [");
+                String frameSeparator = "";
+                for (String frame : stack.getKey()) {
+                    b.append(frameSeparator).append(jsonString(frame));
+                    frameSeparator = ", ";
+                }
+                b.append("], \"count\": ").append(stack.getValue()).append('}');
+                stackSeparator = ", ";
+            }
+            b.append("]}");
+            siteSeparator = ", ";
+        }
+        b.append("]}");
+        out.println(b);
+        out.flush();
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder b = new StringBuilder(value.length() + 2);
+        b.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    b.append("\\\"");
+                    break;
+                case '\\':
+                    b.append("\\\\");
+                    break;
+                case '\n':
+                    b.append("\\n");
+                    break;
+                case '\r':
+                    b.append("\\r");
+                    break;
+                case '\t':
+                    b.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        b.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        b.append(c);
+                    }
+            }
+        }
+        return b.append('"').toString();
+    }
+
+    private static String getRootName(RootNode root) {
+        String name = root == null ? null : root.getName();
+        return name == null ? UNKNOWN : name;
+    }
+
+    private static String getShortDescription(SourceSection sourceSection) {
+        if (sourceSection == null || sourceSection.getSource() == null) {
+            return UNKNOWN;
+        }
+        return sourceSection.getSource().getName() + ":" + sourceSection.getStartLine();
+    }
+
+    private void verifyNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("disposed memory tracer");
+        }
+    }
+
+    private void resetTracing() {
+        if (binding != null) {
+            binding.dispose();
+            binding = null;
+        }
+        if (collecting) {
+            binding = env.getInstrumenter().attachAllocationListener(filter, new Listener());
+        }
+    }
+
+    private void onAllocation(AllocationEvent event) {
+        LanguageInfo language = event.getLanguage();
+        Object value = event.getValue();
+        boolean captureStack;
+        String metaObject;
+        synchronized (this) {
+            allocationCount++;
+            captureStack = allocationCount % stackSampleInterval == 0;
+            metaObject = language == null ? UNKNOWN : getCachedMetaObjectName(language, value.getClass());
+        }
+        if (metaObject == null) {
+            metaObject = UNKNOWN;
+            Object meta = env.findMetaObject(language, value);
+            if (meta != null) {
+                metaObject = env.toString(language, meta);
+            }
+            synchronized (this) {
+                metaObjectNames.get(language).put(value.getClass(), metaObject);
+            }
+        }
+        List<String> stack = captureStack ? new ArrayList<String>() : null;
+        RootNode root = findAllocatingRoot(stack);
+        SiteKey key = new SiteKey(getRootName(root), root == null ? null : root.getSourceSection(), language == null ? UNKNOWN : language.getId(), metaObject);
+        long newSize = event.getNewSize();
+        long oldSize = event.getOldSize();
+        long bytes = newSize == AllocationReporter.SIZE_UNKNOWN ? -1 : newSize - (oldSize == AllocationReporter.SIZE_UNKNOWN ? 0 : oldSize);
+
+        synchronized (this) {
+            AllocationSite site = sites.get(key);
+            if (site == null) {
+                if (sites.size() < maxSites) {
+                    site = new AllocationSite(key);
+                    sites.put(key, site);
+                } else {
+                    overflowed = true;
+                    site = sites.get(OVERFLOW_KEY);
+                    if (site == null) {
+                        site = new AllocationSite(OVERFLOW_KEY);
+                        sites.put(OVERFLOW_KEY, site);
+                    }
+                }
+            }
+            site.count++;
+            if (bytes < 0) {
+                site.unknownSizeCount++;
+            } else {
+                site.bytes += bytes;
+            }
+            if (stack != null) {
+                Long stackCount = site.stacks.get(stack);
+                if (stackCount != null) {
+                    site.stacks.put(stack, stackCount + 1);
+                } else if (site.stacks.size() < maxStacksPerSite) {
+                    site.stacks.put(stack, 1L);
+                } else {
+                    overflowed = true;
+                }
+            }
+        }
+    }
+
+    private String getCachedMetaObjectName(LanguageInfo language, Class<?> valueClass) {
+        Map<Class<?>, String> names = metaObjectNames.get(language);
+        if (names == null) {
+            names = new HashMap<>();
+            metaObjectNames.put(language, names);
+        }
+        return names.get(valueClass);
+    }
+
+    /**
+     * Finds the root of the top-most guest frame and, if {@code stack} is not {@code null}, fills
+     * it with the guest frames from the top-most to the outermost one.
+     */
+    private static RootNode findAllocatingRoot(final List<String> stack) {
+        final RootNode[] top = new RootNode[1];
+        Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Object>() {
+            public Object visitFrame(FrameInstance frameInstance) {
+                CallTarget target = frameInstance.getCallTarget();
+                RootNode root = target instanceof RootCallTarget ? ((RootCallTarget) target).getRootNode() : null;
+                if (top[0] == null) {
+                    top[0] = root;
+                }
+                if (stack == null) {
+                    return top;
+                }
+                Node callNode = frameInstance.getCallNode();
+                SourceSection section = callNode != null ? callNode.getEncapsulatingSourceSection() : root != null ? root.getSourceSection() : null;
+                stack.add(getRootName(root) + " (" + getShortDescription(section) + ")");
+                return null;
+            }
+        });
+        return top[0];
+    }
+
+    private final class Listener implements AllocationListener {
+
+        public void onEnter(AllocationEvent event) {
+        }
+
+        public void onReturnValue(AllocationEvent event) {
+            onAllocation(event);
+        }
+    }
+
+    private static final class SiteKey {
+
+        final String rootName;
+        final SourceSection sourceSection;
+        final String language;
+        final String metaObject;
+
+        SiteKey(String rootName, SourceSection sourceSection, String language, String metaObject) {
+            this.rootName = rootName;
+            this.sourceSection = sourceSection;
+            this.language = language;
+            this.metaObject = metaObject;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = rootName.hashCode();
+            hash = 31 * hash + (sourceSection == null ? 0 : sourceSection.hashCode());
+            hash = 31 * hash + language.hashCode();
+            return 31 * hash + metaObject.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SiteKey)) {
+                return false;
+            }
+            SiteKey other = (SiteKey) obj;
+            return rootName.equals(other.rootName) && (sourceSection == null ? other.sourceSection == null : sourceSection.equals(other.sourceSection)) &&
+                            language.equals(other.language) && metaObject.equals(other.metaObject);
+        }
+    }
+
+    /**
+     * Aggregated allocations of one root, language and meta-object.
+     *
+     * @since 0.27
+     */
+    public static final class AllocationSite {
+
+        private final SiteKey key;
+        private final Map<List<String>, Long> stacks = new LinkedHashMap<>();
+        private long count;
+        private long bytes;
+        private long unknownSizeCount;
+
+        AllocationSite(SiteKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Gets the name of the allocating root.
+         *
+         * @since 0.27
+         */
+        public String getRootName() {
+            return key.rootName;
+        }
+
+        /**
+         * Gets the source section of the allocating root, or {@code null} if not known.
+         *
+         * @since 0.27
+         */
+        public SourceSection getSourceSection() {
+            return key.sourceSection;
+        }
+
+        /**
+         * Gets the id of the allocating language.
+         *
+         * @since 0.27
+         */
+        public String getLanguage() {
+            return key.language;
+        }
+
+        /**
+         * Gets the string representation of the meta-object of the allocated values.
+         *
+         * @since 0.27
+         */
+        public String getMetaObject() {
+            return key.metaObject;
+        }
+
+        /**
+         * Gets the number of allocations.
+         *
+         * @since 0.27
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the number of allocated bytes of all allocations with a known size.
+         *
+         * @since 0.27
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gets the number of allocations whose size was not reported.
+         *
+         * @since 0.27
+         */
+        public long getUnknownSizeCount() {
+            return unknownSizeCount;
+        }
+
+        /**
+         * Gets the captured guest stacks, top-most frame first, with the number of times each one
+         * was captured.
+         *
+         * @since 0.27
+         */
+        public Map<List<String>, Long> getStackSamples() {
+            return Collections.unmodifiableMap(stacks);
+        }
+
+        AllocationSite copy() {
+            AllocationSite copy = new AllocationSite(key);
+            copy.count = count;
+            copy.bytes = bytes;
+            copy.unknownSizeCount = unknownSizeCount;
+            copy.stacks.putAll(stacks);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "AllocationSite[" + getRootName() + ", " + getMetaObject() + ", count=" + count + ", bytes=" + bytes + "]";
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Maintains a stack of the currently executing guest roots for each thread that can be read by a
+ * sampling thread without stopping the executing thread. Pushing and popping an entry is a plain
+ * array store and index update, so instrumented code stays cheap when compiled.
+ * <p>
+ * The stacks are read without synchronization. A sample may therefore observe a stack that is
+ * being modified, which is acceptable for statistical profiling.
+ */
+final class ShadowStack {
+
+    private final List<ThreadLocalStack> stacks = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadLocalStack> threadLocalStack = new ThreadLocal<>();
+    private final Assumption singleThreaded = Truffle.getRuntime().createAssumption("cpu sampler single threaded");
+    private final int stackLimit;
+
+    private volatile Thread cachedThread;
+    private volatile ThreadLocalStack cachedStack;
+
+    ShadowStack(int stackLimit) {
+        this.stackLimit = stackLimit;
+    }
+
+    List<ThreadLocalStack> getStacks() {
+        return stacks;
+    }
+
+    void removeStack(ThreadLocalStack stack) {
+        stacks.remove(stack);
+    }
+
+    EventBinding<?> install(Instrumenter instrumenter, SourceSectionFilter filter) {
+        return instrumenter.attachFactory(filter, new ExecutionEventNodeFactory() {
+            public ExecutionEventNode create(EventContext context) {
+                return new StackPushPopNode(ShadowStack.this, new StackEntry(context));
+            }
+        });
+    }
+
+    ThreadLocalStack getStack() {
+        if (singleThreaded.isValid() && cachedThread == Thread.currentThread()) {
+            return cachedStack;
+        }
+        return getStackSlowPath();
+    }
+
+    @TruffleBoundary
+    private ThreadLocalStack getStackSlowPath() {
+        ThreadLocalStack stack = threadLocalStack.get();
+        if (stack == null) {
+            stack = new ThreadLocalStack(Thread.currentThread(), stackLimit);
+            threadLocalStack.set(stack);
+            synchronized (this) {
+                if (cachedThread == null) {
+                    cachedStack = stack;
+                    cachedThread = stack.getThread();
+                } else {
+                    singleThreaded.invalidate();
+                }
+                stacks.add(stack);
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * Identifies an instrumented root. Entries are compared by root name and source section so
+     * that copies of the same root, for example after splitting, are attributed to the same call
+     * tree node.
+     */
+    static final class StackEntry {
+
+        private final SourceSection sourceSection;
+        private final String rootName;
+
+        StackEntry(EventContext context) {
+            this.sourceSection = context.getInstrumentedSourceSection();
+            RootNode rootNode = context.getInstrumentedNode().getRootNode();
+            this.rootName = rootNode == null ? "<unknown>" : rootNode.getName();
+        }
+
+        SourceSection getSourceSection() {
+            return sourceSection;
+        }
+
+        String getRootName() {
+            return rootName;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (sourceSection == null ? 0 : sourceSection.hashCode()) + (rootName == null ? 0 : rootName.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof StackEntry)) {
+                return false;
+            }
+            StackEntry other = (StackEntry) obj;
+            return (sourceSection == null ? other.sourceSection == null : sourceSection.equals(other.sourceSection)) &&
+                            (rootName == null ? other.rootName == null : rootName.equals(other.rootName));
+        }
+    }
+
+    static final class ThreadLocalStack {
+
+        private final Thread thread;
+        private final StackEntry[] entries;
+        private final boolean[] compiled;
+        private int stackIndex = -1;
+        private boolean overflowed;
+
+        ThreadLocalStack(Thread thread, int stackLimit) {
+            this.thread = thread;
+            this.entries = new StackEntry[stackLimit];
+            this.compiled = new boolean[stackLimit];
+        }
+
+        void push(StackEntry entry, boolean isCompiled) {
+            int index = stackIndex + 1;
+            if (index >= 0 && index < entries.length) {
+                entries[index] = entry;
+                compiled[index] = isCompiled;
+            } else {
+                overflowed = true;
+            }
+            stackIndex = index;
+        }
+
+        void pop() {
+            /*
+             * A binding attached while a root is executing can see a return without the matching
+             * enter, the stack must not drop below empty.
+             */
+            if (stackIndex >= 0) {
+                stackIndex--;
+            }
+        }
+
+        Thread getThread() {
+            return thread;
+        }
+
+        boolean hasOverflowed() {
+            return overflowed;
+        }
+
+        /**
+         * Copies the currently visible entries, bottom first, into {@code entriesOut} and
+         * {@code compiledOut} and returns the number of entries copied.
+         */
+        int copyTo(StackEntry[] entriesOut, boolean[] compiledOut) {
+            int length = Math.min(stackIndex + 1, entries.length);
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                StackEntry entry = entries[i];
+                if (entry != null) {
+                    entriesOut[count] = entry;
+                    compiledOut[count] = compiled[i];
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class StackPushPopNode extends ExecutionEventNode {
+
+        private final ShadowStack shadowStack;
+        private final StackEntry entry;
+
+        StackPushPopNode(ShadowStack shadowStack, StackEntry entry) {
+            this.shadowStack = shadowStack;
+            this.entry = entry;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            shadowStack.getStack().push(entry, !CompilerDirectives.inInterpreter());
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            shadowStack.getStack().pop();
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            shadowStack.getStack().pop();
+        }
+    }
+}